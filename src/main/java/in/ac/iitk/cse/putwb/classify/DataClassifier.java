@@ -4,19 +4,33 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import in.ac.iitk.cse.putwb.log.BasicLogger;
 import weka.classifiers.AbstractClassifier;
+import weka.classifiers.AggregateableEvaluation;
+import weka.classifiers.Classifier;
 import weka.classifiers.Evaluation;
 import weka.classifiers.bayes.NaiveBayes;
+import weka.classifiers.bayes.NaiveBayesUpdateable;
 import weka.classifiers.functions.MultilayerPerceptron;
 import weka.classifiers.functions.SGD;
 import weka.classifiers.functions.SMO;
 import weka.classifiers.rules.ZeroR;
 import weka.classifiers.trees.J48;
 import weka.classifiers.trees.RandomForest;
+import weka.core.Instances;
 
 /**
  * This class is responsible for performing classification tasks over a given {@link Dataset}, with a chosen classification mechanism.
@@ -41,6 +55,11 @@ public class DataClassifier {
 	 */
 	public static final Class<NaiveBayes> C_NaiveBayes = NaiveBayes.class;
 
+	/**
+	 * Constant to represent the Weka {@link NaiveBayesUpdateable} classifier, which can also be trained incrementally (see {@link weka.classifiers.UpdateableClassifier})
+	 */
+	public static final Class<NaiveBayesUpdateable> C_NaiveBayesUpdateable = NaiveBayesUpdateable.class;
+
 	/**
 	 * Constant to represent the Weka {@link RandomForest} classifier
 	 */
@@ -117,6 +136,11 @@ public class DataClassifier {
 		return options;
 	}
 
+	/**
+	 * A flag that tells if the model of every fold is built in a thread of its own, which is abandoned if the evaluating thread is interrupted
+	 */
+	private volatile boolean abandonableBuilds;
+
 	/**
 	 * The classifier type to use for classification tasks
 	 */
@@ -132,6 +156,11 @@ public class DataClassifier {
 	 */
 	private Evaluation eval;
 
+	/**
+	 * The executor to share the folds of the cross validation with, if the folds are to be evaluated in parallel
+	 */
+	private volatile Executor foldExecutor;
+
 	/**
 	 * The value of <i>k</i> for k-cross validation
 	 */
@@ -148,6 +177,11 @@ public class DataClassifier {
 	 */
 	private String[] options;
 
+	/**
+	 * The seed for shuffling the rows into folds for cross validation (default: 1)
+	 */
+	private long seed;
+
 	/**
 	 * Creates a <code>DataClassifier</code> for given dataset with chosen classifier and 5-fold validation.
 	 * @param classifierType The classifier to use (must be one of the options defined as a constant in the class)
@@ -171,10 +205,56 @@ public class DataClassifier {
 		model = null;
 		options = null;
 		eval = null;
+		seed = 1;
+		abandonableBuilds = false;
 		if(!isClassifierValid())
 			throw new IllegalArgumentException("Classifier must be of a predefined type");
 	}
 
+	/**
+	 * Builds a copy of the model over a training set, and evaluates it over a test set.<br>
+	 * If the builds are abandonable (see {@link #setAbandonableBuilds(boolean)}), the model is built and evaluated in a daemon thread of its own, 
+	 * while the current thread waits for it. If the current thread is interrupted meanwhile, it stops waiting right away, even if the classifier 
+	 * never checks for an interruption while building the model (e.g. a {@link MultilayerPerceptron} or an {@link SMO} that does not converge).
+	 * The abandoned thread is interrupted and lowered to the minimum priority, and runs on till the build returns, but its outcome is discarded.
+	 * @param evaluation The evaluation to add the outcome to
+	 * @param train The training set
+	 * @param test The test set
+	 * @throws InterruptedException if the thread is interrupted before the model is built and evaluated
+	 * @throws Exception if building or evaluating the model runs into a glitch
+	 */
+	private void buildAndEvaluateFold(Evaluation evaluation, Instances train, Instances test) throws InterruptedException, Exception {
+		Callable<Void> fold = new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				Classifier foldModel = AbstractClassifier.makeCopy(model);
+				foldModel.buildClassifier(train);
+				evaluation.evaluateModel(foldModel, test);
+				return null;
+			}
+		};
+		if(!abandonableBuilds) {
+			fold.call();
+			return;
+		}
+		FutureTask<Void> build = new FutureTask<Void>(fold);
+		Thread builder = new Thread(build, Thread.currentThread().getName() + " - Fold Builder");
+		builder.setDaemon(true);
+		builder.start();
+		try {
+			build.get();
+		} catch (InterruptedException e) {
+			builder.setPriority(Thread.MIN_PRIORITY);
+			builder.interrupt();
+			throw e;
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof Exception)
+				throw (Exception)cause;
+			throw (Error)cause;
+		}
+	}
+
 	/**
 	 * Builds the classification model over the dataset with the selected classification mechanism
 	 */
@@ -191,13 +271,154 @@ public class DataClassifier {
 	}
 
 	/**
-	 * Attempts to perform a <i>k-fold cross validation</i> over the dataset for the chosen classifier
+	 * Evaluates a single fold of a <i>k-fold cross validation</i> over the dataset, with the folds carried by the dataset. 
+	 * The training and test sets are views over the rows of the dataset, so no row is copied.
+	 * @param fold The fold to evaluate
+	 * @return The evaluation over the fold, or <code>null</code> if the fold has no rows, or all of them (a small fragmented dataset may not have a row in every fold)
+	 * @throws InterruptedException if the thread is interrupted before the fold is evaluated
+	 * @throws Exception if the evaluation runs into a glitch
+	 */
+	private Evaluation evaluateFold(int fold) throws InterruptedException, Exception {
+		Instances data = dataset.getInstances();
+		int[] folds = dataset.getFolds();
+		int testSize = 0;
+		for(int rowFold : folds)
+			if(rowFold == fold)
+				testSize++;
+		if(testSize == 0 || testSize == folds.length)
+			return null;
+		int[] trainRows = new int[folds.length - testSize];
+		int[] testRows = new int[testSize];
+		for(int row = 0, trainIndex = 0, testIndex = 0; row < folds.length; row++) {
+			if(folds[row] == fold)
+				testRows[testIndex++] = row;
+			else
+				trainRows[trainIndex++] = row;
+		}
+		Instances train = new InstancesView(data, trainRows);
+		Evaluation evaluation = new Evaluation(data);
+		evaluation.setPriors(train);
+		buildAndEvaluateFold(evaluation, train, new InstancesView(data, testRows));
+		return evaluation;
+	}
+
+	/**
+	 * Attempts to perform a <i>k-fold cross validation</i> over the dataset for the chosen classifier.<br>
+	 * The folds are evaluated in the same way as {@link Evaluation#crossValidateModel(Classifier, Instances, int, Random, Object...)}, 
+	 * but the thread is checked for an interruption before every fold, so that a long running evaluation can be stopped cooperatively.
+	 * If the builds are abandonable (see {@link #setAbandonableBuilds(boolean)}), the evaluation also stops while the model of a fold is being built.
+	 * If the dataset carries the folds of its rows (see {@link Dataset#getFolds()}), the training and test sets are sliced out of the dataset as per those folds, 
+	 * without shuffling or copying any row. Otherwise, the rows are shuffled into folds as per the seed set for this classifier, so that the evaluation is reproducible.
+	 * @throws InterruptedException if the thread is interrupted before the evaluation completes (the model remains unevaluated in this case)
 	 * @throws Exception if the cross-validation process runs into a glitch
 	 */
-	public void evaluateModel() throws Exception {
-		eval = new Evaluation(dataset.getInstances());
+	public void evaluateModel() throws InterruptedException, Exception {
+		eval = null;
 		setModelType();
-		eval.crossValidateModel(model, dataset.getInstances(), k, new Random());
+		if(dataset.getFolds() != null) {
+			evaluateModelWithFolds();
+			return;
+		}
+		Random random = new Random(seed);
+		Instances data = new Instances(dataset.getInstances());
+		data.randomize(random);
+		if(data.classAttribute().isNominal())
+			data.stratify(k);
+		Evaluation evaluation = new Evaluation(data);
+		for(int fold = 0; fold < k; fold++) {
+			if(Thread.interrupted())
+				throw new InterruptedException("Cross validation interrupted after " + fold + " out of " + k + " folds");
+			Instances train = data.trainCV(k, fold, random);
+			evaluation.setPriors(train);
+			buildAndEvaluateFold(evaluation, train, data.testCV(k, fold));
+		}
+		eval = evaluation;
+	}
+
+	/**
+	 * Performs a <i>k-fold cross validation</i> over the dataset, with the folds carried by the dataset.<br>
+	 * If an executor is set for the folds, the folds are shared between the current thread and helper tasks submitted to the executor, 
+	 * each of them picking up the next fold not yet taken. The current thread never waits for a helper task to start, 
+	 * so the evaluation completes even if the executor is busy. Either way, the evaluations of the folds are merged in the order of the folds, 
+	 * so the outcome does not depend upon how the folds were shared. If the current thread is interrupted, the helper tasks evaluating a fold are interrupted as well, 
+	 * and none of them takes up another fold.
+	 * @throws InterruptedException if the thread is interrupted before the evaluation completes (the model remains unevaluated in this case)
+	 * @throws Exception if the cross-validation process runs into a glitch
+	 */
+	private void evaluateModelWithFolds() throws InterruptedException, Exception {
+		Evaluation[] foldEvaluations = new Evaluation[k];
+		Executor executor = foldExecutor;
+		if(executor == null) {
+			for(int fold = 0; fold < k; fold++) {
+				if(Thread.interrupted())
+					throw new InterruptedException("Cross validation interrupted after " + fold + " out of " + k + " folds");
+				foldEvaluations[fold] = evaluateFold(fold);
+			}
+		} else {
+			AtomicInteger nextFold = new AtomicInteger(0);
+			CountDownLatch foldsDone = new CountDownLatch(k);
+			AtomicBoolean cancelled = new AtomicBoolean(false);
+			AtomicReference<Exception> failure = new AtomicReference<Exception>();
+			// The helper threads currently evaluating a fold, so that they can be interrupted if the evaluation is cancelled
+			Set<Thread> helpers = new HashSet<Thread>();
+			Runnable foldWorker = new Runnable() {
+				@Override
+				public void run() {
+					int fold;
+					while((fold = nextFold.getAndIncrement()) < k) {
+						try {
+							if(!cancelled.get()) {
+								synchronized(helpers) {
+									helpers.add(Thread.currentThread());
+								}
+								foldEvaluations[fold] = evaluateFold(fold);
+							}
+						} catch (Exception e) {
+							failure.compareAndSet(null, e);
+							cancelled.set(true);
+						} finally {
+							synchronized(helpers) {
+								helpers.remove(Thread.currentThread());
+							}
+							// Do not pass on an interruption meant for this fold to the next task of the executor
+							Thread.interrupted();
+							foldsDone.countDown();
+						}
+					}
+				}
+			};
+			for(int helper = 1; helper < k; helper++)
+				executor.execute(foldWorker);
+			try {
+				int fold;
+				while((fold = nextFold.getAndIncrement()) < k) {
+					try {
+						if(Thread.interrupted())
+							throw new InterruptedException("Cross validation interrupted after " + fold + " out of " + k + " folds");
+						if(!cancelled.get())
+							foldEvaluations[fold] = evaluateFold(fold);
+					} finally {
+						foldsDone.countDown();
+					}
+				}
+				foldsDone.await();
+			} catch (InterruptedException e) {
+				// The folds already taken by the helpers are interrupted as well, and their evaluations are discarded
+				cancelled.set(true);
+				synchronized(helpers) {
+					for(Thread helper : helpers)
+						helper.interrupt();
+				}
+				throw e;
+			}
+			if(failure.get() != null)
+				throw failure.get();
+		}
+		AggregateableEvaluation evaluation = new AggregateableEvaluation(dataset.getInstances());
+		for(Evaluation foldEvaluation : foldEvaluations)
+			if(foldEvaluation != null)
+				evaluation.aggregate(foldEvaluation);
+		eval = evaluation;
 	}
 
 	/**
@@ -219,6 +440,14 @@ public class DataClassifier {
 		return classifierType;
 	}
 	
+	/**
+	 * Returns the dataset over which the classification tasks are performed
+	 * @return the dataset
+	 */
+	public Dataset getDataset() {
+		return dataset;
+	}
+
 	/**
 	 * Returns a string describing this dataset
 	 * @return A textual description of the dataset
@@ -265,6 +494,14 @@ public class DataClassifier {
 		return new PredictionModel(model);
 	}
 	
+	/**
+	 * Returns the number of classes in the dataset
+	 * @return the number of classes
+	 */
+	public int getNumOfClasses() {
+		return dataset.getNumOfClasses();
+	}
+
 	/**
 	 * Get the appropriate options set for the classifier
 	 * @return the options, or <code>null</code> if no options have been set for the classifier as yet
@@ -364,6 +601,22 @@ public class DataClassifier {
 		return false;
 	}
 
+	/**
+	 * Creates a classifier with the same settings (classifier type, options, <i>k</i>, seed, fold executor and abandonable builds) as this one, 
+	 * over the leading attributes of the dataset and another of its attributes as the class attribute (see {@link Dataset#selectTarget(int, int)})
+	 * @param numOfFeatures The number of leading attributes of the dataset to learn from
+	 * @param target The index of the (nominal) attribute of the dataset to classify the rows into
+	 * @return The classifier over the selected attributes
+	 */
+	public DataClassifier selectTarget(int numOfFeatures, int target) {
+		DataClassifier classifier = new DataClassifier(classifierType, dataset.selectTarget(numOfFeatures, target), k);
+		classifier.setOptions(options);
+		classifier.setSeed(seed);
+		classifier.setFoldExecutor(foldExecutor);
+		classifier.setAbandonableBuilds(abandonableBuilds);
+		return classifier;
+	}
+
 	/**
 	 * Creates a new instance of the selected classifier to proceed for learning
 	 * @throws Exception if something goes wrong while creating the instance of the required classifer
@@ -375,6 +628,24 @@ public class DataClassifier {
 		model = classifierType.getConstructor().newInstance();
 	}
 	
+	/**
+	 * Sets whether the model of every fold is built in a thread of its own, so that the evaluation can be stopped by an interruption 
+	 * even while a classifier that never checks for an interruption is building a model. This costs a thread per fold, and is meant for evaluations under a time limit.
+	 * @param abandonableBuilds <code>true</code> to build the models in threads that are abandoned upon an interruption, <code>false</code> to build them in the evaluating thread
+	 */
+	public void setAbandonableBuilds(boolean abandonableBuilds) {
+		this.abandonableBuilds = abandonableBuilds;
+	}
+
+	/**
+	 * Sets an executor to share the folds of the cross validation with, so that the folds are evaluated in parallel. 
+	 * This applies only to datasets that carry their folds (see {@link Dataset#getFolds()}).
+	 * @param foldExecutor The executor for the folds, or <code>null</code> to evaluate the folds one after another in the current thread
+	 */
+	public void setFoldExecutor(Executor foldExecutor) {
+		this.foldExecutor = foldExecutor;
+	}
+
 	/**
 	 * Sets the appropriate options for the classifier
 	 * @see AbstractClassifier#setOptions(String[])
@@ -383,4 +654,12 @@ public class DataClassifier {
 	public void setOptions(String[] options) {
 		this.options = options;
 	}
+
+	/**
+	 * Sets the seed for shuffling the rows into folds for cross validation
+	 * @param seed the seed to set
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
 }
@@ -6,6 +6,8 @@ import java.util.Enumeration;
 import java.util.List;
 
 import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
 import weka.core.Instances;
 
 /**
@@ -40,6 +42,11 @@ public class Dataset {
 	 * A string description for the dataset (for fragmented datasets, this is set to the set of attribute indices from the unfragmented dataset)
 	 */
 	private String description;
+
+	/**
+	 * The fold (for cross validation) of every row in this dataset, if the folds are planned in advance
+	 */
+	private int[] folds;
 	
 	/**
 	 * The set of rows comprising this dataset
@@ -62,6 +69,7 @@ public class Dataset {
 		this.description = description;
 		classes = getAllClassesForDataset(instances);
 		numOfClasses = classes.size();
+		folds = null;
 	}
 
 	/**
@@ -80,6 +88,15 @@ public class Dataset {
 		return description;
 	}
 
+	/**
+	 * Returns the fold (for cross validation) of every row in this dataset, if the folds are planned in advance
+	 * @return the fold of every row, or <code>null</code> if the folds are not planned
+	 * @see FoldPlan
+	 */
+	public int[] getFolds() {
+		return folds;
+	}
+
 	/**
 	 * Returns the rows in this dataset 
 	 * @return the rows in this dataset in the form of Weka {@link Instances}
@@ -95,4 +112,41 @@ public class Dataset {
 	public int getNumOfClasses() {
 		return numOfClasses;
 	}
+
+	/**
+	 * Creates a dataset with the leading attributes of this dataset, and another of its attributes as the class attribute, 
+	 * e.g. to evaluate the same attributes against several targets. The rows keep their folds, and the description of this dataset is retained.
+	 * @param numOfFeatures The number of leading attributes to retain
+	 * @param target The index of the (nominal) attribute to retain as the class attribute
+	 * @return The dataset with the selected attributes
+	 */
+	public Dataset selectTarget(int numOfFeatures, int target) {
+		ArrayList<Attribute> attributes = new ArrayList<Attribute>();
+		for(int j = 0; j < numOfFeatures; j++)
+			attributes.add((Attribute) instances.attribute(j).copy());
+		attributes.add((Attribute) instances.attribute(target).copy());
+		Instances copy = new Instances(instances.relationName(), attributes, instances.numInstances());
+		copy.setClassIndex(numOfFeatures);
+		for(Instance row : instances) {
+			double[] values = new double[numOfFeatures + 1];
+			for(int j = 0; j < numOfFeatures; j++)
+				values[j] = row.value(j);
+			values[numOfFeatures] = row.value(target);
+			copy.add(new DenseInstance(row.weight(), values));
+		}
+		Dataset selection = new Dataset(copy, description);
+		selection.setFolds(folds);
+		return selection;
+	}
+
+	/**
+	 * Sets the fold (for cross validation) of every row in this dataset
+	 * @param folds the fold of every row, or <code>null</code> to let the classifier make the folds
+	 * @throws IllegalArgumentException If the number of folds does not match the number of rows
+	 */
+	public void setFolds(int[] folds) throws IllegalArgumentException {
+		if(folds != null && folds.length != instances.numInstances())
+			throw new IllegalArgumentException("The number of folds must match the number of rows");
+		this.folds = folds;
+	}
 }
@@ -0,0 +1,148 @@
+package in.ac.iitk.cse.putwb.classify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import weka.core.Instances;
+
+/**
+ * A FoldPlan assigns every row of a dataset to one of the <i>k</i> folds for cross validation, once for a whole experiment.<br>
+ * The rows are shuffled as per a seed, and then dealt to the folds in turn, one class after another (if the class attribute is nominal),
+ * so that every fold has nearly the same number of rows of every class. Since the assignment is made over the unfragmented dataset,
+ * the learning tasks over all the partitions use the same folds, which makes their comparisons paired.
+ * A fragmented dataset with fewer rows simply takes the folds of the rows it retains.
+ * The same shuffled order also provides nested stratified samples of the dataset, e.g. for evaluating the partitions on growing samples.
+ * @author Saurabh Srivastava
+ *
+ */
+public class FoldPlan {
+
+	/**
+	 * The fold of every row of the dataset
+	 */
+	private int[] folds;
+
+	/**
+	 * The end (exclusive) of every class group in the shuffled order of the rows
+	 */
+	private int[] groupEnds;
+
+	/**
+	 * The number of folds
+	 */
+	private int k;
+
+	/**
+	 * The rows of the dataset, shuffled and then grouped by their classes
+	 */
+	private int[] shuffledRows;
+
+	/**
+	 * Creates a fold plan for a dataset
+	 * @param data The (unfragmented) dataset, with its class index set
+	 * @param k The number of folds
+	 * @param seed The seed for shuffling the rows
+	 * @throws IllegalArgumentException If the number of folds is less than 2
+	 */
+	public FoldPlan(Instances data, int k, long seed) throws IllegalArgumentException {
+		if(k < 2)
+			throw new IllegalArgumentException("Number of folds must be at least 2");
+		this.k = k;
+		int n = data.numInstances();
+		int[] order = new int[n];
+		for(int i = 0; i < n; i++)
+			order[i] = i;
+		Random random = new Random(seed);
+		for(int j = n - 1; j > 0; j--) {
+			int swapWith = random.nextInt(j + 1);
+			int temp = order[j];
+			order[j] = order[swapWith];
+			order[swapWith] = temp;
+		}
+		// Group the shuffled rows by their classes (rows with a missing class form a group of their own)
+		List<List<Integer>> groups = new ArrayList<List<Integer>>();
+		int numOfGroups = data.classAttribute().isNominal() ? data.numClasses() + 1 : 1;
+		for(int i = 0; i < numOfGroups; i++)
+			groups.add(new ArrayList<Integer>());
+		for(int row : order) {
+			if(numOfGroups == 1 || data.instance(row).classIsMissing())
+				groups.get(numOfGroups - 1).add(row);
+			else
+				groups.get((int)data.instance(row).classValue()).add(row);
+		}
+		folds = new int[n];
+		shuffledRows = new int[n];
+		groupEnds = new int[numOfGroups];
+		int next = 0;
+		for(int i = 0; i < numOfGroups; i++) {
+			for(int row : groups.get(i)) {
+				shuffledRows[next] = row;
+				folds[row] = next++ % k;
+			}
+			groupEnds[i] = next;
+		}
+	}
+
+	/**
+	 * Returns the fold of a row of the dataset
+	 * @param row The index of the row in the (unfragmented) dataset
+	 * @return the fold of the row
+	 */
+	public int getFold(int row) {
+		return folds[row];
+	}
+
+	/**
+	 * Returns the folds of the rows retained by a fragmented dataset
+	 * @param rows The indices of the retained rows in the (unfragmented) dataset, in the order of the fragmented dataset
+	 * @return the fold of every row of the fragmented dataset
+	 */
+	public int[] getFolds(int[] rows) {
+		int[] result = new int[rows.length];
+		for(int i = 0; i < rows.length; i++)
+			result[i] = folds[rows[i]];
+		return result;
+	}
+
+	/**
+	 * Returns the number of folds
+	 * @return the number of folds
+	 */
+	public int getK() {
+		return k;
+	}
+
+	/**
+	 * Returns a stratified sample of the rows of the dataset, with the same proportion of rows from every class.
+	 * The samples are nested, i.e. a sample contains every smaller sample, and they take the rows of every class in the order of their folds,
+	 * so that the folds remain balanced within a sample.
+	 * @param proportion The proportion of rows to include, in the range (0, 1]
+	 * @return The indices of the rows in the sample, in increasing order (at least one row of every class present in the dataset)
+	 */
+	public int[] getStratifiedSample(float proportion) {
+		List<Integer> sample = new ArrayList<Integer>();
+		int groupStart = 0;
+		for(int groupEnd : groupEnds) {
+			int groupSize = groupEnd - groupStart;
+			int numOfRows = proportion >= 1.0f ? groupSize : Math.min(groupSize, (int) Math.ceil(groupSize * proportion));
+			for(int i = 0; i < numOfRows; i++)
+				sample.add(shuffledRows[groupStart + i]);
+			groupStart = groupEnd;
+		}
+		int[] result = new int[sample.size()];
+		for(int i = 0; i < result.length; i++)
+			result[i] = sample.get(i);
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * Returns the number of rows in the dataset this plan is made for
+	 * @return the number of rows
+	 */
+	public int getNumOfRows() {
+		return folds.length;
+	}
+}
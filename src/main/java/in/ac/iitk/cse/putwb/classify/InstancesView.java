@@ -0,0 +1,31 @@
+package in.ac.iitk.cse.putwb.classify;
+
+import weka.core.Instances;
+
+/**
+ * An InstancesView is a subset of the rows of a dataset, that shares the rows with the dataset instead of copying them.<br>
+ * It is used to slice the training and test sets of cross validation out of a dataset without any copying,
+ * as opposed to {@link Instances#trainCV(int, int)} and {@link Instances#testCV(int, int)}, which copy every row.
+ * Since the rows are shared, a view must only be handed to classifiers that do not modify the rows they learn over or evaluate.
+ * @author Saurabh Srivastava
+ *
+ */
+public class InstancesView extends Instances {
+
+	/**
+	 * The serial version UID
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Creates a view over some rows of a dataset
+	 * @param source The dataset to take the rows from
+	 * @param rows The indices of the rows to include, in order
+	 */
+	public InstancesView(Instances source, int[] rows) {
+		// Copies only the header
+		super(source, rows.length);
+		for(int row : rows)
+			m_Instances.add(source.instance(row));
+	}
+}
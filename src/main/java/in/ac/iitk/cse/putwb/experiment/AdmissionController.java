@@ -0,0 +1,86 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+/**
+ * This class controls the admission of fragmented datasets into the experiment pipeline, against a budget of heap memory.<br>
+ * Producers of fragmented datasets acquire the (estimated) number of bytes a dataset would occupy before creating it, and the bytes are released
+ * once the learning task over the dataset finishes. If admitting a dataset would exceed the budget, the producer blocks till enough bytes are released.
+ * A dataset is always admitted if nothing else is in flight, so that a single dataset larger than the budget cannot stall the experiment.
+ * @author Saurabh Srivastava
+ *
+ */
+public class AdmissionController {
+
+	/**
+	 * An approximate number of bytes taken by a row in Weka {@link weka.core.Instances}, excluding the attribute values
+	 * (the instance object, its values array header and the reference held by the dataset)
+	 */
+	private static final int ROW_OVERHEAD_IN_BYTES = 64;
+
+	/**
+	 * Estimates the number of bytes a (fragmented) dataset would occupy on the heap
+	 * @param rows The number of rows in the dataset
+	 * @param attributes The number of attributes in the dataset (including the class attribute)
+	 * @return The estimated size of the dataset in bytes
+	 */
+	public static long estimateDatasetSize(int rows, int attributes) {
+		return (long)rows * (ROW_OVERHEAD_IN_BYTES + 8L * attributes);
+	}
+
+	/**
+	 * The maximum number of bytes that can be in flight at any time
+	 */
+	private final long budget;
+
+	/**
+	 * The number of bytes currently admitted, and not yet released
+	 */
+	private long bytesInFlight;
+
+	/**
+	 * Creates an admission controller with the given budget
+	 * @param budget The maximum number of bytes that can be in flight at any time
+	 * @throws IllegalArgumentException If the budget is not positive
+	 */
+	public AdmissionController(long budget) throws IllegalArgumentException {
+		if(budget <= 0)
+			throw new IllegalArgumentException("The memory budget must be positive");
+		this.budget = budget;
+		bytesInFlight = 0;
+	}
+
+	/**
+	 * Admits the given number of bytes, waiting if required till enough bytes are released
+	 * @param bytes The number of bytes to admit
+	 * @throws InterruptedException If the thread is interrupted while waiting
+	 */
+	public synchronized void acquire(long bytes) throws InterruptedException {
+		while(bytesInFlight > 0 && bytesInFlight + bytes > budget)
+			wait();
+		bytesInFlight += bytes;
+	}
+
+	/**
+	 * Returns the maximum number of bytes that can be in flight at any time
+	 * @return the budget in bytes
+	 */
+	public long getBudget() {
+		return budget;
+	}
+
+	/**
+	 * Returns the number of bytes currently admitted, and not yet released
+	 * @return the number of bytes in flight
+	 */
+	public synchronized long getBytesInFlight() {
+		return bytesInFlight;
+	}
+
+	/**
+	 * Releases the given number of bytes, and wakes up any producers waiting for admission
+	 * @param bytes The number of bytes to release
+	 */
+	public synchronized void release(long bytes) {
+		bytesInFlight -= bytes;
+		notifyAll();
+	}
+}
@@ -0,0 +1,285 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import in.ac.iitk.cse.putwb.io.DatasetCache;
+import in.ac.iitk.cse.putwb.log.BasicLogger;
+
+/**
+ * This class runs a batch of experiments, described in a job file, in a single JVM.<br>
+ * Every dataset is loaded and cleaned only once, however many experiments use it, and the learning tasks of all the experiments are interleaved
+ * on a single shared work-stealing pool, within a single shared memory budget. The results of every experiment still go to its own result file.<br>
+ * The job file is a properties file of the following form:
+ * <pre>
+ * # Optional - the number of threads in the shared pool (default: number of processors + 1)
+ * threads = 16
+ * # Optional - the shared heap memory budget in MB for the partitioned datasets (default: half of the maximum heap size)
+ * mem = 4096
+ * # Optional - options common to all the experiments, placed before the options of every experiment
+ * common = -f /home/user/data.arff -ps 3
+ * # The experiments, run in the order of their numbers, each with the same options as {@link PUTExperiment}
+ * experiment.1 = -c J48 -out j48.csv
+ * experiment.2 = -c NaiveBayes -k 10 -out nb.csv
+ * </pre>
+ * @author Saurabh Srivastava
+ *
+ */
+public class BatchRunner {
+
+	/**
+	 * The job file key for options common to all the experiments
+	 */
+	public static final String COMMON_OPTIONS_KEY = "common";
+
+	/**
+	 * The prefix of the job file keys for the experiments
+	 */
+	public static final String EXPERIMENT_KEY_PREFIX = "experiment.";
+
+	/**
+	 * The job file key for the shared heap memory budget (in MB)
+	 */
+	public static final String MEMORY_BUDGET_KEY = "mem";
+
+	/**
+	 * The job file key for the number of threads in the shared pool
+	 */
+	public static final String PARALLELISM_KEY = "threads";
+
+	/**
+	 * The main to run a batch of experiments
+	 * @param args The commandline arguments - the path to the job file
+	 */
+	public static void main(String[] args) {
+		BasicLogger defaultLogger = BasicLogger.getDefaultLogger();
+		if(args.length != 1) {
+			printUsageDetails();
+			System.exit(0);
+		}
+		BatchRunner runner = null;
+		try {
+			runner = new BatchRunner(new File(args[0]), defaultLogger);
+		} catch (IOException e) {
+			defaultLogger.errorln("Could not read the job file - " + args[0]);
+			defaultLogger.exception(e);
+			System.exit(-1);
+		} catch (RuntimeException e) {
+			defaultLogger.errorln(e.getMessage());
+			System.exit(-1);
+		}
+		runner.runExperiments();
+		defaultLogger.outln("Done !!");
+		for(PUTExperiment experiment : runner.getExperiments())
+			defaultLogger.outln("Results saved to - " + experiment.getResultFile().getAbsolutePath());
+	}
+
+	/**
+	 * A utility method to split a line of options into individual arguments, the way a shell would (for double quoted arguments)
+	 * @param line The line of options
+	 * @return The arguments
+	 */
+	private static List<String> parseArguments(String line) {
+		List<String> arguments = new ArrayList<String>();
+		StringBuilder current = new StringBuilder();
+		boolean inQuotes = false;
+		boolean inArgument = false;
+		for(char c : line.toCharArray()) {
+			if(c == '"') {
+				inQuotes = !inQuotes;
+				inArgument = true;
+			} else if(Character.isWhitespace(c) && !inQuotes) {
+				if(inArgument)
+					arguments.add(current.toString());
+				current.setLength(0);
+				inArgument = false;
+			} else {
+				current.append(c);
+				inArgument = true;
+			}
+		}
+		if(inQuotes)
+			throw new IllegalArgumentException("Unbalanced quotes in options - " + line);
+		if(inArgument)
+			arguments.add(current.toString());
+		return arguments;
+	}
+
+	/**
+	 * Prints the usage details of the batch runner
+	 */
+	public static void printUsageDetails() {
+		System.out.println("-----------------------------------------------");
+		System.out.println("  PUTWorkbench " + PUTExperiment.versionInfo);
+		System.out.println("-----------------------------------------------");
+		System.out.println("\nUsage: BatchRunner <job file>");
+		System.out.println("\nThe job file is a properties file with the following keys:");
+		System.out.println(PARALLELISM_KEY + "\t (Default: number of processors + 1) The number of threads in the pool shared by all the experiments, e.g. " + PARALLELISM_KEY + " = 16");
+		System.out.println(MEMORY_BUDGET_KEY + "\t (Default: half of the maximum heap size) The heap memory budget (in MB) shared by all the experiments, e.g. " + MEMORY_BUDGET_KEY + " = 4096");
+		System.out.println(COMMON_OPTIONS_KEY + "\t Options common to all the experiments, placed before the options of every experiment, e.g. " + COMMON_OPTIONS_KEY + " = -f /home/user/data.arff -ps 3");
+		System.out.println(EXPERIMENT_KEY_PREFIX + "<n>\t The options for an experiment (see the usage details of PUTExperiment), e.g. " + EXPERIMENT_KEY_PREFIX + "1 = -c J48 -out j48.csv");
+		System.out.println("\nAdditional notes:");
+		System.out.println("1. Experiments are run in the order of their numbers, and every experiment must use a different output file.");
+		System.out.println("2. The options for the execution mode, number of threads and memory budget of individual experiments are ignored.");
+	}
+
+	/**
+	 * The experiments in this batch, in order
+	 */
+	private List<PUTExperiment> experiments;
+
+	/**
+	 * The logger for this batch
+	 */
+	private BasicLogger logger;
+
+	/**
+	 * The heap memory budget (in bytes) shared by all the experiments
+	 */
+	private long memoryBudget;
+
+	/**
+	 * The number of threads in the shared pool
+	 */
+	private int parallelism;
+
+	/**
+	 * Creates a batch of experiments from a job file
+	 * @param jobFile The job file describing the experiments
+	 * @param logger The logger for this batch
+	 * @throws IOException If the job file could not be read
+	 * @throws IllegalArgumentException If the job file has no experiments, or an experiment could not be created
+	 */
+	public BatchRunner(File jobFile, BasicLogger logger) throws IOException, IllegalArgumentException {
+		this.logger = logger;
+		Properties job = new Properties();
+		Reader reader = new FileReader(jobFile);
+		try {
+			job.load(reader);
+		} finally {
+			reader.close();
+		}
+
+		parallelism = Integer.parseInt(job.getProperty(PARALLELISM_KEY, "" + (Runtime.getRuntime().availableProcessors() + 1)).trim());
+		if(parallelism < 1)
+			throw new IllegalArgumentException("Number of threads must be at least 1");
+		memoryBudget = Runtime.getRuntime().maxMemory() / 2;
+		if(job.getProperty(MEMORY_BUDGET_KEY) != null)
+			memoryBudget = Long.parseLong(job.getProperty(MEMORY_BUDGET_KEY).trim()) * 1024 * 1024;
+		List<String> commonOptions = parseArguments(job.getProperty(COMMON_OPTIONS_KEY, ""));
+
+		// Order the experiments by their numbers
+		TreeMap<Integer, String> experimentOptions = new TreeMap<Integer, String>();
+		for(String key : job.stringPropertyNames()) {
+			if(key.startsWith(EXPERIMENT_KEY_PREFIX)) {
+				try {
+					experimentOptions.put(Integer.parseInt(key.substring(EXPERIMENT_KEY_PREFIX.length())), job.getProperty(key));
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Invalid experiment key - " + key);
+				}
+			}
+		}
+		if(experimentOptions.isEmpty())
+			throw new IllegalArgumentException("No experiments found in the job file - " + jobFile);
+
+		DatasetCache datasetCache = new DatasetCache();
+		Set<File> resultFiles = new HashSet<File>();
+		experiments = new ArrayList<PUTExperiment>();
+		for(Integer number : experimentOptions.keySet()) {
+			List<String> options = new ArrayList<String>(commonOptions);
+			options.addAll(parseArguments(experimentOptions.get(number)));
+			logger.outln("Creating experiment " + number + " with options - " + options);
+			PUTExperiment experiment = PUTExperiment.createExperiment(options.toArray(new String[options.size()]), datasetCache);
+			if(experiment == null)
+				throw new IllegalArgumentException("Problems in creating experiment " + number + ". To see usage details, invoke PUTExperiment without any arguments");
+			String error = experiment.runCompatibilityTests();
+			if(error != null)
+				throw new IllegalArgumentException("Experiment " + number + " - " + error);
+			if(!resultFiles.add(experiment.getResultFile().getAbsoluteFile()))
+				throw new IllegalArgumentException("Experiment " + number + " uses the same output file as another experiment - " + experiment.getResultFile());
+			experiments.add(experiment);
+		}
+		logger.outln("Created " + experiments.size() + " experiments over " + datasetCache.size() + " datasets");
+	}
+
+	/**
+	 * Returns the experiments in this batch
+	 * @return the experiments, in order
+	 */
+	public List<PUTExperiment> getExperiments() {
+		return experiments;
+	}
+
+	/**
+	 * Runs all the experiments in this batch on a shared pool, and blocks till all of them complete
+	 */
+	public void runExperiments() {
+		ForkJoinPool sharedExecutor = new ForkJoinPool(parallelism);
+		AdmissionController sharedAdmissionController = new AdmissionController(memoryBudget);
+		// Experiments using the same cache file share a single cache, so that their appends do not interleave
+		Map<File, ResultCache> sharedResultCaches = new HashMap<File, ResultCache>();
+		List<Thread> experimentThreads = new ArrayList<Thread>();
+		for(int i = 0; i < experiments.size(); i++) {
+			PUTExperiment experiment = experiments.get(i);
+			experiment.setSharedExecution(sharedExecutor, sharedAdmissionController);
+			if(experiment.getResultCacheFile() != null) {
+				try {
+					File cacheFile = experiment.getResultCacheFile().getCanonicalFile();
+					ResultCache sharedResultCache = sharedResultCaches.get(cacheFile);
+					if(sharedResultCache == null) {
+						sharedResultCache = new ResultCache(cacheFile);
+						sharedResultCaches.put(cacheFile, sharedResultCache);
+					}
+					experiment.setSharedResultCache(sharedResultCache);
+				} catch (IOException e) {
+					logger.errorln("Could not open the result cache - " + experiment.getResultCacheFile() + ". Experiment " + (i + 1) + " runs without it.");
+					logger.exception(e);
+					experiment.setResultCacheFile(null);
+				}
+			}
+			Thread experimentThread = CoordinationThreads.newThread("Batch Experiment " + (i + 1), new Runnable() {
+				@Override
+				public void run() {
+					try {
+						experiment.startExperimentSync();
+					} catch (ExperimentException e) {
+						// A failed experiment does not affect the other experiments on the shared pool
+						logger.errorln(Thread.currentThread().getName() + " failed - " + e.getMessage());
+						logger.exception(e);
+					}
+				}
+			});
+			experimentThreads.add(experimentThread);
+			experimentThread.start();
+		}
+		logger.outln("Started " + experiments.size() + " experiments on a shared pool of " + parallelism + " threads");
+		try {
+			for(Thread experimentThread : experimentThreads)
+				experimentThread.join();
+		} catch (InterruptedException e) {
+			logger.errorln("Interrupted while waiting for the experiments to complete");
+			for(PUTExperiment experiment : experiments)
+				experiment.stopExperiment();
+		}
+		sharedExecutor.shutdown();
+		for(ResultCache sharedResultCache : sharedResultCaches.values()) {
+			try {
+				sharedResultCache.close();
+			} catch (IOException e) {
+				logger.errorln("Error in closing the result cache - " + sharedResultCache.getCacheFile());
+				logger.exception(e);
+			}
+		}
+	}
+}
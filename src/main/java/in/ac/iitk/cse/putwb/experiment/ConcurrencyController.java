@@ -0,0 +1,234 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import in.ac.iitk.cse.putwb.log.BasicLogger;
+
+/**
+ * This class adapts the number of threads of a learning executor to the host it is running on.<br>
+ * At regular intervals, it samples the task throughput of the executor, the CPU utilization of the process and the time spent in garbage collection,
+ * and resizes the executor in a hill-climbing fashion - it keeps moving in a direction as long as the throughput improves, and reverses the direction
+ * when the throughput drops. If too much time is spent in garbage collection, the executor is shrunk irrespective of the throughput.
+ * @author Saurabh Srivastava
+ *
+ */
+public class ConcurrencyController implements Runnable {
+
+	/**
+	 * If more than this fraction of the time is spent in garbage collection, the executor is shrunk
+	 */
+	private static final double GC_TIME_THRESHOLD = 0.2;
+
+	/**
+	 * The interval (in milliseconds) between two consecutive samples
+	 */
+	private static final long SAMPLING_INTERVAL = 5000;
+
+	/**
+	 * A change in throughput smaller than this fraction is considered as no change
+	 */
+	private static final double THROUGHPUT_TOLERANCE = 0.05;
+
+	/**
+	 * Returns the total time (in milliseconds) spent in garbage collection by the JVM till now
+	 * @return the accumulated garbage collection time
+	 */
+	private static long getTotalGCTime() {
+		long total = 0;
+		for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			long time = gc.getCollectionTime();
+			if(time > 0)
+				total += time;
+		}
+		return total;
+	}
+
+	/**
+	 * Resizes an executor to the given number of threads. The idle threads beyond the new size quit at once, while the busy ones quit after their current task.
+	 * @param executor The executor to resize
+	 * @param threads The new number of threads
+	 */
+	static void resize(ThreadPoolExecutor executor, int threads) {
+		// The core size can never exceed the maximum size, so the order of the updates matters
+		if(threads > executor.getMaximumPoolSize()) {
+			executor.setMaximumPoolSize(threads);
+			executor.setCorePoolSize(threads);
+		} else {
+			executor.setCorePoolSize(threads);
+			executor.setMaximumPoolSize(threads);
+		}
+	}
+
+	/**
+	 * The current direction of movement, <code>+1</code> for growing and <code>-1</code> for shrinking the executor
+	 */
+	private int direction;
+
+	/**
+	 * The executor whose size is controlled
+	 */
+	private ThreadPoolExecutor executor;
+
+	/**
+	 * The throughput (in tasks per second) observed in the last sampling interval
+	 */
+	private double lastThroughput;
+
+	/**
+	 * The logger for reporting the chosen concurrency
+	 */
+	private BasicLogger logger;
+
+	/**
+	 * The maximum number of threads the executor may be grown to
+	 */
+	private int maxThreads;
+
+	/**
+	 * The minimum number of threads the executor may be shrunk to
+	 */
+	private int minThreads;
+
+	/**
+	 * The bean to read the CPU utilization from
+	 */
+	private OperatingSystemMXBean osBean;
+
+	/**
+	 * The thread that samples the executor and resizes it
+	 */
+	private Thread samplingThread;
+
+	/**
+	 * Creates a concurrency controller for a given executor
+	 * @param executor The executor whose size is to be controlled
+	 * @param minThreads The minimum number of threads the executor may be shrunk to
+	 * @param maxThreads The maximum number of threads the executor may be grown to
+	 * @param logger The logger for reporting the chosen concurrency
+	 */
+	public ConcurrencyController(ThreadPoolExecutor executor, int minThreads, int maxThreads, BasicLogger logger) {
+		if(minThreads < 1 || maxThreads < minThreads)
+			throw new IllegalArgumentException("Invalid bounds for the number of threads - [" + minThreads + ", " + maxThreads + "]");
+		this.executor = executor;
+		this.minThreads = minThreads;
+		this.maxThreads = maxThreads;
+		this.logger = logger;
+		osBean = ManagementFactory.getOperatingSystemMXBean();
+		direction = 1;
+		lastThroughput = -1;
+	}
+
+	/**
+	 * Returns the current number of threads of the controlled executor
+	 * @return the number of threads
+	 */
+	public int getConcurrency() {
+		return executor.getCorePoolSize();
+	}
+
+	/**
+	 * Returns the CPU utilization of this process in the range [0, 1], if the JVM can report it.
+	 * Otherwise, the system load average per processor is used as an approximation.
+	 * @return the CPU utilization, or a negative value if it could not be determined
+	 */
+	private double getCPUUtilization() {
+		if(osBean instanceof com.sun.management.OperatingSystemMXBean) {
+			double load = ((com.sun.management.OperatingSystemMXBean) osBean).getProcessCpuLoad();
+			if(load >= 0)
+				return load;
+		}
+		double loadAverage = osBean.getSystemLoadAverage();
+		if(loadAverage < 0)
+			return -1;
+		return Math.min(1.0, loadAverage / osBean.getAvailableProcessors());
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void run() {
+		long lastCompleted = executor.getCompletedTaskCount();
+		long lastGCTime = getTotalGCTime();
+		long lastTick = System.nanoTime();
+		try {
+			while(!executor.isTerminated()) {
+				Thread.sleep(SAMPLING_INTERVAL);
+				long completed = executor.getCompletedTaskCount();
+				long gcTime = getTotalGCTime();
+				long tick = System.nanoTime();
+				double elapsedMillis = (tick - lastTick) / 1000000.0;
+				double throughput = (completed - lastCompleted) * 1000 / elapsedMillis;
+				double gcFraction = (gcTime - lastGCTime) / elapsedMillis;
+				double cpu = getCPUUtilization();
+				lastCompleted = completed;
+				lastGCTime = gcTime;
+				lastTick = tick;
+				// If the executor is starved of tasks, the throughput says nothing about its size
+				if(executor.getQueue().isEmpty() || completed == 0)
+					continue;
+				step(throughput, cpu, gcFraction);
+			}
+		} catch (InterruptedException e) {
+			// Stopped
+		}
+		logger.outln("Learning concurrency settled at " + getConcurrency() + " threads");
+	}
+
+	/**
+	 * Changes the maximum number of threads the executor may be grown to, and shrinks the executor at once if it is larger
+	 * @param maxThreads The maximum number of threads (not less than the minimum number of threads)
+	 */
+	public synchronized void setMaxThreads(int maxThreads) {
+		this.maxThreads = Math.max(minThreads, maxThreads);
+		int current = getConcurrency();
+		if(current > this.maxThreads) {
+			resize(executor, this.maxThreads);
+			logger.outln("Learning concurrency cut down from " + current + " to " + this.maxThreads + " threads");
+		}
+	}
+
+	/**
+	 * Starts sampling and resizing the controlled executor in a separate (daemon) thread
+	 */
+	public void start() {
+		samplingThread = CoordinationThreads.newThread("Learning Concurrency Controller", this);
+		samplingThread.start();
+	}
+
+	/**
+	 * Takes one hill-climbing step, based on the observations in the last sampling interval
+	 * @param throughput The throughput (in tasks per second)
+	 * @param cpu The CPU utilization in the range [0, 1], or a negative value if unknown
+	 * @param gcFraction The fraction of time spent in garbage collection
+	 */
+	private synchronized void step(double throughput, double cpu, double gcFraction) {
+		int current = getConcurrency();
+		if(gcFraction > GC_TIME_THRESHOLD)
+			direction = -1;		// Memory bound, more threads would only thrash the garbage collector
+		else if(lastThroughput >= 0) {
+			if(throughput < lastThroughput * (1 - THROUGHPUT_TOLERANCE))
+				direction = -direction;		// The last move hurt, go back
+			else if(throughput <= lastThroughput * (1 + THROUGHPUT_TOLERANCE) && direction > 0 && cpu > 0.9)
+				direction = -1;		// The last move did not help and the CPU is saturated, so the extra threads are only oversubscribing it
+		}
+		lastThroughput = throughput;
+		int next = Math.max(minThreads, Math.min(maxThreads, current + direction));
+		if(next != current) {
+			resize(executor, next);
+			logger.outln(String.format("Learning concurrency adjusted from %d to %d threads (throughput: %.2f tasks/sec, CPU: %.0f%%, GC: %.0f%%)",
+					current, next, throughput, cpu * 100, gcFraction * 100));
+		}
+	}
+
+	/**
+	 * Stops sampling and resizing the controlled executor
+	 */
+	public void stop() {
+		if(samplingThread != null)
+			samplingThread.interrupt();
+	}
+}
@@ -0,0 +1,32 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+/**
+ * This class creates the threads that coordinate an experiment, rather than learn over the datasets - e.g. the creators of the learning tasks, the progress monitors,
+ * the dispatcher of the notifications and the handlers of the workers and clients. Such threads spend most of their time blocked on queues, sleeps or sockets.<br>
+ * On this version of Java, they are (daemon) platform threads. The multi-release JAR built on Java 21 or later has another version of this class,
+ * which creates virtual threads instead, so that the coordinating threads do not use up platform threads, while the learning tasks still run
+ * on the bounded pools of platform threads of the experiment.
+ * @author Saurabh Srivastava
+ *
+ */
+public class CoordinationThreads {
+
+	/**
+	 * Creates a thread (not started yet) to coordinate an experiment. The thread does not keep the JVM alive, so whoever starts it must wait for it if required.
+	 * @param name The name of the thread
+	 * @param task The work of the thread
+	 * @return The thread
+	 */
+	public static Thread newThread(String name, Runnable task) {
+		Thread thread = new Thread(task, name);
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	/**
+	 * Just to make it out of bounds of other classes
+	 */
+	private CoordinationThreads() {
+		// Makes it out of bounds for outside classes
+	}
+}
@@ -0,0 +1,161 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+/**
+ * This class predicts the time a learning task would take over a partition, based on the features of the partition.<br>
+ * The features are the number of attributes, the total cardinality of the nominal attributes, the number of numeric attributes and the number of rows.
+ * The model is a linear regression over these features, learnt online (with a small ridge regularization) from the times of the completed tasks of an experiment.
+ * Till enough tasks have completed, a fixed prior proportional to the amount of data seen by the classifier is used as the prediction.
+ * @author Saurabh Srivastava
+ *
+ */
+public class CostModel {
+
+	/**
+	 * The number of features (including the intercept) used by the model
+	 */
+	private static final int NUM_OF_FEATURES = 5;
+
+	/**
+	 * The minimum number of completed tasks required, before the learnt model is used for predictions
+	 */
+	private static final int MIN_SAMPLES = 2 * NUM_OF_FEATURES;
+
+	/**
+	 * The (relative) ridge regularization applied to the normal equations, to keep them solvable when some features do not vary across partitions
+	 */
+	private static final double REGULARIZATION = 1e-6;
+
+	/**
+	 * Creates the feature vector for a partition
+	 * @param numOfAttributes The number of attributes in the partition (excluding the class attribute)
+	 * @param nominalCardinality The sum of the number of values of the nominal attributes in the partition
+	 * @param numOfNumericAttributes The number of numeric attributes in the partition
+	 * @param numOfRows The number of rows in the fragmented dataset for the partition
+	 * @return The feature vector
+	 */
+	public static double[] createFeatures(int numOfAttributes, int nominalCardinality, int numOfNumericAttributes, int numOfRows) {
+		return new double[]{1, numOfAttributes, nominalCardinality, numOfNumericAttributes, numOfRows};
+	}
+
+	/**
+	 * The coefficients of the model, as per the last solution of the normal equations
+	 */
+	private double[] coefficients;
+
+	/**
+	 * The number of completed tasks the model has learnt from
+	 */
+	private long numOfSamples;
+
+	/**
+	 * A flag that tells if the coefficients need to be recomputed, since new samples have arrived
+	 */
+	private boolean stale;
+
+	/**
+	 * The accumulated product of the transposed feature matrix with itself
+	 */
+	private double[][] xtx;
+
+	/**
+	 * The accumulated product of the transposed feature matrix with the observed times
+	 */
+	private double[] xty;
+
+	/**
+	 * Creates a cost model, which has not learnt from any task yet
+	 */
+	public CostModel() {
+		xtx = new double[NUM_OF_FEATURES][NUM_OF_FEATURES];
+		xty = new double[NUM_OF_FEATURES];
+		coefficients = null;
+		numOfSamples = 0;
+		stale = false;
+	}
+
+	/**
+	 * Returns the number of completed tasks the model has learnt from
+	 * @return the number of samples
+	 */
+	public synchronized long getNumOfSamples() {
+		return numOfSamples;
+	}
+
+	/**
+	 * Predicts the time a learning task would take, for a partition with the given features
+	 * @param features The features of the partition, as created by {@link #createFeatures(int, int, int, int)}
+	 * @return The predicted time (in seconds) once enough tasks have completed, or a prior in arbitrary units otherwise.
+	 * Either way, a larger value implies a costlier task.
+	 */
+	public synchronized double predict(double[] features) {
+		if(numOfSamples < MIN_SAMPLES) {
+			// Every attribute value of every row is seen by the classifier, and nominal values are often expanded to one per value
+			return features[4] * (features[2] + features[3]);
+		}
+		if(stale) {
+			coefficients = solve();
+			stale = false;
+		}
+		double prediction = 0;
+		for(int i = 0; i < NUM_OF_FEATURES; i++)
+			prediction += coefficients[i] * features[i];
+		return Math.max(0, prediction);
+	}
+
+	/**
+	 * Solves the (regularized) normal equations with Gaussian elimination
+	 * @return The coefficients of the model
+	 */
+	private double[] solve() {
+		int n = NUM_OF_FEATURES;
+		double[][] a = new double[n][n + 1];
+		for(int i = 0; i < n; i++) {
+			for(int j = 0; j < n; j++)
+				a[i][j] = xtx[i][j];
+			a[i][i] += REGULARIZATION * (xtx[i][i] + 1);
+			a[i][n] = xty[i];
+		}
+		for(int col = 0; col < n; col++) {
+			int pivot = col;
+			for(int row = col + 1; row < n; row++)
+				if(Math.abs(a[row][col]) > Math.abs(a[pivot][col]))
+					pivot = row;
+			double[] temp = a[col];
+			a[col] = a[pivot];
+			a[pivot] = temp;
+			for(int row = col + 1; row < n; row++) {
+				double factor = a[row][col] / a[col][col];
+				for(int k = col; k <= n; k++)
+					a[row][k] -= factor * a[col][k];
+			}
+		}
+		double[] solution = new double[n];
+		for(int row = n - 1; row >= 0; row--) {
+			double sum = a[row][n];
+			for(int k = row + 1; k < n; k++)
+				sum -= a[row][k] * solution[k];
+			solution[row] = sum / a[row][row];
+		}
+		return solution;
+	}
+
+	/**
+	 * Learns from a completed task
+	 * @param features The features of the partition, as created by {@link #createFeatures(int, int, int, int)}
+	 * @param time The time (in nano seconds) taken by the task
+	 * @return <code>true</code> if the model has learnt enough since the last time this method returned <code>true</code>, 
+	 * that the priorities of the pending tasks should be recomputed, <code>false</code> otherwise
+	 */
+	public synchronized boolean update(double[] features, long time) {
+		double seconds = time / 1000000000d;
+		for(int i = 0; i < NUM_OF_FEATURES; i++) {
+			for(int j = 0; j < NUM_OF_FEATURES; j++)
+				xtx[i][j] += features[i] * features[j];
+			xty[i] += features[i] * seconds;
+		}
+		numOfSamples++;
+		stale = true;
+		// The model is switched on at MIN_SAMPLES, and its predictions are refreshed every time the number of samples doubles thereafter
+		return numOfSamples >= MIN_SAMPLES && numOfSamples % MIN_SAMPLES == 0 && Long.bitCount(numOfSamples / MIN_SAMPLES) == 1;
+	}
+}
@@ -0,0 +1,381 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import in.ac.iitk.cse.putwb.log.BasicLogger;
+
+/**
+ * An EventDispatcher delivers the notifications of an experiment to its {@link ExperimentListener}s, on a thread of its own, so that the experiment
+ * is never held up by its listeners.<br>
+ * The stage changes, errors and completed learning tasks are queued, and delivered in order - the completed tasks queued one after another are delivered together.
+ * The progress updates are not queued; the dispatcher only notes that the progress has changed, and delivers the latest progress of the experiment
+ * (at most once every {@link #PROGRESS_INTERVAL} milliseconds) after the queued notifications. The thread quits once a final stage is delivered,
+ * and is started again if more notifications arrive.<br>
+ * The queue is bounded, so that slow listeners cannot hold up the memory of the experiment - a stage change queued right after another stage change
+ * that is still pending replaces it (the listeners see the latest stage), and at most {@link #MAX_PENDING_TASKS} completed tasks are kept waiting.
+ * The completed tasks beyond that are dropped (their results are still saved by the experiment), counted (see {@link #getNumOfDroppedTasks()}) and reported.<br>
+ * The state of the dispatcher is guarded by a {@link ReentrantLock} rather than a monitor, so that a virtual thread waiting for it (or notifying it) does not pin its carrier thread.
+ * @author Saurabh Srivastava
+ *
+ */
+public class EventDispatcher {
+
+	/**
+	 * The minimum interval (in milliseconds) between two progress updates delivered to the listeners
+	 */
+	public static final long PROGRESS_INTERVAL = 100;
+
+	/**
+	 * The maximum number of completed learning tasks waiting to be delivered, beyond which the completed tasks are dropped
+	 */
+	public static final int MAX_PENDING_TASKS = 10000;
+
+	/**
+	 * The thread delivering the notifications, or <code>null</code> if none is running
+	 */
+	private Thread deliveryThread;
+
+	/**
+	 * The experiment whose notifications are delivered
+	 */
+	private PUTExperiment experiment;
+
+	/**
+	 * The time (in milliseconds) at which the last progress update was delivered
+	 */
+	private long lastProgressUpdate;
+
+	/**
+	 * The listeners of the experiment
+	 */
+	private List<ExperimentListener> listeners;
+
+	/**
+	 * The lock guarding the queued notifications and the state of the delivery thread
+	 */
+	private final ReentrantLock lock;
+
+	/**
+	 * The logger for reporting the errors thrown by the listeners
+	 */
+	private BasicLogger logger;
+
+	/**
+	 * The condition signalled when a notification is queued, or the progress changes
+	 */
+	private final Condition notificationsChanged;
+
+	/**
+	 * The number of completed learning tasks dropped till now, since too many of them were waiting to be delivered
+	 */
+	private long numOfDroppedTasks;
+
+	/**
+	 * The number of completed learning tasks dropped since the drops were last reported
+	 */
+	private long numOfDroppedTasksUnreported;
+
+	/**
+	 * The number of completed learning tasks waiting to be delivered
+	 */
+	private int numOfPendingTasks;
+
+	/**
+	 * The queued notifications - an {@link ExperimentProgress} for a stage change, a {@link Stats} for a completed learning task, or an {@link ErrorNotification} for an error
+	 */
+	private Deque<Object> pendingNotifications;
+
+	/**
+	 * A flag that tells if the progress has changed since the last progress update was delivered
+	 */
+	private boolean progressChanged;
+
+	/**
+	 * Creates a dispatcher for an experiment, without any listeners
+	 * @param experiment The experiment whose notifications are to be delivered
+	 * @param logger The logger for reporting the errors thrown by the listeners
+	 */
+	public EventDispatcher(PUTExperiment experiment, BasicLogger logger) {
+		this.experiment = experiment;
+		this.logger = logger;
+		listeners = new CopyOnWriteArrayList<ExperimentListener>();
+		lock = new ReentrantLock();
+		notificationsChanged = lock.newCondition();
+		pendingNotifications = new ArrayDeque<Object>();
+		progressChanged = false;
+		lastProgressUpdate = 0;
+		numOfPendingTasks = 0;
+		numOfDroppedTasks = numOfDroppedTasksUnreported = 0;
+	}
+
+	/**
+	 * Adds a listener, which is delivered the notifications from now on
+	 * @param listener The listener
+	 */
+	public void addListener(ExperimentListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Delivers the queued notifications and the latest progress, till a final stage is delivered
+	 * @throws InterruptedException If the thread is interrupted while waiting for notifications
+	 */
+	private void deliver() throws InterruptedException {
+		while(true) {
+			List<Object> notifications;
+			boolean deliverProgress;
+			long numOfTasksDropped;
+			lock.lock();
+			try {
+				while(pendingNotifications.isEmpty()) {
+					long wait = lastProgressUpdate + PROGRESS_INTERVAL - System.currentTimeMillis();
+					if(!progressChanged)
+						notificationsChanged.await();
+					else if(wait > 0)
+						notificationsChanged.await(wait, TimeUnit.MILLISECONDS);
+					else
+						break;
+				}
+				notifications = new ArrayList<Object>(pendingNotifications);
+				pendingNotifications.clear();
+				numOfPendingTasks = 0;
+				numOfTasksDropped = numOfDroppedTasksUnreported;
+				numOfDroppedTasksUnreported = 0;
+				deliverProgress = progressChanged && lastProgressUpdate + PROGRESS_INTERVAL <= System.currentTimeMillis();
+				if(deliverProgress) {
+					progressChanged = false;
+					lastProgressUpdate = System.currentTimeMillis();
+				}
+			} finally {
+				lock.unlock();
+			}
+
+			if(numOfTasksDropped > 0)
+				logger.errorln("The experiment listeners fell behind - " + numOfTasksDropped + " completed learning tasks were not delivered to them (their results are still saved)");
+			boolean finalStage = false;
+			List<Stats> completedTasks = new ArrayList<Stats>();
+			for(Object notification : notifications) {
+				if(notification instanceof Stats) {
+					completedTasks.add((Stats) notification);
+					continue;
+				}
+				deliverCompletedTasks(completedTasks);
+				for(ExperimentListener listener : listeners) {
+					try {
+						if(notification instanceof ExperimentProgress)
+							listener.stageChanged(experiment, (ExperimentProgress) notification);
+						else
+							listener.errorOccurred(experiment, ((ErrorNotification) notification).message, ((ErrorNotification) notification).cause);
+					} catch (RuntimeException e) {
+						logger.errorln("Error in an experiment listener");
+						logger.exception(e);
+					}
+				}
+				if(notification instanceof ExperimentProgress)
+					finalStage = ExperimentProgress.isFinalStage(((ExperimentProgress) notification).getStage());
+			}
+			deliverCompletedTasks(completedTasks);
+			if(deliverProgress) {
+				ExperimentProgress progress = experiment.getProgress();
+				for(ExperimentListener listener : listeners) {
+					try {
+						listener.progressUpdated(experiment, progress);
+					} catch (RuntimeException e) {
+						logger.errorln("Error in an experiment listener");
+						logger.exception(e);
+					}
+				}
+			}
+
+			if(finalStage) {
+				lock.lock();
+				try {
+					if(pendingNotifications.isEmpty()) {
+						progressChanged = false;
+						deliveryThread = null;
+						return;
+					}
+				} finally {
+					lock.unlock();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Delivers the completed learning tasks collected so far (if any) together, and clears them
+	 * @param completedTasks The stats of the completed learning tasks
+	 */
+	private void deliverCompletedTasks(List<Stats> completedTasks) {
+		if(completedTasks.isEmpty())
+			return;
+		List<Stats> stats = new ArrayList<Stats>(completedTasks);
+		completedTasks.clear();
+		for(ExperimentListener listener : listeners) {
+			try {
+				listener.tasksCompleted(experiment, stats);
+			} catch (RuntimeException e) {
+				logger.errorln("Error in an experiment listener");
+				logger.exception(e);
+			}
+		}
+	}
+
+	/**
+	 * Queues the notification of an error
+	 * @param message The description of the error
+	 * @param cause The cause of the error
+	 */
+	public void errorOccurred(String message, Exception cause) {
+		queue(new ErrorNotification(message, cause));
+	}
+
+	/**
+	 * Returns the number of completed learning tasks not delivered to the listeners, since too many of them were waiting to be delivered
+	 * @return the number of dropped tasks
+	 */
+	public long getNumOfDroppedTasks() {
+		lock.lock();
+		try {
+			return numOfDroppedTasks;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Tells if there is any listener to deliver the notifications to
+	 * @return <code>true</code> if there are listeners, <code>false</code> otherwise
+	 */
+	public boolean hasListeners() {
+		return !listeners.isEmpty();
+	}
+
+	/**
+	 * Notes that the progress of the experiment has changed, so that its latest progress is delivered soon
+	 */
+	public void progressChanged() {
+		if(!hasListeners())
+			return;
+		lock.lock();
+		try {
+			progressChanged = true;
+			if(deliveryThread == null)
+				start();
+			else
+				notificationsChanged.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Queues a notification, and wakes up (or starts) the delivery thread. A stage change replaces a stage change queued just before it, 
+	 * and a completed task is dropped if too many of them are waiting already.
+	 * @param notification The notification
+	 */
+	private void queue(Object notification) {
+		if(!hasListeners())
+			return;
+		lock.lock();
+		try {
+			if(notification instanceof Stats) {
+				if(numOfPendingTasks >= MAX_PENDING_TASKS) {
+					numOfDroppedTasks++;
+					numOfDroppedTasksUnreported++;
+					return;
+				}
+				numOfPendingTasks++;
+			} else if(notification instanceof ExperimentProgress && pendingNotifications.peekLast() instanceof ExperimentProgress)
+				pendingNotifications.pollLast();
+			pendingNotifications.add(notification);
+			if(deliveryThread == null)
+				start();
+			else
+				notificationsChanged.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Removes a listener, which is not delivered any notifications after the ones being delivered at the moment
+	 * @param listener The listener
+	 */
+	public void removeListener(ExperimentListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Queues the notification of a stage change
+	 * @param progress The progress of the experiment at the time it moved to the new stage
+	 */
+	public void stageChanged(ExperimentProgress progress) {
+		queue(progress);
+	}
+
+	/**
+	 * Starts the delivery thread. Called with the lock held.
+	 */
+	private void start() {
+		deliveryThread = CoordinationThreads.newThread("Experiment Event Dispatcher", new Runnable() {
+			@Override
+			public void run() {
+				try {
+					deliver();
+				} catch (InterruptedException e) {
+					lock.lock();
+					try {
+						deliveryThread = null;
+					} finally {
+						lock.unlock();
+					}
+				}
+			}
+		});
+		deliveryThread.start();
+	}
+
+	/**
+	 * Queues the notification of a completed learning task
+	 * @param stat The stats of the learning task
+	 */
+	public void taskCompleted(Stats stat) {
+		queue(stat);
+	}
+
+	/**
+	 * An error, waiting to be delivered
+	 * @author Saurabh Srivastava
+	 *
+	 */
+	private static class ErrorNotification {
+
+		/**
+		 * The cause of the error
+		 */
+		private Exception cause;
+
+		/**
+		 * The description of the error
+		 */
+		private String message;
+
+		/**
+		 * Creates an error
+		 * @param message The description of the error
+		 * @param cause The cause of the error
+		 */
+		ErrorNotification(String message, Exception cause) {
+			this.message = message;
+			this.cause = cause;
+		}
+	}
+}
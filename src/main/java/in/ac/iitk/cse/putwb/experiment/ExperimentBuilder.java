@@ -0,0 +1,788 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+import in.ac.iitk.cse.putwb.io.DatasetCache;
+import in.ac.iitk.cse.putwb.log.BasicLogger;
+
+/**
+ * An ExperimentBuilder creates a {@link PUTExperiment} for an application that embeds the workbench, instead of running it from the command line.<br>
+ * The settings are typed values, applied through the setters of the experiment once it is created, so that nothing is parsed. The settings that depend on the dataset
+ * (e.g. the partition size or the targets) are validated only when the experiment is built, which throws the problems found instead of logging them.
+ * The settings are also recorded as the equivalent command line options, for the recovery file and for the worker processes, if any.
+ * All the state of an experiment is its own, so several experiments (on the same or different datasets) can be built and run side by side in the same JVM.
+ * To share the processors among them, give them the same pool with {@link #executor(ForkJoinPool, AdmissionController)}, and to load a dataset once for all of them,
+ * the same {@link DatasetCache}. A failing experiment throws an {@link ExperimentException} to its caller, and never exits the JVM.
+ * <pre>
+ * PUTExperiment experiment = new ExperimentBuilder("data.arff").partitionSize(3).classifier("J48").output("results.csv").executor(pool, admissionController).build();
+ * experiment.startExperimentSync();
+ * </pre>
+ * @author Saurabh Srivastava
+ *
+ */
+public class ExperimentBuilder {
+
+	/**
+	 * The default value of <i>k</i> for k-cross validation, as for the command line
+	 */
+	private static final int DEFAULT_K = 5;
+
+	/**
+	 * The number of bytes in a MB
+	 */
+	private static final long MB = 1024 * 1024;
+
+	/**
+	 * A flag that tells if the learning pool should be resized as per the observed throughput
+	 */
+	private boolean adaptiveConcurrency;
+
+	/**
+	 * The wall-clock budget (in seconds) for the learning tasks, or 0 for no budget
+	 */
+	private long budget;
+
+	/**
+	 * The name of the classifier
+	 */
+	private String classifierName;
+
+	/**
+	 * The options of the classifier, or <code>null</code> for the default options
+	 */
+	private String[] classifierOptions;
+
+	/**
+	 * The cache to take the (cleaned) dataset from, or <code>null</code> to load the dataset afresh
+	 */
+	private DatasetCache datasetCache;
+
+	/**
+	 * A flag that tells if the rows with missing values should be deleted, instead of the missing values being replaced
+	 */
+	private boolean deleteMissing;
+
+	/**
+	 * The path to the (arff) data file
+	 */
+	private String filePath;
+
+	/**
+	 * A flag that tells if the folds of a learning task may be evaluated in parallel (default: <code>true</code>)
+	 */
+	private boolean foldParallelism;
+
+	/**
+	 * The maximum heap size (in MB) of every worker process, or 0 to split the heap of this process among them
+	 */
+	private long forkHeapInMB;
+
+	/**
+	 * A flag that tells if the partitioning and learning over a partition should happen in the same task
+	 */
+	private boolean fusedExecution;
+
+	/**
+	 * The horizontal expense
+	 */
+	private float hExpense;
+
+	/**
+	 * The value of <i>k</i> for k-cross validation
+	 */
+	private int k;
+
+	/**
+	 * The listeners to add to the experiment
+	 */
+	private List<ExperimentListener> listeners;
+
+	/**
+	 * The logger for the experiment
+	 */
+	private BasicLogger logger;
+
+	/**
+	 * The heap memory budget (in MB) for the partitioned datasets, or 0 for half of the maximum heap size
+	 */
+	private long memoryBudgetInMB;
+
+	/**
+	 * The number of worker processes to evaluate the learning tasks in, or 0 to learn in this process
+	 */
+	private int numOfForks;
+
+	/**
+	 * The path of the result file, or <code>null</code> for the default result file
+	 */
+	private String outputFile;
+
+	/**
+	 * The number of threads for the partitioning and learning tasks, or 0 for the default number of threads
+	 */
+	private int parallelism;
+
+	/**
+	 * The partition size, if set instead of the PUT number
+	 */
+	private int partitionSize;
+
+	/**
+	 * The privacy exceptions
+	 */
+	private List<Set<Integer>> privacyExceptions;
+
+	/**
+	 * The PUT number, if set instead of the partition size, or {@link Float#MIN_VALUE} if not set
+	 */
+	private float putNumber;
+
+	/**
+	 * The factor by which the partitions are cut down, and the sample grown, in every round of racing
+	 */
+	private double raceEta;
+
+	/**
+	 * The proportion of the rows in the first round of racing, or 0 to not race the partitions
+	 */
+	private float raceProportion;
+
+	/**
+	 * A flag that tells if the attribute combinations should be generated randomly, instead of in dictionary order
+	 */
+	private boolean randomGeneration;
+
+	/**
+	 * A flag that tells if the recovery file should be written for the experiment (default: <code>true</code>)
+	 */
+	private boolean recovery;
+
+	/**
+	 * A flag that tells if the duplicate rows should be removed (default: <code>true</code>)
+	 */
+	private boolean removeDuplicates;
+
+	/**
+	 * The path of the file in which the outcomes of the learning tasks are cached, or <code>null</code> for no caching
+	 */
+	private String resultCacheFile;
+
+	/**
+	 * The seed for the random choices of the experiment
+	 */
+	private long seed;
+
+	/**
+	 * The admission controller shared by the experiments running on the shared pool, if any
+	 */
+	private AdmissionController sharedAdmissionController;
+
+	/**
+	 * The pool shared with other experiments, if any
+	 */
+	private ForkJoinPool sharedExecutor;
+
+	/**
+	 * The result cache shared with other experiments, if any
+	 */
+	private ResultCache sharedResultCache;
+
+	/**
+	 * The indices of the additional targets
+	 */
+	private int[] targets;
+
+	/**
+	 * The absolute time limit (in seconds) for every learning task, or 0 if there is none
+	 */
+	private long timeLimit;
+
+	/**
+	 * The time limit for every learning task as a multiple of the median task time, or 0 if there is none
+	 */
+	private double timeLimitMultiple;
+
+	/**
+	 * The number of best results to retain, or 0 to retain every result
+	 */
+	private int topResultsLimit;
+
+	/**
+	 * The metric by which the best results are retained
+	 */
+	private String topResultsMetric;
+
+	/**
+	 * The utility exceptions
+	 */
+	private List<Set<Integer>> utilityExceptions;
+
+	/**
+	 * The vertical expense
+	 */
+	private float vExpense;
+
+	/**
+	 * Creates a builder for an experiment over a data file, with the default settings
+	 * @param filePath The path to the (arff) data file
+	 */
+	public ExperimentBuilder(String filePath) {
+		this.filePath = filePath;
+		listeners = new ArrayList<ExperimentListener>();
+		logger = BasicLogger.getDefaultLogger();
+		privacyExceptions = new ArrayList<Set<Integer>>();
+		utilityExceptions = new ArrayList<Set<Integer>>();
+		putNumber = Float.MIN_VALUE;
+		vExpense = 1.0f;
+		hExpense = 1.0f;
+		k = DEFAULT_K;
+		removeDuplicates = true;
+		foldParallelism = true;
+		recovery = true;
+		seed = PUTExperiment.DEFAULT_SEED;
+		raceEta = PUTExperiment.DEFAULT_RACE_ETA;
+		topResultsMetric = "Accuracy";
+		targets = new int[0];
+	}
+
+	/**
+	 * Sets if the learning pool should be resized as per the observed throughput (see {@link PUTExperiment#setAdaptiveConcurrency(boolean)})
+	 * @param adaptiveConcurrency <code>true</code> to resize the learning pool, <code>false</code> otherwise
+	 * @return this builder
+	 */
+	public ExperimentBuilder adaptiveConcurrency(boolean adaptiveConcurrency) {
+		this.adaptiveConcurrency = adaptiveConcurrency;
+		return this;
+	}
+
+	/**
+	 * Sets a wall-clock budget for the learning tasks (see {@link PUTExperiment#setBudget(long)})
+	 * @param seconds The budget in seconds, or 0 for no budget
+	 * @return this builder
+	 */
+	public ExperimentBuilder budget(long seconds) {
+		budget = seconds;
+		return this;
+	}
+
+	/**
+	 * Builds the experiment with the settings of this builder
+	 * @return the experiment, ready to be started
+	 * @throws Exception If the settings are not valid, or the experiment could not be created as per them (e.g. since the data file could not be loaded)
+	 */
+	public PUTExperiment build() throws Exception {
+		if(putNumber == Float.MIN_VALUE && partitionSize == 0)
+			throw new IllegalStateException("Either PUT Number or partition size is required");
+		if(classifierName == null)
+			throw new IllegalStateException("Classifier type required");
+		PUTExperiment experiment;
+		if(putNumber != Float.MIN_VALUE)
+			experiment = new PUTExperiment(filePath, putNumber, vExpense, hExpense, classifierName, k, deleteMissing, removeDuplicates, logger, datasetCache);
+		else
+			experiment = new PUTExperiment(filePath, partitionSize, vExpense, hExpense, classifierName, k, deleteMissing, removeDuplicates, logger, datasetCache);
+		if(classifierOptions != null)
+			experiment.setClassifierOptions(classifierOptions);
+		for(Set<Integer> exception : privacyExceptions)
+			experiment.addPrivacyException(exception);
+		for(Set<Integer> exception : utilityExceptions)
+			experiment.addUtilityException(exception);
+		if(targets.length > 0)
+			experiment.setTargets(targets);
+		if(outputFile != null)
+			experiment.setOutput(outputFile);
+		if(randomGeneration)
+			experiment.setGenerateRandomCombinations(true);
+		if(fusedExecution)
+			experiment.setFusedExecution(true);
+		if(parallelism != 0)
+			experiment.setParallelism(parallelism);
+		if(memoryBudgetInMB != 0)
+			experiment.setMemoryBudget(memoryBudgetInMB * MB);
+		if(adaptiveConcurrency)
+			experiment.setAdaptiveConcurrency(true);
+		if(timeLimit != 0)
+			experiment.setTimeLimit(timeLimit);
+		else if(timeLimitMultiple != 0)
+			experiment.setRelativeTimeLimit(timeLimitMultiple);
+		if(resultCacheFile != null)
+			experiment.setResultCacheFile(new File(resultCacheFile));
+		experiment.setSeed(seed);
+		if(!foldParallelism)
+			experiment.setFoldParallelism(false);
+		if(topResultsLimit != 0)
+			experiment.setTopResults(topResultsLimit, topResultsMetric);
+		if(raceProportion != 0)
+			experiment.setRacing(raceProportion, raceEta);
+		if(budget != 0)
+			experiment.setBudget(budget);
+		if(numOfForks != 0)
+			experiment.setForks(numOfForks);
+		if(forkHeapInMB != 0)
+			experiment.setForkHeapSize(forkHeapInMB * MB);
+		if(sharedExecutor != null)
+			experiment.setSharedExecution(sharedExecutor, sharedAdmissionController);
+		if(sharedResultCache != null)
+			experiment.setSharedResultCache(sharedResultCache);
+		experiment.setRecovery(recovery);
+		experiment.setRecoveryInformation(getOptions());
+		for(ExperimentListener listener : listeners)
+			experiment.addExperimentListener(listener);
+		return experiment;
+	}
+
+	/**
+	 * Sets the classifier to use
+	 * @param classifierName The name of the classifier (see {@link PUTExperiment#CLASSIFIER_SWITCH})
+	 * @param classifierOptions Any custom options for the classifier, passed as such to its <code>setOptions()</code> method
+	 * @return this builder
+	 */
+	public ExperimentBuilder classifier(String classifierName, String... classifierOptions) {
+		this.classifierName = classifierName;
+		this.classifierOptions = classifierOptions.length > 0 ? classifierOptions.clone() : null;
+		return this;
+	}
+
+	/**
+	 * Sets the cache to take the (cleaned) dataset from, shared with other experiments
+	 * @param datasetCache The dataset cache
+	 * @return this builder
+	 */
+	public ExperimentBuilder datasetCache(DatasetCache datasetCache) {
+		this.datasetCache = datasetCache;
+		return this;
+	}
+
+	/**
+	 * Sets if the rows with missing values should be deleted, instead of the missing values being replaced (see {@link PUTExperiment#MISSING_VALUE_SWITCH})
+	 * @param deleteMissing <code>true</code> to delete the rows with missing values, <code>false</code> to replace the missing values
+	 * @return this builder
+	 */
+	public ExperimentBuilder deleteMissing(boolean deleteMissing) {
+		this.deleteMissing = deleteMissing;
+		return this;
+	}
+
+	/**
+	 * Makes the experiment run its learning tasks on a pool shared with other experiments (see {@link PUTExperiment#setSharedExecution(ForkJoinPool, AdmissionController)})
+	 * @param sharedExecutor The shared pool, which is not shut down by the experiment
+	 * @param sharedAdmissionController The admission controller shared by all the experiments running on the pool
+	 * @return this builder
+	 */
+	public ExperimentBuilder executor(ForkJoinPool sharedExecutor, AdmissionController sharedAdmissionController) {
+		this.sharedExecutor = sharedExecutor;
+		this.sharedAdmissionController = sharedAdmissionController;
+		return this;
+	}
+
+	/**
+	 * Sets if the folds of a learning task may be evaluated in parallel (see {@link PUTExperiment#setFoldParallelism(boolean)})
+	 * @param foldParallelism <code>true</code> to evaluate the folds in parallel when processors are left idle, <code>false</code> otherwise
+	 * @return this builder
+	 */
+	public ExperimentBuilder foldParallelism(boolean foldParallelism) {
+		this.foldParallelism = foldParallelism;
+		return this;
+	}
+
+	/**
+	 * Sets the number of worker processes on this machine to evaluate the learning tasks in (see {@link PUTExperiment#setForks(int)})
+	 * @param numOfForks The number of worker processes
+	 * @return this builder
+	 */
+	public ExperimentBuilder forks(int numOfForks) {
+		this.numOfForks = numOfForks;
+		return this;
+	}
+
+	/**
+	 * Sets the number of worker processes on this machine to evaluate the learning tasks in, along with the maximum heap size of every worker process
+	 * (see {@link PUTExperiment#setForkHeapSize(long)})
+	 * @param numOfForks The number of worker processes
+	 * @param heapSizeInMB The maximum heap size (in MB) of every worker process
+	 * @return this builder
+	 */
+	public ExperimentBuilder forks(int numOfForks, long heapSizeInMB) {
+		forkHeapInMB = heapSizeInMB;
+		return forks(numOfForks);
+	}
+
+	/**
+	 * Sets if the partitioning and learning over a partition should happen in the same task (see {@link PUTExperiment#setFusedExecution(boolean)})
+	 * @param fusedExecution <code>true</code> for fused tasks, <code>false</code> otherwise
+	 * @return this builder
+	 */
+	public ExperimentBuilder fusedExecution(boolean fusedExecution) {
+		this.fusedExecution = fusedExecution;
+		return this;
+	}
+
+	/**
+	 * Returns the settings of this builder as the equivalent command line options, leaving out the ones at their default values
+	 * @return the options
+	 */
+	private String[] getOptions() {
+		List<String> options = new ArrayList<String>();
+		options.add(PUTExperiment.DATA_FILE_SWITCH);
+		options.add(filePath);
+		if(putNumber != Float.MIN_VALUE) {
+			options.add(PUTExperiment.PUT_NUMBER_SWITCH);
+			options.add("" + putNumber);
+		} else {
+			options.add(PUTExperiment.PARTITION_SIZE_SWITCH);
+			options.add("" + partitionSize);
+		}
+		options.add(PUTExperiment.V_EXPENSE_SWITCH);
+		options.add("" + vExpense);
+		options.add(PUTExperiment.H_EXPENSE_SWITCH);
+		options.add("" + hExpense);
+		options.add(PUTExperiment.CLASSIFIER_SWITCH);
+		options.add(classifierName);
+		if(classifierOptions != null) {
+			options.add(PUTExperiment.CLASSIFIER_OPTIONS_SWITCH);
+			options.add("{" + String.join(",", classifierOptions) + "}");
+		}
+		options.add(PUTExperiment.K_CROSS_SWITCH);
+		options.add("" + k);
+		options.add(PUTExperiment.MISSING_VALUE_SWITCH);
+		options.add(deleteMissing ? "D" : "R");
+		options.add(PUTExperiment.DUPLICATE_ROWS_SWITCH);
+		options.add(removeDuplicates ? "Y" : "N");
+		if(!privacyExceptions.isEmpty()) {
+			options.add(PUTExperiment.PRIVACY_EXCEPTIONS_SWITCH);
+			options.add(privacyExceptions.toString().replaceAll("\\s", "").replaceFirst("^\\[", "{").replaceFirst("\\]$", "}"));
+		}
+		if(!utilityExceptions.isEmpty()) {
+			options.add(PUTExperiment.UTILITY_EXCEPTIONS_SWITCH);
+			options.add(utilityExceptions.toString().replaceAll("\\s", "").replaceFirst("^\\[", "{").replaceFirst("\\]$", "}"));
+		}
+		if(targets.length > 0) {
+			StringBuilder targetsStr = new StringBuilder();
+			for(int target : targets)
+				targetsStr.append(targetsStr.length() == 0 ? "{" : ",").append(target);
+			options.add(PUTExperiment.TARGETS_SWITCH);
+			options.add(targetsStr.append("}").toString());
+		}
+		if(outputFile != null) {
+			options.add(PUTExperiment.OUTPUT_FILE_SWITCH);
+			options.add(outputFile);
+		}
+		if(randomGeneration) {
+			options.add(PUTExperiment.GENERATION_METHOD_SWITCH);
+			options.add("Y");
+		}
+		if(fusedExecution) {
+			options.add(PUTExperiment.FUSED_EXECUTION_SWITCH);
+			options.add("Y");
+		}
+		if(parallelism != 0) {
+			options.add(PUTExperiment.PARALLELISM_SWITCH);
+			options.add("" + parallelism);
+		}
+		if(memoryBudgetInMB != 0) {
+			options.add(PUTExperiment.MEMORY_BUDGET_SWITCH);
+			options.add("" + memoryBudgetInMB);
+		}
+		if(adaptiveConcurrency) {
+			options.add(PUTExperiment.ADAPTIVE_CONCURRENCY_SWITCH);
+			options.add("Y");
+		}
+		if(timeLimit != 0) {
+			options.add(PUTExperiment.TIMEOUT_SWITCH);
+			options.add("" + timeLimit);
+		} else if(timeLimitMultiple != 0) {
+			options.add(PUTExperiment.TIMEOUT_SWITCH);
+			options.add(timeLimitMultiple + "x");
+		}
+		if(resultCacheFile != null) {
+			options.add(PUTExperiment.RESULT_CACHE_SWITCH);
+			options.add(resultCacheFile);
+		}
+		options.add(PUTExperiment.SEED_SWITCH);
+		options.add("" + seed);
+		if(!foldParallelism) {
+			options.add(PUTExperiment.FOLD_PARALLELISM_SWITCH);
+			options.add("N");
+		}
+		if(topResultsLimit != 0) {
+			options.add(PUTExperiment.TOP_RESULTS_SWITCH);
+			options.add("" + topResultsLimit);
+			options.add(PUTExperiment.TOP_RESULTS_METRIC_SWITCH);
+			options.add(topResultsMetric);
+		}
+		if(raceProportion != 0) {
+			options.add(PUTExperiment.RACE_SWITCH);
+			options.add("" + raceProportion);
+			options.add(PUTExperiment.RACE_ETA_SWITCH);
+			options.add("" + raceEta);
+		}
+		if(budget != 0) {
+			options.add(PUTExperiment.BUDGET_SWITCH);
+			options.add("" + budget);
+		}
+		if(numOfForks != 0) {
+			options.add(PUTExperiment.FORK_SWITCH);
+			options.add("" + numOfForks);
+		}
+		if(forkHeapInMB != 0) {
+			options.add(PUTExperiment.FORK_HEAP_SWITCH);
+			options.add("" + forkHeapInMB);
+		}
+		return options.toArray(new String[options.size()]);
+	}
+
+	/**
+	 * Sets the horizontal expense
+	 * @param hExpense The horizontal expense, >0 and <=1
+	 * @return this builder
+	 */
+	public ExperimentBuilder horizontalExpense(float hExpense) {
+		this.hExpense = hExpense;
+		return this;
+	}
+
+	/**
+	 * Sets the value of <i>k</i> for k-cross validation
+	 * @param k The number of folds
+	 * @return this builder
+	 */
+	public ExperimentBuilder k(int k) {
+		this.k = k;
+		return this;
+	}
+
+	/**
+	 * Adds a listener to the experiment, which is told about the progress of the experiment from its start
+	 * @param listener The listener
+	 * @return this builder
+	 */
+	public ExperimentBuilder listener(ExperimentListener listener) {
+		listeners.add(listener);
+		return this;
+	}
+
+	/**
+	 * Sets the logger for the experiment (default: the standard output and error streams)
+	 * @param logger The logger
+	 * @return this builder
+	 */
+	public ExperimentBuilder logger(BasicLogger logger) {
+		this.logger = logger;
+		return this;
+	}
+
+	/**
+	 * Sets the heap memory budget for the partitioned datasets (see {@link PUTExperiment#setMemoryBudget(long)})
+	 * @param memoryBudgetInMB The budget in MB, or 0 for half of the maximum heap size
+	 * @return this builder
+	 */
+	public ExperimentBuilder memoryBudget(long memoryBudgetInMB) {
+		this.memoryBudgetInMB = memoryBudgetInMB;
+		return this;
+	}
+
+	/**
+	 * Sets the result file
+	 * @param filePath The path of the result file (default: a file named "results.csv" in the folder of the data file)
+	 * @return this builder
+	 */
+	public ExperimentBuilder output(String filePath) {
+		outputFile = filePath;
+		return this;
+	}
+
+	/**
+	 * Sets the number of threads for the partitioning and learning tasks
+	 * @param parallelism The number of threads
+	 * @return this builder
+	 */
+	public ExperimentBuilder parallelism(int parallelism) {
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * Sets the number of attributes in every partition, instead of the PUT number
+	 * @param partitionSize The partition size
+	 * @return this builder
+	 */
+	public ExperimentBuilder partitionSize(int partitionSize) {
+		this.partitionSize = partitionSize;
+		putNumber = Float.MIN_VALUE;
+		return this;
+	}
+
+	/**
+	 * Adds a privacy exception, i.e. a set of attributes that must not appear together in a partition (see {@link PUTExperiment#addPrivacyException(Set)})
+	 * @param attributes The attribute indices of the exception
+	 * @return this builder
+	 */
+	public ExperimentBuilder privacyException(int... attributes) {
+		privacyExceptions.add(toSet(attributes));
+		return this;
+	}
+
+	/**
+	 * Sets the privacy-utility tradeoff number, which decides the partition size, instead of the partition size
+	 * @param putNumber The PUT number, between -1 and 1
+	 * @return this builder
+	 */
+	public ExperimentBuilder putNumber(float putNumber) {
+		this.putNumber = putNumber;
+		partitionSize = 0;
+		return this;
+	}
+
+	/**
+	 * Makes the experiment race the partitions on growing samples of the rows (see {@link PUTExperiment#setRacing(float, double)})
+	 * @param initialProportion The proportion of the rows in the first round
+	 * @param eta The factor by which the partitions are cut down, and the sample grown, in every round
+	 * @return this builder
+	 */
+	public ExperimentBuilder racing(float initialProportion, double eta) {
+		raceProportion = initialProportion;
+		raceEta = eta;
+		return this;
+	}
+
+	/**
+	 * Sets if the attribute combinations should be generated randomly, instead of in dictionary order (see {@link PUTExperiment#setGenerateRandomCombinations(boolean)})
+	 * @param randomGeneration <code>true</code> for random generation, <code>false</code> otherwise
+	 * @return this builder
+	 */
+	public ExperimentBuilder randomGeneration(boolean randomGeneration) {
+		this.randomGeneration = randomGeneration;
+		return this;
+	}
+
+	/**
+	 * Sets if a recovery file should be written for the experiment, to resume it if it is terminated prematurely
+	 * @param recovery <code>true</code> to write the recovery file, <code>false</code> otherwise
+	 * @return this builder
+	 */
+	public ExperimentBuilder recovery(boolean recovery) {
+		this.recovery = recovery;
+		return this;
+	}
+
+	/**
+	 * Sets a time limit for every learning task, as a multiple of the median time of the completed tasks (see {@link PUTExperiment#setRelativeTimeLimit(double)}).
+	 * This overrides any absolute time limit set earlier.
+	 * @param multiple The multiple of the median task time
+	 * @return this builder
+	 */
+	public ExperimentBuilder relativeTimeLimit(double multiple) {
+		timeLimitMultiple = multiple;
+		timeLimit = 0;
+		return this;
+	}
+
+	/**
+	 * Sets if the duplicate rows should be removed (see {@link PUTExperiment#DUPLICATE_ROWS_SWITCH})
+	 * @param removeDuplicates <code>true</code> to remove the duplicate rows, <code>false</code> otherwise
+	 * @return this builder
+	 */
+	public ExperimentBuilder removeDuplicates(boolean removeDuplicates) {
+		this.removeDuplicates = removeDuplicates;
+		return this;
+	}
+
+	/**
+	 * Sets the file in which the outcomes of the learning tasks are cached (see {@link PUTExperiment#setResultCacheFile(File)})
+	 * @param filePath The path of the cache file
+	 * @return this builder
+	 */
+	public ExperimentBuilder resultCache(String filePath) {
+		resultCacheFile = filePath;
+		return this;
+	}
+
+	/**
+	 * Sets the seed for the random choices of the experiment
+	 * @param seed The seed
+	 * @return this builder
+	 */
+	public ExperimentBuilder seed(long seed) {
+		this.seed = seed;
+		return this;
+	}
+
+	/**
+	 * Makes the experiment use a result cache shared with other experiments, instead of opening its own cache file
+	 * @param sharedResultCache The shared result cache
+	 * @return this builder
+	 */
+	public ExperimentBuilder sharedResultCache(ResultCache sharedResultCache) {
+		this.sharedResultCache = sharedResultCache;
+		return this;
+	}
+
+	/**
+	 * Sets the additional targets to evaluate every partition against (see {@link PUTExperiment#setTargets(int[])})
+	 * @param targets The indices of the additional targets
+	 * @return this builder
+	 */
+	public ExperimentBuilder targets(int... targets) {
+		this.targets = targets.clone();
+		return this;
+	}
+
+	/**
+	 * Sets an absolute time limit for every learning task (see {@link PUTExperiment#setTimeLimit(long)}). This overrides any relative time limit set earlier.
+	 * @param seconds The time limit in seconds
+	 * @return this builder
+	 */
+	public ExperimentBuilder timeLimit(long seconds) {
+		timeLimit = seconds;
+		timeLimitMultiple = 0;
+		return this;
+	}
+
+	/**
+	 * Makes the experiment retain only the best results (see {@link PUTExperiment#setTopResults(int, String)})
+	 * @param limit The number of results to retain
+	 * @param metricName The metric by which the results are compared
+	 * @return this builder
+	 */
+	public ExperimentBuilder topResults(int limit, String metricName) {
+		topResultsLimit = limit;
+		topResultsMetric = metricName;
+		return this;
+	}
+
+	/**
+	 * Converts attribute indices to a set
+	 * @param attributes The attribute indices
+	 * @return The set of the attribute indices
+	 */
+	private static Set<Integer> toSet(int... attributes) {
+		Set<Integer> set = new TreeSet<Integer>();
+		for(int attribute : attributes)
+			set.add(attribute);
+		return set;
+	}
+
+	/**
+	 * Adds a utility exception, i.e. a set of attributes that must appear together if any of them appears in a partition (see {@link PUTExperiment#addUtilityException(Set)})
+	 * @param attributes The attribute indices of the exception
+	 * @return this builder
+	 */
+	public ExperimentBuilder utilityException(int... attributes) {
+		utilityExceptions.add(toSet(attributes));
+		return this;
+	}
+
+	/**
+	 * Sets the vertical expense
+	 * @param vExpense The vertical expense, >0 and <=1
+	 * @return this builder
+	 */
+	public ExperimentBuilder verticalExpense(float vExpense) {
+		this.vExpense = vExpense;
+		return this;
+	}
+}
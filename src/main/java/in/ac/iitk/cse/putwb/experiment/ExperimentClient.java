@@ -0,0 +1,127 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An ExperimentClient submits an experiment to an {@link ExperimentServer} running on the same machine, and prints the output and errors of the experiment
+ * as they arrive, exiting with the exit status of the experiment.<br>
+ * The options of the experiment are the same as for {@link PUTExperiment}. Since the server may have been started in another folder,
+ * the paths of the files in the options are made absolute (as per the current folder) before the experiment is submitted.
+ * The client presents the token of the server, read from the token file written by the server.
+ * Interrupting the client (e.g. with Ctrl+C) stops the experiment on the server.
+ * @author Saurabh Srivastava
+ *
+ */
+public class ExperimentClient {
+
+	/**
+	 * Switch for providing the port of the server (the other switches are passed on to the experiment)
+	 */
+	public static final String PORT_SWITCH = ExperimentServer.PORT_SWITCH;
+
+	/**
+	 * Switch for providing the file holding the token of the server
+	 */
+	public static final String TOKEN_FILE_SWITCH = ExperimentServer.TOKEN_FILE_SWITCH;
+
+	/**
+	 * The switches of the experiment that take the path of a file
+	 */
+	private static final String[] FILE_SWITCHES = {PUTExperiment.DATA_FILE_SWITCH, PUTExperiment.OUTPUT_FILE_SWITCH, PUTExperiment.RESULT_CACHE_SWITCH,
+			PUTExperiment.STDERR_SWITCH, PUTExperiment.STDOUT_SWITCH, PUTExperiment.TOKEN_SWITCH};
+
+	/**
+	 * Makes the paths of the files in the options of an experiment absolute, as per the current folder
+	 * @param options The options of the experiment
+	 * @return The options with absolute paths
+	 */
+	private static String[] getAbsoluteOptions(List<String> options) {
+		String[] result = options.toArray(new String[options.size()]);
+		for(int i = 0; i + 1 < result.length; i++) {
+			for(String fileSwitch : FILE_SWITCHES) {
+				if(result[i].compareToIgnoreCase(fileSwitch) == 0) {
+					result[i + 1] = new File(result[i + 1]).getAbsolutePath();
+					i++;
+					break;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * The main to submit an experiment
+	 * @param args The commandline arguments - optionally the port and the token file of the server, followed by the options of the experiment
+	 */
+	public static void main(String[] args) {
+		if(args.length == 0) {
+			System.out.println("Usage: " + ExperimentClient.class.getName() + " [" + PORT_SWITCH + " <port>] [" + TOKEN_FILE_SWITCH + " <token file>] <options of the experiment>");
+			System.out.println("The token file defaults to the one the server writes for the port, " + ExperimentServer.getDefaultTokenFile(ExperimentServer.DEFAULT_PORT).getPath().replace(String.valueOf(ExperimentServer.DEFAULT_PORT), "<port>") + ".");
+			System.out.println("The server is started with " + ExperimentServer.class.getName() + ", and the options of the experiment are listed by " + PUTExperiment.class.getName() + " without any arguments.");
+			System.exit(0);
+		}
+		int port = ExperimentServer.DEFAULT_PORT;
+		String tokenFile = null;
+		List<String> options = new ArrayList<String>();
+		try {
+			for(int i = 0; i < args.length; i++) {
+				if(args[i].compareToIgnoreCase(PORT_SWITCH) == 0)
+					port = Integer.parseInt(args[++i]);
+				else if(args[i].compareToIgnoreCase(TOKEN_FILE_SWITCH) == 0)
+					tokenFile = args[++i];
+				else
+					options.add(args[i]);
+			}
+		} catch (NumberFormatException e) {
+			System.err.println("Problem in parsing numerical value - " + e.getMessage());
+			System.exit(-1);
+		} catch (ArrayIndexOutOfBoundsException e) {
+			System.err.println("Invalid number of arguments. Please provide matching arguments for all the switches.");
+			System.exit(-1);
+		}
+		byte[] token = null;
+		try {
+			String path = tokenFile == null ? ExperimentServer.getDefaultTokenFile(port).getPath() : tokenFile;
+			token = TaskCoordinator.readToken(path).getBytes(StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			System.err.println("Fatal Error - could not read the token of the server (" + e.getMessage() + "). Is the server running?");
+			System.exit(-1);
+		}
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+			DataOutputStream toServer = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			String[] absoluteOptions = getAbsoluteOptions(options);
+			toServer.writeInt(ExperimentServer.HELLO);
+			toServer.writeInt(token.length);
+			toServer.write(token);
+			toServer.writeInt(absoluteOptions.length);
+			for(String option : absoluteOptions)
+				toServer.writeUTF(option);
+			toServer.flush();
+			DataInputStream fromServer = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			while(true) {
+				int message = fromServer.readInt();
+				if(message == ExperimentServer.EXIT)
+					System.exit(fromServer.readInt());
+				byte[] text = new byte[fromServer.readInt()];
+				fromServer.readFully(text);
+				PrintStream stream = message == ExperimentServer.ERROR ? System.err : System.out;
+				stream.print(new String(text, "UTF-8"));
+				stream.flush();
+			}
+		} catch (IOException e) {
+			System.err.println("Fatal Error - problem in submitting the experiment to the server on port " + port + " (" + e + "). Is the server running?");
+			System.exit(-1);
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+/**
+ * An ExperimentException tells that an experiment has failed, e.g. since its partitioned datasets could not be created or its results could not be written.<br>
+ * It is thrown to the caller that runs or awaits the experiment, instead of exiting the JVM, so that an experiment failing does not affect the other experiments in the same process.
+ * The description of the failure is the message of the exception, and the error that caused it is the cause of the exception.
+ * @author Saurabh Srivastava
+ *
+ */
+@SuppressWarnings("serial")
+public class ExperimentException extends Exception {
+
+	/**
+	 * Creates an exception for a failed experiment
+	 * @param message The description of the failure
+	 * @param cause The error that caused the failure
+	 */
+	public ExperimentException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
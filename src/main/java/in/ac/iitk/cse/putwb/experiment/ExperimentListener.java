@@ -0,0 +1,43 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import java.util.List;
+
+/**
+ * An ExperimentListener is told about the progress of an experiment as it happens, instead of polling the status indicators of the experiment.<br>
+ * The notifications are delivered asynchronously, in the order in which they happen, by a single thread of the experiment (so a listener for a user interface
+ * must hand them over to the thread of the user interface). A slow listener does not hold up the experiment - the learning tasks completed in the meantime are
+ * delivered together, and the progress updates in the meantime are coalesced into the latest one.
+ * @author Saurabh Srivastava
+ *
+ */
+public interface ExperimentListener {
+
+	/**
+	 * Called when the experiment runs into an error, after which it moves to the {@link ExperimentProgress#STAGE_FAILED} stage
+	 * @param experiment The experiment
+	 * @param message The description of the error
+	 * @param cause The cause of the error
+	 */
+	public void errorOccurred(PUTExperiment experiment, String message, Exception cause);
+
+	/**
+	 * Called when the progress of the experiment changes, e.g. as the partitioned datasets are created or the learning tasks complete
+	 * @param experiment The experiment
+	 * @param progress The latest progress of the experiment
+	 */
+	public void progressUpdated(PUTExperiment experiment, ExperimentProgress progress);
+
+	/**
+	 * Called when the experiment moves to a new stage, or is paused or resumed (see {@link ExperimentProgress#isPaused()})
+	 * @param experiment The experiment
+	 * @param progress The progress of the experiment at the time it moved to the new stage (see {@link ExperimentProgress#getStage()})
+	 */
+	public void stageChanged(PUTExperiment experiment, ExperimentProgress progress);
+
+	/**
+	 * Called when learning tasks of the experiment complete (the tasks of the rounds of racing, whose stats are not saved, are not included)
+	 * @param experiment The experiment
+	 * @param stats The stats of the completed learning tasks, in the order in which they were collected
+	 */
+	public void tasksCompleted(PUTExperiment experiment, List<Stats> stats);
+}
@@ -0,0 +1,217 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+/**
+ * An ExperimentProgress is a snapshot of the progress of an experiment at a point of time, as delivered to the {@link ExperimentListener}s of the experiment.<br>
+ * The counts that are not known at the time of the snapshot (e.g. the number of learning tasks, before the partitions are generated) are -1, and the
+ * estimates that are not available (e.g. the throughput, before any learning task completes) are <code>NaN</code>.
+ * @author Saurabh Srivastava
+ *
+ */
+public class ExperimentProgress {
+
+	/**
+	 * The stage of an experiment that has completed, and saved its results
+	 */
+	public static final short STAGE_COMPLETED = 6;
+
+	/**
+	 * The stage of an experiment that has failed, due to an error reported to the listeners
+	 */
+	public static final short STAGE_FAILED = 7;
+
+	/**
+	 * The stage of an experiment that is generating the partitions
+	 */
+	public static final short STAGE_GENERATING = 1;
+
+	/**
+	 * The stage of an experiment that is partitioning the dataset and learning over the partitions
+	 */
+	public static final short STAGE_LEARNING = 3;
+
+	/**
+	 * The stage of an experiment that has not started as yet
+	 */
+	public static final short STAGE_NOT_STARTED = 0;
+
+	/**
+	 * The stage of an experiment that is racing the partitions on growing samples of the rows
+	 */
+	public static final short STAGE_RACING = 2;
+
+	/**
+	 * The stage of an experiment that has been stopped before completion
+	 */
+	public static final short STAGE_STOPPED = 8;
+
+	/**
+	 * The stage of an experiment that is writing the results to the result file
+	 */
+	public static final short STAGE_WRITING = 4;
+
+	/**
+	 * Tells if a stage is a final one, after which the experiment makes no more progress
+	 * @param stage The stage
+	 * @return <code>true</code> if the experiment has completed, failed or been stopped in the given stage, <code>false</code> otherwise
+	 */
+	public static boolean isFinalStage(short stage) {
+		return stage == STAGE_COMPLETED || stage == STAGE_FAILED || stage == STAGE_STOPPED;
+	}
+
+	/**
+	 * The estimated time remaining (in seconds) for the learning tasks to complete
+	 */
+	private double estimatedTimeRemaining;
+
+	/**
+	 * The median time (in seconds) taken by the completed learning tasks
+	 */
+	private double medianTaskTime;
+
+	/**
+	 * The number of partitioned datasets created
+	 */
+	private long numOfPartitionedDatasets;
+
+	/**
+	 * The number of results written to the result file
+	 */
+	private long numOfResultsWrittenToFile;
+
+	/**
+	 * The number of learning tasks completed
+	 */
+	private long numOfTasksCompleted;
+
+	/**
+	 * A flag that tells if the experiment is paused
+	 */
+	private boolean paused;
+
+	/**
+	 * The stage of the experiment
+	 */
+	private short stage;
+
+	/**
+	 * The 95th percentile of the times (in seconds) taken by the completed learning tasks
+	 */
+	private double tailTaskTime;
+
+	/**
+	 * The estimated number of learning tasks being completed per second
+	 */
+	private double throughput;
+
+	/**
+	 * The number of learning tasks of the experiment (or of the current round of racing)
+	 */
+	private long totalTasks;
+
+	/**
+	 * Creates a snapshot of the progress of an experiment
+	 * @param stage The stage of the experiment; one of the stage constants of this class
+	 * @param totalTasks The number of learning tasks, or -1 if not known
+	 * @param numOfPartitionedDatasets The number of partitioned datasets created, or -1 if not known
+	 * @param numOfTasksCompleted The number of learning tasks completed, or -1 if not known
+	 * @param numOfResultsWrittenToFile The number of results written to the result file, or -1 if not known
+	 * @param throughput The estimated number of learning tasks being completed per second, or <code>NaN</code> if not available
+	 * @param estimatedTimeRemaining The estimated time remaining (in seconds) for the learning tasks to complete, or <code>NaN</code> if not available
+	 * @param medianTaskTime The median time (in seconds) taken by the completed learning tasks, or <code>NaN</code> if not available
+	 * @param tailTaskTime The 95th percentile of the times (in seconds) taken by the completed learning tasks, or <code>NaN</code> if not available
+	 * @param paused <code>true</code> if the experiment is paused, <code>false</code> otherwise
+	 */
+	public ExperimentProgress(short stage, long totalTasks, long numOfPartitionedDatasets, long numOfTasksCompleted, long numOfResultsWrittenToFile,
+			double throughput, double estimatedTimeRemaining, double medianTaskTime, double tailTaskTime, boolean paused) {
+		this.stage = stage;
+		this.totalTasks = totalTasks;
+		this.numOfPartitionedDatasets = numOfPartitionedDatasets;
+		this.numOfTasksCompleted = numOfTasksCompleted;
+		this.numOfResultsWrittenToFile = numOfResultsWrittenToFile;
+		this.throughput = throughput;
+		this.estimatedTimeRemaining = estimatedTimeRemaining;
+		this.medianTaskTime = medianTaskTime;
+		this.tailTaskTime = tailTaskTime;
+		this.paused = paused;
+	}
+
+	/**
+	 * Returns the estimated time remaining for the learning tasks to complete
+	 * @return the estimated time remaining in seconds, or <code>NaN</code> if not available
+	 */
+	public double getEstimatedTimeRemaining() {
+		return estimatedTimeRemaining;
+	}
+
+	/**
+	 * Returns the median time taken by the completed learning tasks
+	 * @return the median task time in seconds, or <code>NaN</code> if not available
+	 */
+	public double getMedianTaskTime() {
+		return medianTaskTime;
+	}
+
+	/**
+	 * Returns the number of partitioned datasets created
+	 * @return the number of partitioned datasets, or -1 if not known
+	 */
+	public long getNumOfPartitionedDatasets() {
+		return numOfPartitionedDatasets;
+	}
+
+	/**
+	 * Returns the number of results written to the result file
+	 * @return the number of results written, or -1 if not known
+	 */
+	public long getNumOfResultsWrittenToFile() {
+		return numOfResultsWrittenToFile;
+	}
+
+	/**
+	 * Returns the number of learning tasks completed
+	 * @return the number of completed tasks, or -1 if not known
+	 */
+	public long getNumOfTasksCompleted() {
+		return numOfTasksCompleted;
+	}
+
+	/**
+	 * Returns the stage of the experiment
+	 * @return the stage; one of the stage constants of this class
+	 */
+	public short getStage() {
+		return stage;
+	}
+
+	/**
+	 * Returns the 95th percentile of the times taken by the completed learning tasks
+	 * @return the tail task time in seconds, or <code>NaN</code> if not available
+	 */
+	public double getTailTaskTime() {
+		return tailTaskTime;
+	}
+
+	/**
+	 * Returns the estimated number of learning tasks being completed per second
+	 * @return the throughput in tasks per second, or <code>NaN</code> if not available
+	 */
+	public double getThroughput() {
+		return throughput;
+	}
+
+	/**
+	 * Returns the number of learning tasks of the experiment (or of the current round of racing)
+	 * @return the number of learning tasks, or -1 if not known
+	 */
+	public long getTotalTasks() {
+		return totalTasks;
+	}
+
+	/**
+	 * Tells if the experiment is paused (in its current stage). The listeners are told when the experiment is paused or resumed, as if it moved to a new stage.
+	 * @return <code>true</code> if the experiment is paused, <code>false</code> otherwise
+	 */
+	public boolean isPaused() {
+		return paused;
+	}
+}
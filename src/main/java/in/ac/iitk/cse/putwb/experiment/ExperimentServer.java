@@ -0,0 +1,366 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import in.ac.iitk.cse.putwb.io.DatasetCache;
+import in.ac.iitk.cse.putwb.log.BasicLogger;
+
+/**
+ * An ExperimentServer is a resident process that runs the experiments submitted to it by {@link ExperimentClient}s, so that the JVM startup,
+ * the initialization of the Weka classes, and the loading and cleaning of the datasets are paid once, instead of once per experiment.<br>
+ * The server listens on a TCP port of the loopback interface only. Since an experiment reads and writes files as the user running the server, a client must first
+ * present a token, which the server creates afresh when it starts and writes to a file readable by its user only. A client then sends the (command line) options of an experiment,
+ * exactly as for {@link PUTExperiment}, and receives the output and errors of the experiment as they are logged, followed by the exit status of the experiment.
+ * The cleaned datasets are kept in a {@link DatasetCache}, keyed by the contents of the data files, so later experiments over an unmodified data file skip loading it.
+ * The experiments submitted together run side by side, each with its own threads. If a client disconnects before its experiment completes, the experiment is stopped.<br>
+ * The messages are exchanged over data streams, in the following form:
+ * <ul>
+ * 	<li>Client to server - {@link #HELLO} followed by the token, and then the number of options, followed by every option</li>
+ * 	<li>Server to client - {@link #OUTPUT} or {@link #ERROR} followed by a chunk of (UTF-8) text, any number of times, and finally {@link #EXIT} followed by the exit status</li>
+ * </ul>
+ * @author Saurabh Srivastava
+ *
+ */
+public class ExperimentServer {
+
+	/**
+	 * Switch for providing the maximum number of cleaned datasets kept by the server
+	 */
+	public static final String CACHE_CAPACITY_SWITCH = "-datasets";
+
+	/**
+	 * Default maximum number of cleaned datasets kept by the server
+	 */
+	public static final int DEFAULT_CACHE_CAPACITY = 8;
+
+	/**
+	 * Default port on which the server accepts experiments
+	 */
+	public static final int DEFAULT_PORT = 5100;
+
+	/**
+	 * Switch for providing the port on which the server accepts experiments
+	 */
+	public static final String PORT_SWITCH = "-port";
+
+	/**
+	 * Switch for providing the file holding the token of the server
+	 */
+	public static final String TOKEN_FILE_SWITCH = "-serverToken";
+
+	/**
+	 * The message from the server carrying a chunk of the errors of the experiment
+	 */
+	static final int ERROR = 1;
+
+	/**
+	 * The message from the server carrying the exit status of the experiment, after which the connection is closed
+	 */
+	static final int EXIT = 2;
+
+	/**
+	 * The message from a client opening the connection, with the token of the server
+	 */
+	static final int HELLO = 4;
+
+	/**
+	 * The message from the server carrying a chunk of the output of the experiment
+	 */
+	static final int OUTPUT = 3;
+
+	/**
+	 * Returns the default file holding the token of a server, in the home folder of the user
+	 * @param port The port of the server
+	 * @return The token file
+	 */
+	static File getDefaultTokenFile(int port) {
+		return new File(System.getProperty("user.home"), ".putwb_server_" + port + ".token");
+	}
+
+	/**
+	 * The main to run a server
+	 * @param args The commandline arguments for the server
+	 */
+	public static void main(String[] args) {
+		BasicLogger defaultLogger = BasicLogger.getDefaultLogger();
+		int port = DEFAULT_PORT;
+		int cacheCapacity = DEFAULT_CACHE_CAPACITY;
+		String tokenFile = null;
+		try {
+			for(int i = 0; i < args.length; i++) {
+				if(args[i].compareToIgnoreCase(PORT_SWITCH) == 0)
+					port = Integer.parseInt(args[++i]);
+				else if(args[i].compareToIgnoreCase(CACHE_CAPACITY_SWITCH) == 0)
+					cacheCapacity = Integer.parseInt(args[++i]);
+				else if(args[i].compareToIgnoreCase(TOKEN_FILE_SWITCH) == 0)
+					tokenFile = args[++i];
+				else
+					throw new IllegalArgumentException("Invaid option - " + args[i]);
+			}
+		} catch (NumberFormatException e) {
+			defaultLogger.errorln("Problem in parsing numerical value - " + e.getMessage());
+			System.exit(-1);
+		} catch (ArrayIndexOutOfBoundsException e) {
+			defaultLogger.errorln("Invalid number of arguments. Please provide matching arguments for all the switches.");
+			System.exit(-1);
+		} catch (IllegalArgumentException e) {
+			defaultLogger.errorln(e.getMessage());
+			printUsageDetails();
+			System.exit(-1);
+		}
+		try {
+			File file = tokenFile == null ? getDefaultTokenFile(port) : new File(tokenFile);
+			String token = TaskCoordinator.createToken();
+			TaskCoordinator.writeToken(file, token);
+			defaultLogger.outln("Clients must present the token in " + file.getAbsolutePath());
+			ExperimentServer server = new ExperimentServer(cacheCapacity, token, defaultLogger);
+			server.serve(port);
+		} catch (Exception e) {
+			defaultLogger.errorln("Fatal Error - problem in serving experiments on port " + port + ". Exiting.");
+			defaultLogger.exception(e);
+			System.exit(-1);
+		}
+	}
+
+	/**
+	 * Prints a summary of the usage of the server
+	 */
+	public static void printUsageDetails() {
+		System.out.println("---------------------------------------------------------------");
+		System.out.println("  PUTWorkbench Experiment Server " + PUTExperiment.versionInfo);
+		System.out.println("---------------------------------------------------------------");
+		System.out.println("\nUsage options:");
+		System.out.println(PORT_SWITCH + "\t (Default: " + DEFAULT_PORT + ") The port (on the loopback interface) on which to accept experiments, e.g. " + PORT_SWITCH + " 5200");
+		System.out.println(CACHE_CAPACITY_SWITCH + "\t (Default: " + DEFAULT_CACHE_CAPACITY + ") The maximum number of cleaned datasets to keep loaded, or 0 for no limit, e.g. " + CACHE_CAPACITY_SWITCH + " 4");
+		System.out.println(TOKEN_FILE_SWITCH + "\t (Default: " + getDefaultTokenFile(DEFAULT_PORT).getPath().replace(String.valueOf(DEFAULT_PORT), "<port>") + ") The file to write the token of the server to," + 
+				"\n\t readable by the current user only, e.g. " + TOKEN_FILE_SWITCH + " server.token");
+		System.out.println("\nExperiments are submitted with " + ExperimentClient.class.getName() + " [" + ExperimentClient.PORT_SWITCH + " <port>] [" + TOKEN_FILE_SWITCH + " <token file>] <options of the experiment>.");
+		System.out.println();
+	}
+
+	/**
+	 * The cache of the cleaned datasets, shared by all the experiments
+	 */
+	private DatasetCache datasetCache;
+
+	/**
+	 * The logger for this server
+	 */
+	private BasicLogger logger;
+
+	/**
+	 * The number of experiments submitted so far
+	 */
+	private AtomicLong numOfExperiments;
+
+	/**
+	 * The token a client must present before it submits an experiment
+	 */
+	private byte[] token;
+
+	/**
+	 * Creates a server
+	 * @param cacheCapacity The maximum number of cleaned datasets to keep, or 0 for no limit
+	 * @param token The token the clients must present
+	 * @param logger The logger for this server
+	 * @throws IllegalArgumentException If the capacity is negative
+	 */
+	public ExperimentServer(int cacheCapacity, String token, BasicLogger logger) throws IllegalArgumentException {
+		this.logger = logger;
+		this.token = token.getBytes(StandardCharsets.UTF_8);
+		datasetCache = new DatasetCache(cacheCapacity);
+		numOfExperiments = new AtomicLong(0);
+	}
+
+	/**
+	 * Returns the cache of the cleaned datasets of this server
+	 * @return the dataset cache
+	 */
+	public DatasetCache getDatasetCache() {
+		return datasetCache;
+	}
+
+	/**
+	 * Runs an experiment for a client, logging its output and errors to the client, and stopping it if the client disconnects. A client presenting a wrong token is refused.
+	 * @param socket The connection to the client
+	 * @param number The number of the experiment, for the messages of this server
+	 * @throws IOException If the client does not open the connection as expected, the options of the experiment could not be read, or the connection to the client is lost
+	 */
+	private void runExperiment(Socket socket, long number) throws IOException {
+		DataInputStream fromClient = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		DataOutputStream toClient = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+		// Nothing is read from the client, nor run, till it presents the token
+		if(fromClient.readInt() != HELLO)
+			throw new IOException("The client did not open the connection");
+		byte[] clientToken = new byte[TaskCoordinator.readLength(fromClient)];
+		fromClient.readFully(clientToken);
+		if(!MessageDigest.isEqual(token, clientToken)) {
+			logger.errorln("Refused the client of experiment " + number + " (wrong token)");
+			return;
+		}
+		String[] options = new String[TaskCoordinator.readLength(fromClient)];
+		for(int i = 0; i < options.length; i++)
+			options[i] = fromClient.readUTF();
+		logger.outln("Experiment " + number + " submitted with options - " + Arrays.toString(options));
+		long start = System.currentTimeMillis();
+
+		PrintStream output = new PrintStream(new FrameOutputStream(toClient, OUTPUT), true, "UTF-8");
+		PrintStream errors = new PrintStream(new FrameOutputStream(toClient, ERROR), true, "UTF-8");
+		BasicLogger console = BasicLogger.getLogger(output, errors);
+		int status;
+		PUTExperiment experiment = PUTExperiment.createExperiment(options, datasetCache, console);
+		if(experiment == null) {
+			console.errorln("Problems in creating experiment. To see usage details, invoke " + PUTExperiment.class.getName() + " without any arguments");
+			status = -1;
+		} else {
+			console.outln("Running compatibility tests");
+			String error = experiment.runCompatibilityTests();
+			if(error != null) {
+				console.errorln(error);
+				console.outln("Problems in running experiment... aborting");
+				status = 1;
+			} else {
+				console.outln("Starting experiment...");
+				experiment.startExperimentAsync();
+				Thread disconnectionWatcher = CoordinationThreads.newThread("Client Watcher - Experiment " + number, new Runnable() {
+					@Override
+					public void run() {
+						try {
+							// The client sends nothing more, so the read returns only once the client disconnects
+							if(fromClient.read() < 0) {
+								logger.errorln("Client of experiment " + number + " disconnected, stopping the experiment");
+								experiment.stopExperiment();
+							}
+						} catch (IOException e) {
+							experiment.stopExperiment();
+						}
+					}
+				});
+				disconnectionWatcher.start();
+				status = 0;
+				try {
+					experiment.awaitExperiment();
+				} catch (InterruptedException e) {
+					experiment.stopExperiment();
+				} catch (ExperimentException e) {
+					console.errorln(e.getMessage());
+					console.exception(e);
+					status = -1;
+				}
+				if(status == 0)
+					console.outln("Done !!");
+			}
+		}
+		output.flush();
+		errors.flush();
+		synchronized(toClient) {
+			toClient.writeInt(EXIT);
+			toClient.writeInt(status);
+			toClient.flush();
+		}
+		logger.outln(String.format("Experiment %d completed with status %d in %.3f sec (%d datasets cached)", number, status, (System.currentTimeMillis() - start) / 1000d, datasetCache.size()));
+	}
+
+	/**
+	 * Accepts experiments on a port of the loopback interface, running every experiment in a separate thread, and blocks forever
+	 * @param port The port to listen on
+	 * @throws IOException If the port could not be listened on
+	 */
+	public void serve(int port) throws IOException {
+		ServerSocket serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+		logger.outln("Accepting experiments on port " + port);
+		while(true) {
+			Socket socket = serverSocket.accept();
+			long number = numOfExperiments.incrementAndGet();
+			Thread handler = CoordinationThreads.newThread("Experiment Handler - " + number, new Runnable() {
+				@Override
+				public void run() {
+					try {
+						runExperiment(socket, number);
+					} catch (IOException e) {
+						logger.errorln("Lost the client of experiment " + number + " (" + e + ")");
+					} finally {
+						try {
+							socket.close();
+						} catch (IOException e) {
+							// Already closed
+						}
+					}
+				}
+			});
+			handler.start();
+		}
+	}
+
+	/**
+	 * A stream that sends whatever is written to it to the client, as a message of a given type, every time it is flushed
+	 * @author Saurabh Srivastava
+	 *
+	 */
+	private static class FrameOutputStream extends OutputStream {
+
+		/**
+		 * The bytes written since the last flush
+		 */
+		private ByteArrayOutputStream buffer;
+
+		/**
+		 * The type of the messages, {@link ExperimentServer#OUTPUT} or {@link ExperimentServer#ERROR}
+		 */
+		private int messageType;
+
+		/**
+		 * The stream to the client, shared with the other message types
+		 */
+		private DataOutputStream toClient;
+
+		/**
+		 * Creates a stream for a type of messages
+		 * @param toClient The stream to the client
+		 * @param messageType The type of the messages
+		 */
+		FrameOutputStream(DataOutputStream toClient, int messageType) {
+			this.toClient = toClient;
+			this.messageType = messageType;
+			buffer = new ByteArrayOutputStream();
+		}
+
+		@Override
+		public synchronized void flush() throws IOException {
+			if(buffer.size() == 0)
+				return;
+			synchronized(toClient) {
+				toClient.writeInt(messageType);
+				toClient.writeInt(buffer.size());
+				buffer.writeTo(toClient);
+				toClient.flush();
+			}
+			buffer.reset();
+		}
+
+		@Override
+		public synchronized void write(byte[] b, int off, int len) {
+			buffer.write(b, off, len);
+		}
+
+		@Override
+		public synchronized void write(int b) {
+			buffer.write(b);
+		}
+	}
+}
@@ -0,0 +1,284 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ProcessBuilder.Redirect;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import in.ac.iitk.cse.putwb.log.BasicLogger;
+
+/**
+ * ForkedWorkers runs a number of worker processes (see {@link TaskWorker}) on the local machine, each in a JVM of its own,
+ * and connects them to a {@link TaskCoordinator} over their standard input and output.<br>
+ * Since every worker has a heap of its own, the fragmented datasets created by its learning tasks are collected by its own garbage collector,
+ * which keeps the collection pauses short even when the learning tasks keep all the cores of a large machine busy.
+ * The worker processes are started with the same classpath and JVM settings as the current JVM, except for the maximum heap size, which is either set explicitly,
+ * or the maximum heap size of the current JVM split evenly among the worker processes (so that the workers together do not claim several times the memory meant for the experiment). A worker process that exits (or is killed, since it stopped responding) before the coordinator is closed
+ * is restarted (up to {@link #MAX_RESTARTS} times), and the tasks leased to it are handed out again by the coordinator.
+ * @author Saurabh Srivastava
+ *
+ */
+public class ForkedWorkers {
+
+	/**
+	 * The maximum number of times a worker process is restarted, after which it is given up
+	 */
+	public static final int MAX_RESTARTS = 3;
+
+	/**
+	 * The JVM arguments of the current JVM that are not passed on to the worker processes
+	 */
+	private static final String[] EXCLUDED_ARGUMENTS = {"-Xdebug", "-Xrun", "-Xms", "-Xmx", "-XX:InitialHeapSize", "-XX:MaxHeapSize", "-XX:MinHeapSize"};
+
+	/**
+	 * The smallest maximum heap size (in bytes) given to a worker process, when the heap of the current JVM is split among the worker processes
+	 */
+	private static final long MIN_HEAP_SIZE = 64L * 1024 * 1024;
+
+	/**
+	 * The environment variable through which a worker process receives the token of the coordinator, so that the token does not show up in the list of processes
+	 */
+	static final String TOKEN_VARIABLE = "PUTWB_WORKER_TOKEN";
+
+	/**
+	 * The main of a worker process, which works for its parent over its standard input and output
+	 * @param args The number of learning tasks to evaluate at a time (optional, by default as per the experiment)
+	 */
+	public static void main(String[] args) {
+		// The standard output carries the messages for the parent, so everything else printed by this process goes to the standard error
+		OutputStream toParent = new FileOutputStream(FileDescriptor.out);
+		System.setOut(System.err);
+		BasicLogger logger = BasicLogger.getDefaultLogger();
+		int parallelism = 0;
+		try {
+			if(args.length > 0)
+				parallelism = Integer.parseInt(args[0]);
+		} catch (NumberFormatException e) {
+			logger.errorln("Problem in parsing numerical value - " + e.getMessage());
+			System.exit(-1);
+		}
+		String token = System.getenv(TOKEN_VARIABLE);
+		if(token == null) {
+			logger.errorln("The token of the parent process is missing. Exiting.");
+			System.exit(-1);
+		}
+		TaskWorker worker = new TaskWorker(null, parallelism, token, logger);
+		try {
+			worker.work(System.in, toParent);
+		} catch (Exception e) {
+			logger.errorln("Fatal Error - problem in working for the parent process. Exiting.");
+			logger.exception(e);
+			System.exit(-1);
+		}
+		System.exit(0);
+	}
+
+	/**
+	 * The coordinator the worker processes work for
+	 */
+	private TaskCoordinator coordinator;
+
+	/**
+	 * The maximum heap size (in bytes) of every worker process
+	 */
+	private long heapSize;
+
+	/**
+	 * The logger for reporting the worker processes exiting
+	 */
+	private BasicLogger logger;
+
+	/**
+	 * The number of worker processes still running (or being restarted)
+	 */
+	private int numOfLiveWorkers;
+
+	/**
+	 * The number of learning tasks every worker process evaluates at a time, or 0 for the default of the experiment
+	 */
+	private int numOfThreads;
+
+	/**
+	 * The current process of every worker
+	 */
+	private Process[] processes;
+
+	/**
+	 * A flag that tells if the worker processes have been stopped
+	 */
+	private volatile boolean stopped;
+
+	/**
+	 * The token the worker processes present to the coordinator
+	 */
+	private String token;
+
+	/**
+	 * Creates a set of worker processes, without starting them
+	 * @param coordinator The coordinator the worker processes work for
+	 * @param numOfWorkers The number of worker processes
+	 * @param numOfThreads The number of learning tasks every worker process evaluates at a time, or 0 for the default of the experiment
+	 * @param heapSize The maximum heap size (in bytes) of every worker process, or a non-positive value to split the maximum heap size of the current JVM evenly among the worker processes
+	 * @param token The token of the coordinator
+	 * @param logger The logger for reporting the worker processes exiting
+	 * @throws IllegalArgumentException If the number of worker processes is not positive
+	 */
+	public ForkedWorkers(TaskCoordinator coordinator, int numOfWorkers, int numOfThreads, long heapSize, String token, BasicLogger logger) throws IllegalArgumentException {
+		if(numOfWorkers <= 0)
+			throw new IllegalArgumentException("The number of worker processes must be positive");
+		this.coordinator = coordinator;
+		this.numOfThreads = numOfThreads;
+		this.heapSize = heapSize > 0 ? heapSize : Math.max(MIN_HEAP_SIZE, Runtime.getRuntime().maxMemory() / numOfWorkers);
+		this.token = token;
+		this.logger = logger;
+		processes = new Process[numOfWorkers];
+		numOfLiveWorkers = 0;
+		stopped = false;
+	}
+
+	/**
+	 * Returns the command that starts a worker process
+	 * @return the command, along with its arguments
+	 */
+	private List<String> getCommand() {
+		List<String> command = new ArrayList<String>();
+		command.add(new File(System.getProperty("java.home"), "bin" + File.separator + "java").getPath());
+		// The garbage collector and other settings are passed on, but not the debugging ones, nor the heap sizes (the initial heap may not exceed the maximum heap set below)
+		for(String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+			boolean passedOn = argument.startsWith("-X");
+			for(String prefix : EXCLUDED_ARGUMENTS)
+				if(argument.startsWith(prefix))
+					passedOn = false;
+			if(passedOn)
+				command.add(argument);
+		}
+		command.add("-Xmx" + Math.max(1, heapSize / (1024 * 1024)) + "m");
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(ForkedWorkers.class.getName());
+		command.add(Integer.toString(numOfThreads));
+		return command;
+	}
+
+	/**
+	 * Returns the maximum heap size of every worker process
+	 * @return the heap size in bytes
+	 */
+	public long getHeapSize() {
+		return heapSize;
+	}
+
+	/**
+	 * Returns the number of worker processes
+	 * @return the number of worker processes
+	 */
+	public int getNumOfWorkers() {
+		return processes.length;
+	}
+
+	/**
+	 * Starts a worker process and connects it to the coordinator
+	 * @param index The index of the worker
+	 * @return The process of the worker
+	 * @throws IOException If the process could not be started
+	 */
+	private synchronized Process launch(int index) throws IOException {
+		if(stopped)
+			return null;
+		ProcessBuilder builder = new ProcessBuilder(getCommand());
+		builder.redirectError(Redirect.INHERIT);
+		builder.environment().put(TOKEN_VARIABLE, token);
+		Process process = builder.start();
+		processes[index] = process;
+		// A worker process that is not heard from is killed, and restarted by its supervisor
+		coordinator.serve(process.getInputStream(), process.getOutputStream(), "Worker process " + (index + 1), new Closeable() {
+			@Override
+			public void close() {
+				process.destroyForcibly();
+			}
+		});
+		return process;
+	}
+
+	/**
+	 * Starts the worker processes, each supervised by a separate thread which restarts it if it exits before the coordinator is closed
+	 */
+	public synchronized void start() {
+		numOfLiveWorkers = processes.length;
+		for(int i = 0; i < processes.length; i++) {
+			final int index = i;
+			Thread supervisor = CoordinationThreads.newThread("Worker Process Supervisor - " + (index + 1), new Runnable() {
+				@Override
+				public void run() {
+					int restarts = 0;
+					try {
+						while(true) {
+							Process process = launch(index);
+							if(process == null)
+								break;
+							int exitCode = process.waitFor();
+							if(stopped || coordinator.isClosed())
+								break;
+							if(restarts == MAX_RESTARTS) {
+								logger.errorln("Worker process " + (index + 1) + " exited with code " + exitCode + ", giving it up after " + MAX_RESTARTS + " restarts");
+								break;
+							}
+							restarts++;
+							logger.errorln("Worker process " + (index + 1) + " exited with code " + exitCode + ", restarting it");
+						}
+					} catch (IOException e) {
+						logger.errorln("Problem in starting the worker process " + (index + 1));
+						logger.exception(e);
+					} catch (InterruptedException e) {
+						// Stopped
+					}
+					workerLost();
+				}
+			});
+			supervisor.start();
+		}
+	}
+
+	/**
+	 * Stops the worker processes, once the coordinator is closed. The processes are let quit on their own for a while, and killed after that.
+	 * @param timeout The time (in milliseconds) to let the processes quit on their own
+	 */
+	public void stop(long timeout) {
+		Process[] current;
+		synchronized(this) {
+			stopped = true;
+			current = processes.clone();
+		}
+		long deadline = System.currentTimeMillis() + timeout;
+		for(Process process : current) {
+			if(process == null)
+				continue;
+			try {
+				if(!process.waitFor(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS))
+					process.destroyForcibly();
+			} catch (InterruptedException e) {
+				process.destroyForcibly();
+			}
+		}
+	}
+
+	/**
+	 * Records that a worker process is given up. Once all of them are given up, the pending tasks are abandoned, unless other workers may still connect to the coordinator.
+	 */
+	private void workerLost() {
+		synchronized(this) {
+			numOfLiveWorkers--;
+			if(numOfLiveWorkers > 0 || stopped)
+				return;
+		}
+		if(!coordinator.isClosed() && !coordinator.isListening())
+			coordinator.abandon("all the worker processes were lost");
+	}
+}
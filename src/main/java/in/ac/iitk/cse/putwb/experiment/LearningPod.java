@@ -1,10 +1,13 @@
 package in.ac.iitk.cse.putwb.experiment;
 
+import java.util.Arrays;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 
 import in.ac.iitk.cse.putwb.classify.DataClassifier;
+import weka.core.Instances;
 
 /**
  * This class represents a lightweight learning component, that attempts classification task over a given dataset, with a given Classifier
@@ -13,6 +16,11 @@ import in.ac.iitk.cse.putwb.classify.DataClassifier;
  */
 public class LearningPod implements Callable<Stats> {
 	
+	/**
+	 * The key under which the outcome of the classification task is added to the result cache, if any
+	 */
+	private byte[] cacheKey;
+
 	/**
 	 * The {@link DataClassifier} instance to use for classification
 	 */
@@ -22,12 +30,42 @@ public class LearningPod implements Callable<Stats> {
 	 * A String representation of the dataset (the list of attributes from the unfragmented dataset that are included for learning)
 	 */
 	private String description;
+
+	/**
+	 * The number of leading attributes of the dataset that belong to the partition, if the partition is evaluated against several targets
+	 */
+	private int numOfFeatures;
+
+	/**
+	 * The number of additional targets (besides the class attribute) to evaluate the partition against
+	 */
+	private int numOfTargets;
+	
+	/**
+	 * The result cache to add the outcome to, if any
+	 */
+	private ResultCache resultCache;
+
+	/**
+	 * The thread running the classification task, if it is running
+	 */
+	private volatile Thread runner;
 	
 	/**
 	 * The time taken by the classifier to build and cross validate the model
 	 */
 	private long time;
 	
+	/**
+	 * A flag that tells if the classification task has been timed out
+	 */
+	private volatile boolean timedOut;
+	
+	/**
+	 * The watchdog enforcing a time limit on the classification task, if any
+	 */
+	private TaskWatchdog watchdog;
+	
 	/**
 	 * Creates a new Learning pod with given dataset and description of the attributes (from the original dataset)
 	 * @param classifier The <code>DataClassifier</code> to use
@@ -36,6 +74,11 @@ public class LearningPod implements Callable<Stats> {
 		this.classifier = classifier;
 		this.description = classifier.getDatasetDescription();
 		time = 0;
+		timedOut = false;
+		watchdog = null;
+		resultCache = null;
+		cacheKey = null;
+		numOfTargets = 0;
 	}
 
 	/* (non-Javadoc)
@@ -43,13 +86,73 @@ public class LearningPod implements Callable<Stats> {
 	 */
 	@Override
 	public Stats call() throws Exception {
+		long tick = System.nanoTime();
+		Stats stat = null;
+		Stats[] targetStats = numOfTargets > 0 ? new Stats[numOfTargets] : null;
+		boolean evaluated = false;
+		runner = Thread.currentThread();
+		if(watchdog != null)
+			watchdog.taskStarted(this);
+		try {
+			if(targetStats == null)
+				stat = evaluate(classifier);
+			else {
+				// The dataset has the attributes of the partition, then the additional targets, and the class attribute at the end
+				stat = evaluate(classifier.selectTarget(numOfFeatures, numOfFeatures + numOfTargets));
+				for(int i = 0; i < numOfTargets; i++)
+					targetStats[i] = evaluate(classifier.selectTarget(numOfFeatures, numOfFeatures + i));
+			}
+			evaluated = true;
+		} catch (InterruptedException e) {
+			// An interruption not caused by the watchdog means that the experiment is being stopped
+			if(!timedOut)
+				throw e;
+		} finally {
+			time = (System.nanoTime() - tick);
+			if(watchdog != null)
+				watchdog.taskFinished(this, time, evaluated);
+			runner = null;
+		}
+		if(timedOut) {
+			// Clear any interruption that arrived after the classifier stopped checking for it
+			Thread.interrupted();
+			// The task may have finished just as it was timed out, in which case the results are still valid
+			timedOut = !evaluated;
+		}
+		if(timedOut) {
+			stat = getTimedOutStats(classifier.getNumOfClasses());
+			if(targetStats != null) {
+				Instances data = classifier.getDataset().getInstances();
+				for(int i = 0; i < numOfTargets; i++)
+					targetStats[i] = getTimedOutStats(data.attribute(numOfFeatures + i).numValues());
+				stat.setTargetStats(targetStats);
+			}
+			return stat;
+		}
+		// The stats against the class attribute carry the time of the whole task, like those of a task with a single target, while the stats against
+		// an additional target carry the time of its own evaluation
+		stat.setTime(time);
+		if(targetStats != null)
+			stat.setTargetStats(targetStats);
+		if(resultCache != null)
+			resultCache.put(cacheKey, stat);
+		return stat;
+	}
+
+	/**
+	 * Evaluates a classifier, and collects the stats of the evaluation
+	 * @param classifier The classifier to evaluate
+	 * @return The stats of the evaluation, with the time taken by it
+	 * @throws InterruptedException If the thread is interrupted before the evaluation completes
+	 * @throws Exception If the evaluation runs into a glitch
+	 */
+	private Stats evaluate(DataClassifier classifier) throws InterruptedException, Exception {
 		long tick = System.nanoTime();
 		classifier.evaluateModel();
-		time = (System.nanoTime() - tick);
 		Stats stat = new Stats();
-		stat.setAccuracy(classifier.getAccuracy());
-		stat.setTime(time);
+		stat.setTime(System.nanoTime() - tick);
 		stat.setPartition(getSetFromString());
+		stat.setAccuracy(classifier.getAccuracy());
 		stat.setTp(classifier.getTP());
 		stat.setFp(classifier.getFP());
 		stat.setFn(classifier.getFN());
@@ -60,17 +163,124 @@ public class LearningPod implements Callable<Stats> {
 		return stat;
 	}
 
+	/**
+	 * Returns a String representation of the dataset (the list of attributes from the unfragmented dataset that are included for learning)
+	 * @return the description of the dataset
+	 */
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * Returns the set of attribute indices (from the unfragmented dataset) that are included for learning
+	 * @return A {@link Set} of attribute indices
+	 */
+	public Set<Integer> getPartition() {
+		return getSetFromString();
+	}
+
 	/**
 	 * A utility method to convert the string representation (a set of attributes) of the fragmented dataset, to an actual set 
 	 * @return A {@link Set} of attribute indices
 	 */
 	private Set<Integer> getSetFromString() {
 		Set<Integer> result = new TreeSet<Integer>();
-		description = description.replaceAll("\\[", "").replaceAll("\\]", "");
-		String[] tokens = description.trim().split(",");
+		String attributes = description.replaceAll("\\[", "").replaceAll("\\]", "");
+		String[] tokens = attributes.trim().split(",");
 		for(String token : tokens)
 			result.add(Integer.parseInt(token.trim()));
 		return result;
 	}
+
+	/**
+	 * Returns the time taken by the classification task (against all the targets, if there are several of them), once it has run
+	 * @return the time in nano seconds
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * Creates the stats of the classification task, once it has been timed out. No metric values are available in this case.
+	 * @param numOfClasses The number of classes of the target
+	 * @return The stats of the timed out task
+	 */
+	private Stats getTimedOutStats(int numOfClasses) {
+		double[] unavailable = new double[numOfClasses];
+		Arrays.fill(unavailable, Double.NaN);
+		Stats stat = new Stats();
+		stat.setTime(time);
+		stat.setPartition(getSetFromString());
+		stat.setTimedOut(true);
+		stat.setTp(unavailable);
+		stat.setFp(unavailable);
+		stat.setFn(unavailable);
+		stat.setPrecision(unavailable);
+		stat.setRecall(unavailable);
+		stat.setRoc(unavailable);
+		stat.setPr(unavailable);
+		return stat;
+	}
+
+	/**
+	 * Tells if the classification task has been timed out
+	 * @return <code>true</code> if the task has been timed out, <code>false</code> otherwise
+	 */
+	public boolean isTimedOut() {
+		return timedOut;
+	}
+	
+	/**
+	 * Sets an executor to share the folds of the cross validation with, so that the folds are evaluated in parallel
+	 * @param foldExecutor The executor for the folds, or <code>null</code> to evaluate the folds one after another
+	 * @see DataClassifier#setFoldExecutor(Executor)
+	 */
+	public void setFoldExecutor(Executor foldExecutor) {
+		classifier.setFoldExecutor(foldExecutor);
+	}
+
+	/**
+	 * Sets a result cache, to which the outcome of the classification task is added once computed. 
+	 * The cache is looked up by the experiment before the task is created (see {@link PUTExperiment}), so that a cached outcome costs neither memory nor a fragmented dataset.
+	 * @param resultCache The result cache to use, or <code>null</code> for no caching
+	 * @param experimentFingerprint The fingerprint of the experiment this task belongs to (see {@link ResultCache#createFingerprint(weka.core.Instances, Class, String[], int, float, long)})
+	 */
+	public void setResultCache(ResultCache resultCache, byte[] experimentFingerprint) {
+		this.resultCache = resultCache;
+		cacheKey = resultCache == null ? null : ResultCache.createKey(experimentFingerprint, getSetFromString());
+	}
+
+	/**
+	 * Sets the partition to be evaluated against additional targets, besides the class attribute, in the same task. 
+	 * The dataset of the classifier must have the attributes of the partition first, then the additional targets, and then the class attribute.
+	 * The stats against the class attribute then carry the stats against the additional targets (see {@link Stats#getTargetStats()}).
+	 * @param numOfFeatures The number of attributes of the partition in the dataset
+	 * @param numOfTargets The number of additional targets in the dataset, or 0 to evaluate the partition against the class attribute only
+	 */
+	public void setTargets(int numOfFeatures, int numOfTargets) {
+		this.numOfFeatures = numOfFeatures;
+		this.numOfTargets = numOfTargets;
+	}
+
+	/**
+	 * Sets a watchdog to enforce a time limit on the classification task. Under a time limit, the models are built in threads that are abandoned 
+	 * once the task is timed out (see {@link DataClassifier#setAbandonableBuilds(boolean)}), so that the task stops even if the classifier never checks for an interruption.
+	 * @param watchdog The watchdog to use, or <code>null</code> for no time limit
+	 */
+	public void setWatchdog(TaskWatchdog watchdog) {
+		this.watchdog = watchdog;
+		classifier.setAbandonableBuilds(watchdog != null);
+	}
+
+	/**
+	 * Times out the classification task, by interrupting the thread running it. The thread stops waiting for the model being built (see {@link #setWatchdog(TaskWatchdog)}), 
+	 * and interrupts the helpers evaluating the other folds, if any.
+	 */
+	public void timeOut() {
+		timedOut = true;
+		Thread thread = runner;
+		if(thread != null)
+			thread.interrupt();
+	}
 	
 }
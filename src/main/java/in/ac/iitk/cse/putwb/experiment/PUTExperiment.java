@@ -9,27 +9,40 @@ import java.io.PrintWriter;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
+import java.net.InetAddress;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.Random;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import in.ac.iitk.cse.putwb.classify.DataClassifier;
 import in.ac.iitk.cse.putwb.classify.Dataset;
+import in.ac.iitk.cse.putwb.classify.FoldPlan;
+import in.ac.iitk.cse.putwb.io.DatasetCache;
 import in.ac.iitk.cse.putwb.io.DatasetLoader;
 import in.ac.iitk.cse.putwb.log.BasicLogger;
 import in.ac.iitk.cse.putwb.partition.PartitionPlan;
@@ -38,6 +51,8 @@ import in.ac.iitk.cse.putwb.partition.RandomCombinationGenerator;
 import weka.classifiers.AbstractClassifier;
 import weka.classifiers.functions.SGD;
 import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
 import weka.core.Instances;
 import weka.core.UnassignedClassException;
 
@@ -79,6 +94,21 @@ public class PUTExperiment {
 		}
 	};
 
+	/**
+	 * Switch for adapting the number of learning threads to the throughput, CPU utilization and garbage collection time observed at runtime
+	 */
+	public static final String ADAPTIVE_CONCURRENCY_SWITCH = "-adapt";
+
+	/**
+	 * Switch for providing the address of the interface on which the coordinator accepts workers
+	 */
+	public static final String BIND_SWITCH = "-bind";
+
+	/**
+	 * Switch for providing a wall-clock budget for the learning tasks, after which no more learning tasks are started
+	 */
+	public static final String BUDGET_SWITCH = "-budget";
+
 	/**
 	 * Switch for providing any custom options for the classifier
 	 */
@@ -90,27 +120,60 @@ public class PUTExperiment {
 	public static final String CLASSIFIER_SWITCH = "-c";
 
 	/**
-	 * Switch for providing the (arff) data file
+	 * Switch for coordinating the learning tasks across worker processes (see {@link TaskWorker}), which connect on the given TCP port
 	 */
-	public static final String DATA_FILE_SWITCH = "-f";
+	public static final String COORDINATOR_SWITCH = "-coordinate";
 
 	/**
-	 * Maximum number of datasets that can wait in the queue.<br>
-	 * This is important as the memory available may no longer be enough to hold too many datasets simultaneously.<br>
-	 * If the memory available to the JVM is significantly restricted, reduce this number.
+	 * Switch for providing the (arff) data file
 	 */
-	private static final int DATASET_READY_QUEUE_SIZE = 100;
-	
+	public static final String DATA_FILE_SWITCH = "-f";
+
 	/**
 	 * Default name for the output file
 	 */
 	public static final String DEFAULT_OUTPUT_FILE_NAME = "results.csv";
 
+	/**
+	 * Default factor by which the partitions are cut down (and the sample grown) in every round of racing
+	 */
+	public static final double DEFAULT_RACE_ETA = 3;
+
+	/**
+	 * Default seed for the random choices of the learning tasks
+	 */
+	public static final long DEFAULT_SEED = 1;
+
 	/**
 	 * Switch for the method to handle duplicate rows
 	 */
 	public static final String DUPLICATE_ROWS_SWITCH = "-dr";
 
+	/**
+	 * Switch for choosing whether the folds of a learning task may be evaluated in parallel, when there are fewer learning tasks pending than processors
+	 */
+	public static final String FOLD_PARALLELISM_SWITCH = "-pfolds";
+
+	/**
+	 * The time (in milliseconds) for which the worker processes on this machine are let quit on their own, once the learning tasks are done
+	 */
+	public static final long FORKED_WORKERS_EXIT_TIMEOUT = 5000;
+
+	/**
+	 * Switch for evaluating the learning tasks in the given number of worker processes on this machine (see {@link ForkedWorkers}), each with a heap of its own
+	 */
+	public static final String FORK_SWITCH = "-fork";
+
+	/**
+	 * Switch for providing the maximum heap size of every worker process on this machine
+	 */
+	public static final String FORK_HEAP_SWITCH = "-forkheap";
+
+	/**
+	 * Switch for choosing the fused execution mode, where a single task partitions the dataset and immediately learns over it
+	 */
+	public static final String FUSED_EXECUTION_SWITCH = "-fuse";
+
 	/**
 	 * Switch for providing the combinations generation method
 	 */
@@ -127,11 +190,9 @@ public class PUTExperiment {
 	public static final String K_CROSS_SWITCH = "-k";
 
 	/**
-	 * Maximum number of learning requests that can wait in the queue.<br>
-	 * This is important as the memory available may no longer be enough to hold too many learning requests simultaneously.<br>
-	 * If the memory available to the JVM is significantly restricted, reduce this number.
+	 * Switch for providing the heap memory budget (in MB) for the fragmented datasets in flight
 	 */
-	private static final int LEARNING_REQUEST_QUEUE_SIZE = 100;
+	public static final String MEMORY_BUDGET_SWITCH = "-mem";
 
 	/**
 	 * Switch for the method to handle missing values
@@ -143,6 +204,11 @@ public class PUTExperiment {
 	 */
 	public static final String OUTPUT_FILE_SWITCH = "-out";
 
+	/**
+	 * Switch for providing the number of threads to use for partitioning and learning tasks
+	 */
+	public static final String PARALLELISM_SWITCH = "-threads";
+
 	/**
 	 * Switch for providing the partition size
 	 */
@@ -159,9 +225,24 @@ public class PUTExperiment {
 	public static final String PUT_NUMBER_SWITCH = "-put";
 
 	/**
-	 * A seed parameter for randomization
+	 * Switch for providing the factor by which the partitions are cut down (and the sample grown) in every round of racing
+	 */
+	public static final String RACE_ETA_SWITCH = "-raceeta";
+
+	/**
+	 * Switch for providing the proportion of rows in the sample for the first round of racing
+	 */
+	public static final String RACE_SWITCH = "-race";
+
+	/**
+	 * Switch for providing the file of the result cache, from which the outcomes of the partitions evaluated earlier are reused
+	 */
+	public static final String RESULT_CACHE_SWITCH = "-cache";
+
+	/**
+	 * Switch for providing the seed, from which every random choice of the learning tasks (row sampling and folds) is derived
 	 */
-	private static long seed;
+	public static final String SEED_SWITCH = "-seed";
 
 	/**
 	 * Switch for providing the standard error stream to use
@@ -173,6 +254,31 @@ public class PUTExperiment {
 	 */
 	public static final String STDOUT_SWITCH = "-stdout";
 
+	/**
+	 * Switch for providing the additional targets to evaluate every partition against
+	 */
+	public static final String TARGETS_SWITCH = "-targets";
+
+	/**
+	 * Switch for providing the time limit for a learning task, either in seconds, or as a multiple of the median time taken by the completed tasks
+	 */
+	public static final String TIMEOUT_SWITCH = "-timeout";
+
+	/**
+	 * Switch for providing the file holding the token the workers must present to the coordinator
+	 */
+	public static final String TOKEN_SWITCH = "-token";
+
+	/**
+	 * Switch for providing the metric by which the best results are retained
+	 */
+	public static final String TOP_RESULTS_METRIC_SWITCH = "-topby";
+
+	/**
+	 * Switch for providing the number of best results to retain
+	 */
+	public static final String TOP_RESULTS_SWITCH = "-top";
+
 	/**
 	 * Switch for providing the utility exceptions
 	 */
@@ -229,145 +335,90 @@ public class PUTExperiment {
 	 * @return Returns an instance of the Privacy Utility tradeoff experiment
 	 */
 	public static PUTExperiment createExperiment(String[] params) {
-		String filePath = null;
-		float putNumber = Float.MIN_VALUE;
-		int partitionSize = 0;
-		float vExpense = 1.0f;
-		float hExpense = 1.0f;
-		String privacyExceptions = null;
-		String utilityExceptions = null;
-		String outputFile = null;
-		String classifier = null;
-		String classifierOptions = null;
-		File stdout = null, stderr = null;
-		BasicLogger logger = BasicLogger.getDefaultLogger();
-		int k = 5;
-		boolean deleteMissing = false;
-		boolean removeDuplicates = true;
-		boolean useRandomGeneration = false;
+		return createExperiment(params, null);
+	}
+
+	/**
+	 * Creates a Privacy-Utility tradeoff experiment with the given parameters and logging options, taking the dataset from a cache shared with other experiments
+	 * @param params The commandline arguments provided for this experiment
+	 * @param datasetCache The cache to take the (cleaned) dataset from, or <code>null</code> to load the dataset afresh
+	 * @return Returns an instance of the Privacy Utility tradeoff experiment
+	 */
+	public static PUTExperiment createExperiment(String[] params, DatasetCache datasetCache) {
+		return createExperiment(params, datasetCache, BasicLogger.getDefaultLogger());
+	}
+
+	/**
+	 * Creates a Privacy-Utility tradeoff experiment with the given parameters and logging options, taking the dataset from a cache shared with other experiments,
+	 * and logging to the given console (instead of the standard output and error streams) unless the logging options say otherwise
+	 * @param params The commandline arguments provided for this experiment
+	 * @param datasetCache The cache to take the (cleaned) dataset from, or <code>null</code> to load the dataset afresh
+	 * @param console The logger to use in place of the standard output and error streams, e.g. for a client of an {@link ExperimentServer}
+	 * @return Returns an instance of the Privacy Utility tradeoff experiment
+	 */
+	public static PUTExperiment createExperiment(String[] params, DatasetCache datasetCache, BasicLogger console) {
 		try {
-			for(int i = 0; i < params.length; i++) {
-				if(params[i].compareToIgnoreCase(DATA_FILE_SWITCH) == 0)
-					filePath = params[++i];
-				else if(params[i].compareToIgnoreCase(PUT_NUMBER_SWITCH) == 0)
-					putNumber = Float.parseFloat(params[++i]);
-				else if(params[i].compareToIgnoreCase(PARTITION_SIZE_SWITCH) == 0)
-					partitionSize = Integer.parseInt(params[++i]);
-				else if(params[i].compareToIgnoreCase(V_EXPENSE_SWITCH) == 0)
-					vExpense = Float.parseFloat(params[++i]);
-				else if(params[i].compareToIgnoreCase(H_EXPENSE_SWITCH) == 0)
-					hExpense = Float.parseFloat(params[++i]);
-				else if(params[i].compareToIgnoreCase(PRIVACY_EXCEPTIONS_SWITCH) == 0)
-					privacyExceptions = params[++i];
-				else if(params[i].compareToIgnoreCase(UTILITY_EXCEPTIONS_SWITCH) == 0)
-					utilityExceptions = params[++i];
-				else if(params[i].compareToIgnoreCase(OUTPUT_FILE_SWITCH) == 0)
-					outputFile = params[++i];
-				else if(params[i].compareToIgnoreCase(CLASSIFIER_SWITCH) == 0)
-					classifier = params[++i];
-				else if(params[i].compareToIgnoreCase(CLASSIFIER_OPTIONS_SWITCH) == 0)
-					classifierOptions = params[++i];
-				else if(params[i].compareToIgnoreCase(K_CROSS_SWITCH) == 0)
-					k = Integer.parseInt(params[++i]);
-				else if(params[i].compareToIgnoreCase(MISSING_VALUE_SWITCH) == 0) {
-					String missingValueHandlingMethod = params[++i];
-					if(missingValueHandlingMethod.compareToIgnoreCase("D") == 0)
-						deleteMissing = true;
-					else if(missingValueHandlingMethod.compareToIgnoreCase("R") != 0)
-						throw new IllegalArgumentException("Illegal option for handling missing values - " + missingValueHandlingMethod);
-				} else if(params[i].compareToIgnoreCase(DUPLICATE_ROWS_SWITCH) == 0) {
-					String duplicatesHandlingMethod = params[++i];
-					if(duplicatesHandlingMethod.compareToIgnoreCase("N") == 0)
-						removeDuplicates = false;
-					else if(duplicatesHandlingMethod.compareToIgnoreCase("Y") != 0)
-						throw new IllegalArgumentException("Illegal option for handling duplicate rows - " + duplicatesHandlingMethod);
-				} else if(params[i].compareToIgnoreCase(STDOUT_SWITCH) == 0) {
-					stdout = new File(params[++i]);
-					if(!(stdout.createNewFile() || stdout.canWrite()))
-						throw new IOException("Cannot create/write the standard output file - " + stdout.getAbsolutePath());
-				} else if(params[i].compareToIgnoreCase(STDERR_SWITCH) == 0) {
-					stderr = new File(params[++i]);
-					if(!(stderr.createNewFile() || stderr.canWrite()))
-						throw new IOException("Cannot create/write the standard error file - " + stderr.getAbsolutePath());
-				} else if(params[i].compareToIgnoreCase(GENERATION_METHOD_SWITCH) == 0) {
-					String generationMethodPreference = params[++i];
-					if(generationMethodPreference.compareToIgnoreCase("Y") == 0)
-						useRandomGeneration = true;
-					else if(generationMethodPreference.compareToIgnoreCase("N") != 0)
-						throw new IllegalArgumentException("Illegal option for attribute combinations generation method - " + generationMethodPreference);
-				} else
-					throw new RuntimeException("Invaid option - " + params[i]);
-			}
-			if(filePath == null)
-				throw new RuntimeException("Data file required");
-			if(putNumber == Float.MIN_VALUE && partitionSize == 0)
-				throw new RuntimeException("Either PUT Number or partition size is required");
-			if(classifier == null)
-				throw new RuntimeException("Classifier type required");
-
-			if(stdout == null && stderr == null)
-				logger = BasicLogger.getDefaultLogger();
-			else if(stdout != null && stderr == null)
-				logger = BasicLogger.getLogger(stdout);
-			else if(stdout == null && stderr != null)
-				logger = BasicLogger.getLogger(System.out, new PrintStream(stderr));
-			else
-				logger = BasicLogger.getLogger(stdout, stderr);
-			PUTExperiment experiment;
-			if(putNumber != Float.MIN_VALUE)
-				experiment = new PUTExperiment(filePath, putNumber, vExpense, hExpense, classifier, k, deleteMissing, removeDuplicates, logger);
-			else
-				experiment = new PUTExperiment(filePath, partitionSize, vExpense, hExpense, classifier, k, deleteMissing, removeDuplicates, logger);
-			if(classifierOptions != null)
-				experiment.parseClassifierOptions(classifierOptions);
-			if(privacyExceptions != null)
-				experiment.parsePrivacyExceptions(privacyExceptions);
-			if(utilityExceptions != null)
-				experiment.parseUtilityExceptions(utilityExceptions);
-			if(outputFile != null)
-				experiment.setOutput(outputFile);
-			if(useRandomGeneration)
-				experiment.setGenerateRandomCombinations(true);
-			experiment.setRecoveryInformation(params);
-			logger.outln("Created experiment...");
-			return experiment;
+			return parseExperiment(params, datasetCache, console);
 		} catch (NumberFormatException e) {
-			logger.errorln("Problem in parsing numerical value - " + e.getMessage());
+			console.errorln("Problem in parsing numerical value - " + e.getMessage());
 		} catch (ArrayIndexOutOfBoundsException e) {
-			logger.errorln("Invalid number of arguments. Please provide matching arguments for all the switches.");
+			console.errorln("Invalid number of arguments. Please provide matching arguments for all the switches.");
 		} catch (RuntimeException e) {
-			logger.errorln(e.getMessage());
+			console.errorln(e.getMessage());
 		} catch (Exception e) {
-			logger.exception(e);
+			console.exception(e);
 		}
 		return null;
 	}
 
+	/**
+	 * A utility method that returns the features of a partition for the {@link CostModel}
+	 * @param data The dataset containing the attributes of the partition
+	 * @param attributes The indices of the attributes of the partition in the dataset (excluding the class attribute)
+	 * @param numOfRows The number of rows in the fragmented dataset for the partition
+	 * @return The features of the partition
+	 */
+	private static double[] getCostFeatures(Instances data, int[] attributes, int numOfRows) {
+		int nominalCardinality = 0;
+		int numOfNumericAttributes = 0;
+		for(int index : attributes) {
+			Attribute attribute = data.attribute(index);
+			if(attribute.isNominal())
+				nominalCardinality += attribute.numValues();
+			else if(attribute.isNumeric())
+				numOfNumericAttributes++;
+		}
+		return CostModel.createFeatures(attributes.length, nominalCardinality, numOfNumericAttributes, numOfRows);
+	}
+
 	/**
 	 * A utility method, that takes an unfragmented dataset, a partition of its attribute indices, and returns the dataset, 
-	 * with reduced number of rows, if required, according to a given proportion
+	 * with only the given rows. The retained rows keep their folds as per the fold plan.
 	 * @param original The original dataset to fragment
 	 * @param partition A set of attribute indices from the original dataset to include in the partition
-	 * @param trimToProportion The proportion of rows to put in the fragmented dataset (a minimum of one row is included for sure from the original dataset)
-	 * @return The fragmented dataset
+	 * @param targets The indices of the additional targets to include after the attributes of the partition (see {@link #getSelectedAttributes(Instances, Set, int[])})
+	 * @param rows The indices of the rows to put in the fragmented dataset, as returned by {@link #getRetainedRows(int, float, long)}
+	 * @param foldPlan The fold plan for the original dataset
+	 * @return The fragmented dataset, described by the partition
 	 */
-	private static Instances getFragmentedDataset(Instances original, Set<Integer> partition, float trimToProportion) {
-		Instances copy = new Instances(original);
-		for(int i = 0, j = 0; i < original.numAttributes() - 1; i++)
-			if(!partition.contains(i))
-				copy.deleteAttributeAt(i - j++);
-		if(trimToProportion < 1.0f) {
-			Random r = new Random(seed++);
-			int n = original.numInstances();
-			int numberOfInstances = (int) Math.ceil(n * trimToProportion);
-			// Just a safety net to avoid any surprises because of floating point operations
-			if(numberOfInstances == 0)
-				numberOfInstances = 1;
-			copy.randomize(r);
-			for(int i = numberOfInstances; i < n; i++)
-				copy.delete(numberOfInstances);
+	private static Dataset getFragmentedDataset(Instances original, Set<Integer> partition, int[] targets, int[] rows, FoldPlan foldPlan) {
+		// Only the attributes in the partition (and the targets) are copied, so that a wide dataset is never copied as a whole
+		int[] selectedAttributes = getSelectedAttributes(original, partition, targets);
+		ArrayList<Attribute> attributes = new ArrayList<Attribute>();
+		for(int index : selectedAttributes)
+			attributes.add((Attribute) original.attribute(index).copy());
+		Instances copy = new Instances(original.relationName(), attributes, rows.length);
+		copy.setClassIndex(selectedAttributes.length - 1);
+		for(int index : rows) {
+			Instance row = original.instance(index);
+			double[] values = new double[selectedAttributes.length];
+			for(int j = 0; j < selectedAttributes.length; j++)
+				values[j] = row.value(selectedAttributes[j]);
+			copy.add(new DenseInstance(row.weight(), values));
 		}
-		return copy;
+		Dataset fragment = new Dataset(copy, partition.toString());
+		fragment.setFolds(foldPlan.getFolds(rows));
+		return fragment;
 	}
 
 	/**
@@ -392,6 +443,172 @@ public class PUTExperiment {
 		return (numerator.divide(denominator));
 	}
 
+	/**
+	 * A utility method that returns the number of rows to retain in a fragmented dataset, according to a given proportion
+	 * @param numOfRows The number of rows in the original dataset
+	 * @param trimToProportion The proportion of rows to retain
+	 * @return The number of rows to retain (at least one)
+	 */
+	private static int getNumOfRowsToRetain(int numOfRows, float trimToProportion) {
+		if(trimToProportion >= 1.0f)
+			return numOfRows;
+		int numberOfInstances = (int) Math.ceil(numOfRows * trimToProportion);
+		// Just a safety net to avoid any surprises because of floating point operations
+		if(numberOfInstances == 0)
+			numberOfInstances = 1;
+		return numberOfInstances;
+	}
+
+	/**
+	 * A utility method that derives the seed for choosing the rows retained in the fragmented dataset for a partition.<br>
+	 * The seed depends only upon the seed of the experiment and the attributes in the partition, and not upon the order in which the partitions 
+	 * are processed, so that the results are identical for any number of threads.
+	 * @param experimentSeed The seed of the experiment
+	 * @param partition A set of attribute indices from the original dataset
+	 * @return The seed for the partition
+	 */
+	protected static long getPartitionSeed(long experimentSeed, Set<Integer> partition) {
+		long partitionSeed = experimentSeed;
+		for(int index : new TreeSet<Integer>(partition)) {
+			// The finalizer of the SplitMix64 generator, so that nearby partitions get unrelated seeds
+			long z = partitionSeed * 31 + index + 0x9E3779B97F4A7C15L;
+			z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+			z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+			partitionSeed = z ^ (z >>> 31);
+		}
+		return partitionSeed;
+	}
+
+	/**
+	 * A utility method that chooses the rows retained in a fragmented dataset, according to a given proportion
+	 * @param numOfRows The number of rows in the original dataset
+	 * @param trimToProportion The proportion of rows to retain (a minimum of one row is retained for sure)
+	 * @param partitionSeed The seed for choosing the rows to retain, as returned by {@link #getPartitionSeed(long, Set)}
+	 * @return The indices of the retained rows, in the order of the fragmented dataset
+	 */
+	private static int[] getRetainedRows(int numOfRows, float trimToProportion, long partitionSeed) {
+		int[] rows = new int[numOfRows];
+		for(int i = 0; i < numOfRows; i++)
+			rows[i] = i;
+		if(trimToProportion < 1.0f) {
+			// Shuffle the row indices exactly the way Instances.randomize(Random) shuffles the rows
+			Random r = new Random(partitionSeed);
+			for(int j = numOfRows - 1; j > 0; j--) {
+				int k = r.nextInt(j + 1);
+				int temp = rows[j];
+				rows[j] = rows[k];
+				rows[k] = temp;
+			}
+		}
+		return Arrays.copyOf(rows, getNumOfRowsToRetain(numOfRows, trimToProportion));
+	}
+
+	/**
+	 * Returns the number of partitions to promote from a round of racing
+	 * @param numOfPartitions The number of partitions in the round
+	 * @param eta The factor by which the partitions are cut down in every round
+	 * @param topResultsLimit The number of results to retain, if set, below which the partitions are not cut down
+	 * @return the number of partitions to promote, which is the number of partitions in the round if the race should end
+	 */
+	static int getNumToPromote(int numOfPartitions, double eta, int topResultsLimit) {
+		return Math.max((int) Math.ceil(numOfPartitions / eta), Math.max(topResultsLimit, 1));
+	}
+
+	/**
+	 * Creates the header line of the result file, naming the metrics for every class of the dataset
+	 * @param dataset The dataset
+	 * @return the header line
+	 */
+	static String getResultFileHeader(Instances dataset) {
+		return getResultFileHeader(dataset.classAttribute());
+	}
+
+	/**
+	 * Creates the header line of a result file, naming the metrics for every value of the target
+	 * @param target The (nominal) target, i.e. the class attribute or an additional target
+	 * @return the header line
+	 */
+	static String getResultFileHeader(Attribute target) {
+		StringBuilder header = new StringBuilder();
+		header.append("Attribute set, ");
+		header.append("Time taken (in sec), ");
+		header.append("Accuracy");
+		List<String> allClasses = new ArrayList<String>();
+		for(int i = 0; i < target.numValues(); i++)
+			allClasses.add(target.value(i));
+		/*
+		 * Order :-
+		 * 1. True Positives
+		 * 2. False Positives
+		 * 3. False Negatives
+		 * 4. Precision
+		 * 5. Recall
+		 * 6. Area under ROC Curve
+		 * 7. Area under PR Curve
+		 * 8. Timed out
+		 */
+		for(Object classValue : allClasses)
+			header.append(", TP_" + classValue);
+		for(Object classValue : allClasses)
+			header.append(", FP_" + classValue);
+		for(Object classValue : allClasses)
+			header.append(", FN_" + classValue);
+		for(Object classValue : allClasses)
+			header.append(", Precision_" + classValue);
+		for(Object classValue : allClasses)
+			header.append(", Recall_" + classValue);
+		for(Object classValue : allClasses)
+			header.append(", aROC_" + classValue);
+		for(Object classValue : allClasses)
+			header.append(", aPR_" + classValue);
+		header.append(", Timed out");
+		return header.toString();
+	}
+
+	/**
+	 * A utility method that returns the indices of the attributes of the original dataset that are retained in a fragmented dataset for a partition.
+	 * The last attribute (the class attribute) is always retained.
+	 * @param original The original dataset
+	 * @param partition A set of attribute indices from the original dataset to include in the partition
+	 * @return The indices of retained attributes in increasing order, the last one being the class attribute
+	 */
+	static int[] getSelectedAttributes(Instances original, Set<Integer> partition) {
+		int numAttributes = original.numAttributes();
+		int count = 0;
+		for(int index : partition)
+			if(index >= 0 && index < numAttributes - 1)
+				count++;
+		int[] selectedAttributes = new int[count + 1];
+		for(int i = 0, j = 0; i < numAttributes - 1; i++)
+			if(partition.contains(i))
+				selectedAttributes[j++] = i;
+		selectedAttributes[count] = numAttributes - 1;
+		return selectedAttributes;
+	}
+
+	/**
+	 * A utility method that returns the indices of the attributes of the original dataset that are retained in a fragmented dataset for a partition,
+	 * which is evaluated against additional targets besides the class attribute. The attributes of the partition come first (in increasing order, leaving out the targets),
+	 * followed by the additional targets (in their order), and the class attribute at the end.
+	 * @param original The original dataset
+	 * @param partition A set of attribute indices from the original dataset to include in the partition
+	 * @param targets The indices of the additional targets
+	 * @return The indices of retained attributes
+	 */
+	static int[] getSelectedAttributes(Instances original, Set<Integer> partition, int[] targets) {
+		if(targets.length == 0)
+			return getSelectedAttributes(original, partition);
+		Set<Integer> features = new TreeSet<Integer>(partition);
+		for(int target : targets)
+			features.remove(target);
+		int[] featureAttributes = getSelectedAttributes(original, features);
+		int numOfFeatures = featureAttributes.length - 1;
+		int[] selectedAttributes = Arrays.copyOf(featureAttributes, numOfFeatures + targets.length + 1);
+		System.arraycopy(targets, 0, selectedAttributes, numOfFeatures, targets.length);
+		selectedAttributes[selectedAttributes.length - 1] = original.numAttributes() - 1;
+		return selectedAttributes;
+	}
+
 	/**
 	 * The main to run this experiment
 	 * @param args The commandline arguments for the experiment
@@ -415,11 +632,268 @@ public class PUTExperiment {
 			System.exit(1);
 		}
 		defaultLogger.outln("Starting experiment...");
-		experiment.startExperimentSync();
+		try {
+			experiment.startExperimentSync();
+		} catch (ExperimentException e) {
+			defaultLogger.errorln(e.getMessage());
+			defaultLogger.exception(e);
+			System.exit(-1);
+		}
 		defaultLogger.outln("Done !!");
 		defaultLogger.outln("Results saved to - " + experiment.getResultFile().getAbsolutePath());
 	}
 
+	/**
+	 * A utility method that parses a duration, given as a number of days, hours, minutes and/or seconds, e.g. "8h", "1h30m", "45m", "2d" or "90s".
+	 * A number without a unit is taken as seconds.
+	 * @param duration The duration to parse
+	 * @return The duration in seconds
+	 * @throws IllegalArgumentException If the duration is not in the expected format
+	 */
+	public static long parseDuration(String duration) throws IllegalArgumentException {
+		Matcher matcher = Pattern.compile("(\\d+(?:\\.\\d+)?)([dhms]?)").matcher(duration.trim().toLowerCase());
+		double seconds = 0;
+		int end = 0;
+		while(matcher.find() && matcher.start() == end) {
+			double value = Double.parseDouble(matcher.group(1));
+			switch(matcher.group(2)) {
+			case "d":
+				value *= 86400;
+				break;
+			case "h":
+				value *= 3600;
+				break;
+			case "m":
+				value *= 60;
+				break;
+			}
+			seconds += value;
+			end = matcher.end();
+		}
+		if(end == 0 || end != duration.trim().length())
+			throw new IllegalArgumentException("Illegal duration - " + duration);
+		return (long) Math.ceil(seconds);
+	}
+
+	/**
+	 * Creates a Privacy-Utility tradeoff experiment with the given parameters, as for {@link #createExperiment(String[], DatasetCache, BasicLogger)}, 
+	 * but throws the problems in creating the experiment instead of logging them
+	 * @param params The commandline arguments provided for this experiment
+	 * @param datasetCache The cache to take the (cleaned) dataset from, or <code>null</code> to load the dataset afresh
+	 * @param console The logger to use in place of the standard output and error streams, unless the logging options say otherwise
+	 * @return Returns an instance of the Privacy Utility tradeoff experiment
+	 * @throws Exception If the parameters are not valid, or the experiment could not be created as per them
+	 */
+	static PUTExperiment parseExperiment(String[] params, DatasetCache datasetCache, BasicLogger console) throws Exception {
+		String filePath = null;
+		float putNumber = Float.MIN_VALUE;
+		int partitionSize = 0;
+		float vExpense = 1.0f;
+		float hExpense = 1.0f;
+		String privacyExceptions = null;
+		String utilityExceptions = null;
+		String outputFile = null;
+		String classifier = null;
+		String classifierOptions = null;
+		File stdout = null, stderr = null;
+		BasicLogger logger;
+		int k = 5;
+		boolean deleteMissing = false;
+		boolean removeDuplicates = true;
+		boolean useRandomGeneration = false;
+		boolean useFusedExecution = false;
+		int parallelism = 0;
+		long memoryBudgetInMB = 0;
+		boolean useAdaptiveConcurrency = false;
+		String timeout = null;
+		String resultCacheFile = null;
+		long seed = DEFAULT_SEED;
+		boolean useFoldParallelism = true;
+		int topResultsLimit = 0;
+		String topResultsMetric = "Accuracy";
+		float raceProportion = 0;
+		double raceEta = DEFAULT_RACE_ETA;
+		String budget = null;
+		int coordinatorPort = 0;
+		String bindAddress = null;
+		String workerTokenFile = null;
+		int numOfForks = 0;
+		long forkHeapInMB = 0;
+		String targets = null;
+		for(int i = 0; i < params.length; i++) {
+			if(params[i].compareToIgnoreCase(DATA_FILE_SWITCH) == 0)
+				filePath = params[++i];
+			else if(params[i].compareToIgnoreCase(PUT_NUMBER_SWITCH) == 0)
+				putNumber = Float.parseFloat(params[++i]);
+			else if(params[i].compareToIgnoreCase(PARTITION_SIZE_SWITCH) == 0)
+				partitionSize = Integer.parseInt(params[++i]);
+			else if(params[i].compareToIgnoreCase(V_EXPENSE_SWITCH) == 0)
+				vExpense = Float.parseFloat(params[++i]);
+			else if(params[i].compareToIgnoreCase(H_EXPENSE_SWITCH) == 0)
+				hExpense = Float.parseFloat(params[++i]);
+			else if(params[i].compareToIgnoreCase(PRIVACY_EXCEPTIONS_SWITCH) == 0)
+				privacyExceptions = params[++i];
+			else if(params[i].compareToIgnoreCase(UTILITY_EXCEPTIONS_SWITCH) == 0)
+				utilityExceptions = params[++i];
+			else if(params[i].compareToIgnoreCase(OUTPUT_FILE_SWITCH) == 0)
+				outputFile = params[++i];
+			else if(params[i].compareToIgnoreCase(CLASSIFIER_SWITCH) == 0)
+				classifier = params[++i];
+			else if(params[i].compareToIgnoreCase(CLASSIFIER_OPTIONS_SWITCH) == 0)
+				classifierOptions = params[++i];
+			else if(params[i].compareToIgnoreCase(K_CROSS_SWITCH) == 0)
+				k = Integer.parseInt(params[++i]);
+			else if(params[i].compareToIgnoreCase(MISSING_VALUE_SWITCH) == 0) {
+				String missingValueHandlingMethod = params[++i];
+				if(missingValueHandlingMethod.compareToIgnoreCase("D") == 0)
+					deleteMissing = true;
+				else if(missingValueHandlingMethod.compareToIgnoreCase("R") != 0)
+					throw new IllegalArgumentException("Illegal option for handling missing values - " + missingValueHandlingMethod);
+			} else if(params[i].compareToIgnoreCase(DUPLICATE_ROWS_SWITCH) == 0) {
+				String duplicatesHandlingMethod = params[++i];
+				if(duplicatesHandlingMethod.compareToIgnoreCase("N") == 0)
+					removeDuplicates = false;
+				else if(duplicatesHandlingMethod.compareToIgnoreCase("Y") != 0)
+					throw new IllegalArgumentException("Illegal option for handling duplicate rows - " + duplicatesHandlingMethod);
+			} else if(params[i].compareToIgnoreCase(STDOUT_SWITCH) == 0) {
+				stdout = new File(params[++i]);
+				if(!(stdout.createNewFile() || stdout.canWrite()))
+					throw new IOException("Cannot create/write the standard output file - " + stdout.getAbsolutePath());
+			} else if(params[i].compareToIgnoreCase(STDERR_SWITCH) == 0) {
+				stderr = new File(params[++i]);
+				if(!(stderr.createNewFile() || stderr.canWrite()))
+					throw new IOException("Cannot create/write the standard error file - " + stderr.getAbsolutePath());
+			} else if(params[i].compareToIgnoreCase(GENERATION_METHOD_SWITCH) == 0) {
+				String generationMethodPreference = params[++i];
+				if(generationMethodPreference.compareToIgnoreCase("Y") == 0)
+					useRandomGeneration = true;
+				else if(generationMethodPreference.compareToIgnoreCase("N") != 0)
+					throw new IllegalArgumentException("Illegal option for attribute combinations generation method - " + generationMethodPreference);
+			} else if(params[i].compareToIgnoreCase(FUSED_EXECUTION_SWITCH) == 0) {
+				String fusedExecutionPreference = params[++i];
+				if(fusedExecutionPreference.compareToIgnoreCase("Y") == 0)
+					useFusedExecution = true;
+				else if(fusedExecutionPreference.compareToIgnoreCase("N") != 0)
+					throw new IllegalArgumentException("Illegal option for execution mode - " + fusedExecutionPreference);
+			} else if(params[i].compareToIgnoreCase(FOLD_PARALLELISM_SWITCH) == 0) {
+				String foldParallelismPreference = params[++i];
+				if(foldParallelismPreference.compareToIgnoreCase("N") == 0)
+					useFoldParallelism = false;
+				else if(foldParallelismPreference.compareToIgnoreCase("Y") != 0)
+					throw new IllegalArgumentException("Illegal option for fold parallelism - " + foldParallelismPreference);
+			} else if(params[i].compareToIgnoreCase(PARALLELISM_SWITCH) == 0)
+				parallelism = Integer.parseInt(params[++i]);
+			else if(params[i].compareToIgnoreCase(MEMORY_BUDGET_SWITCH) == 0)
+				memoryBudgetInMB = Long.parseLong(params[++i]);
+			else if(params[i].compareToIgnoreCase(ADAPTIVE_CONCURRENCY_SWITCH) == 0) {
+				String adaptiveConcurrencyPreference = params[++i];
+				if(adaptiveConcurrencyPreference.compareToIgnoreCase("Y") == 0)
+					useAdaptiveConcurrency = true;
+				else if(adaptiveConcurrencyPreference.compareToIgnoreCase("N") != 0)
+					throw new IllegalArgumentException("Illegal option for adaptive concurrency - " + adaptiveConcurrencyPreference);
+			} else if(params[i].compareToIgnoreCase(TIMEOUT_SWITCH) == 0)
+				timeout = params[++i];
+			else if(params[i].compareToIgnoreCase(RESULT_CACHE_SWITCH) == 0)
+				resultCacheFile = params[++i];
+			else if(params[i].compareToIgnoreCase(SEED_SWITCH) == 0)
+				seed = Long.parseLong(params[++i]);
+			else if(params[i].compareToIgnoreCase(TOP_RESULTS_SWITCH) == 0)
+				topResultsLimit = Integer.parseInt(params[++i]);
+			else if(params[i].compareToIgnoreCase(TOP_RESULTS_METRIC_SWITCH) == 0)
+				topResultsMetric = params[++i];
+			else if(params[i].compareToIgnoreCase(RACE_SWITCH) == 0)
+				raceProportion = Float.parseFloat(params[++i]);
+			else if(params[i].compareToIgnoreCase(RACE_ETA_SWITCH) == 0)
+				raceEta = Double.parseDouble(params[++i]);
+			else if(params[i].compareToIgnoreCase(BUDGET_SWITCH) == 0)
+				budget = params[++i];
+			else if(params[i].compareToIgnoreCase(COORDINATOR_SWITCH) == 0)
+				coordinatorPort = Integer.parseInt(params[++i]);
+			else if(params[i].compareToIgnoreCase(BIND_SWITCH) == 0)
+				bindAddress = params[++i];
+			else if(params[i].compareToIgnoreCase(TOKEN_SWITCH) == 0)
+				workerTokenFile = params[++i];
+			else if(params[i].compareToIgnoreCase(FORK_SWITCH) == 0)
+				numOfForks = Integer.parseInt(params[++i]);
+			else if(params[i].compareToIgnoreCase(FORK_HEAP_SWITCH) == 0)
+				forkHeapInMB = Long.parseLong(params[++i]);
+			else if(params[i].compareToIgnoreCase(TARGETS_SWITCH) == 0)
+				targets = params[++i];
+			else
+				throw new RuntimeException("Invaid option - " + params[i]);
+		}
+		if(filePath == null)
+			throw new RuntimeException("Data file required");
+		if(putNumber == Float.MIN_VALUE && partitionSize == 0)
+			throw new RuntimeException("Either PUT Number or partition size is required");
+		if(classifier == null)
+			throw new RuntimeException("Classifier type required");
+
+		if(stdout == null && stderr == null)
+			logger = console;
+		else if(stdout != null && stderr == null)
+			logger = BasicLogger.getLogger(new PrintStream(stdout), console.getErrorStream());
+		else if(stdout == null && stderr != null)
+			logger = BasicLogger.getLogger(console.getOutputStream(), new PrintStream(stderr));
+		else
+			logger = BasicLogger.getLogger(stdout, stderr);
+		PUTExperiment experiment;
+		if(putNumber != Float.MIN_VALUE)
+			experiment = new PUTExperiment(filePath, putNumber, vExpense, hExpense, classifier, k, deleteMissing, removeDuplicates, logger, datasetCache);
+		else
+			experiment = new PUTExperiment(filePath, partitionSize, vExpense, hExpense, classifier, k, deleteMissing, removeDuplicates, logger, datasetCache);
+		if(classifierOptions != null)
+			experiment.parseClassifierOptions(classifierOptions);
+		if(privacyExceptions != null)
+			experiment.parsePrivacyExceptions(privacyExceptions);
+		if(utilityExceptions != null)
+			experiment.parseUtilityExceptions(utilityExceptions);
+		if(targets != null)
+			experiment.parseTargets(targets);
+		if(outputFile != null)
+			experiment.setOutput(outputFile);
+		if(useRandomGeneration)
+			experiment.setGenerateRandomCombinations(true);
+		if(useFusedExecution)
+			experiment.setFusedExecution(true);
+		if(parallelism != 0)
+			experiment.setParallelism(parallelism);
+		if(memoryBudgetInMB != 0)
+			experiment.setMemoryBudget(memoryBudgetInMB * 1024 * 1024);
+		if(useAdaptiveConcurrency)
+			experiment.setAdaptiveConcurrency(true);
+		if(timeout != null) {
+			if(timeout.toLowerCase().endsWith("x"))
+				experiment.setRelativeTimeLimit(Double.parseDouble(timeout.substring(0, timeout.length() - 1)));
+			else
+				experiment.setTimeLimit(Long.parseLong(timeout));
+		}
+		if(resultCacheFile != null)
+			experiment.setResultCacheFile(new File(resultCacheFile));
+		experiment.setSeed(seed);
+		if(!useFoldParallelism)
+			experiment.setFoldParallelism(false);
+		if(topResultsLimit != 0)
+			experiment.setTopResults(topResultsLimit, topResultsMetric);
+		if(raceProportion != 0)
+			experiment.setRacing(raceProportion, raceEta);
+		if(budget != null)
+			experiment.setBudget(parseDuration(budget));
+		if(coordinatorPort != 0)
+			experiment.setCoordinatorPort(coordinatorPort);
+		if(bindAddress != null)
+			experiment.setBindAddress(InetAddress.getByName(bindAddress));
+		if(workerTokenFile != null)
+			experiment.setWorkerTokenFile(workerTokenFile);
+		if(numOfForks != 0)
+			experiment.setForks(numOfForks);
+		if(forkHeapInMB != 0)
+			experiment.setForkHeapSize(forkHeapInMB * 1024 * 1024);
+		experiment.setRecoveryInformation(params);
+		logger.outln("Created experiment...");
+		return experiment;
+	}
+
 	/**
 	 * Prints a summary of the usage of the experiment class, with explanation of various switches
 	 */
@@ -441,8 +915,46 @@ public class PUTExperiment {
 		System.out.println(GENERATION_METHOD_SWITCH + "\t (Default: 'N') Advise usage of \"random generation of combinations\", instead of conventional \"dictionary order generation\"." +
 				"\n\t 'Y' implies \"attempt to generate attribute combinations randomly\" (useful for datasets with large number of attributes);" + 
 				"\n\t 'N' implies \"generate attribute combinations in dictionary order\"." + 
-				"\n\t e.g. "+ GENERATION_METHOD_SWITCH + " Y");
+				"\n\t The random combinations are fixed by " + SEED_SWITCH + ", so a rerun generates the same ones, and a higher vertical expense adds to them, e.g. "+ GENERATION_METHOD_SWITCH + " Y");
 		System.out.println(H_EXPENSE_SWITCH + "\t (Default: 1.0) The horizontal expense budget, e.g. "+ H_EXPENSE_SWITCH + " 0.3");
+		System.out.println(PARALLELISM_SWITCH + "\t (Default: number of processors + 1) The number of threads to use for partitioning and learning tasks, e.g. "+ PARALLELISM_SWITCH + " 8");
+		System.out.println(FUSED_EXECUTION_SWITCH + "\t (Default: 'N') 'Y' implies \"partition the dataset and learn over it in the same task, on a single work-stealing pool\";" + 
+				"\n\t 'N' implies \"use separate pools for partitioning and learning, linked through a queue\", e.g. "+ FUSED_EXECUTION_SWITCH + " Y");
+		System.out.println(FOLD_PARALLELISM_SWITCH + "\t (Default: 'Y') 'Y' implies \"once fewer learning tasks are pending than processors, evaluate the folds of a learning task in parallel\";" + 
+				"\n\t 'N' implies \"always evaluate the folds of a learning task one after another\", e.g. "+ FOLD_PARALLELISM_SWITCH + " N");
+		System.out.println(ADAPTIVE_CONCURRENCY_SWITCH + "\t (Default: 'N') 'Y' implies \"keep resizing the learning pool, based on the observed throughput, CPU utilization and garbage collection time\"," + 
+				"\n\t starting from the number of threads set by " + PARALLELISM_SWITCH + " (not available with " + FUSED_EXECUTION_SWITCH + " Y), e.g. "+ ADAPTIVE_CONCURRENCY_SWITCH + " Y");
+		System.out.println(TIMEOUT_SWITCH + "\t (Default: no limit) The time limit for a learning task, after which the task is stopped and recorded as timed out." + 
+				"\n\t Either an absolute limit in seconds, e.g. " + TIMEOUT_SWITCH + " 600, or a multiple of the median time taken by the completed tasks, e.g. " + TIMEOUT_SWITCH + " 5x" + 
+				"\n\t A timed out task stops even in the middle of building a model, but a classifier that never checks for an interruption keeps building it in the background (at the minimum priority) till it returns");
+		System.out.println(SEED_SWITCH + "\t (Default: " + DEFAULT_SEED + ") The seed for the random choices (row sampling and folds) of the learning tasks, and for the random generation of combinations." + 
+				"\n\t Every learning task derives its own seed from it and its partition, so the results are reproducible irrespective of the number of threads, e.g. " + SEED_SWITCH + " 42");
+		System.out.println(RESULT_CACHE_SWITCH + "\t (Default: no cache) A file (created if it does not exist) in which the outcomes of the learning tasks are cached." + 
+				"\n\t The outcomes of the partitions already evaluated with the same dataset, classifier settings, k and horizontal expense are reused from it, e.g. " + RESULT_CACHE_SWITCH + " cache.bin");
+		System.out.println(RACE_SWITCH + "\t (Default: no racing) Race the partitions on growing stratified samples of the rows, starting with the given proportion of rows." + 
+				"\n\t After every round, only the best partitions (by accuracy) are promoted to a sample larger by the factor set by " + RACE_ETA_SWITCH + "," + 
+				"\n\t till the sample reaches the horizontal expense, where the promoted partitions are evaluated as usual, e.g. " + RACE_SWITCH + " 0.05");
+		System.out.println(RACE_ETA_SWITCH + "\t (Default: " + DEFAULT_RACE_ETA + ") The factor by which the partitions are cut down, and the sample grown, in every round of racing, e.g. " + RACE_ETA_SWITCH + " 4");
+		System.out.println(TOP_RESULTS_SWITCH + "\t (Default: all results) Retain only the given number of best results, instead of every result." + 
+				"\n\t The count, mean, standard deviation, range and histogram of the metric over all the results are still reported, e.g. " + TOP_RESULTS_SWITCH + " 5000");
+		System.out.println(TOP_RESULTS_METRIC_SWITCH + "\t (Default: Accuracy) The metric by which the best results are retained, named as in the header of the result file," + 
+				"\n\t i.e. Accuracy, or one of TP, FP, FN, Precision, Recall, aROC or aPR followed by '_' and a class, e.g. " + TOP_RESULTS_METRIC_SWITCH + " aROC_yes");
+		System.out.println(COORDINATOR_SWITCH + "\t (Default: learn locally) Hand out the learning tasks to worker processes, possibly on other machines, which connect on the given TCP port." + 
+				"\n\t Every worker is started with " + TaskWorker.class.getName() + " " + TaskWorker.HOST_SWITCH + " <host> " + TaskWorker.PORT_SWITCH + " <port> " + TOKEN_SWITCH + " <token file>, and loads the dataset from its own copy." + 
+				"\n\t The tasks of a lost worker (one that disconnects, or is not heard from for " + TaskCoordinator.WORKER_TIMEOUT + " sec) are handed out again, e.g. " + COORDINATOR_SWITCH + " 5000");
+		System.out.println(BIND_SWITCH + "\t (Default: loopback) The address of the interface on which the coordinator accepts workers, e.g. " + BIND_SWITCH + " 10.0.0.5, or " + BIND_SWITCH + " 0.0.0.0 for every interface." + 
+				"\n\t Workers on other machines are reachable only on a trusted network, since the tasks and results are not encrypted");
+		System.out.println(TOKEN_SWITCH + "\t (Default: a fresh token, saved beside the result file as <result file>_worker.token) The file holding the token the workers must present," + 
+				"\n\t created with a fresh token if it does not exist, e.g. " + TOKEN_SWITCH + " experiment.token");
+		System.out.println(FORK_SWITCH + "\t (Default: learn in this process) Evaluate the learning tasks in the given number of worker processes on this machine, each with a heap of its own," + 
+				"\n\t sharing the threads set by " + PARALLELISM_SWITCH + " among them. A worker process that crashes is restarted, and its tasks are handed out again." + 
+				"\n\t May be combined with " + COORDINATOR_SWITCH + ", e.g. " + FORK_SWITCH + " 4");
+		System.out.println(FORK_HEAP_SWITCH + "\t (Default: the maximum heap size of this process, split evenly among the worker processes) The maximum heap size (in MB) of every worker process," + 
+				"\n\t e.g. " + FORK_HEAP_SWITCH + " 4096");
+		System.out.println(BUDGET_SWITCH + "\t (Default: no budget) A wall-clock budget for the learning tasks, in days, hours, minutes and/or seconds, e.g. " + BUDGET_SWITCH + " 8h or " + BUDGET_SWITCH + " 1h30m." + 
+				"\n\t The partitions are evaluated in a random order, and no learning task is started once the budget is about to run out (the running tasks are let finish)." + 
+				"\n\t The result file then has the evaluated partitions, a coverage report is saved beside it, and the recovery file is kept to evaluate the rest later");
+		System.out.println(MEMORY_BUDGET_SWITCH + "\t (Default: half of the maximum heap size) The heap memory budget (in MB) for the partitioned datasets waiting in queues or being learnt over, e.g. "+ MEMORY_BUDGET_SWITCH + " 2048");
 		System.out.println(PRIVACY_EXCEPTIONS_SWITCH + "\t A set of privacy exceptions in the form {exception1,exception2...}." + 
 				"\n\t Each exception in turn, is expressed in the form [attribute1,attribute2...]. Avoid spaces in between, or include the full string within quotes." + 
 				"\n\t Examples:" + 
@@ -454,6 +966,11 @@ public class PUTExperiment {
 				" \n\t " + UTILITY_EXCEPTIONS_SWITCH + " {[1,4,6],[2,4,5],[3,1]}" +
 				" \n\t " + UTILITY_EXCEPTIONS_SWITCH + " \"{[1, 4], [2, 5]}\"");
 		System.out.println(OUTPUT_FILE_SWITCH + "\t (Default: A file named \"results.csv\" in the folder of the data file) The output file, e.g. " + OUTPUT_FILE_SWITCH + " out.csv");
+		System.out.println(TARGETS_SWITCH + "\t (Default: the class attribute only) Additional nominal attributes to evaluate every partition against, besides the class attribute, in the form {attribute1,attribute2...}." + 
+				"\n\t The targets are left out of the partitions. Every partition is fragmented once, and evaluated against every target in the same learning task, with the same rows and folds." + 
+				"\n\t The results against a target are saved beside the output file, named after it and the target (e.g. results-income.csv)." + 
+				"\n\t The time in the output file is that of the whole task (against all the targets), while the time in the file of a target is that of the evaluation against the target alone." + 
+				"\n\t The targets are not evaluated by worker processes (" + COORDINATOR_SWITCH + " or " + FORK_SWITCH + "), and the result cache is not used with them, e.g. " + TARGETS_SWITCH + " {3,7}");
 		System.out.println(CLASSIFIER_OPTIONS_SWITCH + "\t Any custom options for the Weka Classifier to use in the form {option1,option2...}." + 
 				"\n\t These options are passed \"as provided\" to the classifier's setOptions() method. Refer to the documentation of respective classifers for details." + 
 				"\n\t To avoid problems in setting options with space, include the full string within quotes." + 
@@ -471,6 +988,56 @@ public class PUTExperiment {
 		System.out.println("4. Utility exceptions are considered only when attributes are generated in dictionary order, otherwise they are ignored");
 	}
 
+	/**
+	 * Returns the partitions promoted from a round of racing - the partitions of the round whose results are among the best ones
+	 * @param partitions The partitions of the round, in the order they were scheduled
+	 * @param round The best results of the round
+	 * @return The promoted partitions, in the order they were scheduled
+	 */
+	static Set<Set<Integer>> promote(Set<Set<Integer>> partitions, TopResults round) {
+		Set<Set<Integer>> promoted = new TreeSet<Set<Integer>>(ATTRIBUTE_SET_COMPARATOR);
+		for(Stats stat : round.getBest())
+			promoted.add(stat.getPartition());
+		Set<Set<Integer>> survivors = new LinkedHashSet<Set<Integer>>();
+		for(Set<Integer> partition : partitions)
+			if(promoted.contains(partition))
+				survivors.add(partition);
+		return survivors;
+	}
+
+	/**
+	 * A utility method to split the classifier options provided at the commandline in the form {option1,option2...} into the individual options
+	 * @param classifierOptions The options string to split
+	 * @return The individual options, to be passed on to the Weka classifier
+	 * @throws IllegalArgumentException If the options are not in the expected format
+	 */
+	static String[] splitClassifierOptions(String classifierOptions) throws IllegalArgumentException {
+		Pattern p = Pattern.compile("\\{.*\\}");
+		Matcher m = p.matcher(classifierOptions);
+		if(!m.matches())
+			throw new IllegalArgumentException("Invalid format for classifier options - " + classifierOptions);
+		// Remove braces
+		classifierOptions = classifierOptions.substring(1, classifierOptions.length()-1);
+		String[] options = classifierOptions.split(",");
+		for(int i = 0; i < options.length; i++)
+			options[i] = options[i].trim();
+		return options;
+	}
+
+	/**
+	 * A utility method to convert a number of bytes to mega bytes, for display purposes
+	 * @param bytes The number of bytes
+	 * @return The (rounded) number of mega bytes
+	 */
+	private static long toMB(long bytes) {
+		return bytes / (1024 * 1024);
+	}
+
+	/**
+	 * A flag that tells if the number of learning threads should be adapted at runtime (default: <code>false</code>)
+	 */
+	protected boolean adaptiveConcurrency;
+
 	/**
 	 * A flag that tells the results collection thread to start waiting for results
 	 */
@@ -485,17 +1052,63 @@ public class PUTExperiment {
 	 * If the experiment is running in the asynchronous mode, it runs as a part of this thread (default: <code>null</code>)
 	 */
 	private Thread asyncThread = null;
+
+	/**
+	 * The partitions added by raising the vertical expense while learning, which are yet to be evaluated,
+	 * or <code>null</code> if the vertical expense cannot be changed at the moment
+	 */
+	private Set<Set<Integer>> addedPartitions;
+
+	/**
+	 * The address of the interface on which the workers connect, or <code>null</code> for the loopback interface
+	 */
+	protected InetAddress bindAddress;
 	
 	/**
 	 * Contains the partitions being used by this experiment
 	 */
 	protected Set<Set<Integer>> attributePartitions = null;
 
+	/**
+	 * Controls the admission of fragmented datasets against the memory budget of this experiment
+	 */
+	private AdmissionController admissionController;
+
 	/**
 	 * The number of processors available for use on the machine over which the experiment is being run
 	 */
 	protected int availableProcessors;
 
+	/**
+	 * The wall-clock budget (in nano seconds) for the learning tasks, or 0 for no budget
+	 */
+	protected long budget;
+
+	/**
+	 * The time (as per {@link System#nanoTime()}) at which the budget started to be spent
+	 */
+	private long budgetStart;
+
+	/**
+	 * The number of learning tasks whose outcomes were found in the result cache
+	 */
+	private AtomicLong cacheHits;
+
+	/**
+	 * The total time (in nano seconds) originally taken by the learning tasks whose outcomes were found in the result cache
+	 */
+	private AtomicLong cacheTimeSaved;
+
+	/**
+	 * The number of evaluated partitions containing every attribute, in case of a budget
+	 */
+	private AtomicLongArray evaluatedPerAttribute;
+
+	/**
+	 * The number of partitions evaluated, in case of a budget
+	 */
+	private AtomicLong evaluatedTasks;
+
 	/**
 	 * Any custom options to be set for the use of the Weka classifier.
 	 * These are passed on directly to the <code>setOptions(String[])</code> method of the classifier for processing.
@@ -509,63 +1122,175 @@ public class PUTExperiment {
 	 */
 	protected Class<? extends AbstractClassifier> classifierType;
 
+	/**
+	 * The TCP port on which the workers connect, if the learning tasks are handed out to worker processes, or 0 to learn locally
+	 */
+	protected int coordinatorPort;
+
 	/**
 	 * The original, unfragmented dataset, over which the experiment is designed
 	 */
 	protected Instances dataset;
 
+	/**
+	 * The (estimated) number of bytes occupied by the fragmented datasets waiting in the dataset ready queue
+	 */
+	private AtomicLong bytesInDatasetsReadyQueue;
+
 	/**
 	 * A queue to keep fragmented datasets, ready to be used for classification tasks
 	 */
 	private BlockingQueue<Dataset> datasetsReadyQueue;
 
 	/**
-	 * Use random combinations instead of systematic generation and pruning
+	 * The assignment of the rows of the original dataset to the folds for cross validation, shared by all the learning tasks
 	 */
-	protected boolean generateRandomCombinations;
+	private FoldPlan foldPlan;
 
 	/**
-	 * The horizontal expense for this experiment
+	 * The fingerprint of the settings of this experiment that determine the outcomes of its learning tasks, used for keying the result cache
 	 */
-	protected float hExpense;
+	private byte[] experimentFingerprint;
 
 	/**
-	 * The value of <i>k</i> to use for k-cross validation
+	 * The dispatcher of the notifications to the listeners of this experiment, created when the first listener is added
 	 */
-	protected int k;
+	private EventDispatcher eventDispatcher;
 
 	/**
-	 * The thread pool executor for learning requests
+	 * The thread running this experiment, while it runs
 	 */
-	private ThreadPoolExecutor learningExecutor;
+	private volatile Thread experimentThread;
 
 	/**
-	 * The thread that does progress monitoring of learning tasks completion
+	 * The failure of this experiment, if it has failed
 	 */
-	private Thread learningProgressMonitor;
+	private volatile ExperimentException failure;
 
 	/**
-	 * The thread that does progress monitoring of learning requests creation
+	 * The pool of threads for the helper tasks evaluating the folds of the learning tasks in parallel, if the learning tasks run on the learning pool.
+	 * The learning pool itself cannot take them, since it takes no task once all the learning tasks are queued.
 	 */
-	private Thread learningRequestCreator;
+	private volatile ThreadPoolExecutor foldExecutor;
 
 	/**
-	 * The logger for this experiment
+	 * A flag that tells if the folds of a learning task may be evaluated in parallel, once there are fewer learning tasks pending than processors (default: <code>true</code>)
 	 */
-	protected BasicLogger logger;
+	protected boolean foldParallelism;
 
 	/**
-	 * The number of attributes (except the class attribute) in the unfragmented dataset
+	 * The worker processes on this machine evaluating the learning tasks, if any
 	 */
-	protected int numOfAttributes;
+	private ForkedWorkers forkedWorkers;
 
 	/**
-	 * The number of datasets in queue waiting to be processed
+	 * A flag that tells if the partitioning and learning over a partition happen in the same task (on a single work-stealing pool) 
+	 * instead of separate pools linked through a queue (default: <code>false</code>)
 	 */
-	private volatile long numOfDatasetsInQueue;
+	protected boolean fusedExecution;
 
 	/**
-	 * The number of partitioned datasets ready for creating learning requests
+	 * The work-stealing pool for fused partitioning and learning tasks
+	 */
+	private ForkJoinPool fusedExecutor;
+
+	/**
+	 * The number of fused tasks that completed learning till now
+	 */
+	private AtomicLong fusedTasksCompleted;
+
+	/**
+	 * The number of fused tasks that completed partitioning till now
+	 */
+	private AtomicLong fusedTasksPartitioned;
+
+	/**
+	 * The number of fused tasks submitted, but not yet finished
+	 */
+	private AtomicLong fusedTasksPending;
+
+	/**
+	 * Use random combinations instead of systematic generation and pruning
+	 */
+	protected boolean generateRandomCombinations;
+
+	/**
+	 * The horizontal expense for this experiment
+	 */
+	protected float hExpense;
+
+	/**
+	 * The controller that adapts the number of learning threads at runtime, if adaptive concurrency is switched on
+	 */
+	private ConcurrencyController concurrencyController;
+
+	/**
+	 * The model that predicts the cost of the learning tasks, learnt from the tasks completed so far, used to take up the costliest tasks first
+	 */
+	private CostModel costModel;
+
+	/**
+	 * The value of <i>k</i> to use for k-cross validation
+	 */
+	protected int k;
+
+	/**
+	 * The thread pool executor for learning requests
+	 */
+	private ThreadPoolExecutor learningExecutor;
+
+	/**
+	 * The thread that does progress monitoring of learning tasks completion
+	 */
+	private Thread learningProgressMonitor;
+
+	/**
+	 * The thread that does progress monitoring of learning requests creation
+	 */
+	private Thread learningRequestCreator;
+
+	/**
+	 * The logger for this experiment
+	 */
+	protected BasicLogger logger;
+
+	/**
+	 * The number of attributes (except the class attribute) in the unfragmented dataset
+	 */
+	protected int numOfAttributes;
+
+	/**
+	 * The number of worker processes on this machine to evaluate the learning tasks in, or 0 to learn in this process
+	 */
+	protected int numOfForks;
+
+	/**
+	 * The maximum heap size (in bytes) of every worker process on this machine, or a non-positive value to split the maximum heap size of this process among them
+	 */
+	protected long forkHeapSize;
+
+	/**
+	 * The heap memory budget (in bytes) for the fragmented datasets in flight. A non-positive value implies half of the maximum heap size.
+	 */
+	protected long memoryBudget;
+
+	/**
+	 * The (estimated) number of bytes occupied by the datasets in queue waiting to be processed
+	 */
+	private volatile long numOfBytesInDatasetsQueue;
+
+	/**
+	 * The (estimated) number of bytes occupied by all the fragmented datasets in flight
+	 */
+	private volatile long numOfBytesInFlight;
+
+	/**
+	 * The number of datasets in queue waiting to be processed
+	 */
+	private volatile long numOfDatasetsInQueue;
+
+	/**
+	 * The number of partitioned datasets ready for creating learning requests
 	 */
 	private volatile long numOfPartitionedDatasets;
 
@@ -599,6 +1324,16 @@ public class PUTExperiment {
 	 */
 	private Thread partitioningProgressMonitor;
 
+	/**
+	 * The controller that pauses and resumes the creation of learning tasks of this experiment
+	 */
+	private PauseController pauseController = new PauseController();
+
+	/**
+	 * The number of threads to use for partitioning and learning tasks (by default, one more than the number of available processors)
+	 */
+	protected int parallelism;
+
 	/**
 	 * The size of a partition (number of attributes to group together for a learning task)
 	 */
@@ -609,6 +1344,21 @@ public class PUTExperiment {
 	 */
 	protected Set<Set<Integer>> privacyExceptions;
 
+	/**
+	 * The factor by which the partitions are cut down (and the sample grown) in every round of racing
+	 */
+	protected double raceEta;
+
+	/**
+	 * The proportion of rows in the sample for the first round of racing, or 0 if the partitions are not raced
+	 */
+	protected float raceProportion;
+
+	/**
+	 * The best partitions of the current round of racing, if a round is in progress
+	 */
+	private TopResults raceRound;
+
 	/**
 	 * An array of strings representing this experiment's initial state used for recovering from interruptions.
 	 * For CLI invocations, this array contains the passed parameters <i>in order</i> they were provided.
@@ -618,36 +1368,147 @@ public class PUTExperiment {
 	 */
 	private String[] recoveryInformation;
 
+	/**
+	 * The result cache in use for the current run, if any
+	 */
+	private ResultCache resultCache;
+
+	/**
+	 * The file of the result cache, if the outcomes of the partitions evaluated earlier are to be reused
+	 */
+	protected File resultCacheFile;
+
 	/**
 	 * The result file to which the final statistics will be saved
 	 */
 	protected File resultFile;
 
+	/**
+	 * The estimator for the throughput, time remaining and task times of the learning tasks
+	 */
+	private ProgressEstimator progressEstimator;
+
 	/**
 	 * A {@link List} to hold {@link Future} results of the learning tasks
 	 */
 	protected List<Future<Stats>> results;
 
+	/**
+	 * The spool collecting the stats of the current run in an unsorted file, till they are sorted into the result file
+	 */
+	private ResultSpool resultSpool;
+
 	/**
 	 * A recovery manager for this experiment
 	 */
 	private RecoveryManager rm;
 
 	/**
-	 * A {@link List} to hold the statistics related to all the learning tasks
+	 * The rows of the stratified sample that every learning task of the current round of racing learns over,
+	 * or <code>null</code> if the rows are chosen for every partition as per the horizontal expense
 	 */
-	protected List<Stats> stats;
-	
+	private int[] sampleRows;
+
+	/**
+	 * The proportion of rows in the sample of the current round of racing, if a round is in progress
+	 */
+	private float sampleProportion;
+
+	/**
+	 * The seed from which every random choice of the learning tasks (row sampling and folds) is derived
+	 */
+	protected long seed;
+
+	/**
+	 * The admission controller shared with other experiments running on the same shared pool, if any
+	 */
+	private AdmissionController sharedAdmissionController;
+
+	/**
+	 * The work-stealing pool shared with other experiments, if any. A shared pool is never shut down by this experiment.
+	 */
+	private ForkJoinPool sharedExecutor;
+
+	/**
+	 * The result cache shared with other experiments, if any. A shared cache is never closed by this experiment.
+	 */
+	private ResultCache sharedResultCache;
+
+	/**
+	 * The number of skipped partitions containing every attribute, in case of a budget
+	 */
+	private AtomicLongArray skippedPerAttribute;
+
+	/**
+	 * The number of partitions skipped since the budget was about to run out, in case of a budget
+	 */
+	private AtomicLong skippedTasks;
+
+	/**
+	 * The partitions scheduled for learning (including the ones already evaluated), as per the current vertical expense
+	 */
+	private Set<Set<Integer>> scheduledPartitions;
+
+	/**
+	 * The stage of this experiment, as per the stage constants of {@link ExperimentProgress}
+	 */
+	private volatile short stage = ExperimentProgress.STAGE_NOT_STARTED;
+
 	/**
 	 * A flag to switch off recovery related actions
 	 */
 	protected boolean switchOffRecovery = false;
 
+	/**
+	 * The spools of the stats against the additional targets (in their order), created with the first stat against them
+	 */
+	private ResultSpool[] targetResultSpools;
+
+	/**
+	 * The indices of the additional (nominal) targets, against which every partition is evaluated besides the class attribute
+	 */
+	protected int[] targets;
+
+	/**
+	 * The sequence number for the next task to be scheduled, used to take up tasks with equal predicted costs in the order they were scheduled
+	 */
+	private AtomicLong taskSequence;
+
+	/**
+	 * The coordinator handing out the learning tasks to the worker processes, if any
+	 */
+	private TaskCoordinator taskCoordinator;
+
+	/**
+	 * The absolute time limit (in nano seconds) for a learning task, or 0 if there is no absolute limit
+	 */
+	protected long timeLimit;
+
+	/**
+	 * The multiple of the median time taken by the completed tasks, after which a learning task is timed out, or 0 if there is no relative limit
+	 */
+	protected double timeLimitMultiple;
+
 	/**
 	 * Total number of learning tasks this experiment spawns
 	 */
 	private volatile long totalTasks;
 
+	/**
+	 * The best results of the current run, if only the best results are to be retained
+	 */
+	private TopResults topResults;
+
+	/**
+	 * The number of best results to retain, or 0 to retain every result
+	 */
+	protected int topResultsLimit;
+
+	/**
+	 * The metric by which the best results are retained, named as in the header of the result file
+	 */
+	protected String topResultsMetric;
+
 	/**
 	 * A set of utility exceptions for the experiment
 	 */
@@ -658,6 +1519,22 @@ public class PUTExperiment {
 	 */
 	protected float vExpense;
 
+	/**
+	 * The watchdog enforcing the time limit on the learning tasks, if any
+	 */
+	private volatile TaskWatchdog watchdog;
+
+	/**
+	 * The file holding the token the workers must present to the coordinator, or <code>null</code> for a fresh token saved beside the result file (see {@link #getWorkerTokenFile()})
+	 */
+	protected File workerTokenFile;
+
+	/**
+	 * The partitions withdrawn by lowering the vertical expense while learning, whose learning tasks are skipped when they are due to start.
+	 * A partition is removed once its learning task has been skipped.
+	 */
+	private Set<Set<Integer>> withdrawnPartitions = ConcurrentHashMap.newKeySet();
+
 	/**
 	 * Added for any classes extending this class, within the same package.<br>
 	 * WARNING: Using this constructor creates the experiment in an inconsistent state. 
@@ -665,9 +1542,14 @@ public class PUTExperiment {
 	 */
 	PUTExperiment() {
 		availableProcessors = Runtime.getRuntime().availableProcessors();
+		parallelism = availableProcessors + 1;
 		totalTasks = numOfPartitionedDatasets = numOfDatasetsInQueue = numOfTasksInLearningQueue = numOfTasksCompleted = numOfResultsWrittenToFile = Long.MIN_VALUE;
-		datasetsReadyQueue = new ArrayBlockingQueue<Dataset>(DATASET_READY_QUEUE_SIZE);
-		stats = new ArrayList<Stats>();
+		numOfBytesInDatasetsQueue = numOfBytesInFlight = Long.MIN_VALUE;
+		datasetsReadyQueue = new LinkedBlockingQueue<Dataset>();
+		seed = DEFAULT_SEED;
+		foldParallelism = true;
+		raceEta = DEFAULT_RACE_ETA;
+		targets = new int[0];
 	}
 	
 	/**
@@ -685,10 +1567,32 @@ public class PUTExperiment {
 	 */
 	public PUTExperiment(String filePath, float putNumber, float vExpense, float hExpense, String classifierName, int k, 
 			boolean deleteMissing, boolean removeDuplicates, BasicLogger logger) throws Exception {
+		this(filePath, putNumber, vExpense, hExpense, classifierName, k, deleteMissing, removeDuplicates, logger, null);
+	}
+
+	/**
+	 * Create a new instance of the Privacy-Utility tradeoff experiment, taking the dataset from a cache shared with other experiments
+	 * @param filePath The path to the (arff) data file
+	 * @param putNumber The put number to use for the experiment
+	 * @param vExpense The vertical expense to use for the experiment
+	 * @param hExpense The horizontal to use for the experiment
+	 * @param classifierName The classifier type to use for the experiment
+	 * @param k The value of <i>k</i> for k-cross validation
+	 * @param deleteMissing Indicates whether to delete instances with missing values, or fill values
+	 * @param removeDuplicates Indicates whether to remove duplicate instances or pass them to the classifier
+	 * @param logger A logger for this experiment
+	 * @param datasetCache The cache to take the (cleaned) dataset from, or <code>null</code> to load the dataset afresh
+	 * @throws Exception If something goes wrong while creating the experiment
+	 */
+	public PUTExperiment(String filePath, float putNumber, float vExpense, float hExpense, String classifierName, int k, 
+			boolean deleteMissing, boolean removeDuplicates, BasicLogger logger, DatasetCache datasetCache) throws Exception {
 		File dataFile = new File(filePath);
 		if(!dataFile.exists())
 			throw new FileNotFoundException("Data file not found - " + filePath);
-		dataset = DatasetLoader.loadAndCleanDataset(filePath, deleteMissing, removeDuplicates);
+		if(datasetCache != null)
+			dataset = datasetCache.loadAndCleanDataset(filePath, deleteMissing, removeDuplicates);
+		else
+			dataset = DatasetLoader.loadAndCleanDataset(filePath, deleteMissing, removeDuplicates);
 		numOfAttributes = dataset.numAttributes() - 1;	// Counting out the class attribute
 		classifierType = DataClassifier.findClassifierByName(classifierName);
 		if(putNumber < -1 || putNumber > 1)
@@ -706,10 +1610,15 @@ public class PUTExperiment {
 		resultFile = new File(dataFile.getParent(), DEFAULT_OUTPUT_FILE_NAME);
 		this.k = k;
 		availableProcessors = Runtime.getRuntime().availableProcessors();
+		parallelism = availableProcessors + 1;
 		generateRandomCombinations = false;
 		totalTasks = numOfPartitionedDatasets = numOfDatasetsInQueue = numOfTasksInLearningQueue = numOfTasksCompleted = numOfResultsWrittenToFile = Long.MIN_VALUE;
-		datasetsReadyQueue = new ArrayBlockingQueue<Dataset>(DATASET_READY_QUEUE_SIZE);
-		stats = new ArrayList<Stats>();
+		numOfBytesInDatasetsQueue = numOfBytesInFlight = Long.MIN_VALUE;
+		datasetsReadyQueue = new LinkedBlockingQueue<Dataset>();
+		seed = DEFAULT_SEED;
+		foldParallelism = true;
+		raceEta = DEFAULT_RACE_ETA;
+		targets = new int[0];
 	}
 
 	/**
@@ -727,10 +1636,32 @@ public class PUTExperiment {
 	 */
 	public PUTExperiment(String filePath, int partitionSize, float vExpense, float hExpense, String classifierName, int k, 
 			boolean deleteMissing, boolean removeDuplicates, BasicLogger logger) throws Exception {
+		this(filePath, partitionSize, vExpense, hExpense, classifierName, k, deleteMissing, removeDuplicates, logger, null);
+	}
+
+	/**
+	 * Create a new instance of the Privacy-Utility tradeoff experiment, taking the dataset from a cache shared with other experiments
+	 * @param filePath The path to the (arff) data file
+	 * @param partitionSize The partition size to use for the experiment
+	 * @param vExpense The vertical expense to use for the experiment
+	 * @param hExpense The horizontal to use for the experiment
+	 * @param classifierName The classifier type to use for the experiment
+	 * @param k The value of <i>k</i> for k-cross validation
+	 * @param deleteMissing Indicates whether to delete instances with missing values, or fill values
+	 * @param removeDuplicates Indicates whether to remove duplicate instances or pass them to the classifier
+	 * @param logger A logger for this experiment
+	 * @param datasetCache The cache to take the (cleaned) dataset from, or <code>null</code> to load the dataset afresh
+	 * @throws Exception If something goes wrong while creating the experiment
+	 */
+	public PUTExperiment(String filePath, int partitionSize, float vExpense, float hExpense, String classifierName, int k, 
+			boolean deleteMissing, boolean removeDuplicates, BasicLogger logger, DatasetCache datasetCache) throws Exception {
 		File dataFile = new File(filePath);
 		if(!dataFile.exists())
 			throw new FileNotFoundException("Data file not found - " + filePath);
-		dataset = DatasetLoader.loadAndCleanDataset(filePath, deleteMissing, removeDuplicates);
+		if(datasetCache != null)
+			dataset = datasetCache.loadAndCleanDataset(filePath, deleteMissing, removeDuplicates);
+		else
+			dataset = DatasetLoader.loadAndCleanDataset(filePath, deleteMissing, removeDuplicates);
 		numOfAttributes = dataset.numAttributes() - 1;	// Counting out the class attribute
 		classifierType = DataClassifier.findClassifierByName(classifierName);
 		if(partitionSize < 1 || partitionSize > numOfAttributes)
@@ -748,9 +1679,25 @@ public class PUTExperiment {
 		resultFile = new File(dataFile.getParent(), DEFAULT_OUTPUT_FILE_NAME);
 		this.k = k;
 		availableProcessors = Runtime.getRuntime().availableProcessors();
+		parallelism = availableProcessors + 1;
 		totalTasks = numOfPartitionedDatasets = numOfDatasetsInQueue = numOfTasksInLearningQueue = numOfTasksCompleted = numOfResultsWrittenToFile = Long.MIN_VALUE;
-		datasetsReadyQueue = new ArrayBlockingQueue<Dataset>(DATASET_READY_QUEUE_SIZE);
-		stats = new ArrayList<Stats>();
+		numOfBytesInDatasetsQueue = numOfBytesInFlight = Long.MIN_VALUE;
+		datasetsReadyQueue = new LinkedBlockingQueue<Dataset>();
+		seed = DEFAULT_SEED;
+		foldParallelism = true;
+		raceEta = DEFAULT_RACE_ETA;
+		targets = new int[0];
+	}
+
+	/**
+	 * Adds a listener, which is told about the progress of this experiment as it happens (see {@link ExperimentListener}).
+	 * A listener should be added before the experiment is started, to be told about all of it.
+	 * @param listener The listener
+	 */
+	public synchronized void addExperimentListener(ExperimentListener listener) {
+		if(eventDispatcher == null)
+			eventDispatcher = new EventDispatcher(this, logger);
+		eventDispatcher.addListener(listener);
 	}
 
 	/**
@@ -818,11 +1765,108 @@ public class PUTExperiment {
 	}
 
 	/**
-	 * Waits for all learning tasks to finish or move into learning queue, and then collects (waiting if required) the stats for all the learning tasks
+	 * Applies the time limit set via {@link #setTimeLimit(long)} or {@link #setRelativeTimeLimit(double)} to the learning tasks, if they are running
+	 */
+	private synchronized void applyTimeLimit() {
+		if(stage != ExperimentProgress.STAGE_RACING && stage != ExperimentProgress.STAGE_LEARNING)
+			return;
+		if(coordinatorPort > 0 || numOfForks > 0) {
+			logger.errorln("The workers keep enforcing the time limit they were started with");
+			return;
+		}
+		TaskWatchdog taskWatchdog = watchdog;
+		if(taskWatchdog != null)
+			taskWatchdog.setTimeLimit(timeLimit, timeLimitMultiple);
+		else
+			startWatchdog();
+		if(timeLimit > 0)
+			logger.outln("Time limit for the learning tasks changed to " + ProgressEstimator.formatDuration(TimeUnit.NANOSECONDS.toSeconds(timeLimit)));
+		else
+			logger.outln("Time limit for the learning tasks changed to " + timeLimitMultiple + " times the median time of the completed tasks");
+	}
+
+	/**
+	 * Blocks till this experiment, started in asynchronous mode, completes
+	 * @throws InterruptedException If interrupted while waiting for the experiment to complete
+	 * @throws ExperimentException If the experiment failed
+	 */
+	public void awaitExperiment() throws InterruptedException, ExperimentException {
+		Thread thread = asyncThread;
+		if(thread != null)
+			thread.join();
+		if(failure != null)
+			throw failure;
+	}
+
+	/**
+	 * Waits for the fused tasks of this experiment to finish
+	 * @param timeout The maximum time to wait (in milliseconds)
+	 * @return <code>true</code> if all the fused tasks have been submitted and have finished, <code>false</code> otherwise
+	 * @throws InterruptedException If the thread is interrupted while waiting
+	 */
+	private boolean awaitFusedTasks(long timeout) throws InterruptedException {
+		// The pool may be shared, and is not shut down till all the tasks are done, so the tasks of this experiment are counted instead
+		long deadline = System.currentTimeMillis() + timeout;
+		while(partitioningOn || fusedTasksPending.get() > 0) {
+			long remaining = deadline - System.currentTimeMillis();
+			if(remaining <= 0)
+				return false;
+			Thread.sleep(Math.min(remaining, 50));
+		}
+		return true;
+	}
+
+	/**
+	 * Waits for the threads creating and monitoring the learning tasks to finish, once all the learning tasks have finished
+	 * @throws InterruptedException If the thread is interrupted while waiting
+	 */
+	private void awaitMonitors() throws InterruptedException {
+		for(Thread thread : new Thread[] {partitioningProgressMonitor, learningRequestCreator, learningProgressMonitor})
+			if(thread != null)
+				thread.join();
+	}
+
+	/**
+	 * Collects (waiting if required) the stats of a learning task, stores it and writes it for recovery
+	 * @param index The index of the learning task in the results
+	 * @throws InterruptedException If the stats collection thread is interrupted
+	 * @throws ExecutionException If a problem is encountered while retrieving the results of the learning task
+	 * @throws IOException If the stat could not be stored
+	 */
+	private void collectStat(int index) throws InterruptedException, ExecutionException, IOException {
+		Stats stat = results.get(index).get();
+		// Drop the reference to the task, so that the collected stats do not pile up in memory
+		results.set(index, null);
+		// The task was skipped, since the budget was about to run out when it was due to start
+		if(stat == null)
+			return;
+		if(raceRound != null) {
+			// The stats of a round of racing only decide the partitions to promote
+			raceRound.add(stat);
+			notifyProgress();
+			return;
+		}
+		storeStat(stat);
+		if(eventDispatcher != null)
+			eventDispatcher.taskCompleted(stat);
+		notifyProgress();
+		try {
+			if(!switchOffRecovery)
+				rm.printStats(stat);
+		} catch (IllegalStateException | IOException e) {
+			logger.exception(e);
+			logger.errorln("Error in writing recovery information");
+		}
+	}
+
+	/**
+	 * Waits for all learning tasks to finish or move into learning queue, and then collects (waiting if required) the stats for all the learning tasks.
+	 * Every stat is handed to {@link #storeStat(Stats)} as soon as it is collected.
 	 * @throws InterruptedException If the stats collection thread is interrupted
 	 * @throws ExecutionException If a problem is encountered while retrieving the results of a learning task
+	 * @throws IOException If a stat could not be stored
 	 */
-	protected void collectStats() throws InterruptedException, ExecutionException {
+	protected void collectStats() throws InterruptedException, ExecutionException, IOException {
 		// Wait for all learning requests to go in queue
 		int index = 0;
 		do {
@@ -830,30 +1874,12 @@ public class PUTExperiment {
 			if(allLearningRequestsInQueue)
 				break;
 			int size = results.size();
-			while(index < size) {
-				Stats stat = results.get(index++).get();
-				stats.add(stat);
-				try {
-					if(!switchOffRecovery)
-						rm.printStats(stat);
-				} catch (IllegalStateException | IOException e) {
-					logger.exception(e);
-					logger.errorln("Error in writing recovery information");
-				}
-			}
+			while(index < size)
+				collectStat(index++);
 		} while(true);
 
-		while(index < results.size()) {
-			Stats stat = results.get(index++).get();
-			stats.add(stat);
-			try {
-				if(!switchOffRecovery)
-					rm.printStats(stat);
-			} catch (IllegalStateException | IOException e) {
-				logger.exception(e);
-				logger.errorln("Error in writing recovery information");
-			}
-		}
+		while(index < results.size())
+			collectStat(index++);
 	}
 	
 	/**
@@ -862,123 +1888,531 @@ public class PUTExperiment {
 	 */
 	protected void createDatasets() throws Exception {
 		partitioningOn = true;
-		partitioningExecutor = new ThreadPoolExecutor(availableProcessors+1, availableProcessors+1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+		// The partitioners are held back in the queue while the experiment is paused
+		partitioningExecutor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS, pauseController.<Runnable>createPausableQueue());
 		for(Set<Integer> partition : attributePartitions) {
 			Runnable datasetPartitioner = new Runnable() {
 				@Override
 				public void run() {
 					try {
-						Instances data = getFragmentedDataset(dataset, partition, hExpense);
-						Dataset dataset = new Dataset(data, partition.toString());
-						datasetsReadyQueue.put(dataset);
-					} catch (InterruptedException e) {
-						if(!asyncExecution) {
-							logger.errorln("Fatal Error - problem in creating partitioned datasets. Exiting.");
-							logger.exception(e);
-							System.exit(-1);
+						if(withdrawnPartitions.remove(partition))
+							return;
+						if(isBudgetExhausted()) {
+							skipTask(partition);
+							return;
+						}
+						Stats cached = getCachedStats(partition);
+						if(cached != null) {
+							results.add(CompletableFuture.completedFuture(cached));
+							return;
 						}
+						long fragmentSize = estimateFragmentedDatasetSize(partition);
+						admissionController.acquire(fragmentSize);
+						boolean queued = false;
+						try {
+							Dataset fragment = createFragment(partition);
+							Instances data = fragment.getInstances();
+							long datasetSize = AdmissionController.estimateDatasetSize(data.numInstances(), data.numAttributes());
+							bytesInDatasetsReadyQueue.addAndGet(datasetSize);
+							try {
+								datasetsReadyQueue.put(fragment);
+								queued = true;
+							} finally {
+								if(!queued)
+									bytesInDatasetsReadyQueue.addAndGet(-datasetSize);
+							}
+						} finally {
+							// The bytes of a dataset in the queue are released by its learning task, otherwise nobody else would release them
+							if(!queued)
+								admissionController.release(fragmentSize);
+						}
+					} catch (InterruptedException | IOException | RuntimeException e) {
+						failExperiment("Fatal Error - problem in creating partitioned datasets", e);
 					}
 				}
 			};
-			partitioningExecutor.submit(datasetPartitioner);
+			// No task has completed yet, so the datasets are created in the order of the prior costs of their partitions
+			int[] attributes = getSelectedAttributes(dataset, partition);
+			double[] features = getCostFeatures(dataset, Arrays.copyOf(attributes, attributes.length - 1), getNumOfRowsPerTask());
+			partitioningExecutor.execute(new PrioritizedTask<Void>(datasetPartitioner, features, taskSequence.getAndIncrement(), getSchedulingCostModel()));
 		}
 		partitioningExecutor.shutdown();
 
-		partitioningProgressMonitor = new Thread("Partioning Progress Monitor") {
+		partitioningProgressMonitor = CoordinationThreads.newThread("Partioning Progress Monitor", new Runnable() {
 			@Override
 			public void run() {
 				try {
 					numOfPartitionedDatasets = numOfDatasetsInQueue = 0;
+					numOfBytesInDatasetsQueue = numOfBytesInFlight = 0;
 					do {
 						numOfPartitionedDatasets = partitioningExecutor.getCompletedTaskCount();
 						numOfDatasetsInQueue = datasetsReadyQueue.size();
+						numOfBytesInDatasetsQueue = bytesInDatasetsReadyQueue.get();
+						numOfBytesInFlight = admissionController.getBytesInFlight();
 						String msg1 = "Dataset partitioning tasks - " + numOfPartitionedDatasets + " completed out of " + partitioningExecutor.getTaskCount();
-						String msg2 = "Dataset Ready Queue - " + numOfDatasetsInQueue + " datasets waiting in queue to be processed";
-						logger.outln("------------------------------------------------------\n### " + msg1 + "\n### " + msg2  + "\n------------------------------------------------------");
+						String msg2 = "Dataset Ready Queue - " + numOfDatasetsInQueue + " datasets (" + toMB(numOfBytesInDatasetsQueue) + " MB) waiting in queue to be processed";
+						String msg3 = "Datasets in flight - " + toMB(numOfBytesInFlight) + " MB out of a budget of " + toMB(admissionController.getBudget()) + " MB";
+						logger.outln("------------------------------------------------------\n### " + msg1 + "\n### " + msg2 + "\n### " + msg3 + "\n------------------------------------------------------");
+						notifyProgress();
 					} while(!partitioningExecutor.awaitTermination(1500, TimeUnit.MILLISECONDS));
 					partitioningOn = false;
 					logger.outln("Dataset partitioning completed !!");
 					numOfPartitionedDatasets = totalTasks;
+					notifyProgress();
 				} catch (InterruptedException e) {
 					if(!asyncExecution) {
-						logger.errorln("Something went wrong with the " + this.getName());
+						logger.errorln("Something went wrong with the " + Thread.currentThread().getName());
 						logger.exception(e);
 					}
 					// The progress monitor crashed.. we'll have to signal the learning thread as well to not wait indefinitely
 					partitioningOn = false;
 				}
 			}
-		};
+		});
 		partitioningProgressMonitor.start();
 	}
 	
 	/**
-	 * Creates a thread which manages learning tasks for this experiment
+	 * Creates the fragmented dataset for a partition, with the rows of the current round of racing if a round is in progress,
+	 * or else with the rows chosen for the partition as per the horizontal expense. The fragmented dataset also has the additional targets of the learning tasks (see {@link #getTaskTargets()}).
+	 * @param partition A set of attribute indices from the original dataset to include in the partition
+	 * @return The fragmented dataset
 	 */
-	protected void createLearningRequests() {
+	private Dataset createFragment(Set<Integer> partition) {
+		int[] rows = sampleRows != null ? sampleRows : getRetainedRows(dataset.numInstances(), hExpense, getPartitionSeed(seed, partition));
+		return getFragmentedDataset(dataset, partition, getTaskTargets(), rows, foldPlan);
+	}
+
+	/**
+	 * Creates a thread which submits fused tasks to a single work-stealing pool. 
+	 * Each fused task fragments the original dataset as per its partition, and immediately learns over the fragmented dataset in the same thread, 
+	 * so that the fragmented dataset never needs to be handed over to another thread.
+	 */
+	protected void createFusedTasks() {
+		if(adaptiveConcurrency)
+			logger.errorln("Adaptive concurrency is not available for fused tasks. Using a fixed parallelism of " + parallelism + " threads.");
+		partitioningOn = true;
 		allLearningRequestsInQueue = false;
-		LinkedBlockingQueue<Runnable> learningTasksQueue = new LinkedBlockingQueue<Runnable>();
-		learningExecutor = new ThreadPoolExecutor(availableProcessors+1, availableProcessors+1, 0L, TimeUnit.MILLISECONDS, learningTasksQueue);
-		learningRequestCreator = new Thread("Learning Requests Creator") {
+		fusedTasksPartitioned = new AtomicLong(0);
+		fusedTasksCompleted = new AtomicLong(0);
+		fusedTasksPending = new AtomicLong(0);
+		fusedExecutor = sharedExecutor != null ? sharedExecutor : new ForkJoinPool(parallelism);
+		learningRequestCreator = CoordinationThreads.newThread("Fused Tasks Creator", new Runnable() {
 			@Override
 			public void run() {
-				do {
+				try {
+					for(Set<Integer> partition : attributePartitions) {
+						pauseController.awaitResume();
+						if(withdrawnPartitions.remove(partition))
+							continue;
+						if(isBudgetExhausted()) {
+							skipTask(partition);
+							continue;
+						}
+						Stats cached = getCachedStats(partition);
+						if(cached != null) {
+							fusedTasksCompleted.incrementAndGet();
+							results.add(CompletableFuture.completedFuture(cached));
+							continue;
+						}
+						long datasetSize = estimateFragmentedDatasetSize(partition);
+						CompletableFuture<Stats> result = new CompletableFuture<Stats>();
+						Runnable fusedTask = new Runnable() {
+							@Override
+							public void run() {
+								Runnable task = this;
+								// A task that comes up while the experiment is paused is put aside, instead of parking a thread of the (possibly shared) pool
+								if(pauseController.deferWhilePaused(new Runnable() {
+									@Override
+									public void run() {
+										submitFusedTask(task, result, datasetSize);
+									}
+								}))
+									return;
+								try {
+									// The task is cancelled when the experiment is stopped
+									if(result.isDone())
+										return;
+									if(withdrawnPartitions.remove(partition)) {
+										result.complete(null);
+										return;
+									}
+									if(isBudgetExhausted()) {
+										skipTask(partition);
+										result.complete(null);
+										return;
+									}
+									Dataset fragment = createFragment(partition);
+									fusedTasksPartitioned.incrementAndGet();
+									LearningPod pod = createLearningPod(fragment, getTaskTargets().length);
+									pod.setFoldExecutor(getFoldExecutor());
+									Stats stat = pod.call();
+									progressEstimator.taskCompleted(pod.getTime());
+									fusedTasksCompleted.incrementAndGet();
+									result.complete(stat);
+								} catch (Throwable e) {
+									result.completeExceptionally(e);
+								} finally {
+									fusedTasksPending.decrementAndGet();
+									admissionController.release(datasetSize);
+								}
+							}
+						};
+						// Wait for the experiment to be resumed, and for enough memory to be released, before creating another request
+						pauseController.awaitResume();
+						admissionController.acquire(datasetSize);
+						fusedTasksPending.incrementAndGet();
+						results.add(result);
+						if(!submitFusedTask(fusedTask, result, datasetSize))
+							throw new RejectedExecutionException("The pool for the fused tasks is shut down");
+					}
+				} catch (Exception e) {
+					failExperiment("Fatal Error - problem in creating fused tasks", e);
+				}
+				partitioningOn = false;
+			}
+		});
+		learningRequestCreator.start();
+
+		learningProgressMonitor = CoordinationThreads.newThread("Fused Tasks Progress Monitor", new Runnable() {
+			@Override
+			public void run() {
+				try {
+					numOfPartitionedDatasets = numOfDatasetsInQueue = numOfTasksCompleted = numOfTasksInLearningQueue = 0;
+					numOfBytesInDatasetsQueue = numOfBytesInFlight = 0;
+					do {
+						numOfPartitionedDatasets = fusedTasksPartitioned.get();
+						numOfTasksCompleted = fusedTasksCompleted.get();
+						numOfTasksInLearningQueue = fusedExecutor.getQueuedSubmissionCount();
+						numOfBytesInFlight = admissionController.getBytesInFlight();
+						String msg1 = "Fused tasks - " + numOfTasksCompleted + " completed out of " + totalTasks;
+						String msg2 = "Fused tasks waiting in queue - " + numOfTasksInLearningQueue;
+						String msg3 = "Datasets in flight - " + toMB(numOfBytesInFlight) + " MB out of a budget of " + toMB(admissionController.getBudget()) + " MB";
+						logger.outln("------------------------------------------------------\n*** " + msg1 + "\n*** " + msg2 + "\n*** " + msg3 + getProgressEstimates() + "\n------------------------------------------------------");
+						notifyProgress();
+					} while(!awaitFusedTasks(1500));
+					numOfPartitionedDatasets = fusedTasksPartitioned.get();
+					numOfTasksCompleted = fusedTasksCompleted.get();
+					numOfTasksInLearningQueue = 0;
+					numOfBytesInFlight = 0;
+					// The pool is shut down only now, since the tasks put aside while the experiment was paused are resubmitted to it
+					if(sharedExecutor == null)
+						fusedExecutor.shutdown();
+					logger.outln("Fused tasks completed !!");
+					notifyProgress();
+					stopWatchdog();
+					stopResultCache();
+					allLearningRequestsInQueue = true;
+				} catch (InterruptedException e) {
+					if(!asyncExecution) {
+						logger.errorln("Something went wrong with the " + Thread.currentThread().getName());
+						logger.exception(e);
+					}
+				}
+			}
+		});
+		learningProgressMonitor.start();
+	}
+
+	/**
+	 * Creates a learning pod, which learns over a given (fragmented) dataset with the classifier settings of this experiment
+	 * @param dataset The dataset to learn over
+	 * @param numOfTargets The number of additional targets in the dataset, after the attributes of the partition (see {@link #getSelectedAttributes(Instances, Set, int[])})
+	 * @return The learning pod for the dataset
+	 */
+	private LearningPod createLearningPod(Dataset dataset, int numOfTargets) {
+		DataClassifier classifier = new DataClassifier(classifierType, dataset, k);
+		classifier.setOptions(classifierOptions);
+		LearningPod pod = new LearningPod(classifier);
+		if(numOfTargets > 0)
+			pod.setTargets(dataset.getInstances().numAttributes() - 1 - numOfTargets, numOfTargets);
+		pod.setWatchdog(watchdog);
+		if(resultCache != null)
+			pod.setResultCache(resultCache, experimentFingerprint);
+		return pod;
+	}
+
+	/**
+	 * Creates a thread which manages learning tasks for this experiment
+	 */
+	protected void createLearningRequests() {
+		allLearningRequestsInQueue = false;
+		// The learning tasks are held back in the queue while the experiment is paused
+		PriorityBlockingQueue<Runnable> learningTasksQueue = pauseController.<Runnable>createPausableQueue();
+		learningExecutor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS, learningTasksQueue);
+		if(foldParallelism && k >= 2) {
+			// The folds are shared only with the last few learning tasks, so the threads of the fold pool do not linger once idle
+			foldExecutor = new ThreadPoolExecutor(parallelism, parallelism, 1L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+			foldExecutor.allowCoreThreadTimeOut(true);
+		}
+		if(adaptiveConcurrency) {
+			concurrencyController = new ConcurrencyController(learningExecutor, 1, Math.max(parallelism, 2 * availableProcessors), logger);
+			concurrencyController.start();
+			logger.outln("Adapting the learning concurrency at runtime, starting with " + parallelism + " threads");
+		}
+		learningRequestCreator = CoordinationThreads.newThread("Learning Requests Creator", new Runnable() {
+			@Override
+			public void run() {
+				do {
 					try {
 						Dataset dataset = datasetsReadyQueue.poll(2500, TimeUnit.MILLISECONDS);
 						if(dataset == null && !partitioningOn)
 							break;
 						else if(dataset != null) {
-							DataClassifier classifier = new DataClassifier(classifierType, dataset, k);
-							classifier.setOptions(classifierOptions);
-							LearningPod pod = new LearningPod(classifier);
-							while(learningTasksQueue.size() >= LEARNING_REQUEST_QUEUE_SIZE)
-								Thread.sleep(100); // Wait for some time before attempting to create another request
-								
-							results.add(learningExecutor.submit(pod));
+							Instances data = dataset.getInstances();
+							long datasetSize = AdmissionController.estimateDatasetSize(data.numInstances(), data.numAttributes());
+							bytesInDatasetsReadyQueue.addAndGet(-datasetSize);
+							int numOfTargets = getTaskTargets().length;
+							LearningPod pod = createLearningPod(dataset, numOfTargets);
+							int[] attributes = new int[data.numAttributes() - 1 - numOfTargets];
+							for(int i = 0; i < attributes.length; i++)
+								attributes[i] = i;
+							double[] features = getCostFeatures(data, attributes, data.numInstances());
+							// The memory held by the dataset is released only after the learning task completes
+							Callable<Stats> learningTask = new Callable<Stats>() {
+								@Override
+								public Stats call() throws Exception {
+									try {
+										if(withdrawnPartitions.remove(pod.getPartition()))
+											return null;
+										if(isBudgetExhausted()) {
+											skipTask(pod.getPartition());
+											return null;
+										}
+										// The time limit may have been set after the pod was created
+										pod.setWatchdog(watchdog);
+										pod.setFoldExecutor(getFoldExecutor());
+										Stats stat = pod.call();
+										progressEstimator.taskCompleted(pod.getTime());
+										if(!stat.isTimedOut() && costModel.update(features, pod.getTime()) && getSchedulingCostModel() != null)
+											reprioritizeLearningTasks();
+										return stat;
+									} finally {
+										admissionController.release(datasetSize);
+									}
+								}
+							};
+							PrioritizedTask<Stats> prioritizedTask = new PrioritizedTask<Stats>(learningTask, features, taskSequence.getAndIncrement(), getSchedulingCostModel());
+							pauseController.awaitResume();
+							try {
+								learningExecutor.execute(prioritizedTask);
+							} catch (RejectedExecutionException e) {
+								// The task will never run to release the bytes of its dataset
+								admissionController.release(datasetSize);
+								throw e;
+							}
+							results.add(prioritizedTask);
 						}
 					} catch (Exception e) {
-						if(!asyncExecution) {
-							logger.errorln("Fatal Error - problem in creating learning requests. Exiting.");
-							logger.exception(e);
-							System.exit(-1);
-						}
+						failExperiment("Fatal Error - problem in creating learning requests", e);
 					}
 				} while(true);
-				learningExecutor.shutdown();
+				synchronized(learningTasksQueue) {
+					learningExecutor.shutdown();
+				}
 			}
-		};
+		});
 		learningRequestCreator.start();
 
-		learningProgressMonitor = new Thread("Learning Progress Monitor") {
+		learningProgressMonitor = CoordinationThreads.newThread("Learning Progress Monitor", new Runnable() {
 			@Override
 			public void run() {
 				try {
 					numOfTasksCompleted = numOfTasksInLearningQueue = 0;
 					do {
-						numOfTasksCompleted = learningExecutor.getCompletedTaskCount();
+						// The outcomes found in the result cache never reach the learning pool
+						numOfTasksCompleted = learningExecutor.getCompletedTaskCount() + cacheHits.get();
 						numOfTasksInLearningQueue = learningTasksQueue.size();
 
 						String msg1 = "Learning tasks - " + numOfTasksCompleted + " completed till now";
 						String msg2 = "Learning tasks waiting in queue - " + numOfTasksInLearningQueue;
-						logger.outln("------------------------------------------------------\n*** " + msg1 + "\n*** " + msg2 + "\n------------------------------------------------------");
+						String msg3 = "Learning threads - " + learningExecutor.getCorePoolSize();
+						logger.outln("------------------------------------------------------\n*** " + msg1 + "\n*** " + msg2 + "\n*** " + msg3 + getProgressEstimates() + "\n------------------------------------------------------");
+						notifyProgress();
 					} while(!learningExecutor.awaitTermination(1500, TimeUnit.MILLISECONDS));
 					allLearningRequestsInQueue = true;
 					do {
-						numOfTasksCompleted = learningExecutor.getCompletedTaskCount();
+						numOfTasksCompleted = learningExecutor.getCompletedTaskCount() + cacheHits.get();
 						String msg1 = "Learning tasks - " + numOfTasksCompleted + " completed till now";
-						logger.outln("------------------------------------------------------\n*** " + msg1 + "\n------------------------------------------------------");
+						logger.outln("------------------------------------------------------\n*** " + msg1 + getProgressEstimates() + "\n------------------------------------------------------");
+						notifyProgress();
 					} while(!learningExecutor.awaitTermination(1500, TimeUnit.MILLISECONDS));
+					if(foldExecutor != null)
+						foldExecutor.shutdown();
+					if(concurrencyController != null)
+						concurrencyController.stop();
+					stopWatchdog();
+					stopResultCache();
+					notifyProgress();
 				} catch (InterruptedException e) {
 					if(!asyncExecution) {
-						logger.errorln("Something went wrong with the " + this.getName());
+						logger.errorln("Something went wrong with the " + Thread.currentThread().getName());
 						logger.exception(e);
 					}
 				}
 			}
-		};
+		});
 		learningProgressMonitor.start();
 	}
 	
+	/**
+	 * Creates the plan for generating the partitions of this experiment, at a given vertical expense
+	 * @param vExpense The vertical expense
+	 * @return The partition plan
+	 */
+	private PartitionPlan createPartitionPlan(float vExpense) {
+		PartitionPlan plan = new PartitionPlan(numOfAttributes, partitionSize, vExpense);
+		plan.setGenerateRandomly(generateRandomCombinations);
+		plan.setSeed(seed);
+		plan.setPrivacyExceptions(getPartitioningExceptions());
+		plan.setUtilityExceptions(utilityExceptions);
+		return plan;
+	}
+
+	/**
+	 * Submits the learning tasks for the generated partitions to the task coordinator, which hands them out to the worker processes,
+	 * and creates a thread which monitors their progress. The coordinator starts accepting workers (and starts the worker processes on this machine, if any)
+	 * the first time the tasks are submitted.
+	 * @throws IOException If the coordinator could not listen on its port
+	 */
+	protected void createRemoteTasks() throws IOException {
+		if(recoveryInformation == null)
+			throw new IllegalStateException("The options of the experiment are required for the workers to create it");
+		if(resultCacheFile != null || sharedResultCache != null)
+			logger.errorln("The result cache is not available with workers. Evaluating all the partitions.");
+		if(taskCoordinator == null) {
+			String token;
+			File tokenFile = getWorkerTokenFile();
+			// A token file set explicitly is reused, so that the workers need not be handed a fresh token every time
+			if(coordinatorPort > 0 && workerTokenFile != null && tokenFile.exists())
+				token = TaskCoordinator.readToken(tokenFile.getPath());
+			else {
+				token = TaskCoordinator.createToken();
+				if(coordinatorPort > 0)
+					TaskCoordinator.writeToken(tokenFile, token);
+			}
+			taskCoordinator = new TaskCoordinator(recoveryInformation, getExperimentFingerprint(), token, logger);
+			taskCoordinator.setPaused(pauseController.isPaused());
+			if(coordinatorPort > 0) {
+				InetAddress address = bindAddress == null ? InetAddress.getLoopbackAddress() : bindAddress;
+				taskCoordinator.listen(address, coordinatorPort);
+				logger.outln("Waiting for workers on " + address.getHostAddress() + ":" + coordinatorPort + ". Start every worker with " + TaskWorker.class.getName() + " " + TaskWorker.HOST_SWITCH + " <host> " + 
+						TaskWorker.PORT_SWITCH + " " + coordinatorPort + " " + TOKEN_SWITCH + " <copy of " + tokenFile.getPath() + ">");
+			}
+			if(numOfForks > 0) {
+				// The threads are shared among the worker processes, rounding up so that none of the processors is left idle
+				forkedWorkers = new ForkedWorkers(taskCoordinator, numOfForks, (parallelism + numOfForks - 1) / numOfForks, forkHeapSize, token, logger);
+				forkedWorkers.start();
+				logger.outln("Started " + numOfForks + " worker processes, with a heap of " + forkedWorkers.getHeapSize() / (1024 * 1024) + " MB each");
+			}
+		}
+		partitioningOn = false;
+		TaskCoordinator coordinator = taskCoordinator;
+		long numOfTasksCompletedBefore = coordinator.getNumOfCompletedTasks();
+		results.addAll(coordinator.submit(attributePartitions, sampleProportion, progressEstimator));
+		// Every learning task has its result in place already
+		allLearningRequestsInQueue = true;
+
+		learningProgressMonitor = CoordinationThreads.newThread("Remote Tasks Progress Monitor", new Runnable() {
+			@Override
+			public void run() {
+				try {
+					numOfPartitionedDatasets = numOfDatasetsInQueue = numOfTasksCompleted = numOfTasksInLearningQueue = 0;
+					numOfBytesInDatasetsQueue = numOfBytesInFlight = 0;
+					do {
+						Thread.sleep(1500);
+						// In case of a budget, the tasks not leased as yet are skipped, while the leased ones are let finish
+						if(isBudgetExhausted())
+							for(Set<Integer> partition : coordinator.skipPendingTasks())
+								skipTask(partition);
+						numOfTasksCompleted = coordinator.getNumOfCompletedTasks() - numOfTasksCompletedBefore;
+						numOfTasksInLearningQueue = coordinator.getNumOfPendingTasks();
+						String msg1 = "Remote tasks - " + numOfTasksCompleted + " completed out of " + totalTasks;
+						String msg2 = "Remote tasks waiting to be handed out - " + numOfTasksInLearningQueue + ", being learnt by the workers - " + coordinator.getNumOfLeasedTasks();
+						String msg3 = "Workers - " + coordinator.getNumOfWorkers();
+						logger.outln("------------------------------------------------------\n*** " + msg1 + "\n*** " + msg2 + "\n*** " + msg3 + getProgressEstimates() + "\n------------------------------------------------------");
+						notifyProgress();
+					} while(coordinator.getNumOfPendingTasks() > 0 || coordinator.getNumOfLeasedTasks() > 0);
+					numOfPartitionedDatasets = numOfTasksCompleted;
+					numOfTasksInLearningQueue = 0;
+					logger.outln("Remote tasks completed !!");
+					notifyProgress();
+				} catch (InterruptedException e) {
+					if(!asyncExecution) {
+						logger.errorln("Something went wrong with the " + Thread.currentThread().getName());
+						logger.exception(e);
+					}
+				}
+			}
+		});
+		learningProgressMonitor.start();
+	}
+
+	/**
+	 * Creates an empty set of top results, ranking the results by a metric named as in the header of the result file
+	 * @param limit The number of best results to retain
+	 * @param metricName The name of the metric, i.e. "Accuracy", or one of "TP", "FP", "FN", "Precision", "Recall", "aROC" or "aPR" followed by '_' and a class
+	 * @return the empty set of top results
+	 * @throws IllegalArgumentException If the limit is not positive, or the metric is unknown
+	 */
+	private TopResults createTopResults(int limit, String metricName) throws IllegalArgumentException {
+		if(metricName.compareToIgnoreCase("Accuracy") == 0)
+			return new TopResults(limit, Stats.ACCURACY, null);
+		String[] prefixes = {"TP_", "FP_", "FN_", "Precision_", "Recall_", "aROC_", "aPR_"};
+		short[] metrics = {Stats.CS_TRUE_POSITIVE, Stats.CS_FALSE_POSITIVE, Stats.CS_FALSE_NEGATIVE, Stats.CS_PRECISION, Stats.CS_RECALL, Stats.CS_ROC, Stats.CS_PR};
+		for(int i = 0; i < prefixes.length; i++) {
+			if(metricName.regionMatches(true, 0, prefixes[i], 0, prefixes[i].length())) {
+				int classIndex = Dataset.getAllClassesForDataset(dataset).indexOf(metricName.substring(prefixes[i].length()));
+				if(classIndex < 0)
+					throw new IllegalArgumentException("Unknown class in the metric - " + metricName);
+				return new TopResults(limit, metrics[i], classIndex);
+			}
+		}
+		throw new IllegalArgumentException("Unknown metric - " + metricName);
+	}
+
+	/**
+	 * Estimates the number of bytes a fragmented dataset for a given partition would occupy, before actually creating it
+	 * @param partition A set of attribute indices from the original dataset to include in the partition
+	 * @return The estimated size of the fragmented dataset in bytes
+	 */
+	private long estimateFragmentedDatasetSize(Set<Integer> partition) {
+		int rows = getNumOfRowsPerTask();
+		return AdmissionController.estimateDatasetSize(rows, getSelectedAttributes(dataset, partition, getTaskTargets()).length);
+	}
+
+	/**
+	 * Evaluates the partitions added by raising the vertical expense (see {@link #setVerticalExpense(float)}), once the learning tasks scheduled earlier have finished.
+	 * The partitions added meanwhile are evaluated in a wave of their own, and so on, till no more partitions are added.
+	 * @throws Exception If something goes wrong while evaluating the partitions in a wave
+	 */
+	private void evaluateAddedPartitions() throws Exception {
+		Set<Set<Integer>> wave;
+		while((wave = takeAddedPartitions()) != null) {
+			awaitMonitors();
+			logger.outln("Evaluating " + wave.size() + " partitions added by raising the vertical expense");
+			attributePartitions = wave;
+			totalTasks = wave.size();
+			scheduleLearningTasks();
+			collectStats();
+		}
+		awaitMonitors();
+	}
+
+	/**
+	 * Evaluates a partition handed out by a {@link TaskCoordinator}, in a worker process. 
+	 * The experiment must have been prepared via {@link #startRemoteEvaluation()}.
+	 * @param partition A set of attribute indices from the original dataset to include in the partition
+	 * @param sampleProportion The proportion of rows of the stratified sample to evaluate the partition on, or 0 for the rows retained as per the horizontal expense
+	 * @return The stats of the learning task
+	 * @throws Exception If the learning task fails
+	 */
+	Stats evaluatePartition(Set<Integer> partition, float sampleProportion) throws Exception {
+		int[] rows = sampleProportion > 0 ? foldPlan.getStratifiedSample(sampleProportion) : getRetainedRows(dataset.numInstances(), hExpense, getPartitionSeed(seed, partition));
+		// The worker processes evaluate the partitions against the class attribute only
+		return createLearningPod(getFragmentedDataset(dataset, partition, new int[0], rows, foldPlan), 0).call();
+	}
+
 	/**
 	 * Generates the paritions according to a given {@link PartitionPlan}
 	 * @param plan The partition plan to use
@@ -991,6 +2425,111 @@ public class PUTExperiment {
 		writePartitionsForRecovery(plan.isGenerateRandomly());
 	}
 
+	/**
+	 * Looks up the outcome of the learning task over a partition in the result cache (if any), before any memory is admitted or any dataset is created for the task.
+	 * A hit counts as a completed task, but neither its task time nor the cost model is updated with it, since nothing was learnt.
+	 * @param partition The partition
+	 * @return The cached stats of the partition, or <code>null</code> if there is no result cache or the outcome is not cached
+	 * @throws IOException If the cached outcome could not be read
+	 */
+	private Stats getCachedStats(Set<Integer> partition) throws IOException {
+		if(resultCache == null)
+			return null;
+		Stats cached = resultCache.get(ResultCache.createKey(experimentFingerprint, partition));
+		if(cached == null)
+			return null;
+		cached.setPartition(new TreeSet<Integer>(partition));
+		cached.setCached(true);
+		cacheHits.incrementAndGet();
+		cacheTimeSaved.addAndGet(cached.getTime());
+		progressEstimator.taskReused();
+		return cached;
+	}
+
+	/**
+	 * Returns the file to which the coverage report is written, in case of a budget.
+	 * It is a file in the folder of the result file, named after the result file with the suffix "_coverage.txt".
+	 * @return the coverage report file
+	 */
+	public File getCoverageReportFile() {
+		String coverageReportFileName = resultFile.getName();
+		if(coverageReportFileName.contains("."))
+			coverageReportFileName = coverageReportFileName.substring(0, coverageReportFileName.lastIndexOf("."));
+		return new File(resultFile.getParent(), coverageReportFileName + "_coverage.txt");
+	}
+
+	/**
+	 * A <i>status indicator</i> while the experiment is running - The estimated time remaining for the learning tasks to complete
+	 * @return the estimated time remaining in seconds
+	 */
+	public double getEstimatedTimeRemaining() {
+		if(progressEstimator == null || attributePartitions == null || progressEstimator.getThroughput() < 0)
+			throw new IllegalStateException("The experiment is either not running or this data is currently not available");
+		return progressEstimator.getEstimatedTimeRemaining(attributePartitions.size() - progressEstimator.getNumOfTasksCompleted());
+	}
+
+	/**
+	 * Fails this experiment due to a fatal error, unless it has already failed or been stopped. The experiment moves to the {@link ExperimentProgress#STAGE_FAILED} stage,
+	 * the error is told to the listeners (if any), and the tasks of the experiment are stopped. The thread running the experiment then throws the failure.
+	 * @param message The description of the error
+	 * @param e The cause of the error
+	 */
+	private void failExperiment(String message, Exception e) {
+		synchronized(this) {
+			if(failure != null || stage == ExperimentProgress.STAGE_STOPPED)
+				return;
+			failure = new ExperimentException(message, e);
+			if(eventDispatcher != null)
+				eventDispatcher.errorOccurred(message, e);
+			setStage(ExperimentProgress.STAGE_FAILED);
+		}
+		stopExperiment();
+	}
+
+	/**
+	 * Creates the fingerprint of the settings of this experiment that determine the outcomes of its learning tasks
+	 * @return the fingerprint, as per {@link ResultCache#createFingerprint(Instances, Class, String[], int, float, long)}
+	 */
+	byte[] getExperimentFingerprint() {
+		return ResultCache.createFingerprint(dataset, classifierType, classifierOptions, k, hExpense, seed);
+	}
+
+	/**
+	 * Returns the executor to share the folds of a learning task with, if the folds should be evaluated in parallel at this point of time.<br>
+	 * The folds are evaluated in parallel only when fewer learning tasks are pending than the available processors, so that the processors left idle 
+	 * by the last few tasks are put to use. The folds are shared with the fused tasks pool in the fused execution mode, and with the fold pool of this experiment otherwise.
+	 * @return the executor for the folds, or <code>null</code> if the folds should be evaluated one after another
+	 */
+	private Executor getFoldExecutor() {
+		if(!foldParallelism || k < 2)
+			return null;
+		long pendingTasks = attributePartitions.size() - progressEstimator.getNumOfTasksCompleted();
+		if(pendingTasks >= availableProcessors)
+			return null;
+		return fusedExecution ? fusedExecutor : foldExecutor;
+	}
+
+	/**
+	 * A <i>status indicator</i> while the experiment is running - The (estimated) number of bytes occupied by the datasets in queue waiting to be processed
+	 * @return number of bytes in the dataset ready queue
+	 */
+	public long getNumOfBytesInDatasetsQueue() {
+		if(numOfBytesInDatasetsQueue == Long.MIN_VALUE)
+			throw new IllegalStateException("The experiment is either not running or this data is currently not available");
+		return numOfBytesInDatasetsQueue;
+	}
+
+	/**
+	 * A <i>status indicator</i> while the experiment is running - The (estimated) number of bytes occupied by all the fragmented datasets in flight
+	 * (waiting in queues or being learnt over)
+	 * @return number of bytes in flight
+	 */
+	public long getNumOfBytesInFlight() {
+		if(numOfBytesInFlight == Long.MIN_VALUE)
+			throw new IllegalStateException("The experiment is either not running or this data is currently not available");
+		return numOfBytesInFlight;
+	}
+
 	/**
 	 * A <i>status indicator</i> while the experiment is running - The number of datasets in queue waiting to be processed
 	 * @return number of processed datasets
@@ -1021,6 +2560,14 @@ public class PUTExperiment {
 		return numOfResultsWrittenToFile;
 	}
 	
+	/**
+	 * Returns the number of rows in every fragmented dataset created for the learning tasks being scheduled
+	 * @return the number of rows per learning task
+	 */
+	private int getNumOfRowsPerTask() {
+		return sampleRows != null ? sampleRows.length : getNumOfRowsToRetain(dataset.numInstances(), hExpense);
+	}
+
 	/**
 	 * A <i>status indicator</i> while the experiment is running - The number of learning requests completed till now
 	 * @return number of learning requests completed
@@ -1041,6 +2588,81 @@ public class PUTExperiment {
 		return numOfTasksInLearningQueue;
 	}
 
+	/**
+	 * Returns a snapshot of the progress of this experiment, as delivered to its listeners
+	 * @return the progress of this experiment
+	 */
+	public ExperimentProgress getProgress() {
+		long total = totalTasks == Long.MIN_VALUE ? -1 : totalTasks;
+		long partitioned = numOfPartitionedDatasets == Long.MIN_VALUE ? -1 : numOfPartitionedDatasets;
+		long completed = numOfTasksCompleted == Long.MIN_VALUE ? -1 : numOfTasksCompleted;
+		long written = numOfResultsWrittenToFile == Long.MIN_VALUE ? -1 : numOfResultsWrittenToFile;
+		double throughput = Double.NaN, remaining = Double.NaN, median = Double.NaN, tail = Double.NaN;
+		ProgressEstimator estimator = progressEstimator;
+		Set<Set<Integer>> partitions = attributePartitions;
+		if(estimator != null && estimator.getNumOfTasksCompleted() > 0) {
+			// The monitors update the counts only periodically, while the estimator counts every task as it completes
+			completed = Math.max(completed, estimator.getNumOfTasksCompleted());
+			// The tasks whose outcomes were reused count as completed, but the estimates need a task that was actually learnt
+			if(estimator.getThroughput() >= 0) {
+				throughput = estimator.getThroughput();
+				median = estimator.getTaskTime(50);
+				tail = estimator.getTaskTime(95);
+				if(partitions != null)
+					remaining = estimator.getEstimatedTimeRemaining(Math.max(0, partitions.size() - estimator.getNumOfTasksCompleted()));
+			}
+		}
+		return new ExperimentProgress(stage, total, partitioned, completed, written, throughput, remaining, median, tail, pauseController.isPaused());
+	}
+
+	/**
+	 * Returns the estimates of the progress of the learning tasks, as lines to be included in the messages of the progress monitors
+	 * @return the progress estimates, or an empty string if no learning task has completed as yet
+	 */
+	private String getProgressEstimates() {
+		try {
+			String msg1 = String.format("Throughput - %.2f tasks/sec, estimated time remaining - %s", getThroughput(), ProgressEstimator.formatDuration((long)getEstimatedTimeRemaining()));
+			String msg2 = String.format("Task time - %.3f sec (median), %.3f sec (95th percentile)", getTaskTime(50), getTaskTime(95));
+			if(pauseController.isPaused())
+				return "\n*** " + msg1 + "\n*** " + msg2 + "\n*** Paused - no more learning tasks are being started";
+			return "\n*** " + msg1 + "\n*** " + msg2;
+		} catch (IllegalStateException e) {
+			return "";
+		}
+	}
+
+	/**
+	 * Returns the number of threads to use for partitioning and learning tasks, as set via {@link #setParallelism(int)} (default: the number of processors + 1)
+	 * @return the number of threads
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Returns the file to which the stats of the learning tasks are written (unsorted) as soon as they are collected.
+	 * The file has the same format as the result file, and can be read at any time while the experiment is running, or after it is stopped.
+	 * It is deleted once the sorted results are saved to the result file.
+	 * @return the file with the partial results
+	 */
+	public File getPartialResultFile() {
+		return ResultSpool.getSpoolFile(resultFile);
+	}
+
+	/**
+	 * Returns the privacy exceptions to honour while generating the partitions. Every additional target is an exception of its own, so that the targets are left out of the partitions.
+	 * @return the privacy exceptions, along with the additional targets
+	 */
+	private Set<Set<Integer>> getPartitioningExceptions() {
+		if(targets.length == 0)
+			return privacyExceptions;
+		Set<Set<Integer>> exceptions = new TreeSet<Set<Integer>>(ATTRIBUTE_SET_COMPARATOR);
+		exceptions.addAll(privacyExceptions);
+		for(int target : targets)
+			exceptions.add(new TreeSet<Integer>(Collections.singleton(target)));
+		return exceptions;
+	}
+
 	/**
 	 *  If set, returns the required recovery information for the initial state of this experiment. Otherwise, returns <code>null</code>
 	 * @return the recoveryInformation An array of recovery information
@@ -1049,6 +2671,22 @@ public class PUTExperiment {
 		return recoveryInformation;
 	}
 
+	/**
+	 * Returns the time limit for every learning task, relative to the median time taken by the learning tasks completed so far
+	 * @return the multiple of the median time, or 0 if there is no relative time limit
+	 */
+	public double getRelativeTimeLimit() {
+		return timeLimitMultiple;
+	}
+
+	/**
+	 * Returns the file of the result cache for this experiment, if set
+	 * @return the file of the result cache, or <code>null</code> if the outcomes are not cached
+	 */
+	public File getResultCacheFile() {
+		return resultCacheFile;
+	}
+
 	/**
 	 * Returns the result file to use for this experiment<br>
 	 * By default, it is a file called "results.csv" in the same folder as the data file.
@@ -1058,6 +2696,92 @@ public class PUTExperiment {
 		return resultFile;
 	}
 
+	/**
+	 * Returns the cost model by which the partitioning and learning tasks are prioritized.
+	 * In case of a budget, the tasks are not prioritized, so that the partitions are evaluated in the (random) order in which they are scheduled, 
+	 * and the partitions evaluated within the budget are an unbiased sample of all the partitions.
+	 * @return the cost model, or <code>null</code> if the tasks are not to be prioritized
+	 */
+	private CostModel getSchedulingCostModel() {
+		return budget > 0 && raceRound == null ? null : costModel;
+	}
+
+	/**
+	 * Returns the result file for an additional target, i.e. a file beside the result file, named after the result file and the target (e.g. results-income.csv for a target named income)
+	 * @param target The index of the additional target
+	 * @return the result file for the target
+	 */
+	public File getTargetResultFile(int target) {
+		String name = resultFile.getName();
+		String suffix = "-" + dataset.attribute(target).name().replaceAll("[^\\w.-]", "_");
+		int extension = name.lastIndexOf('.');
+		name = extension > 0 ? name.substring(0, extension) + suffix + name.substring(extension) : name + suffix;
+		return new File(resultFile.getAbsoluteFile().getParentFile(), name);
+	}
+
+	/**
+	 * Returns the spool of the stats against an additional target, creating it (and its file of partial results) the first time
+	 * @param index The position of the target among the additional targets
+	 * @return the spool for the target
+	 * @throws IOException If the file of partial results could not be created
+	 */
+	private ResultSpool getTargetResultSpool(int index) throws IOException {
+		if(targetResultSpools == null)
+			targetResultSpools = new ResultSpool[targets.length];
+		if(targetResultSpools[index] == null) {
+			File targetResultFile = getTargetResultFile(targets[index]);
+			targetResultSpools[index] = new ResultSpool(ResultSpool.getSpoolFile(targetResultFile), getResultFileHeader(dataset.attribute(targets[index])));
+		}
+		return targetResultSpools[index];
+	}
+
+	/**
+	 * Returns the additional targets, against which every partition is evaluated besides the class attribute
+	 * @return the indices of the additional targets (empty, if the partitions are evaluated against the class attribute only)
+	 */
+	public int[] getTargets() {
+		return targets.clone();
+	}
+
+	/**
+	 * Returns the additional targets to evaluate the partitions against in the learning tasks being scheduled. 
+	 * The rounds of racing only decide the partitions to promote by their stats against the class attribute, so they leave out the additional targets.
+	 * @return the indices of the additional targets for the learning tasks
+	 */
+	private int[] getTaskTargets() {
+		return sampleRows != null ? new int[0] : targets;
+	}
+
+	/**
+	 * A <i>status indicator</i> while the experiment is running - A percentile of the times taken by the completed learning tasks,
+	 * e.g. 50 for the median task time or 95 for the tail
+	 * @param percentile The percentile, in the range [0, 100]
+	 * @return the task time in seconds at the given percentile
+	 */
+	public double getTaskTime(double percentile) {
+		if(progressEstimator == null || progressEstimator.getThroughput() < 0)
+			throw new IllegalStateException("The experiment is either not running or this data is currently not available");
+		return progressEstimator.getTaskTime(percentile);
+	}
+
+	/**
+	 * A <i>status indicator</i> while the experiment is running - The estimated number of learning tasks being completed per second
+	 * @return the throughput in tasks per second
+	 */
+	public double getThroughput() {
+		if(progressEstimator == null || progressEstimator.getThroughput() < 0)
+			throw new IllegalStateException("The experiment is either not running or this data is currently not available");
+		return progressEstimator.getThroughput();
+	}
+
+	/**
+	 * Returns the absolute time limit for every learning task
+	 * @return the time limit (in seconds), or 0 if there is no absolute time limit
+	 */
+	public long getTimeLimit() {
+		return TimeUnit.NANOSECONDS.toSeconds(timeLimit);
+	}
+
 	/**
 	 * Returns the number of learning tasks this experiment spawns
 	 * @return number of learning tasks
@@ -1068,6 +2792,28 @@ public class PUTExperiment {
 		return totalTasks;
 	}
 
+	/**
+	 * Returns the vertical expense of this experiment, i.e. the fraction of all the possible partitions that are evaluated
+	 * @return the vertical expense
+	 */
+	public float getVerticalExpense() {
+		return vExpense;
+	}
+
+	/**
+	 * Returns the file holding the token the workers must present to the coordinator (see {@link #setCoordinatorPort(int)}).
+	 * Unless set otherwise, it is a file in the folder of the result file, named after the result file with the suffix "_worker.token".
+	 * @return the token file
+	 */
+	public File getWorkerTokenFile() {
+		if(workerTokenFile != null)
+			return workerTokenFile;
+		String tokenFileName = resultFile.getName();
+		if(tokenFileName.contains("."))
+			tokenFileName = tokenFileName.substring(0, tokenFileName.lastIndexOf("."));
+		return new File(resultFile.getParent(), tokenFileName + "_worker.token");
+	}
+
 	/**
 	 * Initiates recovery tasks for this experiment. This includes creation of a recovery file and printing header (recovery) information.
 	 */
@@ -1097,21 +2843,42 @@ public class PUTExperiment {
 		}
 	}
 
+	/**
+	 * Tells if the budget is about to run out, i.e. if a learning task started now is not expected to finish (going by the median time of the completed tasks) within the budget.
+	 * The rounds of racing are never cut short, since the partitions skipped in a round would be eliminated.
+	 * @return <code>true</code> if no more learning tasks should be started, <code>false</code> otherwise
+	 */
+	private boolean isBudgetExhausted() {
+		if(budget <= 0 || raceRound != null)
+			return false;
+		long expectedTaskTime = 0;
+		if(progressEstimator != null && progressEstimator.getThroughput() >= 0)
+			expectedTaskTime = (long) (progressEstimator.getTaskTime(50) * 1000000000d);
+		return System.nanoTime() - budgetStart + expectedTaskTime > budget;
+	}
+
+	/**
+	 * Tells if this experiment is paused (see {@link #pauseExperiment()})
+	 * @return <code>true</code> if the experiment is paused, <code>false</code> otherwise
+	 */
+	public boolean isPaused() {
+		return pauseController.isPaused();
+	}
+
+	/**
+	 * Tells the listeners of this experiment (if any) that its progress has changed
+	 */
+	private void notifyProgress() {
+		if(eventDispatcher != null)
+			eventDispatcher.progressChanged();
+	}
+
 	/**
 	 * parse the classifier options provided at the commandline in the form {option1,option2...}, to be passed on to the Weka classifier
 	 * @param classifierOptions The options string to parse
 	 */
 	protected void parseClassifierOptions(String classifierOptions) {
-		Pattern p = Pattern.compile("\\{.*\\}");
-		Matcher m = p.matcher(classifierOptions);
-		if(!m.matches())
-			throw new IllegalArgumentException("Invalid format for classifier options - " + classifierOptions);
-		// Remove braces
-		classifierOptions = classifierOptions.substring(1, classifierOptions.length()-1);
-		String[] options = classifierOptions.split(",");
-		for(int i = 0; i < options.length; i++)
-			options[i] = options[i].trim();
-		setClassifierOptions(options);
+		setClassifierOptions(splitClassifierOptions(classifierOptions));
 	}
 
 	/**
@@ -1137,6 +2904,25 @@ public class PUTExperiment {
 		}
 	}
 
+	/**
+	 * Parses the additional targets, in the format {attribute1,attribute2...}
+	 * @param targetsStr The targets string to parse
+	 * @throws IllegalArgumentException If the targets are not in the expected format, or are not valid targets
+	 */
+	private void parseTargets(String targetsStr) throws IllegalArgumentException {
+		Pattern p = Pattern.compile("\\{.*\\}");
+		Matcher m = p.matcher(targetsStr);
+		if(!m.matches())
+			throw new IllegalArgumentException("Invalid format for targets - " + targetsStr);
+		String[] tokens = targetsStr.substring(1, targetsStr.length() - 1).split(",");
+		int[] targets = new int[tokens.length];
+		for(int i = 0; i < tokens.length; i++)
+			targets[i] = Integer.parseInt(tokens[i].trim());
+		setTargets(targets);
+		for(int target : targets)
+			logger.outln("Added target - " + target + " (" + dataset.attribute(target).name() + ")");
+	}
+
 	/**
 	 * Parses the set of utility exceptions, in the format {exception1,exception2...}<br>
 	 * NOTE: In case of any conflicts between privacy and utility exceptions, privacy exceptions take precedence
@@ -1162,67 +2948,238 @@ public class PUTExperiment {
 	}
 
 	/**
-	 * Resumes the current experiment after the partition generation stage.
-	 * This method is supposed to be invoked from the {@link RecoveryManager}.
-	 * @param partitions The generated partitions to use
-	 * @param existingStats Any stats that are already collected
-	 * @param isRandomlyGenerated If <code>true</code>, signifies that the partitions were generated in random order, 
-	 * <code>false</code> signifies that the partitions were generated in dictionary order 
+	 * Pauses this experiment in the same process, keeping all its state in memory. No more partitioned datasets are created and no more learning tasks
+	 * are started (or handed out to the workers), while the ones already started are let finish, after which the threads of the experiment stay idle.
+	 * The tasks not started keep their place, and the experiment continues from where it was paused once resumed (see {@link #resumeExperiment()}).
+	 * @return <code>true</code> if the experiment is paused now, <code>false</code> if it is not running (or is done with the learning tasks), or is already paused
 	 */
-	public void resumeExperimentAfterGenerationStage(Set<Set<Integer>> partitions, List<Stats> existingStats, boolean isRandomlyGenerated) {
-		seed = 1;
+	public synchronized boolean pauseExperiment() {
+		if(stage == ExperimentProgress.STAGE_NOT_STARTED || stage >= ExperimentProgress.STAGE_WRITING || !pauseController.pause())
+			return false;
+		if(taskCoordinator != null)
+			taskCoordinator.setPaused(true);
+		logger.outln("Experiment paused. The learning tasks already started will be let finish.");
+		if(eventDispatcher != null)
+			eventDispatcher.stageChanged(getProgress());
+		return true;
+	}
 
-		totalTasks = numOfPartitionedDatasets = numOfDatasetsInQueue = numOfTasksInLearningQueue = numOfTasksCompleted = Long.MIN_VALUE;
-		
-		initiateRecoveryTasks();
-		
-		if (partitions.size() > existingStats.size()) {
-			logger.outln("Resuming the experiment after the partition generation stage");
-			logger.outln("Total tasks in the experiment: " + partitions.size());
-			logger.outln("Number of completed tasks recovered: " + existingStats.size());
-			logger.outln("Number of tasks remaining: " + (partitions.size() - existingStats.size()));
-			try {
-				// Remove the partitions whose results are already collected,
-				// write these stats to the new recovery file and
-				// add them to the collected stats
-				
-				for(Stats s : existingStats)
-					partitions.remove(s.getPartition());
-				attributePartitions = partitions;
-				writePartitionsForRecovery(isRandomlyGenerated);
-				for(Stats s : existingStats) {
-					rm.printStats(s);
-					stats.add(s);
-				}
-				createDatasets();
-			} catch (Exception e) {
-				logger.errorln(
-						"Fatal Error - problems in resuming experiment, could not create partitioned datasets. Exiting.");
-				logger.exception(e);
-				System.exit(-1);
-			}
-			// Create learning requests
-			results = Collections.synchronizedList(new ArrayList<Future<Stats>>());
-			createLearningRequests();
-			// Collect results and stats
+	/**
+	 * Races the partitions on growing stratified samples of the rows (successive halving), leaving only the partitions that survive the race to be evaluated as usual.<br>
+	 * In every round, the remaining partitions are evaluated on a sample, and only the best of them (by accuracy) are promoted to the next round, 
+	 * whose sample is larger by a factor of {@link #raceEta}, while the partitions are cut down by the same factor (but not below the number of results to retain, if set).
+	 * The race ends when the next sample would reach the horizontal expense. All the partitions are evaluated on the same sample in a round, 
+	 * so that they are compared over the same rows and folds.
+	 * @throws Exception If something goes wrong while evaluating the partitions in a round
+	 */
+	private void racePartitions() throws Exception {
+		FoldPlan samplingPlan = new FoldPlan(dataset, k, seed);
+		int numOfCandidates = attributePartitions.size();
+		int round = 0;
+		for(float proportion = raceProportion; proportion < hExpense; proportion *= raceEta) {
+			int numToPromote = getNumToPromote(attributePartitions.size(), raceEta, topResultsLimit);
+			if(numToPromote >= attributePartitions.size())
+				break;
+			int[] sample = samplingPlan.getStratifiedSample(proportion);
+			// A sample too small for every fold to have a row cannot rank the partitions
+			if(sample.length < k)
+				continue;
+			round++;
+			logger.outln(String.format("Racing round %d - evaluating %d partitions on %d rows, to promote the best %d", round, attributePartitions.size(), sample.length, numToPromote));
+			sampleRows = sample;
+			sampleProportion = proportion;
+			raceRound = new TopResults(numToPromote, Stats.ACCURACY, null);
+			totalTasks = attributePartitions.size();
 			try {
-				stats = new ArrayList<Stats>();
+				scheduleLearningTasks();
 				collectStats();
-			} catch (InterruptedException | ExecutionException e) {
-				logger.errorln("Fatal Error - problem in collecting learning statistics");
-				logger.exception(e);
-				System.exit(-1);
-			} 
-		} else {
-			// Just write the stats properly to the result file
-			logger.outln("All learning tasks recovered, saving results !!");
-			stats = existingStats;
+				awaitMonitors();
+			} finally {
+				sampleRows = null;
+				sampleProportion = 0;
+			}
+			attributePartitions = promote(attributePartitions, raceRound);
+			raceRound = null;
+		}
+		totalTasks = attributePartitions.size();
+		if(round > 0)
+			logger.outln("Racing eliminated " + (numOfCandidates - attributePartitions.size()) + " of " + numOfCandidates + " partitions in " + round + " rounds");
+	}
+
+	/**
+	 * Resumes this experiment from where it was paused (see {@link #pauseExperiment()}). The time for which the experiment was paused is not counted
+	 * against its budget (if any), or in the estimates of its progress.
+	 * @return <code>true</code> if the experiment is resumed now, <code>false</code> if it was not paused
+	 */
+	public synchronized boolean resumeExperiment() {
+		long pausedFor = pauseController.resume();
+		if(pausedFor < 0)
+			return false;
+		budgetStart += pausedFor;
+		if(progressEstimator != null)
+			progressEstimator.discount(pausedFor);
+		if(taskCoordinator != null)
+			taskCoordinator.setPaused(false);
+		logger.outln("Experiment resumed after being paused for " + ProgressEstimator.formatDuration(TimeUnit.NANOSECONDS.toSeconds(pausedFor)));
+		if(eventDispatcher != null)
+			eventDispatcher.stageChanged(getProgress());
+		return true;
+	}
+
+	/**
+	 * Removes a listener of this experiment, which is not told about its progress any more
+	 * @param listener The listener
+	 */
+	public synchronized void removeExperimentListener(ExperimentListener listener) {
+		if(eventDispatcher != null)
+			eventDispatcher.removeListener(listener);
+	}
+
+	/**
+	 * Reports a fatal error in the thread running this experiment, and fails the experiment (see {@link #failExperiment(String, Exception)}).
+	 * The errors caused by stopping the experiment are ignored, so that the results collected till then are still saved.
+	 * @param message The description of the error
+	 * @param e The cause of the error
+	 * @throws ExperimentException The failure of this experiment, which may have been caused by an earlier error in another thread
+	 */
+	private void reportFatalError(String message, Exception e) throws ExperimentException {
+		failExperiment(message, e);
+		if(failure != null)
+			throw failure;
+	}
+
+	/**
+	 * Reports the aggregates of the metric by which the best results were retained, over all the results of the current run
+	 */
+	private void reportTopResults() {
+		logger.outln(String.format("Retained the best %d results by %s, out of %d results", topResults.getNumOfRetainedResults(), topResultsMetric,
+				topResults.getNumOfRatedResults() + topResults.getNumOfUnratedResults()));
+		if(topResults.getNumOfUnratedResults() > 0)
+			logger.outln("Results without a value for " + topResultsMetric + " (timed out or undefined) - " + topResults.getNumOfUnratedResults());
+		if(topResults.getNumOfRatedResults() == 0)
+			return;
+		logger.outln(String.format("%s over all the results - mean %.4f, standard deviation %.4f, minimum %.4f, maximum %.4f", topResultsMetric,
+				topResults.getMean(), topResults.getStandardDeviation(), topResults.getMin(), topResults.getMax()));
+		long[] histogram = topResults.getHistogram();
+		double low = Stats.getMinimumStatValue(topResults.getMetric());
+		double width = (Stats.getMaximumStatValue(topResults.getMetric()) - low) / histogram.length;
+		StringBuilder sb = new StringBuilder("Histogram of " + topResultsMetric + " -");
+		for(int i = 0; i < histogram.length; i++)
+			sb.append(String.format(" [%.2f, %.2f%s: %d", low + i * width, low + (i + 1) * width, i == histogram.length - 1 ? "]" : ")", histogram[i]));
+		logger.outln(sb.toString());
+	}
+
+	/**
+	 * Recomputes the priorities of the learning tasks waiting in queue, as per the latest cost model
+	 */
+	private void reprioritizeLearningTasks() {
+		BlockingQueue<Runnable> learningTasksQueue = learningExecutor.getQueue();
+		synchronized(learningTasksQueue) {
+			// Once the executor is shut down, its threads quit on finding the queue empty, so the queue must not be drained any more
+			if(learningExecutor.isShutdown())
+				return;
+			int numOfTasks = PrioritizedTask.reprioritize(learningTasksQueue, costModel);
+			logger.outln("Learnt the cost model from " + costModel.getNumOfSamples() + " completed tasks, and re-prioritized " + numOfTasks + " learning tasks in queue");
+		}
+	}
+
+	/**
+	 * Resizes the pools of threads running the partitioning and learning tasks (and the folds of the learning tasks) to the number of threads set via {@link #setParallelism(int)}, if they are running
+	 */
+	private synchronized void resizeExecutors() {
+		if(stage == ExperimentProgress.STAGE_NOT_STARTED || stage >= ExperimentProgress.STAGE_WRITING)
+			return;
+		if(coordinatorPort > 0 || numOfForks > 0) {
+			logger.errorln("The workers keep the number of threads they were started with");
+			return;
+		}
+		if(fusedExecution)
+			logger.errorln("The pool of fused tasks cannot be resized. The new number of threads is used for the tasks scheduled from now on.");
+		ThreadPoolExecutor executor = partitioningExecutor;
+		if(executor != null && !executor.isTerminated())
+			ConcurrencyController.resize(executor, parallelism);
+		if(concurrencyController != null)
+			concurrencyController.setMaxThreads(parallelism);
+		else {
+			executor = learningExecutor;
+			if(executor != null && !executor.isTerminated())
+				ConcurrencyController.resize(executor, parallelism);
+		}
+		executor = foldExecutor;
+		if(executor != null && !executor.isTerminated())
+			ConcurrencyController.resize(executor, parallelism);
+		logger.outln("Number of threads changed to " + parallelism);
+	}
+
+	/**
+	 * Resumes the current experiment after the partition generation stage.
+	 * This method is supposed to be invoked from the {@link RecoveryManager}.
+	 * @param partitions The generated partitions to use
+	 * @param existingStats Any stats that are already collected
+	 * @param isRandomlyGenerated If <code>true</code>, signifies that the partitions were generated in random order, 
+	 * <code>false</code> signifies that the partitions were generated in dictionary order 
+	 */
+	public void resumeExperimentAfterGenerationStage(Set<Set<Integer>> partitions, List<Stats> existingStats, boolean isRandomlyGenerated) throws ExperimentException {
+		totalTasks = numOfPartitionedDatasets = numOfDatasetsInQueue = numOfTasksInLearningQueue = numOfTasksCompleted = Long.MIN_VALUE;
+		numOfBytesInDatasetsQueue = numOfBytesInFlight = Long.MIN_VALUE;
+		experimentThread = Thread.currentThread();
+
+		try {
+			initiateRecoveryTasks();
+			startBudget();
+		
+			if (partitions.size() > existingStats.size()) {
+				logger.outln("Resuming the experiment after the partition generation stage");
+				logger.outln("Total tasks in the experiment: " + partitions.size());
+				logger.outln("Number of completed tasks recovered: " + existingStats.size());
+				logger.outln("Number of tasks remaining: " + (partitions.size() - existingStats.size()));
+				try {
+					// Write all the partitions to the new recovery file (so that it can be resumed again),
+					// remove the partitions whose results are already collected,
+					// write these stats to the new recovery file and
+					// add them to the collected stats
+				
+					attributePartitions = partitions;
+					writePartitionsForRecovery(isRandomlyGenerated);
+					Set<Set<Integer>> allPartitions = new LinkedHashSet<Set<Integer>>(partitions);
+					for(Stats s : existingStats)
+						partitions.remove(s.getPartition());
+					for(Stats s : existingStats) {
+						rm.printStats(s);
+						storeStat(s);
+					}
+					startLearningStage(allPartitions);
+					scheduleLearningTasks();
+				} catch (Exception e) {
+					reportFatalError("Fatal Error - problems in resuming experiment, could not create partitioned datasets", e);
+				}
+				// Collect results and stats
+				try {
+					collectStats();
+				} catch (InterruptedException | ExecutionException | IOException e) {
+					reportFatalError("Fatal Error - problem in collecting learning statistics", e);
+				} 
+				try {
+					evaluateAddedPartitions();
+				} catch (Exception e) {
+					reportFatalError("Fatal Error - problem in evaluating the added partitions", e);
+				}
+			} else {
+				// Just write the stats properly to the result file
+				logger.outln("All learning tasks recovered, saving results !!");
+				try {
+					for(Stats s : existingStats)
+						storeStat(s);
+				} catch (IOException e) {
+					reportFatalError("Fatal Error - problem in writing output file", e);
+				}
+			}
+		
+			stopTaskCoordinator();
+			writeResultsToFile();
+		} finally {
+			experimentThread = null;
 		}
-		
-		// Sort the results according to accuracy
-		Stats.sortList(stats, Stats.ACCURACY, true, null);
-
-		writeResultsToFile();
 	}
 
 	/**
@@ -1233,54 +3190,56 @@ public class PUTExperiment {
 	 * @param isRandomlyGenerated If <code>true</code>, signifies that the partitions were generated in random order, 
 	 * <code>false</code> signifies that the partitions were generated in dictionary order 
 	 */
-	public void resumeExperimentFromGenerationStage(int numberOfCombinationsToGenerate, Set<Set<Integer>> recoveredPartitions, boolean isRandomlyGenerated) {
-		seed = 1;
-
+	public void resumeExperimentFromGenerationStage(int numberOfCombinationsToGenerate, Set<Set<Integer>> recoveredPartitions, boolean isRandomlyGenerated) throws ExperimentException {
 		totalTasks = numOfPartitionedDatasets = numOfDatasetsInQueue = numOfTasksInLearningQueue = numOfTasksCompleted = Long.MIN_VALUE;
+		numOfBytesInDatasetsQueue = numOfBytesInFlight = Long.MIN_VALUE;
+		experimentThread = Thread.currentThread();
+
+		try {
+			initiateRecoveryTasks();
+			startBudget();
 		
-		initiateRecoveryTasks();
-		
-		logger.outln("Resuming the experiment from the partition generation stage");
+			logger.outln("Resuming the experiment from the partition generation stage");
+			setStage(ExperimentProgress.STAGE_GENERATING);
 		
-		try {
-			if(isRandomlyGenerated) {	// Use the already generated partitions
-				logger.outln("The experiment was using random generation method");
-				logger.outln("Reusing " + recoveredPartitions.size() + " recovered partitions");
-				logger.outln("Generating remaining " + (numberOfCombinationsToGenerate - recoveredPartitions.size()) + " partitions");
-				attributePartitions = RandomCombinationGenerator.generateRandomCombinations(numOfAttributes, partitionSize, numberOfCombinationsToGenerate, privacyExceptions, recoveredPartitions);
-				logger.outln("Total number of partitions generated:" + attributePartitions.size());
-				totalTasks = attributePartitions.size();
-				writePartitionsForRecovery(true);
-				createDatasets();
-			} else {	// Just restart it.. nothing much can be done !
-				logger.outln("The experiment was using dictionary order generation method, restarting the experiment !!");
-				startExperiment();
-				return;
+			try {
+				if(isRandomlyGenerated) {	// Use the already generated partitions
+					logger.outln("The experiment was using random generation method");
+					logger.outln("Reusing " + recoveredPartitions.size() + " recovered partitions");
+					logger.outln("Generating remaining " + (numberOfCombinationsToGenerate - recoveredPartitions.size()) + " partitions");
+					attributePartitions = RandomCombinationGenerator.generateRandomCombinations(numOfAttributes, partitionSize, numberOfCombinationsToGenerate, getPartitioningExceptions(), recoveredPartitions, seed);
+					logger.outln("Total number of partitions generated:" + attributePartitions.size());
+					totalTasks = attributePartitions.size();
+					writePartitionsForRecovery(true);
+					startLearningStage(attributePartitions);
+					scheduleLearningTasks();
+				} else {	// Just restart it.. nothing much can be done !
+					logger.outln("The experiment was using dictionary order generation method, restarting the experiment !!");
+					startExperiment();
+					return;
+				}
+			} catch (Exception e) {
+				reportFatalError("Fatal Error - problem in resuming experiment, could not create partitioned datasets", e);
 			}
-		} catch (Exception e) {
-			logger.errorln("Fatal Error - problem in resuming experiment, could not create partitioned datasets. Exiting.");
-			logger.exception(e);
-			System.exit(-1);
-		}
-		
-		// Create learning requests
-		results = Collections.synchronizedList(new ArrayList<Future<Stats>>());
-		createLearningRequests();
 
-		// Collect results and stats
-		try {
-			stats = new ArrayList<Stats>();
-			collectStats();
-		} catch (InterruptedException | ExecutionException e) {
-			logger.errorln("Fatal Error - problem in collecting learning statistics");
-			logger.exception(e);
-			System.exit(-1);
-		}
+			// Collect results and stats
+			try {
+				collectStats();
+			} catch (InterruptedException | ExecutionException | IOException e) {
+				reportFatalError("Fatal Error - problem in collecting learning statistics", e);
+			}
 
-		// Sort the results according to accuracy
-		Stats.sortList(stats, Stats.ACCURACY, true, null);
+			try {
+				evaluateAddedPartitions();
+			} catch (Exception e) {
+				reportFatalError("Fatal Error - problem in evaluating the added partitions", e);
+			}
 
-		writeResultsToFile();
+			stopTaskCoordinator();
+			writeResultsToFile();
+		} finally {
+			experimentThread = null;
+		}
 	}
 	
 	/**
@@ -1341,6 +3300,81 @@ public class PUTExperiment {
 		return null;
 	}
 
+	/**
+	 * Schedules the learning tasks for the generated partitions, either as fused tasks on a single work-stealing pool,
+	 * or as separate partitioning and learning tasks linked through a queue, depending upon the execution mode of this experiment.
+	 * @throws Exception If something goes wrong while scheduling the tasks
+	 */
+	protected void scheduleLearningTasks() throws Exception {
+		results = Collections.synchronizedList(new ArrayList<Future<Stats>>());
+		if(budget > 0 && raceRound == null) {
+			// The partitions are evaluated in a random order, so that whichever of them fit in the budget are spread over all the attributes
+			List<Set<Integer>> order = new ArrayList<Set<Integer>>(attributePartitions);
+			Collections.shuffle(order, new Random(seed));
+			attributePartitions = new LinkedHashSet<Set<Integer>>(order);
+		}
+		if(sharedAdmissionController != null)
+			admissionController = sharedAdmissionController;
+		else
+			admissionController = new AdmissionController(memoryBudget > 0 ? memoryBudget : Runtime.getRuntime().maxMemory() / 2);
+		bytesInDatasetsReadyQueue = new AtomicLong(0);
+		foldPlan = new FoldPlan(dataset, k, seed);
+		costModel = new CostModel();
+		progressEstimator = new ProgressEstimator();
+		taskSequence = new AtomicLong(0);
+		cacheHits = new AtomicLong(0);
+		cacheTimeSaved = new AtomicLong(0);
+		if(coordinatorPort > 0 || numOfForks > 0) {
+			// The time limits are enforced, and the result cache (if any) is ignored, by the workers
+			resultCache = null;
+			if(targets.length > 0)
+				logger.errorln("The additional targets are not evaluated by the worker processes. Evaluating the partitions against the class attribute only.");
+			createRemoteTasks();
+			return;
+		}
+		startWatchdog();
+		// The outcomes of the rounds of racing are over samples of the rows, and the cached outcomes are against the class attribute only, so they are not cached
+		boolean cacheable = sampleRows == null && targets.length == 0;
+		if(targets.length > 0 && (sharedResultCache != null || resultCacheFile != null))
+			logger.errorln("The result cache is not available with additional targets. Evaluating every partition afresh.");
+		resultCache = cacheable ? sharedResultCache : null;
+		if(resultCache == null && resultCacheFile != null && cacheable)
+			resultCache = new ResultCache(resultCacheFile);
+		if(resultCache != null) {
+			experimentFingerprint = getExperimentFingerprint();
+			logger.outln("Using the result cache " + resultCache.getCacheFile().getAbsolutePath() + " with " + resultCache.size() + " cached outcomes");
+		}
+		if(fusedExecution)
+			createFusedTasks();
+		else {
+			createDatasets();
+			createLearningRequests();
+		}
+	}
+
+	/**
+	 * Sets whether the number of learning threads should be adapted at runtime, based on the observed throughput, CPU utilization and garbage collection time.
+	 * The number of threads set via {@link #setParallelism(int)} is used as the starting point.
+	 * @param adaptiveConcurrency <code>true</code> implies adapting the number of learning threads, <code>false</code> implies a fixed number of threads
+	 */
+	public void setAdaptiveConcurrency(boolean adaptiveConcurrency) {
+		this.adaptiveConcurrency = adaptiveConcurrency;
+	}
+
+	/**
+	 * Sets a wall-clock budget for the learning tasks of this experiment. The partitions are then evaluated in a random order,
+	 * and no learning task is started once the budget is about to run out, while the running tasks are let finish.
+	 * The evaluated partitions are saved to the result file as usual, along with a coverage report (see {@link #getCoverageReportFile()}),
+	 * and the recovery file is kept, so that the remaining partitions can be evaluated later (with a fresh budget) via the {@link RecoveryManager}.
+	 * @param seconds The budget in seconds, or 0 for no budget
+	 * @throws IllegalArgumentException If the budget is negative
+	 */
+	public void setBudget(long seconds) throws IllegalArgumentException {
+		if(seconds < 0)
+			throw new IllegalArgumentException("The budget cannot be negative");
+		budget = TimeUnit.SECONDS.toNanos(seconds);
+	}
+
 	/**
 	 * Sets the options to be passed on to the Weka classifier
 	 * @see AbstractClassifier#setOptions(String[])
@@ -1350,6 +3384,62 @@ public class PUTExperiment {
 		this.classifierOptions = classifierOptions;
 	}
 
+	/**
+	 * Sets the address of the interface on which the workers connect, if the learning tasks are handed out to worker processes (see {@link #setCoordinatorPort(int)})
+	 * @param bindAddress The address of the interface, e.g. the wildcard address for every interface, or <code>null</code> for the loopback interface
+	 */
+	public void setBindAddress(InetAddress bindAddress) {
+		this.bindAddress = bindAddress;
+	}
+
+	/**
+	 * Sets this experiment to hand out its learning tasks to worker processes (see {@link TaskWorker}), possibly on other machines, instead of learning locally.
+	 * The partitions are still generated, and the results collected and saved (along with the recovery information), by this experiment.
+	 * @param port The TCP port on which the workers connect, or 0 to learn locally
+	 * @throws IllegalArgumentException If the port is not in the valid range
+	 */
+	public void setCoordinatorPort(int port) throws IllegalArgumentException {
+		if(port < 0 || port > 65535)
+			throw new IllegalArgumentException("Invalid port - " + port);
+		coordinatorPort = port;
+	}
+
+	/**
+	 * Sets whether the folds of a learning task may be evaluated in parallel, once there are fewer learning tasks pending than processors
+	 * @param foldParallelism <code>true</code> implies evaluating the folds in parallel when processors would otherwise be left idle, <code>false</code> implies always evaluating them one after another
+	 */
+	public void setFoldParallelism(boolean foldParallelism) {
+		this.foldParallelism = foldParallelism;
+	}
+
+	/**
+	 * Sets the maximum heap size of every worker process on this machine (see {@link #setForks(int)})
+	 * @param forkHeapSize The heap size in bytes, a non-positive value implies the maximum heap size of this process split evenly among the worker processes
+	 */
+	public void setForkHeapSize(long forkHeapSize) {
+		this.forkHeapSize = forkHeapSize;
+	}
+
+	/**
+	 * Sets this experiment to evaluate its learning tasks in a number of worker processes on this machine (see {@link ForkedWorkers}), each with a heap of its own,
+	 * instead of learning in this process. The threads set by {@link #setParallelism(int)} are shared among the worker processes.
+	 * @param numOfForks The number of worker processes, or 0 to learn in this process
+	 * @throws IllegalArgumentException If the number of worker processes is negative
+	 */
+	public void setForks(int numOfForks) throws IllegalArgumentException {
+		if(numOfForks < 0)
+			throw new IllegalArgumentException("Number of worker processes cannot be negative");
+		this.numOfForks = numOfForks;
+	}
+
+	/**
+	 * Sets whether each partition should be created and learnt over in the same task, on a single work-stealing pool
+	 * @param fusedExecution <code>true</code> implies fused partitioning and learning tasks, <code>false</code> implies separate pools for partitioning and learning
+	 */
+	public void setFusedExecution(boolean fusedExecution) {
+		this.fusedExecution = fusedExecution;
+	}
+
 	/**
 	 * Sets whether to use random combinations instead of systematic generation and pruning
 	 * @param generateRandomCombinations <code>true</code> implies usage of random combinations, <code>false</code> implies usage of systematic generation and pruning 
@@ -1358,6 +3448,15 @@ public class PUTExperiment {
 		this.generateRandomCombinations = generateRandomCombinations;
 	}
 
+	/**
+	 * Sets the heap memory budget for the fragmented datasets in flight. 
+	 * Partitioning of the dataset waits, if admitting another fragmented dataset would exceed the budget.
+	 * @param memoryBudget The budget in bytes, a non-positive value implies half of the maximum heap size
+	 */
+	public void setMemoryBudget(long memoryBudget) {
+		this.memoryBudget = memoryBudget;
+	}
+
 	/**
 	 * Sets the output file for this experiment
 	 * @param fileName The file name
@@ -1378,6 +3477,40 @@ public class PUTExperiment {
 		} 
 	}
 
+	/**
+	 * Sets the number of threads to use for partitioning and learning tasks
+	 * @param parallelism The number of threads (must be at least 1)
+	 */
+	public void setParallelism(int parallelism) {
+		if(parallelism < 1)
+			throw new IllegalArgumentException("The number of threads must be at least 1");
+		this.parallelism = parallelism;
+		resizeExecutors();
+	}
+
+	/**
+	 * Sets this experiment to race the partitions on growing stratified samples of the rows, before evaluating the surviving partitions as usual
+	 * @param initialProportion The proportion of rows in the sample for the first round, or 0 to not race the partitions
+	 * @param eta The factor by which the partitions are cut down (and the sample grown) in every round
+	 * @throws IllegalArgumentException If the proportion is not in the range [0, 1), or the factor is not more than 1
+	 */
+	public void setRacing(float initialProportion, double eta) throws IllegalArgumentException {
+		if(initialProportion < 0 || initialProportion >= 1)
+			throw new IllegalArgumentException("The proportion of rows for the first round of racing must be in the range [0, 1)");
+		if(eta <= 1)
+			throw new IllegalArgumentException("The racing factor must be more than 1");
+		raceProportion = initialProportion;
+		raceEta = eta;
+	}
+
+	/**
+	 * Sets if this experiment should write a recovery file, to resume it if it is terminated prematurely
+	 * @param recovery <code>true</code> to write the recovery file (default), <code>false</code> to switch off the recovery related actions
+	 */
+	public void setRecovery(boolean recovery) {
+		switchOffRecovery = !recovery;
+	}
+
 	/**
 	 * Sets the recovery information for the intial state of this experiment.
 	 * @param recoveryInformation An array of recovery information to set
@@ -1387,55 +3520,297 @@ public class PUTExperiment {
 	}
 
 	/**
-	 * Starts the experiment with the set parameters.<br>
-	 * All important activities are logged by a logger (by default, to standard output and error streams).<br>
-	 * On successful completion, the results of the learning tasks are stored in decreasing order of the accuracies in the result file
-	 * (by default, a file called "results.csv" in the same folder as the data file).<br>
-	 * If any progress monitoring is to be done externally, preferably call this method in a new thread.
+	 * Sets a time limit for every learning task, relative to the median time taken by the learning tasks completed so far.
+	 * The limit comes into effect once a few tasks have completed. This overrides any absolute time limit set earlier.
+	 * @param multiple The multiple of the median time, after which a learning task is stopped and recorded as timed out
+	 * @throws IllegalArgumentException If the multiple is not positive
 	 */
-	private void startExperiment() {
+	public void setRelativeTimeLimit(double multiple) throws IllegalArgumentException {
+		if(multiple <= 0)
+			throw new IllegalArgumentException("The time limit must be positive");
+		timeLimitMultiple = multiple;
+		timeLimit = 0;
+		applyTimeLimit();
+	}
 
-		seed = 1;
+	/**
+	 * Sets a file in which the outcomes of the learning tasks are cached, so that the partitions already evaluated (with the same dataset, 
+	 * classifier settings, k and horizontal expense) in an earlier run are not evaluated again. The file is created if it does not exist.
+	 * @param resultCacheFile The file of the result cache, or <code>null</code> for no caching
+	 */
+	public void setResultCacheFile(File resultCacheFile) {
+		this.resultCacheFile = resultCacheFile;
+	}
 
-		totalTasks = numOfPartitionedDatasets = numOfDatasetsInQueue = numOfTasksInLearningQueue = numOfTasksCompleted = Long.MIN_VALUE;
+	/**
+	 * Sets the seed from which every random choice of the learning tasks (row sampling and folds) is derived
+	 * @param seed The seed to set
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
 
-		initiateRecoveryTasks();
+	/**
+	 * Makes this experiment run its learning tasks as fused tasks on a work-stealing pool shared with other experiments, 
+	 * so that the tasks of all the experiments are interleaved. The pool is not shut down by this experiment.
+	 * The memory budget for the fragmented datasets is also shared, through a common admission controller.
+	 * This overrides the execution mode, the parallelism and the memory budget set for this experiment.
+	 * @param sharedExecutor The shared pool
+	 * @param sharedAdmissionController The admission controller shared by all the experiments running on the pool
+	 */
+	public void setSharedExecution(ForkJoinPool sharedExecutor, AdmissionController sharedAdmissionController) {
+		this.sharedExecutor = sharedExecutor;
+		this.sharedAdmissionController = sharedAdmissionController;
+		fusedExecution = true;
+	}
 
-		// Create partitioned datasets
+	/**
+	 * Makes this experiment use a result cache shared with other experiments, instead of opening its own cache from the file set via {@link #setResultCacheFile(File)}. 
+	 * The shared cache is not closed by this experiment.
+	 * @param sharedResultCache The shared result cache
+	 */
+	public void setSharedResultCache(ResultCache sharedResultCache) {
+		this.sharedResultCache = sharedResultCache;
+	}
+
+	/**
+	 * Moves this experiment to a new stage, and tells the listeners (if any). Once in a final stage, the experiment stays in it.
+	 * @param newStage The new stage, as per the stage constants of {@link ExperimentProgress}
+	 */
+	private synchronized void setStage(short newStage) {
+		if(ExperimentProgress.isFinalStage(stage))
+			return;
+		stage = newStage;
+		if(eventDispatcher != null)
+			eventDispatcher.stageChanged(getProgress());
+	}
+
+	/**
+	 * Sets the additional targets, against which every partition is evaluated besides the class attribute. The targets are left out of the partitions.
+	 * Every partition is fragmented once, with the same rows and folds for all the targets, and evaluated against every target in the same learning task.
+	 * The results against a target are saved to a result file of its own (see {@link #getTargetResultFile(int)}).<br>
+	 * The additional targets are not evaluated by the worker processes (see {@link #setCoordinatorPort(int)} and {@link #setForks(int)}), and the result cache is not used with them.
+	 * @param targets The indices of the additional targets, which must be nominal attributes other than the class attribute (an empty array implies the class attribute only)
+	 * @throws IllegalArgumentException If a target is out of range, not nominal or repeated, or leaves too few attributes for a partition
+	 */
+	public void setTargets(int[] targets) throws IllegalArgumentException {
+		Set<Integer> distinctTargets = new TreeSet<Integer>();
+		for(int target : targets) {
+			if(target < 0 || target >= numOfAttributes)
+				throw new IllegalArgumentException("Targets must be in the range [0, " + numOfAttributes + ") - " + target);
+			if(!dataset.attribute(target).isNominal())
+				throw new IllegalArgumentException("Targets must be nominal attributes - " + dataset.attribute(target).name());
+			if(!distinctTargets.add(target))
+				throw new IllegalArgumentException("Repeated target - " + target);
+		}
+		if(partitionSize > numOfAttributes - targets.length)
+			throw new IllegalArgumentException("Partition size must be at most " + (numOfAttributes - targets.length) + ", since the targets are left out of the partitions");
+		this.targets = targets.clone();
+	}
+
+	/**
+	 * Sets an absolute time limit for every learning task. This overrides any relative time limit set earlier.
+	 * @param seconds The time limit (in seconds), after which a learning task is stopped and recorded as timed out
+	 * @throws IllegalArgumentException If the time limit is not positive
+	 */
+	public void setTimeLimit(long seconds) throws IllegalArgumentException {
+		if(seconds <= 0)
+			throw new IllegalArgumentException("The time limit must be positive");
+		timeLimit = TimeUnit.SECONDS.toNanos(seconds);
+		timeLimitMultiple = 0;
+		applyTimeLimit();
+	}
+
+	/**
+	 * Sets this experiment to retain only a number of best results, by a given metric, in a bounded heap instead of every result.
+	 * The result file then has only these results, while the aggregates of the metric over all the results are reported on completion.
+	 * @param limit The number of best results to retain, or 0 to retain every result
+	 * @param metricName The metric by which the best results are retained, named as in the header of the result file,
+	 * i.e. "Accuracy", or one of "TP", "FP", "FN", "Precision", "Recall", "aROC" or "aPR" followed by '_' and a class, e.g. "aROC_yes"
+	 * @throws IllegalArgumentException If the limit is negative, or the metric is unknown
+	 */
+	public void setTopResults(int limit, String metricName) throws IllegalArgumentException {
+		if(limit < 0)
+			throw new IllegalArgumentException("The number of results to retain cannot be negative");
+		// Validates the metric
+		if(limit > 0)
+			createTopResults(limit, metricName);
+		topResultsLimit = limit;
+		topResultsMetric = metricName;
+	}
+
+	/**
+	 * Sets the vertical expense of this experiment, i.e. the fraction of all the possible partitions to evaluate.<br>
+	 * It can also be changed while the learning tasks are running (but not while racing the partitions), in which case the partitions are generated again
+	 * from the same sequence as before. Raising the expense adds the next partitions of the sequence, which are evaluated once the learning tasks scheduled earlier
+	 * have finished, while lowering it withdraws the partitions beyond the new expense whose learning tasks have not started yet. The partitions added or withdrawn
+	 * this way are not recorded for recovery.
+	 * @param vExpense The vertical expense (must be &gt;0 and &lt;=1)
+	 * @throws IllegalArgumentException If the vertical expense is out of range, or there are too many partitions to generate
+	 * @throws IllegalStateException If the vertical expense cannot be changed at this stage of the experiment
+	 */
+	public void setVerticalExpense(float vExpense) throws IllegalArgumentException, IllegalStateException {
+		if(vExpense <= 0 || vExpense > 1)
+			throw new IllegalArgumentException("Vertical expense must be >0 and <=1");
+		Set<Set<Integer>> scheduled;
+		synchronized(this) {
+			if(stage == ExperimentProgress.STAGE_NOT_STARTED) {
+				this.vExpense = vExpense;
+				return;
+			}
+			if(stage != ExperimentProgress.STAGE_LEARNING || addedPartitions == null || raceProportion > 0)
+				throw new IllegalStateException("The vertical expense can only be changed before the experiment starts, or while its learning tasks are running (without racing)");
+			scheduled = new LinkedHashSet<Set<Integer>>(scheduledPartitions);
+		}
+		Set<Set<Integer>> target;
 		try {
-			PartitionPlan plan = new PartitionPlan(numOfAttributes, partitionSize, vExpense);
-			plan.setGenerateRandomly(generateRandomCombinations);
-			plan.setPrivacyExceptions(privacyExceptions);
-			plan.setUtilityExceptions(utilityExceptions);
-			generatePartitions(plan);
-			createDatasets();
+			target = Partitions.generatePartitions(createPartitionPlan(vExpense), scheduled, logger).getPartitions();
+		} catch (IllegalArgumentException e) {
+			throw e;
 		} catch (Exception e) {
-			if(!asyncExecution) {
-				logger.errorln("Fatal Error - problem in creating partitioned datasets. Exiting.");
-				logger.exception(e);
-				System.exit(-1);
+			throw new IllegalStateException("The partitions could not be generated for the vertical expense " + vExpense, e);
+		}
+		synchronized(this) {
+			if(stage != ExperimentProgress.STAGE_LEARNING || addedPartitions == null)
+				throw new IllegalStateException("The learning tasks of the experiment have finished");
+			int added = 0, withdrawn = 0;
+			for(Set<Integer> partition : target) {
+				if(scheduledPartitions.add(partition)) {
+					// A partition withdrawn earlier, whose learning task is yet to start, is just let run
+					if(!withdrawnPartitions.remove(partition))
+						addedPartitions.add(partition);
+					added++;
+				}
 			}
+			List<Set<Integer>> candidates = new ArrayList<Set<Integer>>();
+			for(Set<Integer> partition : scheduledPartitions)
+				if(!target.contains(partition))
+					candidates.add(partition);
+			Set<Set<Integer>> withdrawnByCoordinator = null;
+			if(taskCoordinator != null)
+				withdrawnByCoordinator = taskCoordinator.withdraw(candidates);
+			for(Set<Integer> partition : candidates) {
+				// A partition added earlier, and not handed out for learning yet, is just dropped
+				if(!addedPartitions.remove(partition)) {
+					if(withdrawnByCoordinator == null)
+						// The partition is skipped if its learning task has not started yet
+						withdrawnPartitions.add(partition);
+					else if(!withdrawnByCoordinator.contains(partition))
+						continue;
+				}
+				scheduledPartitions.remove(partition);
+				withdrawn++;
+			}
+			this.vExpense = vExpense;
+			logger.outln("Vertical expense changed to " + vExpense + " - " + added + " partitions added, " + withdrawn + " partitions withdrawn (unless already evaluated)");
 		}
+		notifyProgress();
+	}
 
-		// Create learning requests
-		results = Collections.synchronizedList(new ArrayList<Future<Stats>>());
-		createLearningRequests();
+	/**
+	 * Sets the file holding the token the workers must present to the coordinator (see {@link #setCoordinatorPort(int)}). 
+	 * If the file does not exist, it is created with a fresh token once the coordinator starts.
+	 * @param fileName The path to the token file, or <code>null</code> for a fresh token saved beside the result file
+	 */
+	public void setWorkerTokenFile(String fileName) {
+		workerTokenFile = fileName == null ? null : new File(fileName);
+	}
 
-		// Collect results and stats
+	/**
+	 * Submits a fused task to the pool for the fused tasks. If the pool does not accept the task, the task fails, and the memory admitted for it is released.
+	 * @param task The fused task
+	 * @param result The result of the task
+	 * @param datasetSize The estimated size (in bytes) of the dataset of the task, admitted for it
+	 * @return <code>true</code> if the task is submitted, <code>false</code> if the pool is shut down
+	 */
+	private boolean submitFusedTask(Runnable task, CompletableFuture<Stats> result, long datasetSize) {
 		try {
-			collectStats();
-		} catch (InterruptedException | ExecutionException e) {
-			if(!asyncExecution) {
-				logger.errorln("Fatal Error - problem in collecting learning statistics");
-				logger.exception(e);
-				System.exit(-1);
-			}
+			fusedExecutor.execute(task);
+			return true;
+		} catch (RejectedExecutionException e) {
+			// The task will never run to release its bytes
+			fusedTasksPending.decrementAndGet();
+			admissionController.release(datasetSize);
+			result.completeExceptionally(e);
+			return false;
 		}
+	}
+
+	/**
+	 * Records a partition as skipped, since the budget was about to run out when its learning task was due to start
+	 * @param partition The skipped partition
+	 */
+	private void skipTask(Set<Integer> partition) {
+		skippedTasks.incrementAndGet();
+		for(int index : partition)
+			skippedPerAttribute.incrementAndGet(index);
+	}
+
+	/**
+	 * Starts spending the budget (if any) from this point of time, and resets the coverage of the partitions
+	 */
+	private void startBudget() {
+		budgetStart = System.nanoTime();
+		evaluatedTasks = new AtomicLong(0);
+		skippedTasks = new AtomicLong(0);
+		// The attributes in the partitions are numbered from 1
+		evaluatedPerAttribute = new AtomicLongArray(numOfAttributes + 1);
+		skippedPerAttribute = new AtomicLongArray(numOfAttributes + 1);
+		if(budget > 0)
+			logger.outln("Learning tasks will be started for the next " + ProgressEstimator.formatDuration(TimeUnit.NANOSECONDS.toSeconds(budget)));
+	}
+
+	/**
+	 * Starts the experiment with the set parameters.<br>
+	 * All important activities are logged by a logger (by default, to standard output and error streams).<br>
+	 * On successful completion, the results of the learning tasks are stored in decreasing order of the accuracies in the result file
+	 * (by default, a file called "results.csv" in the same folder as the data file).
+	 * Till then, the results collected so far are available (unsorted) in the file of partial results (see {@link #getPartialResultFile()}).<br>
+	 * If any progress monitoring is to be done externally, preferably call this method in a new thread.
+	 */
+	private void startExperiment() throws ExperimentException {
+
+		totalTasks = numOfPartitionedDatasets = numOfDatasetsInQueue = numOfTasksInLearningQueue = numOfTasksCompleted = Long.MIN_VALUE;
+		numOfBytesInDatasetsQueue = numOfBytesInFlight = Long.MIN_VALUE;
+		experimentThread = Thread.currentThread();
 
-		// Sort the results according to accuracy
-		Stats.sortList(stats, Stats.ACCURACY, true, null);
+		try {
+			initiateRecoveryTasks();
+			startBudget();
+			setStage(ExperimentProgress.STAGE_GENERATING);
+
+			// Create partitioned datasets
+			try {
+				PartitionPlan plan = createPartitionPlan(vExpense);
+				generatePartitions(plan);
+				if(raceProportion > 0) {
+					setStage(ExperimentProgress.STAGE_RACING);
+					racePartitions();
+				}
+				startLearningStage(attributePartitions);
+				scheduleLearningTasks();
+			} catch (Exception e) {
+				reportFatalError("Fatal Error - problem in creating partitioned datasets", e);
+			}
+
+			// Collect results and stats
+			try {
+				collectStats();
+			} catch (InterruptedException | ExecutionException | IOException e) {
+				reportFatalError("Fatal Error - problem in collecting learning statistics", e);
+			}
+
+			try {
+				evaluateAddedPartitions();
+			} catch (Exception e) {
+				reportFatalError("Fatal Error - problem in evaluating the added partitions", e);
+			}
 
-		writeResultsToFile();
+			stopTaskCoordinator();
+			writeResultsToFile();
+		} finally {
+			experimentThread = null;
+		}
 	}
 
 	/**
@@ -1444,7 +3819,11 @@ public class PUTExperiment {
 	public void startExperimentAsync() {
 		asyncThread = new Thread() {
 			public void run() {
-				startExperiment();
+				try {
+					startExperiment();
+				} catch (ExperimentException e) {
+					// The failure is kept, and thrown to the callers of awaitExperiment()
+				}
 			}
 		};
 		asyncExecution = true;
@@ -1453,23 +3832,86 @@ public class PUTExperiment {
 
 	/**
 	 * Starts this experiment in synchronous mode (in the same thread) and blocks till the experiment completes
+	 * @throws ExperimentException If the experiment fails
 	 */
-	public void startExperimentSync() {
+	public void startExperimentSync() throws ExperimentException {
 		asyncExecution = false;
 		asyncThread = null;
 		startExperiment();
 	}
 	
+	/**
+	 * Moves this experiment to the learning stage, noting the partitions scheduled for learning, so that the vertical expense can be changed from now on
+	 * @param partitions The partitions scheduled for learning, including the ones already evaluated
+	 */
+	private synchronized void startLearningStage(Set<Set<Integer>> partitions) {
+		scheduledPartitions = new LinkedHashSet<Set<Integer>>(partitions);
+		addedPartitions = new LinkedHashSet<Set<Integer>>();
+		withdrawnPartitions.clear();
+		setStage(ExperimentProgress.STAGE_LEARNING);
+	}
+
+	/**
+	 * Prepares this experiment to evaluate the partitions handed out by a {@link TaskCoordinator} (see {@link #evaluatePartition(Set, float)}), in a worker process
+	 */
+	void startRemoteEvaluation() {
+		foldPlan = new FoldPlan(dataset, k, seed);
+		startWatchdog();
+	}
+
+	/**
+	 * Starts enforcing the time limit on the learning tasks, if any
+	 */
+	private void startWatchdog() {
+		watchdog = null;
+		if(timeLimit > 0)
+			watchdog = new TaskWatchdog(timeLimit, logger);
+		else if(timeLimitMultiple > 0)
+			watchdog = new TaskWatchdog(timeLimitMultiple, logger);
+		if(watchdog != null)
+			watchdog.start();
+	}
+
 	/**
 	 * Aborts this experiment, if it is running
 	 */
 	public void stopExperiment() {
+		setStage(ExperimentProgress.STAGE_STOPPED);
+
+		if(concurrencyController != null)
+			concurrencyController.stop();
+
 		if(learningExecutor != null)
 			learningExecutor.shutdownNow();
 
+		if(foldExecutor != null)
+			foldExecutor.shutdownNow();
+
 		if(partitioningExecutor != null)
 			partitioningExecutor.shutdownNow();
 
+		if(fusedExecutor != null) {
+			if(sharedExecutor == null)
+				fusedExecutor.shutdownNow();
+			else if(results != null) {
+				// Other experiments may still be using the shared pool, so only the tasks of this experiment are cancelled
+				synchronized(results) {
+					for(Future<Stats> result : results)
+						if(result != null)
+							result.cancel(true);
+				}
+			}
+		}
+
+		if(watchdog != null)
+			watchdog.stop();
+
+		if(taskCoordinator != null)
+			taskCoordinator.close();
+
+		if(forkedWorkers != null)
+			forkedWorkers.stop(0);
+
 		if(partitioningProgressMonitor != null)
 			partitioningProgressMonitor.interrupt();
 
@@ -1479,8 +3921,114 @@ public class PUTExperiment {
 		if(learningProgressMonitor != null)
 			learningProgressMonitor.interrupt();
 
-		if(asyncThread != null)
-			asyncThread.interrupt();
+		// The thread running the experiment is woken up, unless the experiment is being stopped by that thread itself due to a failure
+		Thread thread = experimentThread;
+		if(thread != null && thread != Thread.currentThread())
+			thread.interrupt();
+	}
+
+	/**
+	 * Stops evaluating the partitions handed out by a {@link TaskCoordinator}, in a worker process
+	 */
+	void stopRemoteEvaluation() {
+		stopWatchdog();
+	}
+
+	/**
+	 * Reports the number of learning tasks whose outcomes were found in the result cache (if any) and the time saved, and closes the cache unless it is shared
+	 */
+	private void stopResultCache() {
+		if(resultCache == null)
+			return;
+		long hits = cacheHits.get();
+		logger.outln(String.format("Result cache hits - %d out of %d learning tasks (%.1f%%), saving %.3f sec of learning", 
+				hits, totalTasks, totalTasks > 0 ? 100.0 * hits / totalTasks : 0, cacheTimeSaved.get() / 1000000000d));
+		if(resultCache != sharedResultCache) {
+			try {
+				resultCache.close();
+			} catch (IOException e) {
+				logger.errorln("Error in closing the result cache");
+				logger.exception(e);
+			}
+		}
+	}
+
+	/**
+	 * Closes the task coordinator (if any), once all the learning tasks of this experiment are done, so that the workers quit,
+	 * and waits for the worker processes on this machine (if any) to quit
+	 */
+	private void stopTaskCoordinator() {
+		if(taskCoordinator != null) {
+			taskCoordinator.close();
+			taskCoordinator = null;
+		}
+		if(forkedWorkers != null) {
+			forkedWorkers.stop(FORKED_WORKERS_EXIT_TIMEOUT);
+			forkedWorkers = null;
+		}
+	}
+
+	/**
+	 * Stops enforcing the time limit on the learning tasks (if any), and reports the number of tasks that were timed out
+	 */
+	private void stopWatchdog() {
+		if(watchdog != null) {
+			watchdog.stop();
+			logger.outln("Learning tasks timed out - " + watchdog.getNumOfTasksTimedOut());
+		}
+	}
+
+	/**
+	 * Stores the stats of a learning task, by appending it to the file of partial results (which is created with the first stat),
+	 * and the stats against the additional targets (if any) to their own files of partial results.
+	 * If only the best results are to be retained, the stat is offered to the top results instead.
+	 * @param stat The stats of the learning task
+	 * @throws IOException If the stat could not be written
+	 */
+	protected void storeStat(Stats stat) throws IOException {
+		if(evaluatedTasks != null) {
+			evaluatedTasks.incrementAndGet();
+			for(int index : stat.getPartition())
+				evaluatedPerAttribute.incrementAndGet(index);
+		}
+		if(topResultsLimit > 0) {
+			if(topResults == null)
+				topResults = createTopResults(topResultsLimit, topResultsMetric);
+			topResults.add(stat);
+			return;
+		}
+		if(resultSpool == null)
+			resultSpool = new ResultSpool(getPartialResultFile(), getResultFileHeader(dataset));
+		resultSpool.append(stat);
+		storeTargetStats(stat);
+	}
+
+	/**
+	 * Stores the stats of a learning task against the additional targets (if any), by appending them to the files of partial results for the targets
+	 * @param stat The stats of the learning task against the class attribute, carrying the stats against the additional targets
+	 * @throws IOException If a stat could not be written
+	 */
+	private void storeTargetStats(Stats stat) throws IOException {
+		Stats[] targetStats = stat.getTargetStats();
+		if(targetStats == null)
+			return;
+		for(int i = 0; i < targetStats.length; i++)
+			getTargetResultSpool(i).append(targetStats[i]);
+	}
+
+	/**
+	 * Takes the partitions added by raising the vertical expense, which are yet to be evaluated.
+	 * Once there are none, the vertical expense can no longer be changed.
+	 * @return The added partitions, or <code>null</code> if there are none
+	 */
+	private synchronized Set<Set<Integer>> takeAddedPartitions() {
+		Set<Set<Integer>> partitions = addedPartitions;
+		if(partitions == null || partitions.isEmpty() || stage != ExperimentProgress.STAGE_LEARNING) {
+			addedPartitions = null;
+			return null;
+		}
+		addedPartitions = new LinkedHashSet<Set<Integer>>();
+		return partitions;
 	}
 
 	/**
@@ -1501,57 +4049,84 @@ public class PUTExperiment {
 	}
 
 	/**
-	 * Writes the collected stats to the result file and deletes the recovery file
+	 * Writes the coverage report of the partitions evaluated within the budget, i.e. the time spent, the number of partitions evaluated and skipped,
+	 * and the number of partitions evaluated and scheduled for every attribute
+	 * @throws IOException If the report could not be written
 	 */
-	private void writeResultsToFile() {
-		numOfResultsWrittenToFile = 0;
-		// Write it to results file
+	private void writeCoverageReport() throws IOException {
+		File coverageReportFile = getCoverageReportFile();
+		long evaluated = evaluatedTasks.get();
+		long skipped = skippedTasks.get();
+		long scheduled = evaluated + skipped;
+		PrintWriter writer = new PrintWriter(new FileWriter(coverageReportFile));
 		try {
-			PrintWriter writer = new PrintWriter(new FileWriter(resultFile), true);
-			// Write the header
-			writer.print("Attribute set, ");
-			writer.print("Time taken (in sec), ");
-			writer.print("Accuracy");
-			List<String> allClasses = Dataset.getAllClassesForDataset(dataset);
-			/*
-			 * Order :-
-			 * 1. True Positives
-			 * 2. False Positives
-			 * 3. False Negatives
-			 * 4. Precision
-			 * 5. Recall
-			 * 6. Area under ROC Curve
-			 * 7. Area under PR Curve
-			 */
-			for(Object classValue : allClasses)
-				writer.print(", TP_" + classValue);
-			for(Object classValue : allClasses)
-				writer.print(", FP_" + classValue);
-			for(Object classValue : allClasses)
-				writer.print(", FN_" + classValue);
-			for(Object classValue : allClasses)
-				writer.print(", Precision_" + classValue);
-			for(Object classValue : allClasses)
-				writer.print(", Recall_" + classValue);
-			for(Object classValue : allClasses)
-				writer.print(", aROC_" + classValue);
-			for(Object classValue : allClasses)
-				writer.print(", aPR_" + classValue);
+			writer.println("Budget, " + ProgressEstimator.formatDuration(TimeUnit.NANOSECONDS.toSeconds(budget)));
+			writer.println("Time spent, " + ProgressEstimator.formatDuration(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - budgetStart)));
+			writer.println("Partitions scheduled, " + scheduled);
+			writer.println("Partitions evaluated, " + evaluated);
+			writer.println("Partitions skipped, " + skipped);
+			writer.println(String.format("Coverage (%%), %.2f", scheduled > 0 ? 100.0 * evaluated / scheduled : 100.0));
+			if(skipped > 0 && rm != null && !switchOffRecovery)
+				writer.println("Recovery file, " + rm.getRecoveryFile().getAbsolutePath());
 			writer.println();
-
-			for(Stats stat : stats) {
-				writer.println(stat);
-				numOfResultsWrittenToFile++;
+			writer.println("Attribute, Name, Partitions scheduled, Partitions evaluated, Coverage (%)");
+			for(int i = 1; i <= numOfAttributes; i++) {
+				long attributeEvaluated = evaluatedPerAttribute.get(i);
+				long attributeScheduled = attributeEvaluated + skippedPerAttribute.get(i);
+				writer.println(String.format("%d, %s, %d, %d, %.2f", i, dataset.attribute(i - 1).name(), attributeScheduled, attributeEvaluated, 
+						attributeScheduled > 0 ? 100.0 * attributeEvaluated / attributeScheduled : 100.0));
 			}
+		} finally {
 			writer.close();
-			if(rm != null && !switchOffRecovery)
-				rm.deleteRecoveryFile();
-		} catch (IOException e) {
-			if(!asyncExecution) {
-				logger.errorln("Fatal Error - problem in writing output file");
-				logger.exception(e);
-				System.exit(-1);
+		}
+		logger.outln(String.format("Evaluated %d of %d partitions (%.2f%%) within the budget. Coverage report saved to - %s", evaluated, scheduled, 
+				scheduled > 0 ? 100.0 * evaluated / scheduled : 100.0, coverageReportFile.getAbsolutePath()));
+	}
+
+	/**
+	 * Sorts the collected stats (in decreasing order of the accuracies) into the result file, and deletes the recovery file and the file of partial results.
+	 * If any partitions were skipped since the budget ran out, the recovery file is kept instead, and a coverage report is written.
+	 * @throws ExperimentException If the results could not be written
+	 */
+	private void writeResultsToFile() throws ExperimentException {
+		numOfResultsWrittenToFile = 0;
+		setStage(ExperimentProgress.STAGE_WRITING);
+		// Write it to results file
+		try {
+			// The spool is created here if no stats were collected, so that the result file still gets its header
+			if(resultSpool == null)
+				resultSpool = new ResultSpool(getPartialResultFile(), getResultFileHeader(dataset));
+			if(topResults != null) {
+				for(Stats stat : topResults.getBest()) {
+					resultSpool.append(stat);
+					storeTargetStats(stat);
+				}
+				reportTopResults();
+				topResults = null;
+			}
+			numOfResultsWrittenToFile = resultSpool.sortInto(resultFile, ResultSpool.DEFAULT_RUN_SIZE);
+			resultSpool = null;
+			// The worker processes evaluate the partitions against the class attribute only
+			int numOfTargets = coordinatorPort > 0 || numOfForks > 0 ? 0 : targets.length;
+			for(int i = 0; i < numOfTargets; i++) {
+				File targetResultFile = getTargetResultFile(targets[i]);
+				getTargetResultSpool(i).sortInto(targetResultFile, ResultSpool.DEFAULT_RUN_SIZE);
+				logger.outln("Results against the target " + dataset.attribute(targets[i]).name() + " saved to - " + targetResultFile.getAbsolutePath());
 			}
+			targetResultSpools = null;
+			if(budget > 0)
+				writeCoverageReport();
+			if(rm != null && !switchOffRecovery) {
+				if(skippedTasks != null && skippedTasks.get() > 0) {
+					// The recovery file has all the partitions, and the stats of the evaluated ones, so resuming from it evaluates only the skipped partitions
+					rm.close();
+					logger.outln("The budget ran out before " + skippedTasks.get() + " partitions could be evaluated. To evaluate them, resume the experiment from the recovery file - " + rm.getRecoveryFile().getAbsolutePath());
+				} else
+					rm.deleteRecoveryFile();
+			}
+			setStage(ExperimentProgress.STAGE_COMPLETED);
+		} catch (IOException e) {
+			reportFatalError("Fatal Error - problem in writing output file", e);
 
 		}
 	}
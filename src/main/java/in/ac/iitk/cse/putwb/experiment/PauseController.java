@@ -0,0 +1,193 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class lets an experiment be paused and resumed in the same process, without losing any of its state.<br>
+ * The producers of the tasks (the creators of the learning requests and of the fused tasks) pass through the controller before they hand a task to a pool,
+ * and wait there while the experiment is paused. The threads of the pools owned by the experiment take their tasks from a queue that holds the tasks back
+ * while the experiment is paused (see {@link #createPausableQueue()}), and a task that is already in a pool that cannot be held back (e.g. a work-stealing pool
+ * shared with other experiments) is put aside till the experiment is resumed (see {@link #deferWhilePaused(Runnable)}), instead of parking the thread of the pool.
+ * The tasks already started are let finish, so the pipeline drains and the threads of the experiment go idle; the tasks not started keep their order,
+ * to be picked up from where they were left once the experiment is resumed.
+ * The waits use a {@link ReentrantLock} rather than a monitor, so that a producer running in a virtual thread does not pin its carrier thread while the experiment is paused.
+ * @author Saurabh Srivastava
+ *
+ */
+public class PauseController {
+
+	/**
+	 * The actions that resubmit the tasks put aside while the experiment is paused
+	 */
+	private List<Runnable> deferredTasks;
+
+	/**
+	 * The lock guarding the state of the controller
+	 */
+	private final ReentrantLock lock;
+
+	/**
+	 * A flag that tells if the experiment is paused
+	 */
+	private boolean paused;
+
+	/**
+	 * The time (as per {@link System#nanoTime()}) at which the experiment was paused
+	 */
+	private long pausedAt;
+
+	/**
+	 * The condition signalled when the experiment is resumed
+	 */
+	private final Condition resumed;
+
+	/**
+	 * Creates a controller for an experiment that is not paused
+	 */
+	public PauseController() {
+		paused = false;
+		deferredTasks = new ArrayList<Runnable>();
+		lock = new ReentrantLock();
+		resumed = lock.newCondition();
+	}
+
+	/**
+	 * Waits while the experiment is paused
+	 * @throws InterruptedException If the thread is interrupted while waiting
+	 */
+	public void awaitResume() throws InterruptedException {
+		lock.lock();
+		try {
+			while(paused)
+				resumed.await();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Waits while the experiment is paused, but not longer than the given time
+	 * @param timeout The maximum time to wait
+	 * @param unit The unit of the timeout
+	 * @return <code>true</code> if the experiment is not paused, <code>false</code> if it is still paused once the time is up
+	 * @throws InterruptedException If the thread is interrupted while waiting
+	 */
+	public boolean awaitResume(long timeout, TimeUnit unit) throws InterruptedException {
+		long remaining = unit.toNanos(timeout);
+		lock.lock();
+		try {
+			while(paused) {
+				if(remaining <= 0)
+					return false;
+				remaining = resumed.awaitNanos(remaining);
+			}
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Creates a priority queue for the tasks of a pool owned by the experiment. The threads of the pool take no task from the queue while the experiment is paused,
+	 * so that the queued tasks keep their place (and their order), and no thread of the pool is held up by a task that cannot start.
+	 * @param <E> The type of the tasks
+	 * @return The queue
+	 */
+	public <E> PriorityBlockingQueue<E> createPausableQueue() {
+		return new PriorityBlockingQueue<E>() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+				long deadline = System.nanoTime() + unit.toNanos(timeout);
+				if(!awaitResume(timeout, unit))
+					return null;
+				return super.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+			}
+
+			@Override
+			public E take() throws InterruptedException {
+				awaitResume();
+				return super.take();
+			}
+		};
+	}
+
+	/**
+	 * Puts a task aside if the experiment is paused, to be resubmitted once the experiment is resumed. A task that comes up in a pool while the experiment is paused
+	 * calls this method and returns right away if it is put aside, instead of waiting for the experiment to be resumed in the thread of the pool.
+	 * @param resubmission The action that resubmits the task to its pool, run by the thread resuming the experiment
+	 * @return <code>true</code> if the task is put aside, <code>false</code> if the experiment is not paused (and the task may go ahead)
+	 */
+	public boolean deferWhilePaused(Runnable resubmission) {
+		lock.lock();
+		try {
+			if(!paused)
+				return false;
+			deferredTasks.add(resubmission);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Tells if the experiment is paused
+	 * @return <code>true</code> if the experiment is paused, <code>false</code> otherwise
+	 */
+	public boolean isPaused() {
+		lock.lock();
+		try {
+			return paused;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Pauses the experiment, so that the producers of learning tasks wait before starting another task
+	 * @return <code>true</code> if the experiment is paused now, <code>false</code> if it was already paused
+	 */
+	public boolean pause() {
+		lock.lock();
+		try {
+			if(paused)
+				return false;
+			paused = true;
+			pausedAt = System.nanoTime();
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Resumes the experiment, wakes up the producers waiting to start a task, and resubmits the tasks put aside (in the order they were put aside)
+	 * @return The time (in nanoseconds) for which the experiment was paused, or -1 if it was not paused
+	 */
+	public long resume() {
+		List<Runnable> resubmissions;
+		long pausedFor;
+		lock.lock();
+		try {
+			if(!paused)
+				return -1;
+			paused = false;
+			resumed.signalAll();
+			pausedFor = System.nanoTime() - pausedAt;
+			resubmissions = new ArrayList<Runnable>(deferredTasks);
+			deferredTasks.clear();
+		} finally {
+			lock.unlock();
+		}
+		for(Runnable resubmission : resubmissions)
+			resubmission.run();
+		return pausedFor;
+	}
+}
@@ -0,0 +1,115 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A task whose priority is the predicted cost of the partition it works on, as per a {@link CostModel}.<br>
+ * When queued in a {@link java.util.concurrent.PriorityBlockingQueue}, the tasks with higher predicted costs are taken up first, 
+ * so that the costliest tasks do not end up in the tail of the experiment. Tasks with equal priorities are taken up in the order they were created.
+ * Without a cost model, all the tasks have equal priorities, and are simply taken up in the order they were created.
+ * @author Saurabh Srivastava
+ *
+ * @param <V> The type of result of the task
+ */
+public class PrioritizedTask<V> extends FutureTask<V> implements Comparable<PrioritizedTask<?>> {
+
+	/**
+	 * The features of the partition, as created by {@link CostModel#createFeatures(int, int, int, int)}
+	 */
+	private double[] features;
+
+	/**
+	 * The priority of this task - the predicted cost, as per the last time it was prioritized
+	 */
+	private volatile double priority;
+
+	/**
+	 * The sequence number of this task, used to break ties between tasks with equal priorities
+	 */
+	private long sequence;
+
+	/**
+	 * Creates a task for a callable, prioritized as per the given cost model
+	 * @param callable The callable to run
+	 * @param features The features of the partition the callable works on
+	 * @param sequence The sequence number of the task
+	 * @param costModel The cost model to predict the cost of the task, or <code>null</code> to order the task only by its sequence number
+	 */
+	public PrioritizedTask(Callable<V> callable, double[] features, long sequence, CostModel costModel) {
+		super(callable);
+		this.features = features;
+		this.sequence = sequence;
+		prioritize(costModel);
+	}
+
+	/**
+	 * Creates a task for a runnable, prioritized as per the given cost model
+	 * @param runnable The runnable to run
+	 * @param features The features of the partition the runnable works on
+	 * @param sequence The sequence number of the task
+	 * @param costModel The cost model to predict the cost of the task, or <code>null</code> to order the task only by its sequence number
+	 */
+	public PrioritizedTask(Runnable runnable, double[] features, long sequence, CostModel costModel) {
+		super(runnable, null);
+		this.features = features;
+		this.sequence = sequence;
+		prioritize(costModel);
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Comparable#compareTo(java.lang.Object)
+	 */
+	@Override
+	public int compareTo(PrioritizedTask<?> other) {
+		if(priority > other.priority)
+			return -1;
+		else if(priority < other.priority)
+			return 1;
+		return Long.compare(sequence, other.sequence);
+	}
+
+	/**
+	 * Returns the features of the partition this task works on
+	 * @return the features
+	 */
+	public double[] getFeatures() {
+		return features;
+	}
+
+	/**
+	 * Returns the priority of this task
+	 * @return the predicted cost of the task
+	 */
+	public double getPriority() {
+		return priority;
+	}
+
+	/**
+	 * Recomputes the priority of this task as per the given cost model.
+	 * This must not be invoked while the task is in a priority queue, as it would break the ordering of the queue.
+	 * @param costModel The cost model to predict the cost of the task, or <code>null</code> to order the task only by its sequence number
+	 */
+	public void prioritize(CostModel costModel) {
+		priority = costModel == null ? 0 : costModel.predict(features);
+	}
+
+	/**
+	 * Recomputes the priorities of the tasks waiting in a priority queue as per the given cost model, by taking them out of the queue and putting them back.
+	 * The caller must keep the queue from being drained by anyone else meanwhile.
+	 * @param queue The queue, holding only prioritized tasks
+	 * @param costModel The cost model to predict the costs of the tasks
+	 * @return The number of tasks re-prioritized
+	 */
+	static int reprioritize(BlockingQueue<Runnable> queue, CostModel costModel) {
+		List<Runnable> pendingTasks = new ArrayList<Runnable>();
+		queue.drainTo(pendingTasks);
+		for(Runnable task : pendingTasks)
+			((PrioritizedTask<?>)task).prioritize(costModel);
+		queue.addAll(pendingTasks);
+		return pendingTasks.size();
+	}
+}
@@ -0,0 +1,174 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This class estimates the progress of the learning tasks of an experiment - the throughput, the time remaining and the distribution of task times.<br>
+ * The throughput is estimated from an exponentially weighted moving average of the interval between consecutive task completions,
+ * so that it follows the current phase of the experiment (e.g. the costlier tasks being taken up first) rather than its entire history.
+ * If no task completes for longer than the average interval, the time since the last completion is used instead, so that a stall is reflected immediately.
+ * The task times are sampled into a fixed size reservoir, from which the percentiles are computed.
+ * @author Saurabh Srivastava
+ *
+ */
+public class ProgressEstimator {
+
+	/**
+	 * The weight of the latest interval in the moving average
+	 */
+	private static final double SMOOTHING_FACTOR = 0.05;
+
+	/**
+	 * The maximum number of task times sampled for computing the percentiles
+	 */
+	private static final int RESERVOIR_SIZE = 4096;
+
+	/**
+	 * Returns a human readable representation of a duration, in the form <i>[days]d hh:mm:ss</i>
+	 * @param seconds The duration in seconds
+	 * @return The formatted duration
+	 */
+	public static String formatDuration(long seconds) {
+		long days = seconds / 86400;
+		String time = String.format("%02d:%02d:%02d", (seconds % 86400) / 3600, (seconds % 3600) / 60, seconds % 60);
+		return days > 0 ? days + "d " + time : time;
+	}
+
+	/**
+	 * The moving average of the interval (in nano seconds) between consecutive task completions
+	 */
+	private double averageInterval;
+
+	/**
+	 * The time (as per {@link System#nanoTime()}) at which the last task completed, or the estimator was created
+	 */
+	private long lastCompletion;
+
+	/**
+	 * The number of tasks completed till now, excluding the ones whose outcomes were reused
+	 */
+	private long numOfTasksCompleted;
+
+	/**
+	 * The number of tasks whose outcomes were reused (e.g. from a result cache) instead of being computed, till now
+	 */
+	private long numOfTasksReused;
+
+	/**
+	 * The random number generator for sampling task times into the reservoir
+	 */
+	private Random random;
+
+	/**
+	 * A uniform sample of the times (in nano seconds) of the completed tasks
+	 */
+	private long[] reservoir;
+
+	/**
+	 * Creates a progress estimator, with the current time as the start of the learning tasks
+	 */
+	public ProgressEstimator() {
+		averageInterval = -1;
+		lastCompletion = System.nanoTime();
+		numOfTasksCompleted = 0;
+		numOfTasksReused = 0;
+		random = new Random(0);
+		reservoir = new long[RESERVOIR_SIZE];
+	}
+
+	/**
+	 * Discounts a period in which no tasks were being run (e.g. while the experiment was paused), so that the estimates are not skewed by it
+	 * @param interval The length of the period in nano seconds
+	 */
+	public synchronized void discount(long interval) {
+		lastCompletion += interval;
+	}
+
+	/**
+	 * Returns the interval between consecutive task completions to be used for the estimates
+	 * @return the interval in nano seconds, or a negative value if no task has completed as yet
+	 */
+	private double getEffectiveInterval() {
+		if(averageInterval < 0)
+			return -1;
+		return Math.max(averageInterval, System.nanoTime() - lastCompletion);
+	}
+
+	/**
+	 * Returns the estimated time remaining for a given number of tasks to complete
+	 * @param numOfTasksRemaining The number of tasks remaining
+	 * @return the estimated time remaining in seconds, or a negative value if no task has completed as yet
+	 */
+	public synchronized double getEstimatedTimeRemaining(long numOfTasksRemaining) {
+		double interval = getEffectiveInterval();
+		if(interval < 0)
+			return -1;
+		return numOfTasksRemaining * interval / 1000000000d;
+	}
+
+	/**
+	 * Returns the number of tasks completed till now, including the ones whose outcomes were reused
+	 * @return the number of completed tasks
+	 */
+	public synchronized long getNumOfTasksCompleted() {
+		return numOfTasksCompleted + numOfTasksReused;
+	}
+
+	/**
+	 * Returns a percentile of the times taken by the completed tasks
+	 * @param percentile The percentile, in the range [0, 100]
+	 * @return the task time in seconds at the given percentile, or a negative value if no task has completed as yet
+	 */
+	public synchronized double getTaskTime(double percentile) {
+		int size = (int)Math.min(numOfTasksCompleted, RESERVOIR_SIZE);
+		if(size == 0)
+			return -1;
+		long[] times = Arrays.copyOf(reservoir, size);
+		Arrays.sort(times);
+		int index = (int)Math.ceil(percentile / 100 * size) - 1;
+		return times[Math.max(0, Math.min(size - 1, index))] / 1000000000d;
+	}
+
+	/**
+	 * Returns the estimated number of tasks being completed per second
+	 * @return the throughput, or a negative value if no task has completed as yet
+	 */
+	public synchronized double getThroughput() {
+		double interval = getEffectiveInterval();
+		if(interval < 0)
+			return -1;
+		return 1000000000d / interval;
+	}
+
+	/**
+	 * Records the completion of a task
+	 * @param time The time (in nano seconds) taken by the task
+	 */
+	public synchronized void taskCompleted(long time) {
+		long now = System.nanoTime();
+		long interval = now - lastCompletion;
+		lastCompletion = now;
+		if(averageInterval < 0)
+			averageInterval = interval;
+		else
+			averageInterval = SMOOTHING_FACTOR * interval + (1 - SMOOTHING_FACTOR) * averageInterval;
+		// Reservoir sampling, so that every completed task has an equal chance of being in the sample
+		if(numOfTasksCompleted < RESERVOIR_SIZE)
+			reservoir[(int)numOfTasksCompleted] = time;
+		else {
+			long slot = (long)(random.nextDouble() * (numOfTasksCompleted + 1));
+			if(slot < RESERVOIR_SIZE)
+				reservoir[(int)slot] = time;
+		}
+		numOfTasksCompleted++;
+	}
+
+	/**
+	 * Records a task whose outcome was reused instead of being computed. It counts as completed, 
+	 * but it neither takes a slot in the distribution of task times nor shortens the interval between task completions, since it took no time.
+	 */
+	public synchronized void taskReused() {
+		numOfTasksReused++;
+	}
+}
@@ -38,29 +38,36 @@ public class RecoveryManager {
 	 */
 	public static final String RECOVER_STATS_SWITCH = "-rs";
 
+	/**
+	 * Switch for providing a fresh budget for the restored experiment
+	 */
+	public static final String RESUME_BUDGET_SWITCH = PUTExperiment.BUDGET_SWITCH;
+
 	/**
 	 * The main to run the recovery manager
 	 * @param arr The commandline arguments for running the experiment
 	 */
 	public static void main(String[] arr) {
-		if(arr.length < 1 || arr.length > 2) {
+		if(arr.length < 1 || arr.length > 3) {
 			printUsageDetails();
 			System.exit(-1);
 		}
 		// Parse arguments
 		boolean recoverStatsOnly = false;
+		String budget = null;
 		String recoveryFileName = null;
-		if(arr.length == 2) {
-			if(arr[0].compareToIgnoreCase(RECOVER_STATS_SWITCH) == 0) {
-				recoverStatsOnly = true;
-				recoveryFileName = arr[1];
-			}
-			else {
-				printUsageDetails();
-				System.exit(-1);
-			}
-		} else
+		if(arr.length == 2 && arr[0].compareToIgnoreCase(RECOVER_STATS_SWITCH) == 0) {
+			recoverStatsOnly = true;
+			recoveryFileName = arr[1];
+		} else if(arr.length == 3 && arr[0].compareToIgnoreCase(RESUME_BUDGET_SWITCH) == 0) {
+			budget = arr[1];
+			recoveryFileName = arr[2];
+		} else if(arr.length == 1)
 			recoveryFileName = arr[0];
+		else {
+			printUsageDetails();
+			System.exit(-1);
+		}
 		File recoveryFile = new File(recoveryFileName);
 		if(!recoveryFile.exists()) {
 			System.out.println("Recovery File not found: " + recoveryFile.getAbsolutePath());
@@ -68,12 +75,18 @@ public class RecoveryManager {
 		}
 		try {
 			RecoveryManager rm = new RecoveryManager(recoveryFile, true);
+			if(budget != null)
+				rm.setBudget(budget);
 			if(recoverStatsOnly)
 				rm.recoverStats();
 			else
 				rm.restoreExperiment();
-		} catch (IOException | IllegalStateException | ClassNotFoundException e) {
+		} catch (IOException | IllegalStateException | IllegalArgumentException | ClassNotFoundException e) {
+			e.printStackTrace();
+		} catch (ExperimentException e) {
+			System.err.println(e.getMessage());
 			e.printStackTrace();
+			System.exit(-1);
 		}
 	}
 
@@ -85,10 +98,16 @@ public class RecoveryManager {
 		System.out.println("  PUTWorkbench Recovery Manager " + PUTExperiment.versionInfo);
 		System.out.println("---------------------------------------------------------------");
 		System.out.println("\nUsage options:");
+		System.out.println(RESUME_BUDGET_SWITCH + "\t Resumes the experiment with a fresh wall-clock budget, instead of the budget it was started with (if any), e.g. " + RESUME_BUDGET_SWITCH + " 8h /home/user/result_recovery.putr");
 		System.out.println(RECOVER_STATS_SWITCH + "\t Instructs to only recover the saved stats without resuming the exeriment, e.g. " + RECOVER_STATS_SWITCH + " /home/user/result_recovery.putr");
 		System.out.println();
 	}
 
+	/**
+	 * The budget for the restored experiment, overriding the budget it was started with, or <code>null</code> to keep the original budget
+	 */
+	private String budget;
+
 	/**
 	 * A stream to write to a recovery file during the execution of an experiment
 	 */
@@ -132,6 +151,17 @@ public class RecoveryManager {
 			out = new ObjectOutputStream(new FileOutputStream(recoveryFile));
 	}
 
+	/**
+	 * Closes the recovery file, keeping it for resuming the experiment later
+	 * @throws IOException If an error while closing the opened streams to the file
+	 */
+	public void close() throws IOException {
+		if(out != null) {
+			out.close();
+		} else if(in != null)
+			in.close();
+	}
+
 	/**
 	 * Deletes the recovery file, if the manager was configured
 	 * @throws IOException If an error while closing the opened streams to the file
@@ -144,6 +174,14 @@ public class RecoveryManager {
 		recoveryFile.delete();
 	}
 
+	/**
+	 * Returns the recovery file to which recovery information is written or from which recovery is sought
+	 * @return the recovery file
+	 */
+	public File getRecoveryFile() {
+		return recoveryFile;
+	}
+
 	/**
 	 * Prints header information of the experiment to the recovery file.
 	 * @param headerInfo The header information to print
@@ -318,6 +356,16 @@ public class RecoveryManager {
 			throw new IllegalStateException("The recovery manager is not configured to recover an experiment");
 	}
 
+	/**
+	 * Sets a fresh budget for the experiment to be restored, overriding the budget it was started with (if any)
+	 * @param budget The budget, in the format accepted by {@link PUTExperiment#parseDuration(String)}
+	 * @throws IllegalArgumentException If the budget is not in the expected format
+	 */
+	public void setBudget(String budget) throws IllegalArgumentException {
+		PUTExperiment.parseDuration(budget);
+		this.budget = budget;
+	}
+
 	/**
 	 * Restores the experiment linked to this recovery manager.
 	 * The recovery can either be done from the partition generation stage, or after the partition generation stage, depending upon the information available in the recovery file.
@@ -325,13 +373,21 @@ public class RecoveryManager {
 	 * @throws IllegalStateException If this recovery manager is not configured to print recovery information
 	 * @throws ClassNotFoundException If a problem occurs while interpreting the data stored in the recovery file
 	 * @throws IOException If a problem occurs while reading the recovery file
+	 * @throws ExperimentException If the restored experiment fails
 	 */
 	@SuppressWarnings("unchecked")
-	public void restoreExperiment() throws IllegalStateException, ClassNotFoundException, IOException {
+	public void restoreExperiment() throws IllegalStateException, ClassNotFoundException, IOException, ExperimentException {
 		if(in != null) {
 			// Read experiment header and create a new experiment instance
 			Map<String, String> headerInfo = new HashMap<String, String>();
 			headerInfo = (Map<String, String>) in.readObject();
+			if(budget != null) {
+				Iterator<String> keys = headerInfo.keySet().iterator();
+				while(keys.hasNext())
+					if(keys.next().compareToIgnoreCase(PUTExperiment.BUDGET_SWITCH) == 0)
+						keys.remove();
+				headerInfo.put(PUTExperiment.BUDGET_SWITCH, budget);
+			}
 			String[] params = new String[2*headerInfo.size()];
 			Iterator<String> it = headerInfo.keySet().iterator();
 			int i = 0;
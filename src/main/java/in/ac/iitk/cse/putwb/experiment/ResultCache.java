@@ -0,0 +1,300 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+ * An on-disk cache of the outcomes of learning tasks, so that the partitions already evaluated in an earlier experiment are not evaluated again.<br>
+ * The outcomes are keyed by a hash of everything that determines them - the cleaned dataset, the partition, the classifier type and options,
+ * the value of <i>k</i>, the horizontal expense and the seed. The cache is an append-only file of records, with an in-memory index
+ * from the keys to the positions of the records in the file. A partially written record at the end of the file (e.g. due to a crash) is discarded when the cache is opened.
+ * The outcomes of timed out tasks are not cached, since a longer time limit may let the task complete.
+ * @author Saurabh Srivastava
+ *
+ */
+public class ResultCache {
+
+	/**
+	 * The name of the hash algorithm used for the keys
+	 */
+	private static final String HASH_ALGORITHM = "SHA-256";
+
+	/**
+	 * The length (in bytes) of a key
+	 */
+	private static final int KEY_LENGTH = 32;
+
+	/**
+	 * Creates a fingerprint of the settings of an experiment that determine the outcomes of its learning tasks
+	 * @param dataset The cleaned dataset
+	 * @param classifierType The classifier type
+	 * @param classifierOptions The classifier options, if any
+	 * @param k The value of <i>k</i> for k-cross validation
+	 * @param hExpense The horizontal expense
+	 * @param seed The seed for the random choices made while learning
+	 * @return The fingerprint
+	 */
+	public static byte[] createFingerprint(Instances dataset, Class<?> classifierType, String[] classifierOptions, int k, float hExpense, long seed) {
+		MessageDigest digest = getDigest();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			writeString(out, dataset.stringFreeStructure().toString());
+			out.writeInt(dataset.numInstances());
+			for(int i = 0; i < dataset.numInstances(); i++) {
+				Instance row = dataset.instance(i);
+				out.writeDouble(row.weight());
+				for(int j = 0; j < row.numAttributes(); j++)
+					out.writeDouble(row.value(j));
+				// Flush the row into the digest, so that the whole dataset is never held in memory
+				out.flush();
+				digest.update(bytes.toByteArray());
+				bytes.reset();
+			}
+			writeString(out, classifierType.getName());
+			out.writeInt(classifierOptions == null ? 0 : classifierOptions.length);
+			if(classifierOptions != null)
+				for(String option : classifierOptions)
+					writeString(out, option);
+			out.writeInt(k);
+			out.writeFloat(hExpense);
+			out.writeLong(seed);
+			out.flush();
+		} catch (IOException e) {
+			// Writing to an in-memory stream does not fail
+			throw new IllegalStateException(e);
+		}
+		digest.update(bytes.toByteArray());
+		return digest.digest();
+	}
+
+	/**
+	 * Creates the key for the outcome of learning over a partition, in an experiment with the given fingerprint
+	 * @param experimentFingerprint The fingerprint of the experiment, as created by {@link #createFingerprint(Instances, Class, String[], int, float, long)}
+	 * @param partition The set of attribute indices learnt over
+	 * @return The key
+	 */
+	public static byte[] createKey(byte[] experimentFingerprint, Set<Integer> partition) {
+		MessageDigest digest = getDigest();
+		digest.update(experimentFingerprint);
+		// Sets of integers have a canonical textual form, irrespective of the order in which they were created
+		digest.update(new TreeSet<Integer>(partition).toString().getBytes(StandardCharsets.UTF_8));
+		return digest.digest();
+	}
+
+	/**
+	 * Returns a new instance of the hash algorithm used for the keys
+	 * @return the message digest
+	 */
+	private static MessageDigest getDigest() {
+		try {
+			return MessageDigest.getInstance(HASH_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Reads an array of values written by {@link #writeValues(DataOutputStream, double[])}
+	 * @param in The stream to read from
+	 * @return The values, or <code>null</code> if <code>null</code> was written
+	 * @throws IOException If the values could not be read
+	 */
+	private static double[] readValues(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if(length < 0)
+			return null;
+		double[] values = new double[length];
+		for(int i = 0; i < length; i++)
+			values[i] = in.readDouble();
+		return values;
+	}
+
+	/**
+	 * Converts a key to a string, for use in the index
+	 * @param key The key
+	 * @return The hexadecimal representation of the key
+	 */
+	private static String toHex(byte[] key) {
+		StringBuilder sb = new StringBuilder(2 * key.length);
+		for(byte b : key)
+			sb.append(String.format("%02x", b));
+		return sb.toString();
+	}
+
+	/**
+	 * Writes a string as its length followed by its UTF-8 bytes. Unlike {@link DataOutputStream#writeUTF(String)}, the string is not limited to 65535 bytes,
+	 * which the header of a dataset with a few thousand attributes runs past.
+	 * @param out The stream to write to
+	 * @param value The string
+	 * @throws IOException If the string could not be written
+	 */
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Writes an array of values
+	 * @param out The stream to write to
+	 * @param values The values, possibly <code>null</code>
+	 * @throws IOException If the values could not be written
+	 */
+	private static void writeValues(DataOutputStream out, double[] values) throws IOException {
+		if(values == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(values.length);
+		for(double value : values)
+			out.writeDouble(value);
+	}
+
+	/**
+	 * The file backing the cache
+	 */
+	private File cacheFile;
+
+	/**
+	 * The positions of the records in the file, keyed by the (hexadecimal) keys
+	 */
+	private Map<String, Long> index;
+
+	/**
+	 * The open cache file
+	 */
+	private RandomAccessFile store;
+
+	/**
+	 * Opens a cache backed by the given file, creating the file if it does not exist
+	 * @param cacheFile The file backing the cache
+	 * @throws IOException If the file could not be opened or read
+	 */
+	public ResultCache(File cacheFile) throws IOException {
+		this.cacheFile = cacheFile;
+		index = new HashMap<String, Long>();
+		store = new RandomAccessFile(cacheFile, "rw");
+		long position = 0;
+		long length = store.length();
+		byte[] key = new byte[KEY_LENGTH];
+		while(position + 4 <= length) {
+			store.seek(position);
+			int recordLength = store.readInt();
+			if(recordLength < KEY_LENGTH || position + 4 + recordLength > length)
+				break;
+			store.readFully(key);
+			index.put(toHex(key), position);
+			position += 4 + recordLength;
+		}
+		if(position < length)
+			store.setLength(position);
+	}
+
+	/**
+	 * Closes the cache file
+	 * @throws IOException If the file could not be closed
+	 */
+	public synchronized void close() throws IOException {
+		store.close();
+	}
+
+	/**
+	 * Returns the cached outcome for a key
+	 * @param key The key, as created by {@link #createKey(byte[], Set)}
+	 * @return The cached outcome (without the partition set), or <code>null</code> if the outcome is not cached
+	 * @throws IOException If the record could not be read
+	 */
+	public synchronized Stats get(byte[] key) throws IOException {
+		Long position = index.get(toHex(key));
+		if(position == null)
+			return null;
+		store.seek(position);
+		byte[] record = new byte[store.readInt() - KEY_LENGTH];
+		store.skipBytes(KEY_LENGTH);
+		store.readFully(record);
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+		Stats stat = new Stats();
+		stat.setTime(in.readLong());
+		stat.setAccuracy(in.readDouble());
+		stat.setTp(readValues(in));
+		stat.setFp(readValues(in));
+		stat.setFn(readValues(in));
+		stat.setPrecision(readValues(in));
+		stat.setRecall(readValues(in));
+		stat.setRoc(readValues(in));
+		stat.setPr(readValues(in));
+		return stat;
+	}
+
+	/**
+	 * Returns the file backing this cache
+	 * @return the cache file
+	 */
+	public File getCacheFile() {
+		return cacheFile;
+	}
+
+	/**
+	 * Adds the outcome of a learning task to the cache, unless it is already cached or the task was timed out
+	 * @param key The key, as created by {@link #createKey(byte[], Set)}
+	 * @param stat The outcome of the learning task
+	 * @throws IOException If the record could not be written
+	 */
+	public synchronized void put(byte[] key, Stats stat) throws IOException {
+		if(stat.isTimedOut())
+			return;
+		String hexKey = toHex(key);
+		if(index.containsKey(hexKey))
+			return;
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0);	// Placeholder for the length of the record
+		out.write(key);
+		out.writeLong(stat.getTime());
+		out.writeDouble(stat.getAccuracy());
+		writeValues(out, stat.getTp());
+		writeValues(out, stat.getFp());
+		writeValues(out, stat.getFn());
+		writeValues(out, stat.getPrecision());
+		writeValues(out, stat.getRecall());
+		writeValues(out, stat.getRoc());
+		writeValues(out, stat.getPr());
+		out.flush();
+		byte[] record = bytes.toByteArray();
+		int recordLength = record.length - 4;
+		record[0] = (byte)(recordLength >>> 24);
+		record[1] = (byte)(recordLength >>> 16);
+		record[2] = (byte)(recordLength >>> 8);
+		record[3] = (byte)recordLength;
+		long position = store.length();
+		store.seek(position);
+		// A single write, so that a crash leaves at most one partial record at the end of the file
+		store.write(record);
+		index.put(hexKey, position);
+	}
+
+	/**
+	 * Returns the number of outcomes in the cache
+	 * @return the number of cached outcomes
+	 */
+	public synchronized int size() {
+		return index.size();
+	}
+}
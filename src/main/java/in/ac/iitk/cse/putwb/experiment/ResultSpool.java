@@ -0,0 +1,363 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A ResultSpool collects the results of an experiment in an unsorted spool file, one line at a time, as the learning tasks complete,
+ * so that the results are never held in memory all together.<br>
+ * The spool file has the same format as a result file (header included), and every line is flushed as soon as it is written,
+ * so the results collected so far can be read at any time (e.g. with {@link Stats#readStatsFile(java.io.File, int)}), even if the experiment never completes.
+ * Once all the results are collected, they are sorted into the result file in decreasing order of the accuracies, with the timed out tasks at the end,
+ * using an external merge sort - sorted runs of a bounded number of lines are written to temporary files, and then merged.
+ * @author Saurabh Srivastava
+ *
+ */
+public class ResultSpool {
+
+	/**
+	 * The default maximum number of lines sorted in memory at a time
+	 */
+	public static final int DEFAULT_RUN_SIZE = 50000;
+
+	/**
+	 * The suffix appended to the name of the result file, for the name of the spool file
+	 */
+	public static final String SPOOL_FILE_SUFFIX = ".partial";
+
+	/**
+	 * The order of the lines in the result file - decreasing order of the accuracies, with the timed out tasks at the end
+	 */
+	private static final Comparator<SortKey> RESULT_ORDER = new Comparator<SortKey>() {
+		@Override
+		public int compare(SortKey o1, SortKey o2) {
+			if(o1.timedOut != o2.timedOut)
+				return o1.timedOut ? 1 : -1;
+			if(o1.accuracy > o2.accuracy)
+				return -1;
+			else if(o2.accuracy > o1.accuracy)
+				return 1;
+			return 0;
+		}
+	};
+
+	/**
+	 * Returns the spool file for a result file
+	 * @param resultFile The result file
+	 * @return the spool file, in the same folder as the result file
+	 */
+	public static File getSpoolFile(File resultFile) {
+		return new File(resultFile.getPath() + SPOOL_FILE_SUFFIX);
+	}
+
+	/**
+	 * Extracts the fields that determine the order of a line of results
+	 * @param line The line, in the format of {@link Stats#toString()}
+	 * @return The sort key for the line
+	 * @throws IOException If the line is not in the expected format
+	 */
+	private static SortKey parseLine(String line) throws IOException {
+		// The attribute set is quoted and contains commas, so the fields are counted from its closing quote
+		int setEnd = line.indexOf('"', 1);
+		if(!line.startsWith("\"") || setEnd < 0)
+			throw new IOException("Malformed result line - " + line);
+		String[] tokens = line.substring(setEnd + 1).split(",");
+		if(tokens.length < 3)
+			throw new IOException("Malformed result line - " + line);
+		try {
+			// tokens[0] is empty, tokens[1] is the time taken and tokens[2] is the accuracy
+			double accuracy = Double.parseDouble(tokens[2].trim());
+			boolean timedOut = tokens[tokens.length - 1].trim().compareToIgnoreCase("Y") == 0;
+			return new SortKey(line, accuracy, timedOut);
+		} catch (NumberFormatException e) {
+			throw new IOException("Malformed result line - " + line, e);
+		}
+	}
+
+	/**
+	 * Writes a sorted run of lines to a temporary file
+	 * @param run The sorted lines
+	 * @param folder The folder to create the temporary file in
+	 * @return The temporary file
+	 * @throws IOException If the file could not be written
+	 */
+	private static File writeRun(List<SortKey> run, File folder) throws IOException {
+		File runFile = File.createTempFile("putwb-run-", ".tmp", folder);
+		BufferedWriter writer = new BufferedWriter(new FileWriter(runFile));
+		try {
+			for(SortKey key : run) {
+				writer.write(key.line);
+				writer.newLine();
+			}
+		} finally {
+			writer.close();
+		}
+		return runFile;
+	}
+
+	/**
+	 * The header line of the result file
+	 */
+	private String header;
+
+	/**
+	 * The number of results written to the spool file
+	 */
+	private volatile long numOfResults;
+
+	/**
+	 * The unsorted spool file
+	 */
+	private File spoolFile;
+
+	/**
+	 * The writer for the spool file, or <code>null</code> once it is closed
+	 */
+	private BufferedWriter writer;
+
+	/**
+	 * Creates a spool, replacing any earlier spool file, and writes the header to it
+	 * @param spoolFile The spool file
+	 * @param header The header line of the result file
+	 * @throws IOException If the spool file could not be created
+	 */
+	public ResultSpool(File spoolFile, String header) throws IOException {
+		this.spoolFile = spoolFile;
+		this.header = header;
+		numOfResults = 0;
+		writer = new BufferedWriter(new FileWriter(spoolFile));
+		writer.write(header);
+		writer.newLine();
+		writer.flush();
+	}
+
+	/**
+	 * Appends the result of a learning task to the spool file
+	 * @param stat The result of the learning task
+	 * @throws IllegalStateException If the spool has already been closed
+	 * @throws IOException If the result could not be written
+	 */
+	public synchronized void append(Stats stat) throws IllegalStateException, IOException {
+		if(writer == null)
+			throw new IllegalStateException("The result spool is already closed");
+		writer.write(stat.toString());
+		writer.newLine();
+		writer.flush();
+		numOfResults++;
+	}
+
+	/**
+	 * Closes the spool file, after which no more results can be appended
+	 * @throws IOException If the file could not be closed
+	 */
+	public synchronized void close() throws IOException {
+		if(writer != null) {
+			writer.close();
+			writer = null;
+		}
+	}
+
+	/**
+	 * Returns the number of results written to the spool file
+	 * @return the number of results
+	 */
+	public long getNumOfResults() {
+		return numOfResults;
+	}
+
+	/**
+	 * Returns the unsorted spool file
+	 * @return the spool file
+	 */
+	public File getSpoolFile() {
+		return spoolFile;
+	}
+
+	/**
+	 * Closes the spool and sorts its results into the result file, after which the spool file is deleted
+	 * @param resultFile The result file to write
+	 * @param runSize The maximum number of lines to sort in memory at a time
+	 * @return The number of results written to the result file
+	 * @throws IllegalArgumentException If the run size is not positive
+	 * @throws IOException If the spool file could not be read, or the result file could not be written
+	 */
+	public synchronized long sortInto(File resultFile, int runSize) throws IllegalArgumentException, IOException {
+		if(runSize <= 0)
+			throw new IllegalArgumentException("Run size must be positive");
+		close();
+		File folder = resultFile.getAbsoluteFile().getParentFile();
+		List<File> runFiles = new ArrayList<File>();
+		List<SortKey> run = new ArrayList<SortKey>();
+		BufferedReader reader = new BufferedReader(new FileReader(spoolFile));
+		try {
+			// Skip the header
+			reader.readLine();
+			String line;
+			while((line = reader.readLine()) != null) {
+				if(line.isEmpty())
+					continue;
+				run.add(parseLine(line));
+				if(run.size() == runSize) {
+					// A stable sort, so that the results with equal keys keep the order in which they were collected
+					Collections.sort(run, RESULT_ORDER);
+					runFiles.add(writeRun(run, folder));
+					run.clear();
+				}
+			}
+		} catch (IOException e) {
+			for(File runFile : runFiles)
+				runFile.delete();
+			throw e;
+		} finally {
+			reader.close();
+		}
+		Collections.sort(run, RESULT_ORDER);
+
+		long written = 0;
+		BufferedWriter resultWriter = new BufferedWriter(new FileWriter(resultFile));
+		List<BufferedReader> runReaders = new ArrayList<BufferedReader>();
+		try {
+			resultWriter.write(header);
+			resultWriter.newLine();
+			// The lines still in memory form the last run, so they need not be written to a temporary file
+			PriorityQueue<RunCursor> heads = new PriorityQueue<RunCursor>();
+			for(int i = 0; i < runFiles.size(); i++) {
+				BufferedReader runReader = new BufferedReader(new FileReader(runFiles.get(i)));
+				runReaders.add(runReader);
+				RunCursor cursor = new RunCursor(i, runReader, null);
+				if(cursor.advance())
+					heads.add(cursor);
+			}
+			RunCursor memoryCursor = new RunCursor(runFiles.size(), null, run);
+			if(memoryCursor.advance())
+				heads.add(memoryCursor);
+			while(!heads.isEmpty()) {
+				RunCursor cursor = heads.poll();
+				resultWriter.write(cursor.head.line);
+				resultWriter.newLine();
+				written++;
+				if(cursor.advance())
+					heads.add(cursor);
+			}
+		} finally {
+			resultWriter.close();
+			for(BufferedReader runReader : runReaders)
+				runReader.close();
+			for(File runFile : runFiles)
+				runFile.delete();
+		}
+		spoolFile.delete();
+		return written;
+	}
+
+	/**
+	 * The position in a sorted run, while the runs are being merged
+	 * @author Saurabh Srivastava
+	 *
+	 */
+	private static class RunCursor implements Comparable<RunCursor> {
+
+		/**
+		 * The current (smallest unmerged) line of the run
+		 */
+		private SortKey head;
+
+		/**
+		 * The lines of the run, if the run is in memory
+		 */
+		private List<SortKey> inMemory;
+
+		/**
+		 * The position of the next line, if the run is in memory
+		 */
+		private int nextInMemory;
+
+		/**
+		 * The reader of the run, if the run is in a file
+		 */
+		private BufferedReader reader;
+
+		/**
+		 * The position of the run among all the runs, which breaks the ties between runs so that the merge is stable
+		 */
+		private int runIndex;
+
+		/**
+		 * Creates a cursor at the start of a run
+		 * @param runIndex The position of the run among all the runs
+		 * @param reader The reader of the run, if the run is in a file
+		 * @param inMemory The lines of the run, if the run is in memory
+		 */
+		RunCursor(int runIndex, BufferedReader reader, List<SortKey> inMemory) {
+			this.runIndex = runIndex;
+			this.reader = reader;
+			this.inMemory = inMemory;
+			nextInMemory = 0;
+		}
+
+		/**
+		 * Moves to the next line of the run
+		 * @return <code>true</code> if there is a next line, <code>false</code> if the run is exhausted
+		 * @throws IOException If the run file could not be read
+		 */
+		boolean advance() throws IOException {
+			if(inMemory != null) {
+				head = nextInMemory < inMemory.size() ? inMemory.get(nextInMemory++) : null;
+			} else {
+				String line = reader.readLine();
+				head = line == null ? null : parseLine(line);
+			}
+			return head != null;
+		}
+
+		@Override
+		public int compareTo(RunCursor o) {
+			int result = RESULT_ORDER.compare(head, o.head);
+			return result != 0 ? result : Integer.compare(runIndex, o.runIndex);
+		}
+	}
+
+	/**
+	 * A line of results, along with the fields that determine its order
+	 * @author Saurabh Srivastava
+	 *
+	 */
+	private static class SortKey {
+
+		/**
+		 * The accuracy in the line
+		 */
+		private double accuracy;
+
+		/**
+		 * The line itself
+		 */
+		private String line;
+
+		/**
+		 * Whether the line is of a timed out task
+		 */
+		private boolean timedOut;
+
+		/**
+		 * Creates a sort key for a line
+		 * @param line The line
+		 * @param accuracy The accuracy in the line
+		 * @param timedOut Whether the line is of a timed out task
+		 */
+		SortKey(String line, double accuracy, boolean timedOut) {
+			this.line = line;
+			this.accuracy = accuracy;
+			this.timedOut = timedOut;
+		}
+	}
+}
@@ -98,6 +98,15 @@ public class Stats implements Serializable {
 		// If there is any metric type whose minimum value is other than 0, then a check needs to be placed here
 		return 0;
 	}
+
+	/**
+	 * Tells if lower values of a given field are better (e.g. for false positive rates), as opposed to higher values
+	 * @param statType The field
+	 * @return <code>true</code> if lower values are better, <code>false</code> otherwise
+	 */
+	public static boolean isLowerBetter(short statType) {
+		return statType == CS_FALSE_POSITIVE || statType == CS_FALSE_NEGATIVE;
+	}
 	
 	/**
 	 * Reads the stats file and creates a list of {@link Stats} objects to encapsulate the outcomes of learning tasks
@@ -139,6 +148,7 @@ public class Stats implements Serializable {
 				 * 7. Recall
 				 * 8. Area under ROC Curve
 				 * 9. Area under PR Curve
+				 * 10. Timed out (absent in the files written before time limits were introduced)
 				 */
 				stat.setTime((long)(Float.parseFloat(tokens[0].trim()) * 1000000000));
 				stat.setAccuracy(Double.parseDouble(tokens[1].trim()));
@@ -180,6 +190,9 @@ public class Stats implements Serializable {
 					values[i] = Double.parseDouble(tokens[index++].trim());
 				stat.setPr(values);
 				
+				if(index < tokens.length)
+					stat.setTimedOut(tokens[index].trim().compareToIgnoreCase("Y") == 0);
+				
 				stats.add(stat);
 			}
 		}
@@ -188,7 +201,8 @@ public class Stats implements Serializable {
 	}
 	
 	/**
-	 * Sorts a <code>List</code> of <code>Stats</code> objects, as per the given metric/field, in either ascending or descending order
+	 * Sorts a <code>List</code> of <code>Stats</code> objects, as per the given metric/field, in either ascending or descending order.
+	 * While sorting by a metric, the stats of timed out tasks (which have no metric values) are always placed at the end.
 	 * @param originalList The <code>List</code> to sort
 	 * @param byCriteria The sort metric/field; should be one of defined constants in <code>Stats</code> class
 	 * @param descending If <code>true</code>, sorts the <code>List</code> in decreasing order
@@ -287,6 +301,17 @@ public class Stats implements Serializable {
 				}
 			};
 		}
+		if(c != null && byCriteria != DICTIONARY_SEQUENCE) {
+			final Comparator<Stats> metricComparator = c;
+			c = new Comparator<Stats>() {
+				@Override
+				public int compare(Stats o1, Stats o2) {
+					if(o1.timedOut != o2.timedOut)
+						return o1.timedOut ? 1 : -1;
+					return metricComparator.compare(o1, o2);
+				}
+			};
+		}
 		if(c != null)
 			Collections.sort(originalList, c);
 	}
@@ -295,6 +320,11 @@ public class Stats implements Serializable {
 	 * The accuracy achieved by the classification task during k-cross validation
 	 */
 	private double accuracy;
+
+	/**
+	 * A flag that tells if the outcome of the classification task was taken from a result cache, instead of being computed afresh
+	 */
+	private boolean cached;
 	
 	/**
 	 * The array of false negative rates achieved by the classification task during k-cross validation
@@ -331,11 +361,21 @@ public class Stats implements Serializable {
 	 */
 	private double[] roc;
 
+	/**
+	 * The stats of the same task against the additional targets of the experiment (in their order), if the partition was evaluated against several targets
+	 */
+	private Stats[] targetStats;
+
 	/**
 	 * The amount of time it took for the classification and validation to complete
 	 */
 	private long time;
 
+	/**
+	 * A flag that tells if the classification task was timed out, in which case no metric values are available
+	 */
+	private boolean timedOut;
+
 	/**
 	 * The array of true positive rates achieved by the classification task during k-cross validation
 	 */
@@ -348,6 +388,8 @@ public class Stats implements Serializable {
 		partition = null;
 		accuracy = Float.NaN;
 		time = 0;
+		timedOut = false;
+		cached = false;
 	}
 
 	/**
@@ -441,6 +483,15 @@ public class Stats implements Serializable {
 			return -1;
 	}
 
+	/**
+	 * Returns the stats of the same task against the additional targets of the experiment, if the partition was evaluated against several targets.
+	 * The time of the stats of a target is that of the evaluation against the target alone, while the time of these stats is that of the whole task.
+	 * @return the stats for every additional target (in their order), or <code>null</code> if the partition was evaluated against the class attribute only
+	 */
+	public Stats[] getTargetStats() {
+		return targetStats;
+	}
+
 	/**
 	 * Returns the time in nano seconds, for the classification task to complete
 	 * @return the time in nano seconds
@@ -457,6 +508,22 @@ public class Stats implements Serializable {
 		return tp;
 	}
 
+	/**
+	 * Tells if the outcome of the classification task was taken from a result cache. In that case, the time is the one taken when the outcome was computed.
+	 * @return <code>true</code> if the outcome was cached, <code>false</code> otherwise
+	 */
+	public boolean isCached() {
+		return cached;
+	}
+
+	/**
+	 * Tells if the classification task was timed out
+	 * @return <code>true</code> if the task was timed out, <code>false</code> otherwise
+	 */
+	public boolean isTimedOut() {
+		return timedOut;
+	}
+
 	/**
 	 * Sets the accuracy of the classification task
 	 * @param accuracy the accuracy to set
@@ -465,6 +532,14 @@ public class Stats implements Serializable {
 		this.accuracy = accuracy;
 	}
 
+	/**
+	 * Sets whether the outcome of the classification task was taken from a result cache
+	 * @param cached <code>true</code> if the outcome was cached, <code>false</code> otherwise
+	 */
+	public void setCached(boolean cached) {
+		this.cached = cached;
+	}
+
 	/**
 	 * Sets the false negative rates of the classification task
 	 * @param fn an array of false negative rates to set
@@ -521,6 +596,14 @@ public class Stats implements Serializable {
 		this.roc = roc;
 	}
 	
+	/**
+	 * Sets the stats of the same task against the additional targets of the experiment
+	 * @param targetStats the stats for every additional target (in their order), or <code>null</code> if the partition was evaluated against the class attribute only
+	 */
+	public void setTargetStats(Stats[] targetStats) {
+		this.targetStats = targetStats;
+	}
+
 	/**
 	 * Sets the time in nano seconds, for the classification task to complete
 	 * @param time the time to set
@@ -529,6 +612,14 @@ public class Stats implements Serializable {
 		this.time = time;
 	}
 	
+	/**
+	 * Sets whether the classification task was timed out
+	 * @param timedOut <code>true</code> if the task was timed out, <code>false</code> otherwise
+	 */
+	public void setTimedOut(boolean timedOut) {
+		this.timedOut = timedOut;
+	}
+	
 	/**
 	 * Sets the true positive rates of the classification task
 	 * @param tp an array of true positive rates to set
@@ -554,6 +645,7 @@ public class Stats implements Serializable {
 			 * 5. Recall
 			 * 6. Area under ROC Curve
 			 * 7. Area under PR Curve
+			 * 8. Timed out
 			 */
 			if(tp != null)
 				for(double val : tp)
@@ -576,6 +668,7 @@ public class Stats implements Serializable {
 			if(pr != null)
 				for(double val : pr)
 					sb.append(", " + val);
+			sb.append(", " + (timedOut ? "Y" : "N"));
 		}
 		return sb.toString();
 	}
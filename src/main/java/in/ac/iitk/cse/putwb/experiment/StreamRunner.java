@@ -0,0 +1,734 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import in.ac.iitk.cse.putwb.classify.DataClassifier;
+import in.ac.iitk.cse.putwb.io.DatasetLoader;
+import in.ac.iitk.cse.putwb.log.BasicLogger;
+import weka.classifiers.AbstractClassifier;
+import weka.classifiers.Classifier;
+import weka.classifiers.UpdateableClassifier;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.Utils;
+import weka.core.converters.ArffLoader;
+
+/**
+ * A StreamRunner keeps track of the quality of the partitions of an experiment as new rows arrive, instead of running the experiment again over the grown dataset.<br>
+ * It keeps an incremental model (a Weka {@link UpdateableClassifier}, e.g. NaiveBayesUpdateable or SGD) for every partition selected from the result file of the experiment,
+ * trained first over the rows of the dataset of the experiment. Every row arriving on the stream is then evaluated prequentially (test-then-train) by every model -
+ * the row is classified first, and then used to update the model. The rows are evaluated as soon as they arrive - a row that arrives while the models are busy
+ * is evaluated along with the other rows that arrived meanwhile (up to {@link #MAX_BATCH_SIZE} of them), so that the models never lag behind a slow stream, and keep up with a fast one.
+ * The outcomes over a sliding window of the latest rows are kept for every partition,
+ * and the partitions ranked by their accuracy over the window are written to the ranking file (in the same format as a result file) every few rows, and once the stream ends.<br>
+ * The stream is in the ARFF format, with the same header as the dataset, and is read from a file or the standard input (so that a growing file can be followed), e.g.
+ * <pre>
+ * tail -f -n +1 arriving.arff | java -cp putwb.jar in.ac.iitk.cse.putwb.experiment.StreamRunner -f data.arff -select results.csv -top 50 -c NaiveBayesUpdateable -out ranking.csv
+ * </pre>
+ * @author Saurabh Srivastava
+ *
+ */
+public class StreamRunner {
+
+	/**
+	 * The default name of the ranking file, in the same folder as the data file
+	 */
+	public static final String DEFAULT_RANKING_FILE_NAME = "ranking.csv";
+
+	/**
+	 * The default number of rows after which the ranking is written again
+	 */
+	public static final int DEFAULT_RANKING_INTERVAL = 1000;
+
+	/**
+	 * The default number of latest rows over which the partitions are ranked
+	 */
+	public static final int DEFAULT_WINDOW_SIZE = 1000;
+
+	/**
+	 * The maximum number of rows evaluated together, if that many arrived while the models were busy with the earlier rows
+	 */
+	public static final int MAX_BATCH_SIZE = 256;
+
+	/**
+	 * Switch for providing the number of rows after which the ranking is written again
+	 */
+	public static final String RANKING_INTERVAL_SWITCH = "-every";
+
+	/**
+	 * Switch for providing the result file from which the partitions are selected
+	 */
+	public static final String SELECTION_SWITCH = "-select";
+
+	/**
+	 * The name of the stream that stands for the standard input
+	 */
+	public static final String STANDARD_INPUT = "-";
+
+	/**
+	 * Switch for providing the (arff) file from which the arriving rows are read
+	 */
+	public static final String STREAM_SWITCH = "-stream";
+
+	/**
+	 * Switch for providing the number of best partitions to select from the result file
+	 */
+	public static final String TOP_SWITCH = "-top";
+
+	/**
+	 * Switch for providing the number of latest rows over which the partitions are ranked
+	 */
+	public static final String WINDOW_SWITCH = "-window";
+
+	/**
+	 * The main to track the partitions over a stream of rows
+	 * @param args The commandline arguments for the stream runner
+	 */
+	public static void main(String[] args) {
+		BasicLogger defaultLogger = BasicLogger.getDefaultLogger();
+		if(args.length == 0) {
+			printUsageDetails();
+			System.exit(0);
+		}
+		String dataFile = null;
+		String selectionFile = null;
+		String stream = STANDARD_INPUT;
+		String outputFile = null;
+		String classifier = null;
+		String[] classifierOptions = null;
+		int top = 0;
+		int windowSize = DEFAULT_WINDOW_SIZE;
+		int rankingInterval = DEFAULT_RANKING_INTERVAL;
+		int parallelism = Runtime.getRuntime().availableProcessors() + 1;
+		try {
+			for(int i = 0; i < args.length; i++) {
+				if(args[i].compareToIgnoreCase(PUTExperiment.DATA_FILE_SWITCH) == 0)
+					dataFile = args[++i];
+				else if(args[i].compareToIgnoreCase(SELECTION_SWITCH) == 0)
+					selectionFile = args[++i];
+				else if(args[i].compareToIgnoreCase(TOP_SWITCH) == 0)
+					top = Integer.parseInt(args[++i]);
+				else if(args[i].compareToIgnoreCase(PUTExperiment.CLASSIFIER_SWITCH) == 0)
+					classifier = args[++i];
+				else if(args[i].compareToIgnoreCase(PUTExperiment.CLASSIFIER_OPTIONS_SWITCH) == 0)
+					classifierOptions = PUTExperiment.splitClassifierOptions(args[++i]);
+				else if(args[i].compareToIgnoreCase(STREAM_SWITCH) == 0)
+					stream = args[++i];
+				else if(args[i].compareToIgnoreCase(WINDOW_SWITCH) == 0)
+					windowSize = Integer.parseInt(args[++i]);
+				else if(args[i].compareToIgnoreCase(RANKING_INTERVAL_SWITCH) == 0)
+					rankingInterval = Integer.parseInt(args[++i]);
+				else if(args[i].compareToIgnoreCase(PUTExperiment.PARALLELISM_SWITCH) == 0)
+					parallelism = Integer.parseInt(args[++i]);
+				else if(args[i].compareToIgnoreCase(PUTExperiment.OUTPUT_FILE_SWITCH) == 0)
+					outputFile = args[++i];
+				else
+					throw new IllegalArgumentException("Invaid option - " + args[i]);
+			}
+			if(dataFile == null)
+				throw new IllegalArgumentException("Data file required");
+			if(selectionFile == null)
+				throw new IllegalArgumentException("Result file to select the partitions from required");
+			if(classifier == null)
+				throw new IllegalArgumentException("Classifier required");
+		} catch (NumberFormatException e) {
+			defaultLogger.errorln("Problem in parsing numerical value - " + e.getMessage());
+			System.exit(-1);
+		} catch (ArrayIndexOutOfBoundsException e) {
+			defaultLogger.errorln("Invalid number of arguments. Please provide matching arguments for all the switches.");
+			System.exit(-1);
+		} catch (IllegalArgumentException e) {
+			defaultLogger.errorln(e.getMessage());
+			System.exit(-1);
+		}
+
+		StreamRunner runner = null;
+		try {
+			runner = new StreamRunner(dataFile, new File(selectionFile), top, classifier, classifierOptions, windowSize, defaultLogger);
+			runner.setRankingInterval(rankingInterval);
+			runner.setParallelism(parallelism);
+			if(outputFile != null)
+				runner.setRankingFile(new File(outputFile));
+		} catch (IllegalArgumentException e) {
+			defaultLogger.errorln(e.getMessage());
+			System.exit(-1);
+		} catch (Exception e) {
+			defaultLogger.errorln("Problems in creating the models for the partitions... aborting");
+			defaultLogger.exception(e);
+			System.exit(-1);
+		}
+		try (InputStream input = stream.equals(STANDARD_INPUT) ? System.in : new FileInputStream(stream)) {
+			runner.stream(input);
+		} catch (Exception e) {
+			defaultLogger.errorln("Fatal Error - problem in evaluating the stream " + stream + ". Exiting.");
+			defaultLogger.exception(e);
+			System.exit(-1);
+		}
+		defaultLogger.outln("Done !! Streamed " + runner.getNumOfRows() + " rows");
+		defaultLogger.outln("Ranking saved to - " + runner.getRankingFile().getAbsolutePath());
+	}
+
+	/**
+	 * Prints a summary of the usage of the stream runner
+	 */
+	public static void printUsageDetails() {
+		System.out.println("---------------------------------------------------------------");
+		System.out.println("  PUTWorkbench Stream Runner " + PUTExperiment.versionInfo);
+		System.out.println("---------------------------------------------------------------");
+		System.out.println("\nUsage options:");
+		System.out.println(PUTExperiment.DATA_FILE_SWITCH + "\t (Required) The path to the (arff) data file of the experiment, over which the models are trained first, e.g. " + PUTExperiment.DATA_FILE_SWITCH + " /home/user/data.arff");
+		System.out.println(SELECTION_SWITCH + "\t (Required) The result file of the experiment, from which the partitions are selected, e.g. " + SELECTION_SWITCH + " /home/user/results.csv");
+		System.out.println(PUTExperiment.CLASSIFIER_SWITCH + "\t (Required) An updateable classifier to use for the models, e.g. " + PUTExperiment.CLASSIFIER_SWITCH + " NaiveBayesUpdateable or " + PUTExperiment.CLASSIFIER_SWITCH + " SGD");
+		System.out.println(PUTExperiment.CLASSIFIER_OPTIONS_SWITCH + "\t (Optional) Options for the classifier, in the same format as for PUTExperiment, e.g. " + PUTExperiment.CLASSIFIER_OPTIONS_SWITCH + " {-K}");
+		System.out.println(TOP_SWITCH + "\t (Default: all) The number of best partitions (by accuracy) to select from the result file, e.g. " + TOP_SWITCH + " 50");
+		System.out.println(STREAM_SWITCH + "\t (Default: " + STANDARD_INPUT + ", i.e. the standard input) The (arff) file from which the arriving rows are read, e.g. " + STREAM_SWITCH + " /home/user/arriving.arff");
+		System.out.println(WINDOW_SWITCH + "\t (Default: " + DEFAULT_WINDOW_SIZE + ") The number of latest rows over which the partitions are ranked, e.g. " + WINDOW_SWITCH + " 5000");
+		System.out.println(RANKING_INTERVAL_SWITCH + "\t (Default: " + DEFAULT_RANKING_INTERVAL + ") The number of rows after which the ranking is written again (the rows are evaluated as they arrive, irrespective of it), e.g. " + RANKING_INTERVAL_SWITCH + " 500");
+		System.out.println(PUTExperiment.PARALLELISM_SWITCH + "\t (Default: number of processors + 1) The number of models to update at a time, e.g. " + PUTExperiment.PARALLELISM_SWITCH + " 8");
+		System.out.println(PUTExperiment.OUTPUT_FILE_SWITCH + "\t (Default: " + DEFAULT_RANKING_FILE_NAME + " in the folder of the data file) The file to write the ranking to, e.g. " + PUTExperiment.OUTPUT_FILE_SWITCH + " /home/user/ranking.csv");
+		System.out.println("\nAdditional notes:");
+		System.out.println("1. The stream must have the same header as the data file. The rows arrive after the header, and the stream may be a growing file followed via the standard input.");
+		System.out.println("2. The ranking file has the same format as a result file, with the metrics over the window. The areas under the ROC and PR curves are not tracked over a stream.");
+		System.out.println();
+	}
+
+	/**
+	 * The dataset of the experiment, whose header the stream must match
+	 */
+	private Instances dataset;
+
+	/**
+	 * The logger for this stream runner
+	 */
+	private BasicLogger logger;
+
+	/**
+	 * The models for the selected partitions
+	 */
+	private List<PartitionModel> models;
+
+	/**
+	 * The number of rows streamed so far
+	 */
+	private long numOfRows;
+
+	/**
+	 * The number of models to update at a time
+	 */
+	private int parallelism;
+
+	/**
+	 * The file to which the ranking of the partitions is written
+	 */
+	private File rankingFile;
+
+	/**
+	 * The number of rows after which the ranking is written again
+	 */
+	private int rankingInterval;
+
+	/**
+	 * Creates a stream runner for the partitions of an experiment
+	 * @param dataFile The path to the (arff) data file of the experiment
+	 * @param selectionFile The result file of the experiment, from which the partitions are selected
+	 * @param top The number of best partitions (by accuracy) to select, or 0 to select all of them
+	 * @param classifierName The classifier to use for the models, which must be an {@link UpdateableClassifier}
+	 * @param classifierOptions The options for the classifier, or <code>null</code> for none
+	 * @param windowSize The number of latest rows over which the partitions are ranked
+	 * @param logger The logger for this stream runner
+	 * @throws IllegalArgumentException If the classifier is not updateable, or the window or number of partitions is out of range
+	 * @throws Exception If the dataset or the result file could not be read, or a model could not be created
+	 */
+	public StreamRunner(String dataFile, File selectionFile, int top, String classifierName, String[] classifierOptions, int windowSize, BasicLogger logger) throws IllegalArgumentException, Exception {
+		if(windowSize < 1)
+			throw new IllegalArgumentException("The window must have at least 1 row");
+		if(top < 0)
+			throw new IllegalArgumentException("The number of partitions to select cannot be negative");
+		Class<? extends AbstractClassifier> classifierType = DataClassifier.findClassifierByName(classifierName);
+		if(!UpdateableClassifier.class.isAssignableFrom(classifierType))
+			throw new IllegalArgumentException("The classifier must be updateable, e.g. NaiveBayesUpdateable or SGD - " + classifierName);
+		this.logger = logger;
+		dataset = DatasetLoader.loadAndCleanDataset(dataFile);
+		List<Stats> stats = Stats.readStatsFile(selectionFile, dataset.numClasses());
+		Stats.sortList(stats, Stats.ACCURACY, true, null);
+		if(top > 0 && top < stats.size())
+			stats = stats.subList(0, top);
+		models = new ArrayList<PartitionModel>();
+		for(Stats stat : stats) {
+			if(stat.isTimedOut())
+				continue;
+			Classifier model = classifierType.newInstance();
+			if(classifierOptions != null)
+				// The options are consumed by the classifier, so every model gets its own copy
+				((AbstractClassifier) model).setOptions(Arrays.copyOf(classifierOptions, classifierOptions.length));
+			models.add(new PartitionModel(dataset, stat.getPartition(), model, windowSize));
+		}
+		if(models.isEmpty())
+			throw new IllegalArgumentException("No partitions to select in the result file - " + selectionFile);
+		parallelism = Runtime.getRuntime().availableProcessors() + 1;
+		rankingInterval = DEFAULT_RANKING_INTERVAL;
+		rankingFile = new File(new File(dataFile).getAbsoluteFile().getParent(), DEFAULT_RANKING_FILE_NAME);
+		numOfRows = 0;
+		logger.outln("Selected " + models.size() + " partitions from " + selectionFile);
+	}
+
+	/**
+	 * Evaluates a block of rows prequentially with every model, updating the models in parallel (every model gets the rows in order)
+	 * @param executor The executor to update the models on
+	 * @param rows The rows, in the order in which they arrived
+	 * @throws Exception If a model could not be evaluated or updated
+	 */
+	private void evaluate(ExecutorService executor, List<Instance> rows) throws Exception {
+		List<Callable<Void>> updates = new ArrayList<Callable<Void>>();
+		for(PartitionModel model : models) {
+			updates.add(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					model.update(rows);
+					return null;
+				}
+			});
+		}
+		waitFor(executor.invokeAll(updates));
+		numOfRows += rows.size();
+	}
+
+	/**
+	 * Returns the number of rows streamed so far
+	 * @return the number of rows
+	 */
+	public long getNumOfRows() {
+		return numOfRows;
+	}
+
+	/**
+	 * Returns the selected partitions, ranked by their accuracy over the window of the latest rows
+	 * @return the stats of the partitions over the window, in decreasing order of the accuracy
+	 */
+	public List<Stats> getRanking() {
+		List<Stats> ranking = new ArrayList<Stats>();
+		for(PartitionModel model : models)
+			ranking.add(model.getStats(dataset.numClasses()));
+		Stats.sortList(ranking, Stats.ACCURACY, true, null);
+		return ranking;
+	}
+
+	/**
+	 * Returns the file to which the ranking of the partitions is written
+	 * @return the ranking file
+	 */
+	public File getRankingFile() {
+		return rankingFile;
+	}
+
+	/**
+	 * Sets the number of models to update at a time
+	 * @param parallelism The number of threads (must be at least 1)
+	 */
+	public void setParallelism(int parallelism) {
+		if(parallelism < 1)
+			throw new IllegalArgumentException("The number of threads must be at least 1");
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Sets the file to which the ranking of the partitions is written
+	 * @param rankingFile The ranking file
+	 */
+	public void setRankingFile(File rankingFile) {
+		this.rankingFile = rankingFile;
+	}
+
+	/**
+	 * Sets the number of rows after which the ranking is written again. The rows are evaluated as they arrive, irrespective of the interval.
+	 * @param rankingInterval The number of rows (must be at least 1)
+	 */
+	public void setRankingInterval(int rankingInterval) {
+		if(rankingInterval < 1)
+			throw new IllegalArgumentException("The ranking must be written after at least 1 row");
+		this.rankingInterval = rankingInterval;
+	}
+
+	/**
+	 * Trains the models over the dataset, and then evaluates the rows of a stream prequentially as they arrive, till the stream ends.
+	 * The rows are read in a separate thread, so that the rows that arrive while the models are busy are evaluated together right after.
+	 * The ranking is written every time a number of rows (see {@link #setRankingInterval(int)}) have been evaluated, and once the stream ends.
+	 * @param input The stream, in the ARFF format with the same header as the dataset
+	 * @throws IllegalArgumentException If the header of the stream does not match the dataset
+	 * @throws Exception If the stream could not be read, a model could not be trained or updated, or the ranking could not be written
+	 */
+	public void stream(InputStream input) throws IllegalArgumentException, Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+		Thread readingThread = null;
+		try {
+			List<Callable<Void>> trainings = new ArrayList<Callable<Void>>();
+			for(PartitionModel model : models) {
+				trainings.add(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						model.train(dataset);
+						return null;
+					}
+				});
+			}
+			waitFor(executor.invokeAll(trainings));
+			logger.outln("Trained " + models.size() + " models over the " + dataset.numInstances() + " rows of the dataset");
+
+			ArffLoader loader = new ArffLoader();
+			loader.setSource(input);
+			Instances structure = loader.getStructure();
+			structure.setClassIndex(structure.numAttributes() - 1);
+			if(!structure.equalHeaders(dataset))
+				throw new IllegalArgumentException("The header of the stream does not match the dataset - " + structure.equalHeadersMsg(dataset));
+			RowReader reader = new RowReader(loader, structure);
+			readingThread = CoordinationThreads.newThread("Stream Reader", reader);
+			readingThread.start();
+			int numOfRowsSinceRanking = 0;
+			List<Instance> rows = new ArrayList<Instance>();
+			// A batch never crosses the point at which the ranking is due, so that the ranking is written after exactly as many rows as asked for
+			while(reader.nextRows(rows, Math.min(MAX_BATCH_SIZE, rankingInterval - numOfRowsSinceRanking))) {
+				evaluate(executor, rows);
+				numOfRowsSinceRanking += rows.size();
+				rows = new ArrayList<Instance>();
+				if(numOfRowsSinceRanking == rankingInterval) {
+					writeRanking();
+					numOfRowsSinceRanking = 0;
+				}
+			}
+			if(numOfRowsSinceRanking > 0)
+				writeRanking();
+		} finally {
+			if(readingThread != null)
+				readingThread.interrupt();
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Waits for the tasks updating the models, and throws the failure of the first task that failed (if any)
+	 * @param tasks The tasks
+	 * @throws Exception If a task failed
+	 */
+	private void waitFor(List<Future<Void>> tasks) throws Exception {
+		for(Future<Void> task : tasks) {
+			try {
+				task.get();
+			} catch (ExecutionException e) {
+				if(e.getCause() instanceof Exception)
+					throw (Exception) e.getCause();
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Writes the current ranking of the partitions to the ranking file, replacing the earlier ranking in one go, so that a reader never sees a partial ranking
+	 * @throws IOException If the ranking could not be written
+	 */
+	private void writeRanking() throws IOException {
+		List<Stats> ranking = getRanking();
+		File file = rankingFile.getAbsoluteFile();
+		File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+		BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile));
+		try {
+			writer.write(PUTExperiment.getResultFileHeader(dataset));
+			writer.newLine();
+			for(Stats stat : ranking) {
+				writer.write(stat.toString());
+				writer.newLine();
+			}
+		} finally {
+			writer.close();
+		}
+		Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		Stats best = ranking.get(0);
+		logger.outln(String.format("Rows streamed - %d. Best partition - %s, with an accuracy of %.2f%% over the latest rows", numOfRows, best.getPartition(), best.getAccuracy()));
+	}
+
+	/**
+	 * The incremental model of a partition, with the outcomes of the prequential evaluation over a sliding window of the latest rows
+	 * @author Saurabh Srivastava
+	 *
+	 */
+	private static class PartitionModel {
+
+		/**
+		 * The actual classes of the rows in the window (a circular buffer)
+		 */
+		private int[] actualClasses;
+
+		/**
+		 * The indices of the attributes of the dataset retained for the partition, the last one being the class attribute
+		 */
+		private int[] attributes;
+
+		/**
+		 * The header of the fragmented dataset for the partition
+		 */
+		private Instances header;
+
+		/**
+		 * The incremental model
+		 */
+		private Classifier model;
+
+		/**
+		 * The position in the window for the next row
+		 */
+		private int next;
+
+		/**
+		 * The partition
+		 */
+		private Set<Integer> partition;
+
+		/**
+		 * The classes predicted for the rows in the window, or -1 for the rows for which the model made no prediction
+		 */
+		private int[] predictedClasses;
+
+		/**
+		 * The number of rows in the window
+		 */
+		private int size;
+
+		/**
+		 * The time (in nanoseconds) spent in training and updating the model
+		 */
+		private long time;
+
+		/**
+		 * Creates an (untrained) model for a partition
+		 * @param dataset The dataset of the experiment
+		 * @param partition The partition
+		 * @param model The incremental model
+		 * @param windowSize The number of latest rows in the window
+		 */
+		PartitionModel(Instances dataset, Set<Integer> partition, Classifier model, int windowSize) {
+			this.partition = partition;
+			this.model = model;
+			attributes = PUTExperiment.getSelectedAttributes(dataset, partition);
+			ArrayList<Attribute> headerAttributes = new ArrayList<Attribute>();
+			for(int index : attributes)
+				headerAttributes.add((Attribute) dataset.attribute(index).copy());
+			header = new Instances(dataset.relationName(), headerAttributes, 0);
+			header.setClassIndex(attributes.length - 1);
+			actualClasses = new int[windowSize];
+			predictedClasses = new int[windowSize];
+			next = size = 0;
+			time = 0;
+		}
+
+		/**
+		 * Returns the stats of the model over the window. The areas under the ROC and PR curves are not tracked, and are reported as <code>NaN</code>.
+		 * @param numOfClasses The number of classes in the dataset
+		 * @return The stats over the window
+		 */
+		Stats getStats(int numOfClasses) {
+			int[] actual = new int[numOfClasses];
+			int[] predicted = new int[numOfClasses];
+			int[] correct = new int[numOfClasses];
+			int totalCorrect = 0;
+			for(int i = 0; i < size; i++) {
+				actual[actualClasses[i]]++;
+				if(predictedClasses[i] >= 0)
+					predicted[predictedClasses[i]]++;
+				if(actualClasses[i] == predictedClasses[i]) {
+					correct[actualClasses[i]]++;
+					totalCorrect++;
+				}
+			}
+			double[] tp = new double[numOfClasses];
+			double[] fp = new double[numOfClasses];
+			double[] fn = new double[numOfClasses];
+			double[] precision = new double[numOfClasses];
+			double[] unavailable = new double[numOfClasses];
+			Arrays.fill(unavailable, Double.NaN);
+			for(int c = 0; c < numOfClasses; c++) {
+				tp[c] = actual[c] > 0 ? (double) correct[c] / actual[c] : 0;
+				fn[c] = actual[c] > 0 ? (double) (actual[c] - correct[c]) / actual[c] : 0;
+				fp[c] = size > actual[c] ? (double) (predicted[c] - correct[c]) / (size - actual[c]) : 0;
+				precision[c] = predicted[c] > 0 ? (double) correct[c] / predicted[c] : 0;
+			}
+			Stats stat = new Stats();
+			stat.setPartition(partition);
+			stat.setTime(time);
+			stat.setAccuracy(size > 0 ? 100.0 * totalCorrect / size : 0);
+			stat.setTp(tp);
+			stat.setFp(fp);
+			stat.setFn(fn);
+			stat.setPrecision(precision);
+			stat.setRecall(tp);
+			stat.setRoc(unavailable);
+			stat.setPr(unavailable);
+			return stat;
+		}
+
+		/**
+		 * Projects a row of the dataset (or the stream) onto the attributes of the partition
+		 * @param row The row
+		 * @return The row of the fragmented dataset for the partition
+		 */
+		private Instance project(Instance row) {
+			double[] values = new double[attributes.length];
+			for(int j = 0; j < attributes.length; j++)
+				values[j] = row.value(attributes[j]);
+			Instance instance = new DenseInstance(row.weight(), values);
+			instance.setDataset(header);
+			return instance;
+		}
+
+		/**
+		 * Trains the model over the rows of the dataset
+		 * @param dataset The dataset of the experiment
+		 * @throws Exception If the model could not be trained
+		 */
+		void train(Instances dataset) throws Exception {
+			long tick = System.nanoTime();
+			Instances data = new Instances(header, dataset.numInstances());
+			for(Instance row : dataset)
+				data.add(project(row));
+			model.buildClassifier(data);
+			time += System.nanoTime() - tick;
+		}
+
+		/**
+		 * Evaluates rows prequentially, i.e. classifies every row first, notes the outcome in the window, and then updates the model with the row.
+		 * The rows without a class are skipped, since they can neither be evaluated nor learnt from.
+		 * @param rows The rows, in the order in which they arrived
+		 * @throws Exception If a row could not be classified, or the model could not be updated
+		 */
+		void update(List<Instance> rows) throws Exception {
+			long tick = System.nanoTime();
+			for(Instance row : rows) {
+				if(row.classIsMissing())
+					continue;
+				Instance instance = project(row);
+				double prediction = model.classifyInstance(instance);
+				actualClasses[next] = (int) instance.classValue();
+				predictedClasses[next] = Utils.isMissingValue(prediction) ? -1 : (int) prediction;
+				next = (next + 1) % actualClasses.length;
+				size = Math.min(size + 1, actualClasses.length);
+				((UpdateableClassifier) model).updateClassifier(instance);
+			}
+			time += System.nanoTime() - tick;
+		}
+	}
+
+	/**
+	 * Reads the rows of a stream ahead of their evaluation, so that the rows that arrive while the models are busy are at hand once the models are free
+	 * @author Saurabh Srivastava
+	 *
+	 */
+	private static class RowReader implements Runnable {
+
+		/**
+		 * A flag that tells if the end of the stream has been handed out
+		 */
+		private boolean ended;
+
+		/**
+		 * The marker queued after the last row of the stream
+		 */
+		private Instance end;
+
+		/**
+		 * The problem in reading the stream, if any
+		 */
+		private volatile IOException failure;
+
+		/**
+		 * The loader reading the stream, past its header
+		 */
+		private ArffLoader loader;
+
+		/**
+		 * The rows read, but not handed out yet
+		 */
+		private BlockingQueue<Instance> rows;
+
+		/**
+		 * The header of the stream
+		 */
+		private Instances structure;
+
+		/**
+		 * Creates a reader for the rows of a stream
+		 * @param loader The loader reading the stream, past its header
+		 * @param structure The header of the stream
+		 */
+		RowReader(ArffLoader loader, Instances structure) {
+			this.loader = loader;
+			this.structure = structure;
+			// Reads at most a couple of batches ahead, so that a fast stream is not held in memory
+			rows = new ArrayBlockingQueue<Instance>(2 * MAX_BATCH_SIZE);
+			end = new DenseInstance(0);
+			ended = false;
+		}
+
+		/**
+		 * Hands out the rows that have arrived, waiting for at least one (or the end of the stream)
+		 * @param batch The list to add the rows to
+		 * @param maxRows The maximum number of rows to hand out
+		 * @return <code>true</code> if some rows were handed out, <code>false</code> if the stream has ended
+		 * @throws InterruptedException If the thread is interrupted while waiting for a row
+		 * @throws IOException If the stream could not be read
+		 */
+		boolean nextRows(List<Instance> batch, int maxRows) throws InterruptedException, IOException {
+			if(ended)
+				return false;
+			Instance row = rows.take();
+			while(row != null && batch.size() < maxRows) {
+				if(row == end) {
+					ended = true;
+					if(failure != null)
+						throw failure;
+					return !batch.isEmpty();
+				}
+				batch.add(row);
+				if(batch.size() < maxRows)
+					row = rows.poll();
+			}
+			return true;
+		}
+
+		/* (non-Javadoc)
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			try {
+				try {
+					Instance row;
+					while((row = loader.getNextInstance(structure)) != null)
+						rows.put(row);
+				} catch (IOException e) {
+					failure = e;
+				}
+				rows.put(end);
+			} catch (InterruptedException e) {
+				// Stopped
+			}
+		}
+	}
+}
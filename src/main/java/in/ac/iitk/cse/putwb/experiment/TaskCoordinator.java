@@ -0,0 +1,955 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import in.ac.iitk.cse.putwb.log.BasicLogger;
+
+/**
+ * A TaskCoordinator hands out the learning tasks of an experiment to worker processes (see {@link TaskWorker}), possibly on other machines,
+ * and collects the stats of the tasks from them.<br>
+ * A worker connects over a plain TCP socket, and must first present the token shared with the coordinator. It is then sent the options of the experiment
+ * along with its fingerprint, so that it can load the dataset locally and make sure that it evaluates the partitions exactly as the experiment would.
+ * The worker then repeatedly asks for a batch of tasks, and streams the stats of every task back as soon as it completes. A task stays leased to a worker till its stats arrive.
+ * If the connection to a worker is lost, or nothing is heard from the worker for {@link #WORKER_TIMEOUT} seconds (a worker sends a heartbeat every {@link #HEARTBEAT_INTERVAL} seconds
+ * while it is alive), the tasks leased to it are put back at the head of the pending tasks, to be leased to the other (or a reconnecting) workers.
+ * A worker may as well be served over any other pair of streams, e.g. the standard input and output of a local process (see {@link ForkedWorkers}).<br>
+ * The messages are exchanged over data streams, as plain numbers and strings, so that nothing the peer sends is ever deserialized into an object of its choice:
+ * <ul>
+ * 	<li>Worker to coordinator - {@link #HELLO} followed by the protocol version and the token (once, before anything else), {@link #REQUEST} followed by the number of tasks wanted,
+ * 		{@link #RESULT} followed by the id of a task and its stats (see {@link #writeStats(DataOutputStream, Stats)}), {@link #FAILURE} followed by the id of a task and a description of the failure,
+ * 		or {@link #HEARTBEAT}</li>
+ * 	<li>Coordinator to worker - the options and the fingerprint of the experiment (once, in reply to a valid {@link #HELLO}),
+ * 		{@link #BATCH} followed by the number of tasks, and the id, partition and sample proportion of every task (the batch may be empty,
+ * 		if no task is pending at the moment), or {@link #DONE} once the coordinator is closed</li>
+ * </ul>
+ * @author Saurabh Srivastava
+ *
+ */
+public class TaskCoordinator {
+
+	/**
+	 * The message from the coordinator carrying a batch of tasks
+	 */
+	static final int BATCH = 1;
+
+	/**
+	 * The message from the coordinator telling the worker to quit, since no more tasks will be handed out
+	 */
+	static final int DONE = 2;
+
+	/**
+	 * The message from a worker reporting that a task failed
+	 */
+	static final int FAILURE = 3;
+
+	/**
+	 * The interval (in seconds) at which a worker tells the coordinator that it is alive
+	 */
+	static final int HEARTBEAT_INTERVAL = 5;
+
+	/**
+	 * The message from a worker telling the coordinator that it is alive
+	 */
+	static final int HEARTBEAT = 6;
+
+	/**
+	 * The message from a worker opening the connection, with the token shared with the coordinator
+	 */
+	static final int HELLO = 7;
+
+	/**
+	 * The maximum number of elements accepted in an array or a set read from the peer, so that a malformed message cannot exhaust the memory
+	 */
+	static final int MAX_ELEMENTS = 1 << 16;
+
+	/**
+	 * The version of the messages exchanged with the workers
+	 */
+	static final int PROTOCOL_VERSION = 2;
+
+	/**
+	 * The message from a worker asking for a batch of tasks
+	 */
+	static final int REQUEST = 4;
+
+	/**
+	 * The message from a worker carrying the stats of a task
+	 */
+	static final int RESULT = 5;
+
+	/**
+	 * The time (in seconds) after which a worker that has not been heard from is taken to be lost
+	 */
+	static final int WORKER_TIMEOUT = 30;
+
+	/**
+	 * Creates a random token, for the workers to present to a coordinator
+	 * @return The token, as 32 hexadecimal digits
+	 */
+	static String createToken() {
+		byte[] bytes = new byte[16];
+		new SecureRandom().nextBytes(bytes);
+		StringBuilder token = new StringBuilder();
+		for(byte b : bytes)
+			token.append(String.format("%02x", b));
+		return token.toString();
+	}
+
+	/**
+	 * Reads a number of elements of an array or a set from a peer, and checks that it is within the limit
+	 * @param in The stream from the peer
+	 * @return The number of elements
+	 * @throws IOException If the number could not be read, or is out of bounds
+	 */
+	static int readLength(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if(length < 0 || length > MAX_ELEMENTS)
+			throw new IOException("Invalid number of elements in a message - " + length);
+		return length;
+	}
+
+	/**
+	 * Reads the partition of a task, as written by {@link #writePartition(DataOutputStream, Set)}
+	 * @param in The stream from the peer
+	 * @return The partition
+	 * @throws IOException If the partition could not be read
+	 */
+	static Set<Integer> readPartition(DataInputStream in) throws IOException {
+		int size = readLength(in);
+		Set<Integer> partition = new TreeSet<Integer>();
+		for(int i = 0; i < size; i++)
+			partition.add(in.readInt());
+		return partition;
+	}
+
+	/**
+	 * Reads the token of a coordinator from a file (the first line of the file, without any surrounding whitespace)
+	 * @param path The path to the token file
+	 * @return The token
+	 * @throws IOException If the file could not be read, or has no token
+	 */
+	public static String readToken(String path) throws IOException {
+		List<String> lines = Files.readAllLines(new File(path).toPath(), StandardCharsets.UTF_8);
+		String token = lines.isEmpty() ? "" : lines.get(0).trim();
+		if(token.isEmpty())
+			throw new IOException("No token in the file " + path);
+		return token;
+	}
+
+	/**
+	 * Reads the stats of a task, as written by {@link #writeStats(DataOutputStream, Stats)}. The partition of the stats is not a part of the message.
+	 * @param in The stream from the peer
+	 * @return The stats
+	 * @throws IOException If the stats could not be read
+	 */
+	static Stats readStats(DataInputStream in) throws IOException {
+		Stats stat = new Stats();
+		stat.setTime(in.readLong());
+		stat.setAccuracy(in.readDouble());
+		stat.setTimedOut(in.readBoolean());
+		stat.setTp(readValues(in));
+		stat.setFp(readValues(in));
+		stat.setFn(readValues(in));
+		stat.setPrecision(readValues(in));
+		stat.setRecall(readValues(in));
+		stat.setRoc(readValues(in));
+		stat.setPr(readValues(in));
+		return stat;
+	}
+
+	/**
+	 * Reads an array of metric values, as written by {@link #writeValues(DataOutputStream, double[])}
+	 * @param in The stream from the peer
+	 * @return The values
+	 * @throws IOException If the values could not be read
+	 */
+	private static double[] readValues(DataInputStream in) throws IOException {
+		double[] values = new double[readLength(in)];
+		for(int i = 0; i < values.length; i++)
+			values[i] = in.readDouble();
+		return values;
+	}
+
+	/**
+	 * Writes the partition of a task
+	 * @param out The stream to the peer
+	 * @param partition The partition
+	 * @throws IOException If the partition could not be written
+	 */
+	static void writePartition(DataOutputStream out, Set<Integer> partition) throws IOException {
+		out.writeInt(partition.size());
+		for(int attribute : partition)
+			out.writeInt(attribute);
+	}
+
+	/**
+	 * Writes the stats of a task (against the class attribute), field by field - the time, the accuracy, whether the task was timed out,
+	 * and the true positive rates, false positive rates, false negative rates, precisions, recalls, areas under the ROC curve and areas under the PR curve
+	 * @param out The stream to the peer
+	 * @param stat The stats
+	 * @throws IOException If the stats could not be written
+	 */
+	static void writeStats(DataOutputStream out, Stats stat) throws IOException {
+		out.writeLong(stat.getTime());
+		out.writeDouble(stat.getAccuracy());
+		out.writeBoolean(stat.isTimedOut());
+		writeValues(out, stat.getTp());
+		writeValues(out, stat.getFp());
+		writeValues(out, stat.getFn());
+		writeValues(out, stat.getPrecision());
+		writeValues(out, stat.getRecall());
+		writeValues(out, stat.getRoc());
+		writeValues(out, stat.getPr());
+	}
+
+	/**
+	 * Writes the token of a coordinator to a file, readable and writable by the owner only (where the file system permits)
+	 * @param file The token file, which is replaced if it exists
+	 * @param token The token
+	 * @throws IOException If the file could not be written
+	 */
+	static void writeToken(File file, String token) throws IOException {
+		file.delete();
+		if(!file.createNewFile())
+			throw new IOException("Could not create the token file " + file);
+		file.setReadable(false, false);
+		file.setWritable(false, false);
+		file.setReadable(true, true);
+		file.setWritable(true, true);
+		try (FileOutputStream out = new FileOutputStream(file)) {
+			out.write((token + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * Writes an array of metric values, preceded by its length
+	 * @param out The stream to the peer
+	 * @param values The values
+	 * @throws IOException If the values could not be written
+	 */
+	private static void writeValues(DataOutputStream out, double[] values) throws IOException {
+		out.writeInt(values.length);
+		for(double value : values)
+			out.writeDouble(value);
+	}
+
+	/**
+	 * The reason for which the tasks were abandoned, or <code>null</code> if they are still handed out
+	 */
+	private String abandonReason;
+
+	/**
+	 * A flag that tells if the coordinator has been closed
+	 */
+	private volatile boolean closed;
+
+	/**
+	 * The fingerprint of the experiment (see {@link ResultCache#createFingerprint(weka.core.Instances, Class, String[], int, float, long)})
+	 */
+	private byte[] fingerprint;
+
+	/**
+	 * The lock guarding the tasks and the workers. A lock rather than a monitor, so that a handler of a worker running in a virtual thread does not pin its carrier thread.
+	 */
+	private final ReentrantLock lock;
+
+	/**
+	 * The logger for reporting the workers joining and leaving
+	 */
+	private BasicLogger logger;
+
+	/**
+	 * The thread that looks out for the workers not heard from for too long, once a worker is served
+	 */
+	private Thread monitor;
+
+	/**
+	 * The id of the next task submitted
+	 */
+	private long nextTaskId;
+
+	/**
+	 * The number of tasks whose stats have arrived
+	 */
+	private long numOfTasksCompleted;
+
+	/**
+	 * The number of tasks leased to the workers, whose stats have not arrived yet
+	 */
+	private long numOfTasksLeased;
+
+	/**
+	 * The (command line) options of the experiment
+	 */
+	private String[] options;
+
+	/**
+	 * A flag that tells if the leasing of tasks is paused
+	 */
+	private boolean paused;
+
+	/**
+	 * The tasks waiting to be leased, in the order in which they are to be leased
+	 */
+	private Deque<RemoteTask> pendingTasks;
+
+	/**
+	 * The socket on which the workers connect, if any
+	 */
+	private ServerSocket serverSocket;
+
+	/**
+	 * The token a worker must present before it is told anything about the experiment
+	 */
+	private byte[] token;
+
+	/**
+	 * The workers being served, including the ones yet to present their token
+	 */
+	private Set<Worker> workers;
+
+	/**
+	 * Creates a coordinator for an experiment, without any workers
+	 * @param options The (command line) options of the experiment, as in {@link PUTExperiment#getRecoveryInformation()}
+	 * @param fingerprint The fingerprint of the experiment, which the workers must match
+	 * @param token The token the workers must present
+	 * @param logger The logger for reporting the workers joining and leaving
+	 */
+	public TaskCoordinator(String[] options, byte[] fingerprint, String token, BasicLogger logger) {
+		this.options = options;
+		this.fingerprint = fingerprint;
+		this.token = token.getBytes(StandardCharsets.UTF_8);
+		this.logger = logger;
+		closed = false;
+		abandonReason = null;
+		pendingTasks = new ArrayDeque<RemoteTask>();
+		lock = new ReentrantLock();
+		workers = new HashSet<Worker>();
+		nextTaskId = 0;
+		numOfTasksCompleted = numOfTasksLeased = 0;
+		paused = false;
+	}
+
+	/**
+	 * Abandons the pending tasks, along with any tasks released or submitted later, once no worker is left to evaluate them.
+	 * The abandoned tasks fail, instead of waiting for a worker forever.
+	 * @param reason The reason for abandoning the tasks
+	 */
+	public void abandon(String reason) {
+		lock.lock();
+		try {
+			abandonReason = reason;
+			for(RemoteTask task : pendingTasks)
+				task.result.completeExceptionally(new Exception("Learning task abandoned - " + reason));
+			pendingTasks.clear();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Closes the coordinator. The workers are told to quit the next time they ask for tasks, and no more workers are accepted.
+	 * The stats of the tasks still leased are ignored, if they arrive later.
+	 */
+	public void close() {
+		lock.lock();
+		try {
+			closed = true;
+			if(serverSocket != null) {
+				try {
+					serverSocket.close();
+				} catch (IOException e) {
+					// Already closed
+				}
+			}
+			if(monitor != null)
+				monitor.interrupt();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Marks a task leased to a worker as completed with the given stats, unless it is no longer leased to the worker or is already completed
+	 * @param worker The worker
+	 * @param taskId The id of the task
+	 * @param stat The stats of the task
+	 */
+	private void complete(Worker worker, long taskId, Stats stat) {
+		lock.lock();
+		try {
+			RemoteTask task = worker.leased.remove(taskId);
+			if(task == null)
+				return;
+			numOfTasksLeased--;
+			stat.setPartition(new TreeSet<Integer>(task.partition));
+			if(task.result.complete(stat)) {
+				numOfTasksCompleted++;
+				task.progressEstimator.taskCompleted(stat.getTime());
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Marks a task leased to a worker as failed, unless it is no longer leased to the worker or is already completed
+	 * @param worker The worker
+	 * @param taskId The id of the task
+	 * @param description The description of the failure
+	 */
+	private void fail(Worker worker, long taskId, String description) {
+		lock.lock();
+		try {
+			RemoteTask task = worker.leased.remove(taskId);
+			if(task == null)
+				return;
+			numOfTasksLeased--;
+			task.result.completeExceptionally(new Exception("Learning task failed on a worker - " + description));
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of tasks whose stats have arrived
+	 * @return the number of completed tasks
+	 */
+	public long getNumOfCompletedTasks() {
+		lock.lock();
+		try {
+			return numOfTasksCompleted;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of tasks leased to the workers, whose stats have not arrived yet
+	 * @return the number of leased tasks
+	 */
+	public long getNumOfLeasedTasks() {
+		lock.lock();
+		try {
+			return numOfTasksLeased;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of tasks waiting to be leased
+	 * @return the number of pending tasks
+	 */
+	public int getNumOfPendingTasks() {
+		lock.lock();
+		try {
+			return pendingTasks.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of workers connected, that have presented a valid token
+	 * @return the number of workers
+	 */
+	public int getNumOfWorkers() {
+		lock.lock();
+		try {
+			int numOfWorkers = 0;
+			for(Worker worker : workers)
+				if(worker.joined)
+					numOfWorkers++;
+			return numOfWorkers;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Tells if the coordinator has been closed
+	 * @return <code>true</code> if the coordinator is closed, <code>false</code> otherwise
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Tells if the coordinator accepts workers on a TCP port
+	 * @return <code>true</code> if the coordinator listens on a port, <code>false</code> otherwise
+	 */
+	public boolean isListening() {
+		lock.lock();
+		try {
+			return serverSocket != null && !serverSocket.isClosed();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Tells if the leasing of tasks is paused
+	 * @return <code>true</code> if no tasks are being leased, <code>false</code> otherwise
+	 */
+	public boolean isPaused() {
+		lock.lock();
+		try {
+			return paused;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Leases a batch of the pending tasks to a worker, unless the leasing is paused or the worker has been taken to be lost
+	 * @param worker The worker
+	 * @param numOfTasks The maximum number of tasks to lease
+	 * @return The leased tasks (possibly none)
+	 */
+	private List<RemoteTask> lease(Worker worker, int numOfTasks) {
+		lock.lock();
+		try {
+			List<RemoteTask> batch = new ArrayList<RemoteTask>();
+			while(!worker.lost && !paused && batch.size() < numOfTasks && !pendingTasks.isEmpty()) {
+				RemoteTask task = pendingTasks.poll();
+				// A task may have been skipped while it was pending
+				if(!task.result.isDone()) {
+					batch.add(task);
+					worker.leased.put(task.id, task);
+				}
+			}
+			numOfTasksLeased += batch.size();
+			return batch;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Starts accepting workers on a TCP port, in a separate thread
+	 * @param bindAddress The address of the interface to listen on, e.g. the loopback address to accept workers on this machine only
+	 * @param port The port to listen on
+	 * @throws IOException If the port could not be listened on
+	 */
+	public void listen(InetAddress bindAddress, int port) throws IOException {
+		lock.lock();
+		try {
+			serverSocket = new ServerSocket(port, 0, bindAddress);
+		} finally {
+			lock.unlock();
+		}
+		Thread acceptor = CoordinationThreads.newThread("Worker Acceptor", new Runnable() {
+			@Override
+			public void run() {
+				while(!closed) {
+					try {
+						Socket socket = serverSocket.accept();
+						socket.setKeepAlive(true);
+						socket.setTcpNoDelay(true);
+						serve(socket.getInputStream(), socket.getOutputStream(), socket.getRemoteSocketAddress().toString(), socket);
+					} catch (IOException e) {
+						if(!closed) {
+							logger.errorln("Problem in accepting a worker");
+							logger.exception(e);
+						}
+					}
+				}
+			}
+		});
+		acceptor.start();
+	}
+
+	/**
+	 * Takes a worker to be lost, unless it already is, and puts the tasks leased to it back at the head of the pending tasks, in their original order
+	 * @param worker The worker
+	 * @return The number of tasks released, or -1 if the worker was already taken to be lost
+	 */
+	private int release(Worker worker) {
+		lock.lock();
+		try {
+			if(worker.lost)
+				return -1;
+			worker.lost = true;
+			workers.remove(worker);
+			List<RemoteTask> tasks = new ArrayList<RemoteTask>(worker.leased.values());
+			worker.leased.clear();
+			for(int i = tasks.size() - 1; i >= 0; i--)
+				pendingTasks.addFirst(tasks.get(i));
+			numOfTasksLeased -= tasks.size();
+			if(abandonReason != null)
+				abandon(abandonReason);
+			return tasks.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Serves a worker over a pair of streams, in a separate thread, till the worker quits or is lost.
+	 * The worker is lost if the connection breaks, or nothing is heard from it for {@link #WORKER_TIMEOUT} seconds, in which case the connection is closed.
+	 * @param in The stream from the worker
+	 * @param out The stream to the worker
+	 * @param workerName A name of the worker, for the messages
+	 * @param connection The connection carrying the streams, which is closed once the worker is lost (e.g. the socket, or something that kills a worker process)
+	 */
+	public void serve(InputStream in, OutputStream out, String workerName, Closeable connection) {
+		Worker worker = new Worker(workerName, connection);
+		lock.lock();
+		try {
+			workers.add(worker);
+			startMonitor();
+		} finally {
+			lock.unlock();
+		}
+		Thread handler = CoordinationThreads.newThread("Worker Handler - " + workerName, new Runnable() {
+			@Override
+			public void run() {
+				boolean done = false;
+				try {
+					DataInputStream fromWorker = new DataInputStream(new BufferedInputStream(in));
+					DataOutputStream toWorker = new DataOutputStream(new BufferedOutputStream(out));
+					// Nothing about the experiment is told to the worker, till it presents the token
+					if(fromWorker.readInt() != HELLO)
+						throw new IOException("The worker did not open the connection");
+					int version = fromWorker.readInt();
+					if(version != PROTOCOL_VERSION)
+						throw new IOException("The worker speaks version " + version + " of the protocol, instead of " + PROTOCOL_VERSION);
+					byte[] workerToken = new byte[readLength(fromWorker)];
+					fromWorker.readFully(workerToken);
+					if(!MessageDigest.isEqual(token, workerToken))
+						throw new IOException("The worker presented a wrong token");
+					worker.heard();
+					toWorker.writeInt(options.length);
+					for(String option : options)
+						toWorker.writeUTF(option);
+					toWorker.writeInt(fingerprint.length);
+					toWorker.write(fingerprint);
+					toWorker.flush();
+					lock.lock();
+					try {
+						worker.joined = true;
+					} finally {
+						lock.unlock();
+					}
+					logger.outln("Worker joined - " + workerName);
+					while(true) {
+						int message = fromWorker.readInt();
+						worker.heard();
+						if(message == RESULT) {
+							long taskId = fromWorker.readLong();
+							complete(worker, taskId, readStats(fromWorker));
+						} else if(message == FAILURE) {
+							long taskId = fromWorker.readLong();
+							fail(worker, taskId, fromWorker.readUTF());
+						} else if(message == HEARTBEAT)
+							continue;
+						else if(message == REQUEST) {
+							int numOfTasks = fromWorker.readInt();
+							if(closed) {
+								toWorker.writeInt(DONE);
+								toWorker.flush();
+								done = true;
+								break;
+							}
+							List<RemoteTask> batch = lease(worker, numOfTasks);
+							toWorker.writeInt(BATCH);
+							toWorker.writeInt(batch.size());
+							for(RemoteTask task : batch) {
+								toWorker.writeLong(task.id);
+								writePartition(toWorker, task.partition);
+								toWorker.writeFloat(task.sampleProportion);
+							}
+							toWorker.flush();
+						} else
+							throw new IOException("Unknown message from the worker - " + message);
+					}
+					logger.outln("Worker left - " + workerName);
+				} catch (IOException e) {
+					if(!closed && worker.joined)
+						logger.errorln("Lost the worker " + workerName + " (" + e + ")");
+					else if(!worker.joined)
+						logger.errorln("Refused the worker " + workerName + " (" + e + ")");
+				} finally {
+					int released = release(worker);
+					if(released > 0)
+						logger.errorln("Re-leasing the " + released + " tasks of the worker " + workerName);
+					try {
+						// A worker told to quit exits on its own, while a lost one is cut off
+						if(done)
+							in.close();
+						else
+							connection.close();
+					} catch (IOException e) {
+						// Already closed
+					}
+				}
+			}
+		});
+		handler.start();
+	}
+
+	/**
+	 * Pauses or resumes the leasing of tasks. While paused, the workers are handed empty batches (and so stay idle once their leased tasks complete),
+	 * and the pending tasks keep their order, to be leased from where they were left once resumed.
+	 * @param paused <code>true</code> to pause the leasing, <code>false</code> to resume it
+	 */
+	public void setPaused(boolean paused) {
+		lock.lock();
+		try {
+			this.paused = paused;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Completes the pending tasks (but not the leased ones) without any stats, so that no more tasks are leased
+	 * @return The partitions of the skipped tasks
+	 */
+	public List<Set<Integer>> skipPendingTasks() {
+		lock.lock();
+		try {
+			List<Set<Integer>> skipped = new ArrayList<Set<Integer>>();
+			for(RemoteTask task : pendingTasks)
+				if(task.result.complete(null))
+					skipped.add(task.partition);
+			pendingTasks.clear();
+			return skipped;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Starts the thread that looks out for the workers not heard from for {@link #WORKER_TIMEOUT} seconds, unless it is already running.
+	 * Such a worker is taken to be lost, its leased tasks are released and its connection is closed, even if its handler is stuck reading from a half-open connection.
+	 * Called with the lock held.
+	 */
+	private void startMonitor() {
+		if(monitor != null)
+			return;
+		monitor = CoordinationThreads.newThread("Worker Monitor", new Runnable() {
+			@Override
+			public void run() {
+				try {
+					while(!closed) {
+						Thread.sleep(1000);
+						List<Worker> silent = new ArrayList<Worker>();
+						long now = System.nanoTime();
+						lock.lock();
+						try {
+							for(Worker worker : workers)
+								if(now - worker.lastHeard > TimeUnit.SECONDS.toNanos(WORKER_TIMEOUT))
+									silent.add(worker);
+						} finally {
+							lock.unlock();
+						}
+						for(Worker worker : silent) {
+							int released = release(worker);
+							if(released < 0)
+								continue;
+							logger.errorln("Nothing heard from the worker " + worker.name + " for " + WORKER_TIMEOUT + " sec, re-leasing its " + released + " tasks");
+							try {
+								worker.connection.close();
+							} catch (IOException e) {
+								// Already closed
+							}
+						}
+					}
+				} catch (InterruptedException e) {
+					// Closed
+				}
+			}
+		});
+		monitor.start();
+	}
+
+	/**
+	 * Submits tasks for a number of partitions, to be leased to the workers in the given order
+	 * @param partitions The partitions to evaluate
+	 * @param sampleProportion The proportion of rows of the stratified sample to evaluate the partitions on (see {@link in.ac.iitk.cse.putwb.classify.FoldPlan#getStratifiedSample(float)}),
+	 * or 0 to evaluate them on the rows retained as per the horizontal expense
+	 * @param progressEstimator The estimator to report the completion of the tasks to
+	 * @return The results of the tasks, in the order of the partitions. The result of a skipped task is <code>null</code>.
+	 * @throws IllegalStateException If the coordinator is closed
+	 */
+	public List<Future<Stats>> submit(Collection<Set<Integer>> partitions, float sampleProportion, ProgressEstimator progressEstimator) throws IllegalStateException {
+		lock.lock();
+		try {
+			if(closed)
+				throw new IllegalStateException("The task coordinator is closed");
+			List<Future<Stats>> results = new ArrayList<Future<Stats>>();
+			for(Set<Integer> partition : partitions) {
+				RemoteTask task = new RemoteTask(nextTaskId++, partition, sampleProportion, progressEstimator);
+				pendingTasks.add(task);
+				results.add(task.result);
+			}
+			if(abandonReason != null)
+				abandon(abandonReason);
+			return results;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Completes the pending tasks (but not the leased ones) for some partitions without any stats, so that they are not leased
+	 * @param partitions The partitions whose tasks are to be withdrawn
+	 * @return The partitions whose tasks were withdrawn
+	 */
+	public Set<Set<Integer>> withdraw(Collection<Set<Integer>> partitions) {
+		lock.lock();
+		try {
+			Set<Set<Integer>> withdrawn = new HashSet<Set<Integer>>();
+			Iterator<RemoteTask> tasks = pendingTasks.iterator();
+			while(tasks.hasNext()) {
+				RemoteTask task = tasks.next();
+				if(partitions.contains(task.partition) && task.result.complete(null)) {
+					withdrawn.add(task.partition);
+					tasks.remove();
+				}
+			}
+			return withdrawn;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * A learning task handed out to the workers
+	 * @author Saurabh Srivastava
+	 *
+	 */
+	private static class RemoteTask {
+
+		/**
+		 * The id of the task
+		 */
+		private long id;
+
+		/**
+		 * The partition to evaluate
+		 */
+		private Set<Integer> partition;
+
+		/**
+		 * The estimator to report the completion of the task to
+		 */
+		private ProgressEstimator progressEstimator;
+
+		/**
+		 * The result of the task
+		 */
+		private CompletableFuture<Stats> result;
+
+		/**
+		 * The proportion of rows of the stratified sample to evaluate the partition on, or 0 for the rows retained as per the horizontal expense
+		 */
+		private float sampleProportion;
+
+		/**
+		 * Creates a task
+		 * @param id The id of the task
+		 * @param partition The partition to evaluate
+		 * @param sampleProportion The proportion of rows of the stratified sample to evaluate the partition on
+		 * @param progressEstimator The estimator to report the completion of the task to
+		 */
+		RemoteTask(long id, Set<Integer> partition, float sampleProportion, ProgressEstimator progressEstimator) {
+			this.id = id;
+			this.partition = partition;
+			this.sampleProportion = sampleProportion;
+			this.progressEstimator = progressEstimator;
+			result = new CompletableFuture<Stats>();
+		}
+	}
+
+	/**
+	 * A worker being served by the coordinator
+	 * @author Saurabh Srivastava
+	 *
+	 */
+	private static class Worker {
+
+		/**
+		 * The connection to the worker, closed once the worker is lost
+		 */
+		private Closeable connection;
+
+		/**
+		 * A flag that tells if the worker has presented a valid token
+		 */
+		private volatile boolean joined;
+
+		/**
+		 * The time (as per {@link System#nanoTime()}) at which the worker was last heard from
+		 */
+		private volatile long lastHeard;
+
+		/**
+		 * The tasks leased to the worker by their ids, in the order they were leased
+		 */
+		private Map<Long, RemoteTask> leased;
+
+		/**
+		 * A flag that tells if the worker has been taken to be lost
+		 */
+		private boolean lost;
+
+		/**
+		 * A name of the worker, for the messages
+		 */
+		private String name;
+
+		/**
+		 * Creates a worker, as heard from just now
+		 * @param name A name of the worker
+		 * @param connection The connection to the worker
+		 */
+		Worker(String name, Closeable connection) {
+			this.name = name;
+			this.connection = connection;
+			leased = new LinkedHashMap<Long, RemoteTask>();
+			joined = lost = false;
+			heard();
+		}
+
+		/**
+		 * Records that the worker has just been heard from
+		 */
+		void heard() {
+			lastHeard = System.nanoTime();
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import in.ac.iitk.cse.putwb.log.BasicLogger;
+
+/**
+ * This class enforces a time limit on the learning tasks of an experiment.<br>
+ * The limit is either absolute, or a multiple of the median time taken by the learning tasks completed so far.
+ * The median is taken over a bounded sample of the task times (see {@link ProgressEstimator#getTaskTime(double)}), so that the watchdog takes constant memory however many tasks complete.
+ * At regular intervals, the watchdog checks the running tasks and times out those that have exceeded the limit.
+ * Timing out interrupts the task, which stops waiting for the model being built right away, and abandons the thread building it 
+ * (see {@link in.ac.iitk.cse.putwb.classify.DataClassifier#setAbandonableBuilds(boolean)}). The abandoned build runs on at the minimum priority till it returns, 
+ * since a classifier that never checks for an interruption cannot be stopped, but the core of the task is handed over to the next task.
+ * @author Saurabh Srivastava
+ *
+ */
+public class TaskWatchdog implements Runnable {
+
+	/**
+	 * The interval (in milliseconds) between two consecutive checks of the running tasks
+	 */
+	private static final long CHECK_INTERVAL = 500;
+
+	/**
+	 * The minimum number of completed tasks required, before a limit relative to the median time is enforced
+	 */
+	private static final int MIN_TASKS_FOR_MEDIAN = 5;
+
+	/**
+	 * The thread that periodically checks the running tasks
+	 */
+	private Thread checkingThread;
+
+	/**
+	 * The estimator sampling the times of the tasks that completed their evaluation, for the median time
+	 */
+	private ProgressEstimator completedTasks;
+
+	/**
+	 * The logger for reporting the tasks that time out
+	 */
+	private BasicLogger logger;
+
+	/**
+	 * The multiple of the median time after which a task is timed out, or a non-positive value if the limit is absolute
+	 */
+	private double medianMultiple;
+
+	/**
+	 * The number of tasks timed out till now
+	 */
+	private long numOfTasksTimedOut;
+
+	/**
+	 * The currently running tasks, mapped to the time (as per {@link System#nanoTime()}) at which they started
+	 */
+	private Map<LearningPod, Long> runningTasks;
+
+	/**
+	 * The absolute time limit (in nano seconds), or a non-positive value if the limit is relative to the median time
+	 */
+	private long timeLimit;
+
+	/**
+	 * Creates a watchdog with an absolute time limit
+	 * @param timeLimit The time limit (in nano seconds) for every learning task
+	 * @param logger The logger for reporting the tasks that time out
+	 */
+	public TaskWatchdog(long timeLimit, BasicLogger logger) {
+		this(timeLimit, 0, logger);
+	}
+
+	/**
+	 * Creates a watchdog with a time limit relative to the median time taken by the completed tasks
+	 * @param medianMultiple The multiple of the median time after which a task is timed out
+	 * @param logger The logger for reporting the tasks that time out
+	 */
+	public TaskWatchdog(double medianMultiple, BasicLogger logger) {
+		this(0, medianMultiple, logger);
+	}
+
+	/**
+	 * Creates a watchdog with either an absolute time limit, or a limit relative to the median time
+	 * @param timeLimit The absolute time limit (in nano seconds), if positive
+	 * @param medianMultiple The multiple of the median time, if positive
+	 * @param logger The logger for reporting the tasks that time out
+	 */
+	private TaskWatchdog(long timeLimit, double medianMultiple, BasicLogger logger) {
+		setTimeLimit(timeLimit, medianMultiple);
+		this.logger = logger;
+		runningTasks = new HashMap<LearningPod, Long>();
+		completedTasks = new ProgressEstimator();
+		numOfTasksTimedOut = 0;
+	}
+
+	/**
+	 * Returns the time limit currently in effect for the learning tasks
+	 * @return the time limit in nano seconds, or a negative value if no limit is in effect as yet
+	 */
+	public synchronized long getEffectiveTimeLimit() {
+		if(timeLimit > 0)
+			return timeLimit;
+		if(completedTasks.getNumOfTasksCompleted() < MIN_TASKS_FOR_MEDIAN)
+			return -1;
+		return (long)(getMedianTime() * medianMultiple);
+	}
+
+	/**
+	 * Returns the median time taken by the tasks that completed their evaluation so far
+	 * @return the median time in nano seconds, or a negative value if no task has completed as yet
+	 */
+	public synchronized double getMedianTime() {
+		double median = completedTasks.getTaskTime(50);
+		return median < 0 ? -1 : median * 1000000000d;
+	}
+
+	/**
+	 * Returns the number of tasks timed out till now
+	 * @return the number of timed out tasks
+	 */
+	public synchronized long getNumOfTasksTimedOut() {
+		return numOfTasksTimedOut;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void run() {
+		try {
+			while(true) {
+				Thread.sleep(CHECK_INTERVAL);
+				synchronized(this) {
+					long limit = getEffectiveTimeLimit();
+					if(limit <= 0)
+						continue;
+					long now = System.nanoTime();
+					for(Map.Entry<LearningPod, Long> entry : runningTasks.entrySet()) {
+						LearningPod task = entry.getKey();
+						if(now - entry.getValue() > limit && !task.isTimedOut()) {
+							task.timeOut();
+							numOfTasksTimedOut++;
+							logger.errorln("Learning task over the attribute set " + task.getDescription() + " exceeded the time limit after " + (now - entry.getValue())/1000000000f + " sec, stopping it");
+						}
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			// Stopped
+		}
+	}
+
+	/**
+	 * Changes the time limit, for the running tasks as well as the ones started later. A running task that has already exceeded the new limit is timed out at the next check.
+	 * @param timeLimit The absolute time limit (in nano seconds), if positive
+	 * @param medianMultiple The multiple of the median time, if positive (used only if the absolute limit is not positive)
+	 * @throws IllegalArgumentException If neither the absolute limit nor the multiple is positive
+	 */
+	public synchronized void setTimeLimit(long timeLimit, double medianMultiple) throws IllegalArgumentException {
+		if(timeLimit <= 0 && medianMultiple <= 0)
+			throw new IllegalArgumentException("The time limit must be positive");
+		this.timeLimit = timeLimit;
+		this.medianMultiple = medianMultiple;
+	}
+
+	/**
+	 * Starts checking the running tasks in a separate (daemon) thread
+	 */
+	public void start() {
+		checkingThread = CoordinationThreads.newThread("Learning Tasks Watchdog", this);
+		checkingThread.start();
+	}
+
+	/**
+	 * Stops checking the running tasks
+	 */
+	public void stop() {
+		if(checkingThread != null)
+			checkingThread.interrupt();
+	}
+
+	/**
+	 * Informs the watchdog that a task has finished, either normally or by timing out.
+	 * Once this method returns, the watchdog does not interrupt the task any more.
+	 * @param task The task that finished
+	 * @param time The time (in nano seconds) the task ran for
+	 * @param completed <code>true</code> if the task completed its evaluation (even if it was timed out just as it completed), <code>false</code> otherwise
+	 */
+	public synchronized void taskFinished(LearningPod task, long time, boolean completed) {
+		runningTasks.remove(task);
+		if(!completed)
+			return;
+		// The task completed before it noticed the interruption, so its results are still valid
+		if(task.isTimedOut())
+			numOfTasksTimedOut--;
+		completedTasks.taskCompleted(time);
+	}
+
+	/**
+	 * Informs the watchdog that a task has started running in the current thread
+	 * @param task The task that started
+	 */
+	public synchronized void taskStarted(LearningPod task) {
+		runningTasks.put(task, System.nanoTime());
+	}
+}
@@ -0,0 +1,373 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import in.ac.iitk.cse.putwb.log.BasicLogger;
+
+/**
+ * A TaskWorker evaluates the learning tasks handed out by a {@link TaskCoordinator}, so that the learning tasks of an experiment can be spread over
+ * the cores of several processes or machines.<br>
+ * The worker receives the options of the experiment from the coordinator, and creates the experiment locally (loading the dataset from its own copy of the data file).
+ * It then keeps asking for as many tasks as it has idle threads, and streams the stats of every task back as soon as it completes, till the coordinator tells it to quit.
+ * The worker must present the token of the coordinator before it is told anything, and keeps sending a heartbeat while it is connected, so that the coordinator can tell a busy worker from a lost one.
+ * @author Saurabh Srivastava
+ *
+ */
+public class TaskWorker {
+
+	/**
+	 * Switch for providing the host of the coordinator
+	 */
+	public static final String HOST_SWITCH = "-host";
+
+	/**
+	 * Switch for providing the port of the coordinator
+	 */
+	public static final String PORT_SWITCH = "-port";
+
+	/**
+	 * The options of the experiment that are not applicable to a worker, since they concern the results or the files of the coordinator
+	 */
+	private static final String[] COORDINATOR_ONLY_SWITCHES = {PUTExperiment.BIND_SWITCH, PUTExperiment.BUDGET_SWITCH, PUTExperiment.COORDINATOR_SWITCH, PUTExperiment.FORK_HEAP_SWITCH, PUTExperiment.FORK_SWITCH, 
+			PUTExperiment.OUTPUT_FILE_SWITCH, PUTExperiment.RESULT_CACHE_SWITCH, PUTExperiment.STDERR_SWITCH, PUTExperiment.STDOUT_SWITCH, PUTExperiment.TOKEN_SWITCH};
+
+	/**
+	 * The interval (in milliseconds) after which a worker asks again for tasks, if none were pending the last time
+	 */
+	private static final long IDLE_INTERVAL = 1000;
+
+	/**
+	 * The main to run a worker
+	 * @param args The commandline arguments for the worker
+	 */
+	public static void main(String[] args) {
+		BasicLogger defaultLogger = BasicLogger.getDefaultLogger();
+		if(args.length == 0) {
+			printUsageDetails();
+			System.exit(0);
+		}
+		String host = "localhost";
+		int port = 0;
+		String dataFile = null;
+		String tokenFile = null;
+		int parallelism = 0;
+		String token = null;
+		try {
+			for(int i = 0; i < args.length; i++) {
+				if(args[i].compareToIgnoreCase(HOST_SWITCH) == 0)
+					host = args[++i];
+				else if(args[i].compareToIgnoreCase(PORT_SWITCH) == 0)
+					port = Integer.parseInt(args[++i]);
+				else if(args[i].compareToIgnoreCase(PUTExperiment.DATA_FILE_SWITCH) == 0)
+					dataFile = args[++i];
+				else if(args[i].compareToIgnoreCase(PUTExperiment.PARALLELISM_SWITCH) == 0)
+					parallelism = Integer.parseInt(args[++i]);
+				else if(args[i].compareToIgnoreCase(PUTExperiment.TOKEN_SWITCH) == 0)
+					tokenFile = args[++i];
+				else
+					throw new IllegalArgumentException("Invaid option - " + args[i]);
+			}
+			if(port <= 0)
+				throw new IllegalArgumentException("Port of the coordinator required");
+			if(tokenFile == null)
+				throw new IllegalArgumentException("Token file of the coordinator required");
+			token = TaskCoordinator.readToken(tokenFile);
+		} catch (IOException e) {
+			defaultLogger.errorln("Problem in reading the token file - " + e.getMessage());
+			System.exit(-1);
+		} catch (NumberFormatException e) {
+			defaultLogger.errorln("Problem in parsing numerical value - " + e.getMessage());
+			System.exit(-1);
+		} catch (ArrayIndexOutOfBoundsException e) {
+			defaultLogger.errorln("Invalid number of arguments. Please provide matching arguments for all the switches.");
+			System.exit(-1);
+		} catch (IllegalArgumentException e) {
+			defaultLogger.errorln(e.getMessage());
+			System.exit(-1);
+		}
+		TaskWorker worker = new TaskWorker(dataFile, parallelism, token, defaultLogger);
+		try (Socket socket = new Socket(host, port)) {
+			socket.setKeepAlive(true);
+			socket.setTcpNoDelay(true);
+			// The coordinator replies to every request right away, so a long silence means that it is gone
+			socket.setSoTimeout(TaskCoordinator.WORKER_TIMEOUT * 1000);
+			defaultLogger.outln("Connected to the coordinator at " + host + ":" + port);
+			worker.work(socket.getInputStream(), socket.getOutputStream());
+		} catch (Exception e) {
+			defaultLogger.errorln("Fatal Error - problem in working for the coordinator at " + host + ":" + port + ". Exiting.");
+			defaultLogger.exception(e);
+			System.exit(-1);
+		}
+		defaultLogger.outln("Done !! Evaluated " + worker.getNumOfTasksCompleted() + " learning tasks");
+	}
+
+	/**
+	 * Prints a summary of the usage of the worker
+	 */
+	public static void printUsageDetails() {
+		System.out.println("---------------------------------------------------------------");
+		System.out.println("  PUTWorkbench Worker " + PUTExperiment.versionInfo);
+		System.out.println("---------------------------------------------------------------");
+		System.out.println("\nUsage options:");
+		System.out.println(PORT_SWITCH + "\t (Required) The port on which the coordinator accepts workers, e.g. " + PORT_SWITCH + " 5000");
+		System.out.println(PUTExperiment.TOKEN_SWITCH + "\t (Required) The file holding the token of the coordinator, e.g. " + PUTExperiment.TOKEN_SWITCH + " /home/user/experiment.token");
+		System.out.println(HOST_SWITCH + "\t (Default: localhost) The host of the coordinator, e.g. " + HOST_SWITCH + " node1.example.com");
+		System.out.println(PUTExperiment.PARALLELISM_SWITCH + "\t (Default: number of processors + 1) The number of learning tasks to evaluate at a time, e.g. " + PUTExperiment.PARALLELISM_SWITCH + " 8");
+		System.out.println(PUTExperiment.DATA_FILE_SWITCH + "\t (Default: the path used by the coordinator) The path to the local copy of the (arff) data file, e.g. " + PUTExperiment.DATA_FILE_SWITCH + " /home/user/data.arff");
+		System.out.println("\nThe coordinator is started as a usual experiment, with the additional option " + PUTExperiment.COORDINATOR_SWITCH + " <port>.");
+		System.out.println("The local copy of the data file must be identical to the one used by the coordinator, or the worker is refused.");
+		System.out.println("The token file is the one written (or read) by the coordinator, as per its " + PUTExperiment.TOKEN_SWITCH + " option, and should be copied over a secure channel.");
+		System.out.println();
+	}
+
+	/**
+	 * The path to the local copy of the data file, or <code>null</code> to use the path of the coordinator
+	 */
+	private String dataFile;
+
+	/**
+	 * The logger for this worker
+	 */
+	private BasicLogger logger;
+
+	/**
+	 * The number of learning tasks completed
+	 */
+	private AtomicLong numOfTasksCompleted;
+
+	/**
+	 * The number of learning tasks to evaluate at a time, or 0 for the default of the experiment
+	 */
+	private int parallelism;
+
+	/**
+	 * The token to present to the coordinator
+	 */
+	private String token;
+
+	/**
+	 * Creates a worker
+	 * @param dataFile The path to the local copy of the data file, or <code>null</code> to use the path of the coordinator
+	 * @param parallelism The number of learning tasks to evaluate at a time, or 0 for the default of the experiment
+	 * @param token The token to present to the coordinator
+	 * @param logger The logger for this worker
+	 */
+	public TaskWorker(String dataFile, int parallelism, String token, BasicLogger logger) {
+		this.dataFile = dataFile;
+		this.parallelism = parallelism;
+		this.token = token;
+		this.logger = logger;
+		numOfTasksCompleted = new AtomicLong(0);
+	}
+
+	/**
+	 * Returns the number of learning tasks completed by this worker
+	 * @return the number of completed tasks
+	 */
+	public long getNumOfTasksCompleted() {
+		return numOfTasksCompleted.get();
+	}
+
+	/**
+	 * Adapts the options of the experiment received from the coordinator to this worker
+	 * @param options The options of the experiment
+	 * @return The options for the experiment of this worker
+	 */
+	private String[] getWorkerOptions(String[] options) {
+		List<String> workerOptions = new ArrayList<String>();
+		for(int i = 0; i + 1 < options.length; i += 2) {
+			String option = options[i];
+			boolean applicable = true;
+			for(String coordinatorOnlySwitch : COORDINATOR_ONLY_SWITCHES)
+				if(option.compareToIgnoreCase(coordinatorOnlySwitch) == 0)
+					applicable = false;
+			if(dataFile != null && option.compareToIgnoreCase(PUTExperiment.DATA_FILE_SWITCH) == 0)
+				applicable = false;
+			if(parallelism > 0 && option.compareToIgnoreCase(PUTExperiment.PARALLELISM_SWITCH) == 0)
+				applicable = false;
+			if(applicable) {
+				workerOptions.add(option);
+				workerOptions.add(options[i + 1]);
+			}
+		}
+		if(dataFile != null) {
+			workerOptions.add(PUTExperiment.DATA_FILE_SWITCH);
+			workerOptions.add(dataFile);
+		}
+		if(parallelism > 0) {
+			workerOptions.add(PUTExperiment.PARALLELISM_SWITCH);
+			workerOptions.add(Integer.toString(parallelism));
+		}
+		return workerOptions.toArray(new String[workerOptions.size()]);
+	}
+
+	/**
+	 * Works for a coordinator over a pair of streams, till the coordinator tells this worker to quit
+	 * @param in The stream from the coordinator
+	 * @param out The stream to the coordinator
+	 * @throws IOException If the connection to the coordinator is lost, the coordinator refuses this worker, or the experiment could not be created as per the options of the coordinator
+	 * @throws InterruptedException If the worker is interrupted while waiting for its tasks
+	 */
+	public void work(InputStream in, OutputStream out) throws IOException, InterruptedException {
+		DataOutputStream toCoordinator = new DataOutputStream(new BufferedOutputStream(out));
+		DataInputStream fromCoordinator = new DataInputStream(new BufferedInputStream(in));
+		byte[] tokenBytes = token.getBytes(StandardCharsets.UTF_8);
+		toCoordinator.writeInt(TaskCoordinator.HELLO);
+		toCoordinator.writeInt(TaskCoordinator.PROTOCOL_VERSION);
+		toCoordinator.writeInt(tokenBytes.length);
+		toCoordinator.write(tokenBytes);
+		toCoordinator.flush();
+		String[] options;
+		byte[] fingerprint;
+		try {
+			options = new String[TaskCoordinator.readLength(fromCoordinator)];
+			for(int i = 0; i < options.length; i++)
+				options[i] = fromCoordinator.readUTF();
+			fingerprint = new byte[TaskCoordinator.readLength(fromCoordinator)];
+			fromCoordinator.readFully(fingerprint);
+		} catch (EOFException e) {
+			throw new IOException("The coordinator refused this worker, since the token does not match (or speaks a different version of the protocol)");
+		}
+		PUTExperiment experiment = PUTExperiment.createExperiment(getWorkerOptions(options));
+		if(experiment == null)
+			throw new IOException("Could not create the experiment as per the options of the coordinator - " + Arrays.toString(options));
+		if(!Arrays.equals(fingerprint, experiment.getExperimentFingerprint()))
+			throw new IOException("The dataset or the settings of this worker do not match those of the coordinator");
+
+		int numOfThreads = experiment.parallelism;
+		ExecutorService learningExecutor = Executors.newFixedThreadPool(numOfThreads);
+		Semaphore idleThreads = new Semaphore(numOfThreads);
+		// Guards the stream to the coordinator - a lock rather than a monitor, so that the heartbeat does not pin its carrier thread while it writes (see CoordinationThreads)
+		ReentrantLock writeLock = new ReentrantLock();
+		Thread heartbeat = CoordinationThreads.newThread("Worker Heartbeat", new Runnable() {
+			@Override
+			public void run() {
+				try {
+					while(true) {
+						Thread.sleep(TimeUnit.SECONDS.toMillis(TaskCoordinator.HEARTBEAT_INTERVAL));
+						writeLock.lock();
+						try {
+							toCoordinator.writeInt(TaskCoordinator.HEARTBEAT);
+							toCoordinator.flush();
+						} finally {
+							writeLock.unlock();
+						}
+					}
+				} catch (IOException e) {
+					// The connection is lost, which the main thread finds out on its next read
+				} catch (InterruptedException e) {
+					// Stopped
+				}
+			}
+		});
+		heartbeat.start();
+		experiment.startRemoteEvaluation();
+		try {
+			while(true) {
+				// Ask for as many tasks as there are idle threads, waiting for at least one to be idle
+				idleThreads.acquire();
+				int numOfTasks = 1 + idleThreads.drainPermits();
+				writeLock.lock();
+				try {
+					toCoordinator.writeInt(TaskCoordinator.REQUEST);
+					toCoordinator.writeInt(numOfTasks);
+					toCoordinator.flush();
+				} finally {
+					writeLock.unlock();
+				}
+				int message;
+				try {
+					message = fromCoordinator.readInt();
+				} catch (EOFException e) {
+					// The coordinator may quit as soon as the experiment completes, without waiting for the idle workers to ask for tasks
+					logger.errorln("The coordinator closed the connection");
+					break;
+				}
+				if(message == TaskCoordinator.DONE)
+					break;
+				else if(message != TaskCoordinator.BATCH)
+					throw new IOException("Unknown message from the coordinator - " + message);
+				int numOfTasksLeased = fromCoordinator.readInt();
+				if(numOfTasksLeased < 0 || numOfTasksLeased > numOfTasks)
+					throw new IOException("Invalid number of tasks from the coordinator - " + numOfTasksLeased);
+				for(int i = 0; i < numOfTasksLeased; i++) {
+					long taskId = fromCoordinator.readLong();
+					Set<Integer> partition = TaskCoordinator.readPartition(fromCoordinator);
+					float sampleProportion = fromCoordinator.readFloat();
+					learningExecutor.execute(new Runnable() {
+						@Override
+						public void run() {
+							try {
+								Stats stat = null;
+								String failure = null;
+								try {
+									stat = experiment.evaluatePartition(partition, sampleProportion);
+								} catch (Throwable t) {
+									// Even an error (e.g. running out of memory) is reported, so that the task does not stay leased to this worker
+									logger.errorln("Problem in evaluating the partition " + partition + " - " + t);
+									if(t instanceof Exception)
+										logger.exception((Exception) t);
+									failure = t.toString();
+								}
+								writeLock.lock();
+								try {
+									if(failure == null) {
+										toCoordinator.writeInt(TaskCoordinator.RESULT);
+										toCoordinator.writeLong(taskId);
+										TaskCoordinator.writeStats(toCoordinator, stat);
+									} else {
+										toCoordinator.writeInt(TaskCoordinator.FAILURE);
+										toCoordinator.writeLong(taskId);
+										toCoordinator.writeUTF(failure.length() > 1000 ? failure.substring(0, 1000) : failure);
+									}
+									toCoordinator.flush();
+								} finally {
+									writeLock.unlock();
+								}
+								numOfTasksCompleted.incrementAndGet();
+							} catch (IOException e) {
+								// The connection is lost, which the main thread finds out on its next read
+							} finally {
+								idleThreads.release();
+							}
+						}
+					});
+				}
+				idleThreads.release(numOfTasks - numOfTasksLeased);
+				if(numOfTasksLeased == 0)
+					Thread.sleep(IDLE_INTERVAL);
+			}
+		} finally {
+			heartbeat.interrupt();
+			learningExecutor.shutdownNow();
+			learningExecutor.awaitTermination(1, TimeUnit.MINUTES);
+			experiment.stopRemoteEvaluation();
+			writeLock.lock();
+			try {
+				toCoordinator.close();
+			} finally {
+				writeLock.unlock();
+			}
+			fromCoordinator.close();
+		}
+	}
+}
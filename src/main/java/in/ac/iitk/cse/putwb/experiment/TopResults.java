@@ -0,0 +1,237 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * TopResults retains only a fixed number of the best results of an experiment, as per a chosen metric, in a bounded heap,
+ * so that the memory used (and the size of the result file) does not grow with the number of learning tasks.<br>
+ * The heap keeps the worst of the retained results on top, so that a new result only has to be compared with it to be admitted or dropped.
+ * Aggregates over all the results (including the dropped ones) are kept as they arrive - the count, mean, standard deviation,
+ * minimum, maximum and a histogram of the metric. Results without a value for the metric (timed out tasks, or undefined class specific values)
+ * are only counted, and never retained.
+ * @author Saurabh Srivastava
+ *
+ */
+public class TopResults {
+
+	/**
+	 * The number of bins of the histogram of the metric, over its whole range
+	 */
+	public static final int NUM_OF_HISTOGRAM_BINS = 10;
+
+	/**
+	 * The heap of the retained results, with the worst of them on top
+	 */
+	private PriorityQueue<Stats> best;
+
+	/**
+	 * The maximum number of results to retain
+	 */
+	private int capacity;
+
+	/**
+	 * The class index, in case the metric is class specific (otherwise ignored)
+	 */
+	private Integer classIndex;
+
+	/**
+	 * The number of results in every bin of the histogram
+	 */
+	private long[] histogram;
+
+	/**
+	 * The maximum value of the metric seen so far
+	 */
+	private double max;
+
+	/**
+	 * The metric; one of the constants defined in {@link Stats}
+	 */
+	private short metric;
+
+	/**
+	 * The minimum value of the metric seen so far
+	 */
+	private double min;
+
+	/**
+	 * The number of results that had a value for the metric
+	 */
+	private long numOfRatedResults;
+
+	/**
+	 * The number of results that had no value for the metric
+	 */
+	private long numOfUnratedResults;
+
+	/**
+	 * The sum of the values of the metric
+	 */
+	private double sum;
+
+	/**
+	 * The sum of the squares of the values of the metric
+	 */
+	private double sumOfSquares;
+
+	/**
+	 * The order of the results from the worst to the best
+	 */
+	private Comparator<Stats> worstFirst;
+
+	/**
+	 * Creates an empty set of top results
+	 * @param capacity The maximum number of results to retain
+	 * @param metric The metric to rank the results by; one of the constants defined in {@link Stats}
+	 * @param classIndex The class index, in case the metric is class specific (otherwise ignored)
+	 * @throws IllegalArgumentException If the capacity is not positive
+	 */
+	public TopResults(int capacity, short metric, Integer classIndex) throws IllegalArgumentException {
+		if(capacity <= 0)
+			throw new IllegalArgumentException("The number of results to retain must be positive");
+		this.capacity = capacity;
+		this.metric = metric;
+		this.classIndex = classIndex;
+		final int sign = Stats.isLowerBetter(metric) ? -1 : 1;
+		worstFirst = new Comparator<Stats>() {
+			@Override
+			public int compare(Stats o1, Stats o2) {
+				int result = sign * Double.compare(getValue(o1), getValue(o2));
+				// Among equally good results, the ones later in dictionary order are dropped first, so that the retained results do not depend on the order of arrival
+				return result != 0 ? result : PUTExperiment.ATTRIBUTE_SET_COMPARATOR.compare(o2.getPartition(), o1.getPartition());
+			}
+		};
+		best = new PriorityQueue<Stats>(capacity + 1, worstFirst);
+		histogram = new long[NUM_OF_HISTOGRAM_BINS];
+		min = Double.POSITIVE_INFINITY;
+		max = Double.NEGATIVE_INFINITY;
+		sum = sumOfSquares = 0;
+		numOfRatedResults = numOfUnratedResults = 0;
+	}
+
+	/**
+	 * Adds a result to the aggregates, and retains it if it is among the best results seen so far
+	 * @param stat The result
+	 */
+	public synchronized void add(Stats stat) {
+		double value = stat.isTimedOut() ? Double.NaN : getValue(stat);
+		if(Double.isNaN(value)) {
+			numOfUnratedResults++;
+			return;
+		}
+		numOfRatedResults++;
+		sum += value;
+		sumOfSquares += value * value;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+		double low = Stats.getMinimumStatValue(metric);
+		double high = Stats.getMaximumStatValue(metric);
+		int bin = (int)((value - low) / (high - low) * NUM_OF_HISTOGRAM_BINS);
+		histogram[Math.max(0, Math.min(NUM_OF_HISTOGRAM_BINS - 1, bin))]++;
+
+		if(best.size() < capacity)
+			best.add(stat);
+		else if(worstFirst.compare(stat, best.peek()) > 0) {
+			best.poll();
+			best.add(stat);
+		}
+	}
+
+	/**
+	 * Returns the retained results
+	 * @return the retained results, from the best to the worst
+	 */
+	public synchronized List<Stats> getBest() {
+		List<Stats> result = new ArrayList<Stats>(best);
+		Collections.sort(result, Collections.reverseOrder(worstFirst));
+		return result;
+	}
+
+	/**
+	 * Returns the histogram of the metric, with {@link #NUM_OF_HISTOGRAM_BINS} bins of equal width over the range of the metric
+	 * @return the number of results in every bin
+	 */
+	public synchronized long[] getHistogram() {
+		return histogram.clone();
+	}
+
+	/**
+	 * Returns the maximum value of the metric
+	 * @return the maximum value, or <code>NaN</code> if no result had a value
+	 */
+	public synchronized double getMax() {
+		return numOfRatedResults == 0 ? Double.NaN : max;
+	}
+
+	/**
+	 * Returns the mean value of the metric
+	 * @return the mean value, or <code>NaN</code> if no result had a value
+	 */
+	public synchronized double getMean() {
+		return numOfRatedResults == 0 ? Double.NaN : sum / numOfRatedResults;
+	}
+
+	/**
+	 * Returns the metric by which the results are ranked
+	 * @return the metric; one of the constants defined in {@link Stats}
+	 */
+	public short getMetric() {
+		return metric;
+	}
+
+	/**
+	 * Returns the minimum value of the metric
+	 * @return the minimum value, or <code>NaN</code> if no result had a value
+	 */
+	public synchronized double getMin() {
+		return numOfRatedResults == 0 ? Double.NaN : min;
+	}
+
+	/**
+	 * Returns the number of results that had a value for the metric
+	 * @return the number of rated results
+	 */
+	public synchronized long getNumOfRatedResults() {
+		return numOfRatedResults;
+	}
+
+	/**
+	 * Returns the number of results retained
+	 * @return the number of retained results
+	 */
+	public synchronized int getNumOfRetainedResults() {
+		return best.size();
+	}
+
+	/**
+	 * Returns the number of results that had no value for the metric (timed out tasks, or undefined class specific values)
+	 * @return the number of unrated results
+	 */
+	public synchronized long getNumOfUnratedResults() {
+		return numOfUnratedResults;
+	}
+
+	/**
+	 * Returns the (population) standard deviation of the metric
+	 * @return the standard deviation, or <code>NaN</code> if no result had a value
+	 */
+	public synchronized double getStandardDeviation() {
+		if(numOfRatedResults == 0)
+			return Double.NaN;
+		double mean = sum / numOfRatedResults;
+		return Math.sqrt(Math.max(0, sumOfSquares / numOfRatedResults - mean * mean));
+	}
+
+	/**
+	 * Returns the value of the metric for a result
+	 * @param stat The result
+	 * @return the value of the metric
+	 */
+	private double getValue(Stats stat) {
+		return stat.getStatValue(metric, classIndex);
+	}
+}
@@ -10,12 +10,10 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
 
 import in.ac.iitk.cse.putwb.classify.DataClassifier;
 import in.ac.iitk.cse.putwb.classify.Dataset;
@@ -51,6 +49,7 @@ public class Verifier extends PUTExperiment {
 		int k = 5;
 		boolean deleteMissing = false;
 		boolean removeDuplicates = true;
+		long seed = DEFAULT_SEED;
 		try {
 			for(int i = 0; i < params.length; i++) {
 				if(params[i].compareToIgnoreCase(DATA_FILE_SWITCH) == 0)
@@ -87,7 +86,9 @@ public class Verifier extends PUTExperiment {
 					stderr = new File(params[++i]);
 					if(!(stderr.createNewFile() || stderr.canWrite()))
 						throw new IOException("Cannot create/write the standard error file - " + stderr.getAbsolutePath());
-				} else
+				} else if(params[i].compareToIgnoreCase(SEED_SWITCH) == 0)
+					seed = Long.parseLong(params[++i]);
+				else
 					throw new RuntimeException("Invaid option - " + params[i]);
 			}
 			if(filePath == null)
@@ -107,6 +108,7 @@ public class Verifier extends PUTExperiment {
 				logger = BasicLogger.getLogger(stdout, stderr);
 			Verifier verifier = new Verifier(filePath, classifier, classifierOptions, outputFileName, currentResultsFileName,
 					hExpense, deleteMissing, removeDuplicates, k, logger);
+			verifier.setSeed(seed);
 			return verifier;
 		} catch (NumberFormatException e) {
 			logger.errorln("Problem in parsing numerical value - " + e.getMessage());
@@ -223,6 +225,7 @@ public class Verifier extends PUTExperiment {
 				"\n\t e.g. (for J48 classifier):" + 
 				" \n\t " + CLASSIFIER_OPTIONS_SWITCH + " \"{-U, -C 0.25}\"");
 		System.out.println(K_CROSS_SWITCH + "\t (Default: 5) Use this value of \"k\" for k-cross validation, e.g. "+ K_CROSS_SWITCH + " 10");
+		System.out.println(SEED_SWITCH + "\t (Default: " + DEFAULT_SEED + ") The seed used by the experiment that produced the current results, e.g. "+ SEED_SWITCH + " 42");
 		System.out.println(MISSING_VALUE_SWITCH + "\t (Default: R) 'R' implies \"replace missing values with mean/mode\"; 'D' implies \"delete rows with missing values\", e.g. "+ MISSING_VALUE_SWITCH + " R");
 		System.out.println(DUPLICATE_ROWS_SWITCH + "\t (Default: Y) 'Y' implies \"duplicate rows be removed\"; 'N' implies \"duplicate rows be left as such\", e.g. "+ DUPLICATE_ROWS_SWITCH + " Y");
 		System.out.println(STDOUT_SWITCH + "\t (Default: console) Use this for printing standard output messages, e.g. "+ STDOUT_SWITCH + " /tmp/stdout");
@@ -239,6 +242,11 @@ public class Verifier extends PUTExperiment {
 	 */
 	private List<Stats> currentStats;
 
+	/**
+	 * A {@link List} to hold the newly computed statistics
+	 */
+	private List<Stats> stats;
+
 	/**
 	 * Creates a new Verifier with given details
 	 * @param filePath The path to the (arff) data file
@@ -278,6 +286,15 @@ public class Verifier extends PUTExperiment {
 		switchOffRecovery = true;
 	}
 
+	/* (non-Javadoc)
+	 * @see in.ac.iitk.cse.putwb.experiment.PUTExperiment#storeStat(in.ac.iitk.cse.putwb.experiment.Stats)
+	 */
+	@Override
+	protected void storeStat(Stats stat) {
+		// The new stats are paired with the current stats (which are held in memory anyway), instead of being sorted into a result file
+		stats.add(stat);
+	}
+
 	/**
 	 * Starts the verification process
 	 */
@@ -300,28 +317,23 @@ public class Verifier extends PUTExperiment {
 			attributePartitions.add(stats.getPartition());
 		}
 		/*
-		 * Create datasets
+		 * Create datasets and learning requests
 		 */
 		try {
-			createDatasets();
+			scheduleLearningTasks();
 		} catch (Exception e) {
 			logger.errorln(
 					"Fatal Error - problems in creating verifier, could not create partitioned datasets. Exiting.");
 			logger.exception(e);
 			System.exit(-1);
 		}
-		/*
-		 * Create learning requests
-		 */
-		results = Collections.synchronizedList(new ArrayList<Future<Stats>>());
-		createLearningRequests();
 		/*
 		 * Collect new results
 		 */
 		try {
 			stats = new ArrayList<Stats>();
 			collectStats();
-		} catch (InterruptedException | ExecutionException e) {
+		} catch (InterruptedException | ExecutionException | IOException e) {
 			logger.errorln("Fatal Error - problem in collecting new learning statistics. Exiting.");
 			logger.exception(e);
 			System.exit(-1);
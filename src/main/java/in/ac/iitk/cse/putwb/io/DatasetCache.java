@@ -0,0 +1,228 @@
+package in.ac.iitk.cse.putwb.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Function;
+
+import weka.core.Instances;
+
+/**
+ * Keeps the cleaned datasets loaded by {@link DatasetLoader}, so that several experiments over the same data file share a single copy of the dataset.<br>
+ * The datasets are keyed by a hash of the contents of the data file (along with the cleaning options), so that a data file modified in between
+ * is loaded afresh, while identical copies of a data file share a single dataset. If the cache has a capacity, the least recently used datasets are dropped
+ * once it is full.<br>
+ * A data file is hashed again only if its size or modification time has changed since it was last hashed, and never under a lock. Every dataset is loaded
+ * exactly once, by the first experiment asking for it, while the other experiments asking for the same dataset wait for it; experiments asking for
+ * other datasets are not held up meanwhile.<br>
+ * The cached datasets must be treated as read-only by all the experiments sharing them.
+ * @author Saurabh Srivastava
+ *
+ */
+public class DatasetCache {
+
+	/**
+	 * The name of the hash algorithm used for the contents of the data files
+	 */
+	private static final String HASH_ALGORITHM = "SHA-256";
+
+	/**
+	 * Computes the hash of the contents of a file
+	 * @param filePath The path to the file
+	 * @return The hexadecimal representation of the hash
+	 * @throws IOException If the file could not be read
+	 */
+	private static String getContentHash(String filePath) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance(HASH_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+		InputStream in = new FileInputStream(filePath);
+		try {
+			byte[] buffer = new byte[65536];
+			int read;
+			while((read = in.read(buffer)) > 0)
+				digest.update(buffer, 0, read);
+		} finally {
+			in.close();
+		}
+		StringBuilder sb = new StringBuilder();
+		for(byte b : digest.digest())
+			sb.append(String.format("%02x", b));
+		return sb.toString();
+	}
+
+	/**
+	 * The maximum number of datasets to keep, or 0 for no limit
+	 */
+	private int capacity;
+
+	/**
+	 * The hashes of the data files, keyed by their absolute paths
+	 */
+	private ConcurrentHashMap<String, ContentHash> contentHashes;
+
+	/**
+	 * The datasets loaded or being loaded, keyed by the hash of the data file and the cleaning options
+	 */
+	private ConcurrentHashMap<String, FutureTask<Instances>> datasets;
+
+	/**
+	 * The keys of the loaded datasets, from the least to the most recently used
+	 */
+	private LinkedHashMap<String, Boolean> recentlyUsed;
+
+	/**
+	 * Creates an empty dataset cache, without any limit on the number of datasets
+	 */
+	public DatasetCache() {
+		this(0);
+	}
+
+	/**
+	 * Creates an empty dataset cache
+	 * @param capacity The maximum number of datasets to keep, or 0 for no limit
+	 * @throws IllegalArgumentException If the capacity is negative
+	 */
+	public DatasetCache(int capacity) throws IllegalArgumentException {
+		if(capacity < 0)
+			throw new IllegalArgumentException("The capacity of the dataset cache cannot be negative");
+		this.capacity = capacity;
+		contentHashes = new ConcurrentHashMap<String, ContentHash>();
+		datasets = new ConcurrentHashMap<String, FutureTask<Instances>>();
+		recentlyUsed = new LinkedHashMap<String, Boolean>(16, 0.75f, true);
+	}
+
+	/**
+	 * Drops all the datasets from the cache. The datasets being loaded are still handed to the experiments waiting for them.
+	 */
+	public void clear() {
+		synchronized(recentlyUsed) {
+			datasets.clear();
+			recentlyUsed.clear();
+		}
+	}
+
+	/**
+	 * Returns the hash of the contents of a data file, reusing the hash computed earlier if the size and the modification time of the file are unchanged
+	 * @param filePath The path to the data file
+	 * @return The hexadecimal representation of the hash
+	 * @throws IOException If the file could not be read
+	 */
+	private String getDataFileHash(String filePath) throws IOException {
+		File file = new File(filePath);
+		String path = file.getAbsolutePath();
+		long length = file.length();
+		long lastModified = file.lastModified();
+		ContentHash known = contentHashes.get(path);
+		if(known != null && known.length == length && known.lastModified == lastModified)
+			return known.hash;
+		String hash = getContentHash(filePath);
+		contentHashes.put(path, new ContentHash(length, lastModified, hash));
+		return hash;
+	}
+
+	/**
+	 * Returns the dataset from a given ARFF file, cleaned as per the given options, loading and cleaning it only if it is not already cached
+	 * @param arffFile The data file
+	 * @param ignoreInstancesWithMissingValues Indicates whether the rows with missing values be deleted or cleaned (filled with appropriate values)
+	 * @param removeDuplcates Indicates whether to remove duplicate rows or not
+	 * @return The loaded {@link Instances}
+	 * @throws Exception if something goes wrong while loading or cleaning the dataset
+	 * @see DatasetLoader#loadAndCleanDataset(String, boolean, boolean)
+	 */
+	public Instances loadAndCleanDataset(String arffFile, boolean ignoreInstancesWithMissingValues, boolean removeDuplcates) throws Exception {
+		String key = getDataFileHash(arffFile) + "?missing=" + ignoreInstancesWithMissingValues + "&duplicates=" + removeDuplcates;
+		FutureTask<Instances> load = datasets.computeIfAbsent(key, new Function<String, FutureTask<Instances>>() {
+			@Override
+			public FutureTask<Instances> apply(String newKey) {
+				return new FutureTask<Instances>(new Callable<Instances>() {
+					@Override
+					public Instances call() throws Exception {
+						return DatasetLoader.loadAndCleanDataset(arffFile, ignoreInstancesWithMissingValues, removeDuplcates);
+					}
+				});
+			}
+		});
+		// Loads the dataset in this thread, unless it is already loaded or being loaded by another thread
+		load.run();
+		Instances dataset;
+		try {
+			dataset = load.get();
+		} catch (ExecutionException e) {
+			// A failed load is not cached, so that the next experiment tries again
+			datasets.remove(key, load);
+			if(e.getCause() instanceof Exception)
+				throw (Exception) e.getCause();
+			throw e;
+		}
+		synchronized(recentlyUsed) {
+			if(datasets.get(key) == load) {
+				recentlyUsed.put(key, Boolean.TRUE);
+				if(capacity > 0 && recentlyUsed.size() > capacity) {
+					Iterator<String> leastRecentlyUsed = recentlyUsed.keySet().iterator();
+					datasets.remove(leastRecentlyUsed.next());
+					leastRecentlyUsed.remove();
+				}
+			}
+		}
+		return dataset;
+	}
+
+	/**
+	 * Returns the number of datasets in the cache, not counting the ones being loaded
+	 * @return the number of cached datasets
+	 */
+	public int size() {
+		synchronized(recentlyUsed) {
+			return recentlyUsed.size();
+		}
+	}
+
+	/**
+	 * The hash of the contents of a data file, along with the size and the modification time of the file when it was hashed
+	 * @author Saurabh Srivastava
+	 *
+	 */
+	private static class ContentHash {
+
+		/**
+		 * The hexadecimal representation of the hash
+		 */
+		private String hash;
+
+		/**
+		 * The modification time of the file
+		 */
+		private long lastModified;
+
+		/**
+		 * The size of the file
+		 */
+		private long length;
+
+		/**
+		 * Records the hash of a data file
+		 * @param length The size of the file
+		 * @param lastModified The modification time of the file
+		 * @param hash The hexadecimal representation of the hash
+		 */
+		ContentHash(long length, long lastModified, String hash) {
+			this.length = length;
+			this.lastModified = lastModified;
+			this.hash = hash;
+		}
+	}
+}
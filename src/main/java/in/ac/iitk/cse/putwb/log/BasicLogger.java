@@ -116,6 +116,22 @@ public class BasicLogger {
 		ex.printStackTrace(stderr);
 	}
 	
+	/**
+	 * Returns the error stream for the logger
+	 * @return the error stream
+	 */
+	public PrintStream getErrorStream() {
+		return stderr;
+	}
+	
+	/**
+	 * Returns the output stream for the logger
+	 * @return the output stream
+	 */
+	public PrintStream getOutputStream() {
+		return stdout;
+	}
+	
 	/**
 	 * Outputs text to set stream (by calling <code>toString()</code> method on the parameter)
 	 * @param output The output 
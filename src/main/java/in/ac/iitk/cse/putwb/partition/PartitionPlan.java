@@ -37,6 +37,11 @@ public class PartitionPlan {
 	 */
 	private Set<Set<Integer>> privacyExceptions;
 	
+	/**
+	 * The seed that fixes the sequence of the random combinations
+	 */
+	private long seed;
+	
 	/**
 	 * The set of utility exceptions to honour
 	 */
@@ -54,6 +59,7 @@ public class PartitionPlan {
 		setPartitionSize(partitionSize);
 		setExpense(expense);
 		generateRandomly = false;
+		seed = 0;
 	}
 
 	/**
@@ -139,6 +145,14 @@ public class PartitionPlan {
 		return privacyExceptions;
 	}
 
+	/**
+	 * Returns the seed that fixes the sequence of the random combinations (see {@link RandomCombinationGenerator})
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
 	/**
 	 * Returns the set of utility exceptions to honour
 	 * @return the utility exceptions
@@ -214,6 +228,14 @@ public class PartitionPlan {
 		this.privacyExceptions = privacyExceptions;
 	}
 
+	/**
+	 * Sets the seed that fixes the sequence of the random combinations. With the same seed, a plan with a higher expense extends the combinations of a plan with a lower expense.
+	 * @param seed the seed to set
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
 	/**
 	 * Sets the set of utility exceptions to honour
 	 * @param utilityExceptions The set of utility exceptions
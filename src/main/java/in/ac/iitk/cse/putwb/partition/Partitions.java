@@ -4,6 +4,8 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -25,6 +27,20 @@ public class Partitions {
 	 * @throws Exception if something goes wrong while generating partitions
 	 */
 	public static Partitions generatePartitions(PartitionPlan plan, BasicLogger logger) throws Exception {
+		return generatePartitions(plan, null, logger);
+	}
+
+	/**
+	 * Generate partitions containing specified number of attributes, as per the given partition plan, reusing the partitions generated earlier for the same dataset (if any).<br>
+	 * The combinations in dictionary order are generated afresh, since they are the same for the same plan. Out of the random combinations already generated,
+	 * as many as required are retained (in the order in which they were generated), and only the remaining ones are generated.
+	 * @param plan The partition plan to use while creating the partitions
+	 * @param alreadyGenerated The partitions generated earlier, or <code>null</code> if none
+	 * @param logger The logger object for logging
+	 * @return A <code>Partition</code> instance, containing the attribute sets
+	 * @throws Exception if something goes wrong while generating partitions
+	 */
+	public static Partitions generatePartitions(PartitionPlan plan, Set<Set<Integer>> alreadyGenerated, BasicLogger logger) throws Exception {
 		Partitions d = new Partitions();
 		
 		int n = plan.getNumOfAttributes();
@@ -35,15 +51,21 @@ public class Partitions {
 		BigInteger noOfPossibleCombinations = PUTExperiment.getNcKValue(n, k);
 		BigDecimal numberOfCombinationsToGenerate = new BigDecimal(noOfPossibleCombinations);
 		numberOfCombinationsToGenerate = numberOfCombinationsToGenerate.multiply(new BigDecimal("" + expense)).setScale(0, RoundingMode.CEILING);
-		if(numberOfCombinationsToGenerate.compareTo(new BigDecimal(Integer.MAX_VALUE)) > 0) {
-			logger.error("Too many partitons to generate: " + numberOfCombinationsToGenerate);
-			System.exit(1);
-		}
+		if(numberOfCombinationsToGenerate.compareTo(new BigDecimal(Integer.MAX_VALUE)) > 0)
+			throw new IllegalArgumentException("Too many partitons to generate: " + numberOfCombinationsToGenerate);
 		if(plan.isGenerateRandomly() && expense < 0.95 && numberOfCombinationsToGenerate.intValue() > 100000) {	
 			// If there are large number of partitions to generate, random generation is allowed, 
 			// and the expense is at least a little less than 1, then use Random Combinations
-			logger.outln("Generating attribute combinations (in random order)... ");
-			d.partition = RandomCombinationGenerator.generateRandomCombinations(n, k, numberOfCombinationsToGenerate.intValue(), plan.getPrivacyExceptionsSet());
+			int numberOfCombinations = numberOfCombinationsToGenerate.intValue();
+			if(alreadyGenerated != null && alreadyGenerated.size() >= numberOfCombinations) {
+				d.partition = new LinkedHashSet<Set<Integer>>();
+				Iterator<Set<Integer>> generated = alreadyGenerated.iterator();
+				while(d.partition.size() < numberOfCombinations)
+					d.partition.add(generated.next());
+			} else {
+				logger.outln("Generating attribute combinations (in random order)... ");
+				d.partition = RandomCombinationGenerator.generateRandomCombinations(n, k, numberOfCombinations, plan.getPrivacyExceptionsSet(), alreadyGenerated, plan.getSeed());
+			}
 		} else {
 			DictionaryCombinationsGenerator pc = new DictionaryCombinationsGenerator(n, k, expense, plan.getPrivacyExceptionsSet(), plan.getUtilityExceptions());
 			logger.outln("Generating attribute combinations (in dictionary order)... ");
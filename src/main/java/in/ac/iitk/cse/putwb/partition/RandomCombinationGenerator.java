@@ -1,56 +1,33 @@
 package in.ac.iitk.cse.putwb.partition;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.List;
 import java.util.Set;
+import java.util.SplittableRandom;
 import java.util.TreeSet;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeUnit;
 
 /**
- * A class to generate random combinations of a set of attributes.
+ * A class to generate random combinations of a set of attributes.<br>
+ * The combinations are drawn from a sequence of candidates fixed by a seed: the candidate at a position of the sequence depends only on the seed and the position,
+ * and the candidates are accepted in the order of their positions, skipping the ones already accepted and the ones that violate a privacy exception.
+ * So, for the same seed (and exceptions), a generation reproduces the same combinations, and a generation of more combinations extends the same sequence,
+ * i.e. it starts with the combinations of a smaller generation.
+ * The state of a generation is kept apart for every call, so that the partitions of several experiments can be generated concurrently in the same JVM.
  * @author Saurabh Srivastava
  *
  */
-public class RandomCombinationGenerator implements Runnable { 
-	
-	/**
-	 * The last checked size of the combinations set, used to check progress
-	 */
-	private static int combinationsSize;
-	
-	/**
-	 * The thread-safe wrapper set that contains the generated partitions at any point
-	 */
-	private static Set<Set<Integer>> combinationsWrapper;
-	
-	/**
-	 * A set of exceptions to honour
-	 */
-	private static Set<Set<Integer>> ignoreTogetherSet;
-	
-	/**
-	 * A list of numbers from 1 to n
-	 */
-	private static List<Integer> startingList;
-	
-	/**
-	 * Signals any worker threads that they must stop attempting generation of a new combination
-	 */
-	private static AtomicBoolean stopGeneration;
-	
+public class RandomCombinationGenerator {
+
 	/**
 	 * If no new random combination could be generated in specified number of seconds, the generator gives up.
 	 */
 	private static final int TIMEOUT_IN_SECONDS = 60;
-	
+
 	/**
 	 * Generates a fixed number of random combinations for given values of n and k, honouring a given set of privacy exceptions.
+	 * The combinations are drawn with a random seed, so they differ from one call to another.
 	 * @param n The value of <i>n</i> in <i>C(n, k)</i>
 	 * @param k The value of <i>k</i> in <i>C(n, k)</i>
 	 * @param numberOfCombinationsToGenerate The number of combinations to generate
@@ -59,186 +36,98 @@ public class RandomCombinationGenerator implements Runnable {
 	 * @throws Exception If something goes wrong while generating the combinations
 	 */
 	public static Set<Set<Integer>> generateRandomCombinations(int n, int k, int numberOfCombinationsToGenerate, Set<Set<Integer>> ignoreTogether) throws Exception {
-		return generateRandomCombinations(n, k, numberOfCombinationsToGenerate, ignoreTogether, null);
+		return generateRandomCombinations(n, k, numberOfCombinationsToGenerate, ignoreTogether, null, ThreadLocalRandom.current().nextLong());
 	}
-	
+
 	/**
 	 * Generates a fixed number of random combinations for given values of n and k, honouring a given set of privacy exceptions.
-	 * If some partitions have already been generated, they can be provided to avoid additional efforts. 
-	 * This is useful for cases where an experiment is being resumed after interruption. 
+	 * If some partitions have already been generated, they can be provided to avoid additional efforts.
+	 * This is useful for cases where an experiment is being resumed after interruption, or extended to a higher expense.
+	 * The combinations already generated are kept first, in their order, followed by the new ones in the order of the sequence of the seed.
+	 * If the combinations already generated were drawn with the same seed (and exceptions), the result is the same as that of a generation from scratch.
 	 * @param n The value of <i>n</i> in <i>C(n, k)</i>
 	 * @param k The value of <i>k</i> in <i>C(n, k)</i>
 	 * @param numberOfCombinationsToGenerate The number of combinations to generate
 	 * @param ignoreTogether A {@link Set} of privacy exceptions
-	 * @param alreadyGenerated A {@link Set} of already generated combinations
+	 * @param alreadyGenerated A {@link Set} of already generated combinations, or <code>null</code> if there are none
+	 * @param seed The seed that fixes the sequence of the combinations
 	 * @return A {@link Set} of random combinations according to requested parameters
 	 * @throws Exception If something goes wrong while generating the combinations
 	 */
 	public static Set<Set<Integer>> generateRandomCombinations(int n, int k, int numberOfCombinationsToGenerate, Set<Set<Integer>> ignoreTogether,
-			Set<Set<Integer>> alreadyGenerated) throws Exception {
-		ignoreTogetherSet = new HashSet<Set<Integer>>(ignoreTogether);
+			Set<Set<Integer>> alreadyGenerated, long seed) throws Exception {
 		Set<Set<Integer>> combinationsSet = new LinkedHashSet<Set<Integer>>();
 		if(alreadyGenerated != null)
 			combinationsSet.addAll(alreadyGenerated);
-		combinationsWrapper = Collections.synchronizedSet(combinationsSet);
-		startingList = new ArrayList<Integer>();
-		stopGeneration = new AtomicBoolean(false);
-		combinationsSize = -1;
-		for(int i = 1; i <= n; i++)
-			startingList.add(i);
-		int noOfCores = Runtime.getRuntime().availableProcessors();
-		
-		if(noOfCores > 2) {
-			while(combinationsWrapper.size() < numberOfCombinationsToGenerate && !stopGeneration.get()) {
-				ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(noOfCores);
-				executor.setRemoveOnCancelPolicy(true);
-				for(int i = 0; i < 100*noOfCores; i++)	//  Create workers in a batch of size (no. of cores X 100)
-					executor.submit(new RandomCombinationGenerator(k));
-				executor.shutdown();
-				while(executor.isTerminating()) {
-					if(!isProgressing()) {	// Problem !! no new combinations are getting generated, give up !!
-						executor.shutdownNow();
-						stopGeneration.set(true);
-						// If other threads need cleanup time, hint the scheduler to prioritize them
-						Thread.currentThread().setPriority(Thread.MIN_PRIORITY);
-						Thread.yield();
-						// give some more time (5 seconds) for things to clear up !!
-						Thread.sleep(5000);
-						// check if everything is fine, if not, something is seriously wrong.. just exit !!
-						if(!executor.isTerminated())
-							System.exit(-1);
-						else
-							break;
-					}
-					if(combinationsWrapper.size() >= numberOfCombinationsToGenerate)
-						stopGeneration.set(true);
-					Thread.sleep(50);
-				}
-			}
-			synchronized (combinationsWrapper) {
-				Iterator<Set<Integer>> it = combinationsWrapper.iterator();
-				while(combinationsWrapper.size() > numberOfCombinationsToGenerate) {
-					it.next();
-					it.remove();
-				}
+		Set<Set<Integer>> ignoreTogetherSet = ignoreTogether == null ? new HashSet<Set<Integer>>() : new HashSet<Set<Integer>>(ignoreTogether);
+		int[] attributes = new int[n];
+		long lastProgress = System.nanoTime();
+		for(long position = 0; combinationsSet.size() < numberOfCombinationsToGenerate; position++) {
+			Set<Integer> combination = generateCandidate(attributes, k, mix(seed + mix(position)));
+			if(!hasExceptions(combination, ignoreTogetherSet) && combinationsSet.add(combination))
+				lastProgress = System.nanoTime();
+			else if((position & 0x3FF) == 0) {
+				if(Thread.currentThread().isInterrupted())
+					throw new InterruptedException("The generation of random combinations was interrupted");
+				// Problem !! no new combinations are getting generated, give up !!
+				if(System.nanoTime() - lastProgress > TimeUnit.SECONDS.toNanos(TIMEOUT_IN_SECONDS))
+					break;
 			}
-		} else {
-			RandomCombinationGenerator generator = new RandomCombinationGenerator(k);
-			int temp = numberOfCombinationsToGenerate;
-			while(temp-- != 0) {
-				Set<Integer> generatedCombination = generator.generateRandomCombination();
-				if(generatedCombination != null)
-					combinationsWrapper.add(generatedCombination);
-			}
-			stopGeneration.set(true);
 		}
 		return combinationsSet;
 	}
-	
-	/**
-	 * Checks if the generation process is <i>progressing</i> or not (which essentially means that 
-	 * the number of combinations generated so far is higher than that generated "some time ago").
-	 * @return <code>true</code> if the process is progressing, <code>false</code> otherwise
-	 */
-	private static boolean isProgressing() {
-		int currentSize = -1;
-		int timeToWait = TIMEOUT_IN_SECONDS;
-		synchronized (combinationsWrapper) {
-			currentSize = combinationsWrapper.size();
-		}
-		while(currentSize == combinationsSize) {
-			timeToWait--;
-			try {
-				Thread.sleep(1000);
-				synchronized (combinationsWrapper) {
-					currentSize = combinationsWrapper.size();
-				}
-			} catch (InterruptedException e) {
-				// Shouldn't really be here, but if we are, just say there has been no progress !!
-				return false;
-			}
-			if(timeToWait <= 0)
-				return false;
-		}
-		combinationsSize = currentSize;
-		return true;
-	}
 
 	/**
-	 * Contains a set of attributes while the generation is going on
-	 */
-	private Set<Integer> combination;
-
-	/**
-	 * The value of <i>k</i> in <b>(n choose k)</b>
-	 */
-	private int k;
-	
-	/**
-	 * Creates a new instance of a random combination generator, with the given value of <i>k</i>.
-	 * @param k The number of attributes in a particular combination
-	 */
-	private RandomCombinationGenerator(int k) {
-		this.k = k;
-		combination = new TreeSet<Integer>();
-	}
-	
-	/**
-	 * Returns if the currently generated combination already exists or not.
-	 * It is possible that the method returns <code>false</code>, but before the call ends, another thread may have added the same combination to the pool. 
-	 * @return <code>false</code> if the combination hasn't already been generated, <code>true</code> otherwise 
-	 */
-	private boolean alreadyGenerated() {
-		if(combinationsWrapper.contains(combination))
-			return true;
-		return false;
-	}
-	
-	/**
-	 * Generates a random combination of <i>k</i> attributes, with an attempt to not repeat an existing combination
-	 * @return A random combination
-	 */
-	private Set<Integer> generateRandomCombination() {
-		do {
-			combination.clear();
-			List<Integer> integerList = new ArrayList<Integer>(startingList);
-			int ctr = k;
-			while(ctr > 0) {
-				int randomNum = ThreadLocalRandom.current().nextInt(0, integerList.size());
-				combination.add(integerList.remove(randomNum));
-				ctr--;
-			}
-			if(stopGeneration.get() || Thread.currentThread().isInterrupted())
-				return null;
-			else {
-				if(alreadyGenerated() || hasExceptions())
-					continue;
-				else
-					return combination;
-			}
-		} while(true);
+	 * Generates the candidate combination for a position of the sequence, by drawing <i>k</i> distinct attributes out of 1 to <i>n</i>
+	 * @param attributes An array of size <i>n</i>, to draw the attributes from
+	 * @param k The number of attributes in a combination
+	 * @param positionSeed The seed of the position, which alone decides the candidate
+	 * @return The candidate combination
+	 */
+	private static Set<Integer> generateCandidate(int[] attributes, int k, long positionSeed) {
+		SplittableRandom random = new SplittableRandom(positionSeed);
+		for(int i = 0; i < attributes.length; i++)
+			attributes[i] = i + 1;
+		Set<Integer> combination = new TreeSet<Integer>();
+		// A partial Fisher-Yates shuffle, that draws the first k attributes of a random permutation
+		for(int i = 0; i < k; i++) {
+			int chosen = i + random.nextInt(attributes.length - i);
+			int attribute = attributes[chosen];
+			attributes[chosen] = attributes[i];
+			attributes[i] = attribute;
+			combination.add(attribute);
+		}
+		return combination;
 	}
 
 	/**
-	 * Returns if the currently generated combination violates any privacy exceptions or not
-	 * @return <code>true</code> if the combination doesn't have any exceptions, <code>false</code> otherwise
+	 * Returns if a combination violates any privacy exceptions or not
+	 * @param combination The combination to check
+	 * @param ignoreTogetherSet The privacy exceptions to honour
+	 * @return <code>true</code> if the combination has an exception, <code>false</code> otherwise
 	 */
-	private boolean hasExceptions() {
+	private static boolean hasExceptions(Set<Integer> combination, Set<Set<Integer>> ignoreTogetherSet) {
 		for(Set<Integer> exception : ignoreTogetherSet) {
 			if(combination.containsAll(exception))
 				return true;
 		}
 		return false;
 	}
-	
-	/* (non-Javadoc)
-	 * @see java.lang.Runnable#run()
+
+	/**
+	 * Scrambles a value into a seed, so that the seeds of nearby positions (or seeds) are unrelated to each other (the finalizer of the SplitMix64 generator)
+	 * @param value The value to scramble
+	 * @return The scrambled value
+	 */
+	private static long mix(long value) {
+		value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+		value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+		return value ^ (value >>> 31);
+	}
+
+	/**
+	 * Just to make it out of bounds of other classes
 	 */
-	@Override
-	public void run() {
-		Set<Integer> generatedCombination = generateRandomCombination();
-		if(generatedCombination != null)
-			combinationsWrapper.add(generatedCombination);
+	private RandomCombinationGenerator() {
 	}
-	
 }
@@ -168,6 +168,12 @@ public class AnalyzeAction extends Action implements ItemListener {
 			e.printStackTrace();
 			throw new IllegalStateException("Illegal Data file");
 		}
+		// Timed out learning tasks have no metric values to analyze
+		Iterator<Stats> timedOutStats = allStats.iterator();
+		while(timedOutStats.hasNext()) {
+			if(timedOutStats.next().isTimedOut())
+				timedOutStats.remove();
+		}
 		
 		GridBagLayout gridBagLayout = new GridBagLayout();
 		gridBagLayout.columnWidths = new int[]{100, 0};
@@ -12,6 +12,8 @@ import java.awt.geom.Line2D;
 
 import javax.swing.JComponent;
 
+import in.ac.iitk.cse.putwb.experiment.CoordinationThreads;
+
 /**
  * A widget that shown a "work in progress" animation - similar to a ticking clock
  * @author Saurabh Srivastava
@@ -39,7 +41,7 @@ public class ProgressAnimation extends JComponent {
 		this.paintColor = paintColor;
 		setOpaque(false);
 		turn = 0;
-		Thread refreshThread = new Thread() {
+		Thread refreshThread = CoordinationThreads.newThread("Progress Animation", new Runnable() {
 			public void run() {
 				try {
 					while(true) {
@@ -51,7 +53,7 @@ public class ProgressAnimation extends JComponent {
 					e.printStackTrace();
 				}
 			}
-		};
+		});
 		refreshThread.start();
 	}
 	
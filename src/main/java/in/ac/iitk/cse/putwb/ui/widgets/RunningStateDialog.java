@@ -8,9 +8,11 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
+import java.awt.GridLayout;
 import java.awt.Insets;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.List;
 
 import javax.swing.JButton;
 import javax.swing.JDialog;
@@ -18,10 +20,16 @@ import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JProgressBar;
+import javax.swing.JTextField;
 import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
 import javax.swing.border.EmptyBorder;
 
+import in.ac.iitk.cse.putwb.experiment.ExperimentListener;
+import in.ac.iitk.cse.putwb.experiment.ExperimentProgress;
 import in.ac.iitk.cse.putwb.experiment.PUTExperiment;
+import in.ac.iitk.cse.putwb.experiment.ProgressEstimator;
+import in.ac.iitk.cse.putwb.experiment.Stats;
 
 
 /**
@@ -95,7 +103,6 @@ public class RunningStateDialog extends JDialog {
 	public RunningStateDialog(PUTExperiment experiment, Component parent) {
 		setModalityType(ModalityType.APPLICATION_MODAL);
 		setUndecorated(true);
-		experiment.startExperimentAsync();
 		setTitle("Running experiments...");
 		tasksInfoEnabled = false;
 		writingInfoEnabled = false;
@@ -250,15 +257,29 @@ public class RunningStateDialog extends JDialog {
 		JPanel buttonPane = new JPanel();
 		getContentPane().add(buttonPane, BorderLayout.SOUTH);
 		GridBagLayout gbl_buttonPane = new GridBagLayout();
-		gbl_buttonPane.columnWeights = new double[]{0.0};
+		gbl_buttonPane.columnWeights = new double[]{0.0, 0.0, 0.0};
 		gbl_buttonPane.rowWeights = new double[]{0.0};
 		buttonPane.setLayout(gbl_buttonPane);
 		buttonPane.setOpaque(false);
 		
+		JButton pauseButton = new JButton("Pause");
+		GridBagConstraints gbc_pauseButton = new GridBagConstraints();
+		gbc_pauseButton.insets = new Insets(0, 0, 20, 10);
+		gbc_pauseButton.gridx = 0;
+		gbc_pauseButton.gridy = 0;
+		buttonPane.add(pauseButton, gbc_pauseButton);
+		
+		JButton adjustButton = new JButton("Adjust");
+		GridBagConstraints gbc_adjustButton = new GridBagConstraints();
+		gbc_adjustButton.insets = new Insets(0, 0, 20, 10);
+		gbc_adjustButton.gridx = 1;
+		gbc_adjustButton.gridy = 0;
+		buttonPane.add(adjustButton, gbc_adjustButton);
+		
 		JButton abortButton = new JButton("Abort");
 		GridBagConstraints gbc_stopButton = new GridBagConstraints();
 		gbc_stopButton.insets = new Insets(0, 0, 20, 0);
-		gbc_stopButton.gridx = 0;
+		gbc_stopButton.gridx = 2;
 		gbc_stopButton.gridy = 0;
 		buttonPane.add(abortButton, gbc_stopButton);
 		
@@ -271,100 +292,165 @@ public class RunningStateDialog extends JDialog {
 		dataWritingAnimation.setVisible(false);
 		dataWritingProgressBar.setStringPainted(true);
 		
-		Thread monitoringThread = new Thread() {
+		ExperimentListener progressListener = new ExperimentListener() {
+
+			/**
+			 * A flag to signal that the learning stage has completed
+			 */
+			private boolean learningDone = false;
+
+			/**
+			 * A flag to signal that the dataset partitioning stage has completed
+			 */
+			private boolean partitioningDone = false;
 
 			@Override
-			public void run() {
-				long totalTasks = -1;
-				while(true) {
-					try {
-						Thread.sleep(200);
-						totalTasks = experiment.getTotalTasks();
-						break;
-					} catch (IllegalStateException e) {
-						// Try again
-					} catch (InterruptedException e) {
-						e.printStackTrace();
+			public void errorOccurred(PUTExperiment experiment, String message, Exception cause) {
+				SwingUtilities.invokeLater(new Runnable() {
+
+					@Override
+					public void run() {
+						RunningStateDialog.this.setVisible(false);
+						RunningStateDialog.this.dispose();
+						JOptionPane.showMessageDialog(null, "The experiment failed !!\nReason: " + message, "Problem in running experiment", JOptionPane.ERROR_MESSAGE);
 					}
-				}
-				numberOfDatasetsLabel.setText("<html><font size='3' color='#2d0c08'>Number of datasets:</font>&nbsp;<i>" + totalTasks + "</i></html>");
-				
-				while(true) {
-					try {
-						Thread.sleep(1000);
-						long datasetsPartitioned = experiment.getNumOfPartitionedDatasets();
-						// If we are here, enable the task indicators
-						if(!tasksInfoEnabled) {
-							tasksInfoEnabled = true;
-							contentPanel.remove(attributeCombinationsAnimation);
-							contentPanel.add(new DoneLabel(), gbc_attributeCombinationsAnimation);
-							partitionsAnimation.setVisible(true);
-							learningAnimation.setVisible(true);
-							infoLabel2.setText("<html><font size='4' color='#033e9e'>Creating partitions of the dataset for learning</font></html>");
-							infoLabel3.setText("<html><font size='4' color='#033e9e'>Running learning tasks over partitioned datasets</font></html>");
-							
-							partitioningProgressBar.setMinimum(0);
-							learningProgressBar.setMinimum(0);
-							partitioningProgressBar.setMaximum((int)totalTasks);
-							
-							learningProgressBar.setMaximum((int)totalTasks);
-							partitioningProgressBar.setStringPainted(true);
-							learningProgressBar.setStringPainted(true);
-							
-							contentPanel.revalidate();
-						}
-						long learningTasksCompleted = experiment.getNumOfTasksCompleted();
-						long dataWritingTasksCompleted = 0;
-						
-						partitioningProgressBar.setValue((int)datasetsPartitioned);
-						learningProgressBar.setValue((int)learningTasksCompleted);
-	
-						if(datasetsPartitioned == totalTasks) {
-							contentPanel.remove(partitionsAnimation);
-							contentPanel.add(new DoneLabel(), gbc_partitionsAnimation);
-							contentPanel.revalidate();
-						}
-						
-						if(learningTasksCompleted == totalTasks) {
-							contentPanel.remove(learningAnimation);
-							contentPanel.add(new DoneLabel(), gbc_learningAnimation);
-							writingInfoEnabled = true;
-							dataWritingProgressBar.setMaximum((int)totalTasks);
-							dataWritingProgressBar.setStringPainted(true);
-							contentPanel.revalidate();
-						}
-						
-						if(writingInfoEnabled) {
-							dataWritingTasksCompleted = experiment.getNumOfResultsWrittenToFile();
-							dataWritingProgressBar.setValue((int)dataWritingTasksCompleted);
-							infoLabel4.setText("<html><font size='4' color='#033e9e'>Writing results to output file</font></html>");
-							contentPanel.revalidate();
-						}
-						
-						if(dataWritingTasksCompleted == totalTasks) {
-							dataWritingProgressBar.setValue((int)totalTasks);
-							contentPanel.remove(dataWritingAnimation);
-							contentPanel.add(new DoneLabel(), gbc_dataWritingAnimation);
-							contentPanel.revalidate();
-							// Just wait for half a second for any data flush
-							Thread.sleep(500);
+				});
+			}
+
+			@Override
+			public void progressUpdated(PUTExperiment experiment, ExperimentProgress progress) {
+				SwingUtilities.invokeLater(new Runnable() {
+
+					@Override
+					public void run() {
+						update(progress);
+					}
+				});
+			}
+
+			@Override
+			public void stageChanged(PUTExperiment experiment, ExperimentProgress progress) {
+				SwingUtilities.invokeLater(new Runnable() {
+
+					@Override
+					public void run() {
+						update(progress);
+						if(progress.getStage() == ExperimentProgress.STAGE_COMPLETED) {
 							tasksCompleted = true;
 							RunningStateDialog.this.setVisible(false);
 							RunningStateDialog.this.dispose();
 							System.out.println("Learning tasks finished");
-							contentPanel.revalidate();
-							break;
 						}
-						
-					} catch (IllegalStateException e) {
-						// Try again
-					} catch (InterruptedException e) {
-						// Do nothing
 					}
+				});
+			}
+
+			@Override
+			public void tasksCompleted(PUTExperiment experiment, List<Stats> stats) {
+				// The progress updates carry the counts of the completed tasks
+			}
+
+			/**
+			 * Shows the progress of the experiment in the widgets of this dialog (on the event dispatch thread)
+			 * @param progress The progress of the experiment
+			 */
+			private void update(ExperimentProgress progress) {
+				pauseButton.setText(progress.isPaused() ? "Resume" : "Pause");
+				// The experiment cannot be paused once the learning tasks are done
+				pauseButton.setEnabled(progress.getStage() < ExperimentProgress.STAGE_WRITING);
+				adjustButton.setEnabled(progress.getStage() < ExperimentProgress.STAGE_WRITING);
+				long totalTasks = progress.getTotalTasks();
+				if(totalTasks < 0)
+					return;
+				// If we are here, the attribute combinations are generated, so enable the task indicators
+				if(!tasksInfoEnabled) {
+					tasksInfoEnabled = true;
+					numberOfDatasetsLabel.setText("<html><font size='3' color='#2d0c08'>Number of datasets:</font>&nbsp;<i>" + totalTasks + "</i></html>");
+					contentPanel.remove(attributeCombinationsAnimation);
+					contentPanel.add(new DoneLabel(), gbc_attributeCombinationsAnimation);
+					partitionsAnimation.setVisible(true);
+					learningAnimation.setVisible(true);
+					infoLabel2.setText("<html><font size='4' color='#033e9e'>Creating partitions of the dataset for learning</font></html>");
+					infoLabel3.setText("<html><font size='4' color='#033e9e'>Running learning tasks over partitioned datasets</font></html>");
+					
+					partitioningProgressBar.setMinimum(0);
+					learningProgressBar.setMinimum(0);
+					partitioningProgressBar.setStringPainted(true);
+					learningProgressBar.setStringPainted(true);
+					
+					contentPanel.revalidate();
+				}
+				// The number of tasks changes from one round of racing to the next
+				partitioningProgressBar.setMaximum((int)totalTasks);
+				learningProgressBar.setMaximum((int)totalTasks);
+				
+				long datasetsPartitioned = Math.max(0, progress.getNumOfPartitionedDatasets());
+				long learningTasksCompleted = Math.max(0, progress.getNumOfTasksCompleted());
+				partitioningProgressBar.setValue((int)datasetsPartitioned);
+				learningProgressBar.setValue((int)learningTasksCompleted);
+				if(!Double.isNaN(progress.getThroughput())) {
+					String remaining = Double.isNaN(progress.getEstimatedTimeRemaining()) ? "" : ", " + ProgressEstimator.formatDuration((long)progress.getEstimatedTimeRemaining()) + " remaining";
+					learningProgressBar.setString(String.format("%d of %d - %.2f tasks/sec%s", learningTasksCompleted, totalTasks, progress.getThroughput(), remaining));
+					if(progress.isPaused())
+						learningProgressBar.setString(learningTasksCompleted + " of " + totalTasks + " - paused");
+					learningProgressBar.setToolTipText(String.format("Task time - %.3f sec (median), %.3f sec (95th percentile)", 
+							progress.getMedianTaskTime(), progress.getTailTaskTime()));
+				}
+				
+				short stage = progress.getStage();
+				if(!partitioningDone && stage >= ExperimentProgress.STAGE_LEARNING && datasetsPartitioned == totalTasks) {
+					partitioningDone = true;
+					contentPanel.remove(partitionsAnimation);
+					contentPanel.add(new DoneLabel(), gbc_partitionsAnimation);
+					contentPanel.revalidate();
+				}
+				
+				if(!learningDone && stage >= ExperimentProgress.STAGE_WRITING) {
+					learningDone = true;
+					partitioningProgressBar.setValue(partitioningProgressBar.getMaximum());
+					learningProgressBar.setValue(learningProgressBar.getMaximum());
+					contentPanel.remove(learningAnimation);
+					contentPanel.add(new DoneLabel(), gbc_learningAnimation);
+					writingInfoEnabled = true;
+					dataWritingProgressBar.setMaximum((int)totalTasks);
+					dataWritingProgressBar.setStringPainted(true);
+					infoLabel4.setText("<html><font size='4' color='#033e9e'>Writing results to output file</font></html>");
+					contentPanel.revalidate();
+				}
+				
+				if(writingInfoEnabled) {
+					if(stage == ExperimentProgress.STAGE_COMPLETED) {
+						// Fewer results than the tasks are written in case of a limit on the results, or a budget
+						dataWritingProgressBar.setValue(dataWritingProgressBar.getMaximum());
+						contentPanel.remove(dataWritingAnimation);
+						contentPanel.add(new DoneLabel(), gbc_dataWritingAnimation);
+						contentPanel.revalidate();
+					} else
+						dataWritingProgressBar.setValue((int)Math.max(0, progress.getNumOfResultsWrittenToFile()));
 				}
 			}
 		};
-		monitoringThread.start();
+		experiment.addExperimentListener(progressListener);
+		
+		pauseButton.addActionListener(new ActionListener() {
+			
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				// The listener is told about the pause or resume, and updates the button accordingly
+				if(experiment.isPaused())
+					experiment.resumeExperiment();
+				else
+					experiment.pauseExperiment();
+			}
+		});
+		
+		adjustButton.addActionListener(new ActionListener() {
+			
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				adjustExperiment(experiment);
+			}
+		});
 		
 		abortButton.addActionListener(new ActionListener() {
 			
@@ -372,7 +458,7 @@ public class RunningStateDialog extends JDialog {
 			public void actionPerformed(ActionEvent e) {
 				int choice = JOptionPane.showConfirmDialog(null, "Are you sure you want to cancel the learning tasks?", "Confirm cancel", JOptionPane.YES_NO_OPTION);
 				if(choice == JOptionPane.YES_OPTION) {
-					monitoringThread.interrupt();
+					experiment.removeExperimentListener(progressListener);
 					experiment.stopExperiment();
 					RunningStateDialog.this.setVisible(false);
 					RunningStateDialog.this.dispose();
@@ -381,10 +467,54 @@ public class RunningStateDialog extends JDialog {
 			}
 		});
 		
+		// The experiment is started only once the listener is in place, so that no notification is missed
+		experiment.startExperimentAsync();
 		setLocationRelativeTo(parent);
 		setVisible(true);
 	}
 
+	/**
+	 * Asks for the vertical expense, the number of threads and the time limit for the learning tasks, and applies the ones changed to the running experiment
+	 * @param experiment The running experiment
+	 */
+	private void adjustExperiment(PUTExperiment experiment) {
+		String timeLimit = "";
+		if(experiment.getTimeLimit() > 0)
+			timeLimit = "" + experiment.getTimeLimit();
+		else if(experiment.getRelativeTimeLimit() > 0)
+			timeLimit = experiment.getRelativeTimeLimit() + "x";
+		JTextField vExpenseField = new JTextField("" + experiment.getVerticalExpense());
+		JTextField threadsField = new JTextField(experiment.getParallelism() > 0 ? "" + experiment.getParallelism() : "");
+		JTextField timeLimitField = new JTextField(timeLimit);
+		JPanel panel = new JPanel(new GridLayout(3, 2, 10, 5));
+		panel.add(new JLabel("Vertical expense (0 - 1]:"));
+		panel.add(vExpenseField);
+		panel.add(new JLabel("Threads:"));
+		panel.add(threadsField);
+		panel.add(new JLabel("Time limit per task (seconds, or e.g. 5x the median):"));
+		panel.add(timeLimitField);
+		int choice = JOptionPane.showConfirmDialog(this, panel, "Adjust the experiment", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+		if(choice != JOptionPane.OK_OPTION)
+			return;
+		try {
+			float vExpense = Float.parseFloat(vExpenseField.getText().trim());
+			if(vExpense != experiment.getVerticalExpense())
+				experiment.setVerticalExpense(vExpense);
+			String threads = threadsField.getText().trim();
+			if(!threads.isEmpty() && Integer.parseInt(threads) != experiment.getParallelism())
+				experiment.setParallelism(Integer.parseInt(threads));
+			String newTimeLimit = timeLimitField.getText().trim();
+			if(!newTimeLimit.isEmpty() && !newTimeLimit.equals(timeLimit)) {
+				if(newTimeLimit.endsWith("x"))
+					experiment.setRelativeTimeLimit(Double.parseDouble(newTimeLimit.substring(0, newTimeLimit.length() - 1)));
+				else
+					experiment.setTimeLimit(Long.parseLong(newTimeLimit));
+			}
+		} catch (IllegalArgumentException | IllegalStateException e) {
+			JOptionPane.showMessageDialog(this, e.getMessage(), "Could not adjust the experiment", JOptionPane.ERROR_MESSAGE);
+		}
+	}
+
 	/**
 	 * Draws an overlay over a given area using the given graphics context
 	 * @param g Graphics context
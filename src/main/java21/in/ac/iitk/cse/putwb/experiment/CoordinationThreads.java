@@ -0,0 +1,29 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+/**
+ * This class creates the threads that coordinate an experiment, rather than learn over the datasets - e.g. the creators of the learning tasks, the progress monitors,
+ * the dispatcher of the notifications and the handlers of the workers and clients. Such threads spend most of their time blocked on queues, sleeps or sockets.<br>
+ * This is the version of the class for Java 21 or later (in the multi-release JAR), which creates virtual threads, so that the coordinating threads do not use up
+ * platform threads. The learning tasks still run on the bounded pools of platform threads of the experiment.
+ * @author Saurabh Srivastava
+ *
+ */
+public class CoordinationThreads {
+
+	/**
+	 * Creates a virtual thread (not started yet) to coordinate an experiment. The thread does not keep the JVM alive, so whoever starts it must wait for it if required.
+	 * @param name The name of the thread
+	 * @param task The work of the thread
+	 * @return The thread
+	 */
+	public static Thread newThread(String name, Runnable task) {
+		return Thread.ofVirtual().name(name).unstarted(task);
+	}
+
+	/**
+	 * Just to make it out of bounds of other classes
+	 */
+	private CoordinationThreads() {
+		// Makes it out of bounds for outside classes
+	}
+}
@@ -0,0 +1,169 @@
+package in.ac.iitk.cse.putwb.classify;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+import weka.core.Utils;
+
+/**
+ * Tests for {@link FoldPlan}
+ * @author Saurabh Srivastava
+ *
+ */
+public class FoldPlanTest {
+
+	/**
+	 * The number of rows of every class in the test dataset (the last count is for the rows with a missing class)
+	 */
+	private static final int[] CLASS_SIZES = {30, 20, 7, 3};
+
+	/**
+	 * Creates a dataset with a nominal class, with the rows of the classes interleaved
+	 * @return The dataset
+	 */
+	private static Instances createDataset() {
+		ArrayList<Attribute> attributes = new ArrayList<Attribute>();
+		attributes.add(new Attribute("a0"));
+		attributes.add(new Attribute("cls", Arrays.asList("A", "B", "C")));
+		Instances dataset = new Instances("test", attributes, 60);
+		dataset.setClassIndex(1);
+		int[] remaining = CLASS_SIZES.clone();
+		int row = 0;
+		while(remaining[0] + remaining[1] + remaining[2] + remaining[3] > 0) {
+			for(int c = 0; c < remaining.length; c++) {
+				if(remaining[c] == 0)
+					continue;
+				remaining[c]--;
+				dataset.add(new DenseInstance(1, new double[] {row++, c < 3 ? c : Utils.missingValue()}));
+			}
+		}
+		return dataset;
+	}
+
+	/**
+	 * Returns the group of a row - its class, or the number of classes for a row with a missing class
+	 * @param data The dataset
+	 * @param row The index of the row
+	 * @return The group of the row
+	 */
+	private static int groupOf(Instances data, int row) {
+		return data.instance(row).classIsMissing() ? data.numClasses() : (int) data.instance(row).classValue();
+	}
+
+	/**
+	 * Every fold has nearly the same number of rows of every class, and nearly the same number of rows overall
+	 */
+	@Test
+	public void foldsAreStratified() {
+		Instances data = createDataset();
+		int k = 5;
+		FoldPlan plan = new FoldPlan(data, k, 7);
+		assertEquals(k, plan.getK());
+		assertEquals(data.numInstances(), plan.getNumOfRows());
+		int[][] counts = new int[CLASS_SIZES.length][k];
+		int[] foldSizes = new int[k];
+		for(int row = 0; row < data.numInstances(); row++) {
+			int fold = plan.getFold(row);
+			assertTrue(fold >= 0 && fold < k);
+			counts[groupOf(data, row)][fold]++;
+			foldSizes[fold]++;
+		}
+		for(int[] classCounts : counts)
+			assertTrue(Arrays.stream(classCounts).max().getAsInt() - Arrays.stream(classCounts).min().getAsInt() <= 1);
+		assertTrue(Arrays.stream(foldSizes).max().getAsInt() - Arrays.stream(foldSizes).min().getAsInt() <= 1);
+	}
+
+	/**
+	 * The same seed always gives the same folds and samples, while a different seed shuffles the rows differently
+	 */
+	@Test
+	public void foldsAreDeterministic() {
+		Instances data = createDataset();
+		int[] rows = new int[data.numInstances()];
+		for(int i = 0; i < rows.length; i++)
+			rows[i] = i;
+		FoldPlan plan = new FoldPlan(data, 10, 42);
+		FoldPlan samePlan = new FoldPlan(createDataset(), 10, 42);
+		assertArrayEquals(plan.getFolds(rows), samePlan.getFolds(rows));
+		assertArrayEquals(plan.getStratifiedSample(0.3f), samePlan.getStratifiedSample(0.3f));
+		assertFalse(Arrays.equals(plan.getFolds(rows), new FoldPlan(data, 10, 43).getFolds(rows)));
+	}
+
+	/**
+	 * A fragmented dataset takes the folds of the rows it retains, in its own order
+	 */
+	@Test
+	public void fragmentTakesTheFoldsOfItsRows() {
+		FoldPlan plan = new FoldPlan(createDataset(), 4, 1);
+		int[] rows = {17, 3, 42, 0};
+		int[] folds = plan.getFolds(rows);
+		for(int i = 0; i < rows.length; i++)
+			assertEquals(plan.getFold(rows[i]), folds[i]);
+	}
+
+	/**
+	 * The stratified samples take the same proportion of every class, at least a row of every class, and contain the smaller samples
+	 */
+	@Test
+	public void samplesAreStratifiedAndNested() {
+		Instances data = createDataset();
+		FoldPlan plan = new FoldPlan(data, 5, 3);
+		Set<Integer> smaller = new HashSet<Integer>();
+		for(float proportion : new float[] {0.01f, 0.25f, 0.5f, 1.0f}) {
+			int[] sample = plan.getStratifiedSample(proportion);
+			for(int i = 1; i < sample.length; i++)
+				assertTrue(sample[i - 1] < sample[i]);
+			int[] counts = new int[CLASS_SIZES.length];
+			Set<Integer> rows = new HashSet<Integer>();
+			for(int row : sample) {
+				counts[groupOf(data, row)]++;
+				rows.add(row);
+			}
+			for(int c = 0; c < CLASS_SIZES.length; c++)
+				assertEquals(Math.min(CLASS_SIZES[c], (int) Math.ceil(CLASS_SIZES[c] * proportion)), counts[c]);
+			assertTrue(rows.containsAll(smaller));
+			smaller = rows;
+		}
+		assertEquals(data.numInstances(), smaller.size());
+	}
+
+	/**
+	 * With a numeric class, the rows are dealt to the folds as a single group
+	 */
+	@Test
+	public void numericClassFormsOneGroup() {
+		ArrayList<Attribute> attributes = new ArrayList<Attribute>();
+		attributes.add(new Attribute("a0"));
+		attributes.add(new Attribute("target"));
+		Instances data = new Instances("test", attributes, 23);
+		data.setClassIndex(1);
+		for(int i = 0; i < 23; i++)
+			data.add(new DenseInstance(1, new double[] {i, i * 0.5}));
+		FoldPlan plan = new FoldPlan(data, 4, 5);
+		int[] foldSizes = new int[4];
+		for(int row = 0; row < data.numInstances(); row++)
+			foldSizes[plan.getFold(row)]++;
+		assertArrayEquals(new int[] {6, 6, 6, 5}, foldSizes);
+		assertEquals(12, plan.getStratifiedSample(0.5f).length);
+	}
+
+	/**
+	 * Cross validation needs at least two folds
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsFewerThanTwoFolds() {
+		new FoldPlan(createDataset(), 1, 1);
+	}
+}
@@ -0,0 +1,152 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import static in.ac.iitk.cse.putwb.experiment.TestFixtures.TIMEOUT;
+import static in.ac.iitk.cse.putwb.experiment.TestFixtures.awaitBlocked;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link AdmissionController}
+ * @author Saurabh Srivastava
+ *
+ */
+public class AdmissionControllerTest {
+
+	/**
+	 * Starts a thread that acquires a number of bytes, and notes once it is admitted
+	 * @param controller The admission controller
+	 * @param bytes The number of bytes to acquire
+	 * @param admitted The flag to set once the bytes are admitted
+	 * @param interrupted The flag to set if the thread is interrupted while waiting
+	 * @return The started thread
+	 */
+	private static Thread acquireInBackground(AdmissionController controller, long bytes, AtomicBoolean admitted, AtomicBoolean interrupted) {
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					controller.acquire(bytes);
+					admitted.set(true);
+				} catch (InterruptedException e) {
+					interrupted.set(true);
+				}
+			}
+		});
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * The datasets within the budget are admitted right away, and the bytes in flight add up
+	 * @throws InterruptedException If the test is interrupted
+	 */
+	@Test
+	public void admitsWithinBudget() throws InterruptedException {
+		AdmissionController controller = new AdmissionController(100);
+		controller.acquire(40);
+		controller.acquire(60);
+		assertEquals(100, controller.getBytesInFlight());
+		controller.release(40);
+		assertEquals(60, controller.getBytesInFlight());
+	}
+
+	/**
+	 * A dataset larger than the whole budget is admitted if nothing else is in flight, so that it cannot stall the experiment
+	 * @throws InterruptedException If the test is interrupted
+	 */
+	@Test
+	public void admitsOversizedDatasetWhenIdle() throws InterruptedException {
+		AdmissionController controller = new AdmissionController(100);
+		controller.acquire(500);
+		assertEquals(500, controller.getBytesInFlight());
+	}
+
+	/**
+	 * A dataset that would exceed the budget waits till enough bytes are released
+	 * @throws InterruptedException If the test is interrupted
+	 */
+	@Test
+	public void blocksOverBudgetTillReleased() throws InterruptedException {
+		AdmissionController controller = new AdmissionController(100);
+		controller.acquire(60);
+		AtomicBoolean admitted = new AtomicBoolean(false);
+		AtomicBoolean interrupted = new AtomicBoolean(false);
+		Thread producer = acquireInBackground(controller, 60, admitted, interrupted);
+		awaitBlocked(producer);
+		assertFalse(admitted.get());
+		assertEquals(60, controller.getBytesInFlight());
+
+		controller.release(60);
+		producer.join(TIMEOUT);
+		assertTrue(admitted.get());
+		assertEquals(60, controller.getBytesInFlight());
+	}
+
+	/**
+	 * A release that does not free enough bytes keeps the producer waiting
+	 * @throws InterruptedException If the test is interrupted
+	 */
+	@Test
+	public void keepsWaitingTillEnoughBytesAreReleased() throws InterruptedException {
+		AdmissionController controller = new AdmissionController(100);
+		controller.acquire(30);
+		controller.acquire(50);
+		AtomicBoolean admitted = new AtomicBoolean(false);
+		AtomicBoolean interrupted = new AtomicBoolean(false);
+		Thread producer = acquireInBackground(controller, 40, admitted, interrupted);
+		awaitBlocked(producer);
+
+		controller.release(10);
+		// Woken up, but 70 + 40 is still over the budget
+		awaitBlocked(producer);
+		assertFalse(admitted.get());
+
+		controller.release(30);
+		producer.join(TIMEOUT);
+		assertTrue(admitted.get());
+		assertEquals(80, controller.getBytesInFlight());
+	}
+
+	/**
+	 * A producer interrupted while waiting gives up, without admitting its bytes
+	 * @throws InterruptedException If the test is interrupted
+	 */
+	@Test
+	public void interruptedProducerIsNotAdmitted() throws InterruptedException {
+		AdmissionController controller = new AdmissionController(100);
+		controller.acquire(80);
+		AtomicBoolean admitted = new AtomicBoolean(false);
+		AtomicBoolean interrupted = new AtomicBoolean(false);
+		Thread producer = acquireInBackground(controller, 50, admitted, interrupted);
+		awaitBlocked(producer);
+		producer.interrupt();
+		producer.join(TIMEOUT);
+		assertTrue(interrupted.get());
+		assertFalse(admitted.get());
+		assertEquals(80, controller.getBytesInFlight());
+	}
+
+	/**
+	 * The budget must be positive
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonPositiveBudget() {
+		new AdmissionController(0);
+	}
+
+	/**
+	 * The estimate grows with the rows and the attributes
+	 */
+	@Test
+	public void estimatesDatasetSize() {
+		long size = AdmissionController.estimateDatasetSize(1000, 10);
+		assertTrue(size > 1000L * 10 * 8);
+		assertEquals(2 * size, AdmissionController.estimateDatasetSize(2000, 10));
+		assertTrue(AdmissionController.estimateDatasetSize(1000, 11) > size);
+	}
+}
@@ -0,0 +1,139 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.PriorityBlockingQueue;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link CostModel}, and the ordering of the {@link PrioritizedTask}s by it
+ * @author Saurabh Srivastava
+ *
+ */
+public class CostModelTest {
+
+	/**
+	 * The cost (in seconds) of a task over a partition with the given features, as per a known linear cost function
+	 * @param features The features of the partition
+	 * @return The cost
+	 */
+	private static double cost(double[] features) {
+		return 0.5 + 0.01 * features[1] + 0.002 * features[2] + 0.03 * features[3] + 0.0001 * features[4];
+	}
+
+	/**
+	 * Creates the features of a random partition
+	 * @param random The random number generator
+	 * @return The features
+	 */
+	private static double[] createRandomFeatures(Random random) {
+		int numOfNominalAttributes = random.nextInt(5);
+		int numOfNumericAttributes = 1 + random.nextInt(5);
+		return CostModel.createFeatures(numOfNominalAttributes + numOfNumericAttributes, numOfNominalAttributes * (2 + random.nextInt(4)), numOfNumericAttributes, 100 + random.nextInt(5000));
+	}
+
+	/**
+	 * Teaches a cost model the known linear cost function
+	 * @param model The cost model
+	 * @param numOfSamples The number of completed tasks to learn from
+	 * @param random The random number generator for the features of the tasks
+	 */
+	private static void learnCostFunction(CostModel model, int numOfSamples, Random random) {
+		for(int i = 0; i < numOfSamples; i++) {
+			double[] features = createRandomFeatures(random);
+			model.update(features, (long)(cost(features) * 1000000000d));
+		}
+	}
+
+	/**
+	 * Till enough tasks have completed, the prediction is the prior - the number of rows times the number of values seen per row
+	 */
+	@Test
+	public void predictsPriorTillEnoughSamples() {
+		CostModel model = new CostModel();
+		Random random = new Random(1);
+		learnCostFunction(model, 9, random);
+		double[] features = CostModel.createFeatures(3, 7, 1, 200);
+		assertEquals(200 * (7 + 1), model.predict(features), 0);
+	}
+
+	/**
+	 * The model learnt from the tasks recovers the linear cost function they follow, and predicts the cost of unseen partitions
+	 */
+	@Test
+	public void solveRecoversLinearCostFunction() {
+		CostModel model = new CostModel();
+		Random random = new Random(2);
+		learnCostFunction(model, 200, random);
+		assertEquals(200, model.getNumOfSamples());
+		for(int i = 0; i < 50; i++) {
+			double[] features = createRandomFeatures(random);
+			assertEquals(cost(features), model.predict(features), 1e-3);
+		}
+	}
+
+	/**
+	 * The model asks for the pending tasks to be re-prioritized once it is switched on, and every time the number of samples doubles thereafter
+	 */
+	@Test
+	public void updateAsksForReprioritizationAsSamplesDouble() {
+		CostModel model = new CostModel();
+		Random random = new Random(3);
+		List<Long> reprioritizations = new ArrayList<Long>();
+		for(long samples = 1; samples <= 400; samples++) {
+			double[] features = createRandomFeatures(random);
+			if(model.update(features, (long)(cost(features) * 1000000000d)))
+				reprioritizations.add(samples);
+		}
+		List<Long> expected = new ArrayList<Long>();
+		for(long samples = 10; samples <= 400; samples *= 2)
+			expected.add(samples);
+		assertEquals(expected, reprioritizations);
+	}
+
+	/**
+	 * Re-prioritizing the tasks waiting in a queue puts them in the order of their predicted costs, the costliest first, the ties in the order they were created
+	 */
+	@Test
+	public void reprioritizeLeavesCostliestFirst() {
+		Random random = new Random(4);
+		PriorityBlockingQueue<Runnable> queue = new PriorityBlockingQueue<Runnable>();
+		List<PrioritizedTask<Void>> tasks = new ArrayList<PrioritizedTask<Void>>();
+		for(int i = 0; i < 100; i++) {
+			// Every other task is over the same partition as the one before it, and so has the same cost
+			double[] features = i % 2 == 1 ? tasks.get(i - 1).getFeatures() : createRandomFeatures(random);
+			PrioritizedTask<Void> task = new PrioritizedTask<Void>(new Runnable() {
+				@Override
+				public void run() {
+					// Never run
+				}
+			}, features, i, null);
+			tasks.add(task);
+			queue.add(task);
+		}
+		// Without a cost model, the tasks are taken up in the order they were created
+		assertSame(tasks.get(0), queue.peek());
+
+		CostModel model = new CostModel();
+		learnCostFunction(model, 50, random);
+		assertEquals(100, PrioritizedTask.reprioritize(queue, model));
+		assertEquals(100, queue.size());
+		PrioritizedTask<?> previous = null;
+		while(!queue.isEmpty()) {
+			PrioritizedTask<?> task = (PrioritizedTask<?>)queue.poll();
+			assertEquals(model.predict(task.getFeatures()), task.getPriority(), 0);
+			if(previous != null) {
+				assertTrue(previous.getPriority() >= task.getPriority());
+				if(previous.getPriority() == task.getPriority())
+					assertTrue(tasks.indexOf(previous) < tasks.indexOf(task));
+			}
+			previous = task;
+		}
+	}
+}
@@ -0,0 +1,224 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import static in.ac.iitk.cse.putwb.experiment.TestFixtures.TIMEOUT;
+import static in.ac.iitk.cse.putwb.experiment.TestFixtures.createResult;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import in.ac.iitk.cse.putwb.log.BasicLogger;
+
+/**
+ * Tests for {@link EventDispatcher}. The experiment is never asked for its progress here, since no progress updates are sent,
+ * so the dispatcher is created without an experiment.
+ * @author Saurabh Srivastava
+ *
+ */
+public class EventDispatcherTest {
+
+	/**
+	 * A listener that notes the notifications delivered to it, and holds up the delivery thread in the first notification till it is released
+	 */
+	private static class RecordingListener implements ExperimentListener {
+
+		/**
+		 * Counted down once the delivery thread is held up in the first notification
+		 */
+		private CountDownLatch blocked = new CountDownLatch(1);
+
+		/**
+		 * Counted down once a final stage is delivered
+		 */
+		private CountDownLatch finished = new CountDownLatch(1);
+
+		/**
+		 * The notifications delivered, in their order
+		 */
+		private List<String> notifications = new ArrayList<String>();
+
+		/**
+		 * Counted down to let the delivery thread go ahead
+		 */
+		private CountDownLatch released = new CountDownLatch(1);
+
+		/**
+		 * Waits till a final stage is delivered, and returns the notifications delivered till then
+		 * @return The notifications
+		 * @throws InterruptedException If the test is interrupted
+		 */
+		List<String> awaitFinished() throws InterruptedException {
+			assertTrue("The final stage was not delivered", finished.await(TIMEOUT, TimeUnit.MILLISECONDS));
+			synchronized(notifications) {
+				return new ArrayList<String>(notifications);
+			}
+		}
+
+		/**
+		 * Waits till the delivery thread is held up in the first notification
+		 * @throws InterruptedException If the test is interrupted
+		 */
+		void awaitBlocked() throws InterruptedException {
+			assertTrue("No notification was delivered", blocked.await(TIMEOUT, TimeUnit.MILLISECONDS));
+		}
+
+		/* (non-Javadoc)
+		 * @see in.ac.iitk.cse.putwb.experiment.ExperimentListener#errorOccurred(in.ac.iitk.cse.putwb.experiment.PUTExperiment, java.lang.String, java.lang.Exception)
+		 */
+		@Override
+		public void errorOccurred(PUTExperiment experiment, String message, Exception cause) {
+			record("error " + message);
+		}
+
+		/* (non-Javadoc)
+		 * @see in.ac.iitk.cse.putwb.experiment.ExperimentListener#progressUpdated(in.ac.iitk.cse.putwb.experiment.PUTExperiment, in.ac.iitk.cse.putwb.experiment.ExperimentProgress)
+		 */
+		@Override
+		public void progressUpdated(PUTExperiment experiment, ExperimentProgress progress) {
+			record("progress");
+		}
+
+		/**
+		 * Notes a notification, and holds up the delivery thread if it is the first one
+		 * @param notification The notification
+		 */
+		private void record(String notification) {
+			boolean first;
+			synchronized(notifications) {
+				first = notifications.isEmpty();
+				notifications.add(notification);
+			}
+			if(first) {
+				blocked.countDown();
+				try {
+					released.await(TIMEOUT, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					// The rest of the notifications are delivered anyway
+				}
+			}
+		}
+
+		/**
+		 * Lets the delivery thread go ahead
+		 */
+		void release() {
+			released.countDown();
+		}
+
+		/* (non-Javadoc)
+		 * @see in.ac.iitk.cse.putwb.experiment.ExperimentListener#stageChanged(in.ac.iitk.cse.putwb.experiment.PUTExperiment, in.ac.iitk.cse.putwb.experiment.ExperimentProgress)
+		 */
+		@Override
+		public void stageChanged(PUTExperiment experiment, ExperimentProgress progress) {
+			record("stage " + progress.getStage());
+			if(ExperimentProgress.isFinalStage(progress.getStage()))
+				finished.countDown();
+		}
+
+		/* (non-Javadoc)
+		 * @see in.ac.iitk.cse.putwb.experiment.ExperimentListener#tasksCompleted(in.ac.iitk.cse.putwb.experiment.PUTExperiment, java.util.List)
+		 */
+		@Override
+		public void tasksCompleted(PUTExperiment experiment, List<Stats> stats) {
+			record("tasks " + stats.size());
+		}
+	}
+
+	/**
+	 * Creates the progress of an experiment in a stage
+	 * @param stage The stage
+	 * @return The progress
+	 */
+	private static ExperimentProgress progress(short stage) {
+		return new ExperimentProgress(stage, -1, -1, -1, -1, Double.NaN, Double.NaN, Double.NaN, Double.NaN, false);
+	}
+
+	/**
+	 * The dispatcher under test
+	 */
+	private EventDispatcher dispatcher;
+
+	/**
+	 * The listener of the dispatcher
+	 */
+	private RecordingListener listener;
+
+	/**
+	 * The error messages logged by the dispatcher
+	 */
+	private ByteArrayOutputStream errors;
+
+	/**
+	 * Creates a dispatcher with a recording listener
+	 */
+	@Before
+	public void createDispatcher() {
+		errors = new ByteArrayOutputStream();
+		dispatcher = new EventDispatcher(null, BasicLogger.getLogger(new PrintStream(new ByteArrayOutputStream()), new PrintStream(errors)));
+		listener = new RecordingListener();
+		dispatcher.addListener(listener);
+	}
+
+	/**
+	 * The notifications are delivered in their order, the completed tasks queued one after another being delivered together
+	 * @throws InterruptedException If the test is interrupted
+	 */
+	@Test
+	public void deliversInOrderAndBatchesTasks() throws InterruptedException {
+		dispatcher.stageChanged(progress(ExperimentProgress.STAGE_GENERATING));
+		listener.awaitBlocked();
+		for(int i = 0; i < 3; i++)
+			dispatcher.taskCompleted(createResult(i, 50, 0));
+		dispatcher.errorOccurred("glitch", new Exception());
+		for(int i = 3; i < 5; i++)
+			dispatcher.taskCompleted(createResult(i, 50, 0));
+		dispatcher.stageChanged(progress(ExperimentProgress.STAGE_COMPLETED));
+		listener.release();
+		assertEquals(Arrays.asList("stage 1", "tasks 3", "error glitch", "tasks 2", "stage 6"), listener.awaitFinished());
+	}
+
+	/**
+	 * A stage change queued right after another pending stage change replaces it, but not one queued after other notifications
+	 * @throws InterruptedException If the test is interrupted
+	 */
+	@Test
+	public void coalescesConsecutiveStageChanges() throws InterruptedException {
+		dispatcher.stageChanged(progress(ExperimentProgress.STAGE_GENERATING));
+		listener.awaitBlocked();
+		dispatcher.stageChanged(progress(ExperimentProgress.STAGE_RACING));
+		dispatcher.stageChanged(progress(ExperimentProgress.STAGE_LEARNING));
+		dispatcher.taskCompleted(createResult(0, 50, 0));
+		dispatcher.stageChanged(progress(ExperimentProgress.STAGE_WRITING));
+		dispatcher.stageChanged(progress(ExperimentProgress.STAGE_COMPLETED));
+		listener.release();
+		assertEquals(Arrays.asList("stage 1", "stage 3", "tasks 1", "stage 6"), listener.awaitFinished());
+	}
+
+	/**
+	 * The completed tasks beyond the limit of pending ones are dropped, counted and reported, while the other notifications still get through
+	 * @throws InterruptedException If the test is interrupted
+	 */
+	@Test
+	public void dropsTasksBeyondLimit() throws InterruptedException {
+		dispatcher.stageChanged(progress(ExperimentProgress.STAGE_LEARNING));
+		listener.awaitBlocked();
+		Stats stat = createResult(0, 50, 0);
+		for(int i = 0; i < EventDispatcher.MAX_PENDING_TASKS + 25; i++)
+			dispatcher.taskCompleted(stat);
+		dispatcher.stageChanged(progress(ExperimentProgress.STAGE_COMPLETED));
+		assertEquals(25, dispatcher.getNumOfDroppedTasks());
+		listener.release();
+		assertEquals(Arrays.asList("stage 3", "tasks " + EventDispatcher.MAX_PENDING_TASKS, "stage 6"), listener.awaitFinished());
+		assertTrue(new String(errors.toByteArray(), StandardCharsets.UTF_8).contains("25 completed learning tasks were not delivered"));
+	}
+}
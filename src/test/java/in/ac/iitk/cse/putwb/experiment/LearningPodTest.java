@@ -0,0 +1,106 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import static in.ac.iitk.cse.putwb.experiment.TestFixtures.partition;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import in.ac.iitk.cse.putwb.classify.DataClassifier;
+import in.ac.iitk.cse.putwb.classify.Dataset;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+
+/**
+ * Tests for {@link LearningPod}, evaluating a partition against several targets
+ * @author Saurabh Srivastava
+ *
+ */
+public class LearningPodTest {
+
+	/**
+	 * The number of folds for cross validation
+	 */
+	private static final int K = 3;
+
+	/**
+	 * Creates the fragmented dataset of the partition {1, 2}, with two numeric attributes, then an additional target with three values,
+	 * and the class attribute with two values at the end
+	 * @return The dataset
+	 */
+	private static Dataset createDataset() {
+		ArrayList<Attribute> attributes = new ArrayList<Attribute>();
+		attributes.add(new Attribute("a1"));
+		attributes.add(new Attribute("a2"));
+		attributes.add(new Attribute("target", Arrays.asList("X", "Y", "Z")));
+		attributes.add(new Attribute("cls", Arrays.asList("A", "B")));
+		Instances instances = new Instances("test", attributes, 90);
+		instances.setClassIndex(3);
+		for(int row = 0; row < 90; row++) {
+			// The class follows the first attribute, and the target the second one, with a few exceptions
+			int target = row % 3;
+			int cls = row < 45 ? 0 : 1;
+			instances.add(new DenseInstance(1, new double[] {row, target * 10 + row % 7, row % 11 == 0 ? (target + 1) % 3 : target, row % 13 == 0 ? 1 - cls : cls}));
+		}
+		return new Dataset(instances, partition(1, 2).toString());
+	}
+
+	/**
+	 * Evaluates a classifier alone
+	 * @param classifier The classifier
+	 * @return The stats of the evaluation
+	 * @throws Exception If the evaluation runs into a glitch
+	 */
+	private static Stats evaluateAlone(DataClassifier classifier) throws Exception {
+		return new LearningPod(classifier).call();
+	}
+
+	/**
+	 * Evaluating a partition against an additional target gives the same stats, against the class attribute and against the target,
+	 * as evaluating it against each of them alone
+	 * @throws Exception If the evaluation runs into a glitch
+	 */
+	@Test
+	public void targetStatsMatchSeparateEvaluations() throws Exception {
+		DataClassifier classifier = new DataClassifier(DataClassifier.C_J48, createDataset(), K);
+		LearningPod pod = new LearningPod(classifier);
+		pod.setTargets(2, 1);
+		Stats stat = pod.call();
+		assertFalse(stat.isTimedOut());
+		assertEquals(partition(1, 2), stat.getPartition());
+
+		Stats expected = evaluateAlone(classifier.selectTarget(2, 3));
+		assertEquals(expected.getAccuracy(), stat.getAccuracy(), 0);
+		assertArrayEquals(expected.getTp(), stat.getTp(), 0);
+
+		Stats[] targetStats = stat.getTargetStats();
+		assertEquals(1, targetStats.length);
+		Stats expectedTarget = evaluateAlone(classifier.selectTarget(2, 2));
+		assertEquals(partition(1, 2), targetStats[0].getPartition());
+		assertEquals(3, targetStats[0].getTp().length);
+		assertEquals(expectedTarget.getAccuracy(), targetStats[0].getAccuracy(), 0);
+		assertArrayEquals(expectedTarget.getTp(), targetStats[0].getTp(), 0);
+		assertNull(targetStats[0].getTargetStats());
+	}
+
+	/**
+	 * The stats against the class attribute carry the time of the whole task, and the stats against a target the time of its own evaluation
+	 * @throws Exception If the evaluation runs into a glitch
+	 */
+	@Test
+	public void classStatsCarryWholeTaskTime() throws Exception {
+		LearningPod pod = new LearningPod(new DataClassifier(DataClassifier.C_J48, createDataset(), K));
+		pod.setTargets(2, 1);
+		Stats stat = pod.call();
+		assertEquals(pod.getTime(), stat.getTime());
+		assertTrue(stat.getTargetStats()[0].getTime() > 0);
+		assertTrue(stat.getTargetStats()[0].getTime() < stat.getTime());
+	}
+}
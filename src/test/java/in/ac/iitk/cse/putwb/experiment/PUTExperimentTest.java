@@ -0,0 +1,102 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import static in.ac.iitk.cse.putwb.experiment.TestFixtures.createResult;
+import static in.ac.iitk.cse.putwb.experiment.TestFixtures.partition;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for the racing of the partitions of a {@link PUTExperiment}
+ * @author Saurabh Srivastava
+ *
+ */
+public class PUTExperimentTest {
+
+	/**
+	 * Creates the partitions {0, 1}, {1, 2} and so on, in a random order
+	 * @param numOfPartitions The number of partitions
+	 * @param seed The seed for the order
+	 * @return The partitions, in the order they are scheduled
+	 */
+	private static Set<Set<Integer>> createShuffledPartitions(int numOfPartitions, long seed) {
+		List<Set<Integer>> partitions = new ArrayList<Set<Integer>>();
+		for(int i = 0; i < numOfPartitions; i++)
+			partitions.add(partition(i, i + 1));
+		Collections.shuffle(partitions, new Random(seed));
+		return new LinkedHashSet<Set<Integer>>(partitions);
+	}
+
+	/**
+	 * Runs a round of racing, in which the accuracy of the partition {i, i + 1} is i
+	 * @param partitions The partitions of the round
+	 * @param eta The factor by which the partitions are cut down
+	 * @param topResultsLimit The number of results to retain, if set
+	 * @return The promoted partitions
+	 */
+	private static Set<Set<Integer>> runRound(Set<Set<Integer>> partitions, double eta, int topResultsLimit) {
+		TopResults round = new TopResults(PUTExperiment.getNumToPromote(partitions.size(), eta, topResultsLimit), Stats.ACCURACY, null);
+		for(Set<Integer> partition : partitions) {
+			int first = partition.iterator().next();
+			round.add(createResult(first, first, 0));
+		}
+		return PUTExperiment.promote(partitions, round);
+	}
+
+	/**
+	 * Every round promotes a fraction <i>1/eta</i> of the partitions (rounded up), but never fewer than the results to retain, or one partition
+	 */
+	@Test
+	public void promotesFractionOfPartitions() {
+		assertEquals(9, PUTExperiment.getNumToPromote(27, 3, 0));
+		assertEquals(4, PUTExperiment.getNumToPromote(10, 3, 0));
+		assertEquals(5, PUTExperiment.getNumToPromote(10, 2, 0));
+		assertEquals(1, PUTExperiment.getNumToPromote(2, 3, 0));
+		assertEquals(1, PUTExperiment.getNumToPromote(1, 3, 0));
+		assertEquals(20, PUTExperiment.getNumToPromote(27, 3, 20));
+	}
+
+	/**
+	 * The promoted partitions are the best ones of the round, and keep the order in which they were scheduled
+	 */
+	@Test
+	public void promotesTheBestInScheduledOrder() {
+		Set<Set<Integer>> partitions = createShuffledPartitions(27, 3);
+		Set<Set<Integer>> survivors = runRound(partitions, 3, 0);
+		assertEquals(9, survivors.size());
+		List<Set<Integer>> expected = new ArrayList<Set<Integer>>();
+		for(Set<Integer> partition : partitions)
+			if(partition.iterator().next() >= 18)
+				expected.add(partition);
+		assertEquals(expected, new ArrayList<Set<Integer>>(survivors));
+	}
+
+	/**
+	 * Successive rounds cut the partitions down to the best one, or to the results to retain
+	 */
+	@Test
+	public void successiveRoundsLeaveTheBest() {
+		Set<Set<Integer>> partitions = createShuffledPartitions(81, 5);
+		int[] expectedSizes = {27, 9, 3, 1};
+		for(int expectedSize : expectedSizes) {
+			partitions = runRound(partitions, 3, 0);
+			assertEquals(expectedSize, partitions.size());
+		}
+		assertEquals(Collections.singleton(partition(80, 81)), partitions);
+
+		partitions = createShuffledPartitions(81, 5);
+		while(PUTExperiment.getNumToPromote(partitions.size(), 3, 5) < partitions.size())
+			partitions = runRound(partitions, 3, 5);
+		assertEquals(5, partitions.size());
+		for(Set<Integer> partition : partitions)
+			assertTrue(partition.iterator().next() >= 76);
+	}
+}
@@ -0,0 +1,191 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import static in.ac.iitk.cse.putwb.experiment.TestFixtures.TIMEOUT;
+import static in.ac.iitk.cse.putwb.experiment.TestFixtures.awaitBlocked;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link PauseController}
+ * @author Saurabh Srivastava
+ *
+ */
+public class PauseControllerTest {
+
+	/**
+	 * Starts a thread that waits while the experiment is paused, and notes once it goes ahead
+	 * @param controller The pause controller
+	 * @param resumed The flag to set once the thread goes ahead
+	 * @return The started thread
+	 */
+	private static Thread awaitResumeInBackground(PauseController controller, AtomicBoolean resumed) {
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					controller.awaitResume();
+					resumed.set(true);
+				} catch (InterruptedException e) {
+					// The flag stays unset
+				}
+			}
+		});
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * A producer waits while the experiment is paused, and goes ahead once it is resumed
+	 * @throws InterruptedException If the test is interrupted
+	 */
+	@Test
+	public void blocksWhilePausedTillResumed() throws InterruptedException {
+		PauseController controller = new PauseController();
+		assertTrue(controller.pause());
+		assertTrue(controller.isPaused());
+		AtomicBoolean resumed = new AtomicBoolean(false);
+		Thread producer = awaitResumeInBackground(controller, resumed);
+		awaitBlocked(producer);
+		assertFalse(resumed.get());
+		assertTrue(controller.resume() >= 0);
+		producer.join(TIMEOUT);
+		assertTrue(resumed.get());
+		assertFalse(controller.isPaused());
+	}
+
+	/**
+	 * A producer does not wait if the experiment is not paused
+	 * @throws InterruptedException If the test is interrupted
+	 */
+	@Test
+	public void doesNotBlockWhenNotPaused() throws InterruptedException {
+		PauseController controller = new PauseController();
+		controller.awaitResume();
+		assertTrue(controller.awaitResume(0, TimeUnit.MILLISECONDS));
+	}
+
+	/**
+	 * A timed wait gives up if the experiment is still paused once the time is up
+	 * @throws InterruptedException If the test is interrupted
+	 */
+	@Test
+	public void timedWaitGivesUpWhilePaused() throws InterruptedException {
+		PauseController controller = new PauseController();
+		controller.pause();
+		assertFalse(controller.awaitResume(0, TimeUnit.MILLISECONDS));
+		assertFalse(controller.awaitResume(20, TimeUnit.MILLISECONDS));
+		controller.resume();
+		assertTrue(controller.awaitResume(20, TimeUnit.MILLISECONDS));
+	}
+
+	/**
+	 * A producer interrupted while the experiment is paused stops waiting
+	 * @throws InterruptedException If the test is interrupted
+	 */
+	@Test
+	public void interruptStopsWaiting() throws InterruptedException {
+		PauseController controller = new PauseController();
+		controller.pause();
+		AtomicBoolean resumed = new AtomicBoolean(false);
+		Thread producer = awaitResumeInBackground(controller, resumed);
+		awaitBlocked(producer);
+		producer.interrupt();
+		producer.join(TIMEOUT);
+		assertFalse(producer.isAlive());
+		assertFalse(resumed.get());
+		assertTrue(controller.isPaused());
+	}
+
+	/**
+	 * Pausing a paused experiment, or resuming one that is not paused, does nothing
+	 */
+	@Test
+	public void repeatedPauseAndResumeAreNoOps() {
+		PauseController controller = new PauseController();
+		assertEquals(-1, controller.resume());
+		assertTrue(controller.pause());
+		assertFalse(controller.pause());
+		assertTrue(controller.resume() >= 0);
+		assertEquals(-1, controller.resume());
+	}
+
+	/**
+	 * The tasks put aside while the experiment is paused are resubmitted on resumption, in the order they were put aside, and only once
+	 */
+	@Test
+	public void resubmitsDeferredTasksInOrder() {
+		PauseController controller = new PauseController();
+		List<Integer> resubmitted = new ArrayList<Integer>();
+		assertFalse(controller.deferWhilePaused(resubmission(resubmitted, 0)));
+		controller.pause();
+		for(int i = 1; i <= 3; i++)
+			assertTrue(controller.deferWhilePaused(resubmission(resubmitted, i)));
+		assertTrue(resubmitted.isEmpty());
+		controller.resume();
+		assertEquals(Arrays.asList(1, 2, 3), resubmitted);
+		controller.pause();
+		controller.resume();
+		assertEquals(Arrays.asList(1, 2, 3), resubmitted);
+	}
+
+	/**
+	 * Creates an action that notes its resubmission
+	 * @param resubmitted The list to note the resubmission in
+	 * @param task The number of the task
+	 * @return The action
+	 */
+	private static Runnable resubmission(List<Integer> resubmitted, int task) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				resubmitted.add(task);
+			}
+		};
+	}
+
+	/**
+	 * A pausable queue holds its tasks back while the experiment is paused, and hands them out in their order once it is resumed
+	 * @throws InterruptedException If the test is interrupted
+	 */
+	@Test
+	public void pausableQueueHoldsTasksBackWhilePaused() throws InterruptedException {
+		PauseController controller = new PauseController();
+		PriorityBlockingQueue<Integer> queue = controller.createPausableQueue();
+		controller.pause();
+		queue.add(2);
+		queue.add(1);
+		assertNull(queue.poll(20, TimeUnit.MILLISECONDS));
+		assertEquals(2, queue.size());
+		AtomicReference<Integer> taken = new AtomicReference<Integer>();
+		Thread poolThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					taken.set(queue.take());
+				} catch (InterruptedException e) {
+					// Nothing taken
+				}
+			}
+		});
+		poolThread.start();
+		awaitBlocked(poolThread);
+		assertNull(taken.get());
+		assertEquals(2, queue.size());
+		controller.resume();
+		poolThread.join(TIMEOUT);
+		assertEquals(Integer.valueOf(1), taken.get());
+		assertEquals(Integer.valueOf(2), queue.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+	}
+}
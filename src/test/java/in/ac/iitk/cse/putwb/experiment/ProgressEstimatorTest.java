@@ -0,0 +1,101 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ProgressEstimator}
+ * @author Saurabh Srivastava
+ *
+ */
+public class ProgressEstimatorTest {
+
+	/**
+	 * The number of nano seconds in a milli second
+	 */
+	private static final long MILLIS = 1000000;
+
+	/**
+	 * Before any task completes, there are no estimates
+	 */
+	@Test
+	public void noEstimatesBeforeFirstCompletion() {
+		ProgressEstimator estimator = new ProgressEstimator();
+		assertEquals(0, estimator.getNumOfTasksCompleted());
+		assertTrue(estimator.getThroughput() < 0);
+		assertTrue(estimator.getEstimatedTimeRemaining(10) < 0);
+		assertTrue(estimator.getTaskTime(50) < 0);
+	}
+
+	/**
+	 * The percentiles of the task times are the nearest ranks among the times of the completed tasks, whatever the order of their completion
+	 */
+	@Test
+	public void percentilesAreNearestRanks() {
+		ProgressEstimator estimator = new ProgressEstimator();
+		for(long time = 100; time >= 1; time--)
+			estimator.taskCompleted(time * MILLIS);
+		assertEquals(100, estimator.getNumOfTasksCompleted());
+		assertEquals(0.001, estimator.getTaskTime(0), 0);
+		assertEquals(0.050, estimator.getTaskTime(50), 0);
+		assertEquals(0.095, estimator.getTaskTime(95), 0);
+		assertEquals(0.100, estimator.getTaskTime(100), 0);
+	}
+
+	/**
+	 * Beyond the size of the reservoir, the task times are sampled, and the percentiles stay close to those of all the task times
+	 */
+	@Test
+	public void percentilesAreSampledBeyondReservoir() {
+		ProgressEstimator estimator = new ProgressEstimator();
+		Random random = new Random(6);
+		for(int i = 0; i < 100000; i++)
+			estimator.taskCompleted((1 + random.nextInt(1000)) * MILLIS);
+		assertEquals(100000, estimator.getNumOfTasksCompleted());
+		assertEquals(0.5, estimator.getTaskTime(50), 0.05);
+		assertEquals(0.95, estimator.getTaskTime(95), 0.05);
+	}
+
+	/**
+	 * Once tasks complete, the throughput is positive and the time remaining is proportional to the number of tasks remaining
+	 */
+	@Test
+	public void estimatesFollowCompletions() {
+		ProgressEstimator estimator = new ProgressEstimator();
+		for(int i = 0; i < 10; i++)
+			estimator.taskCompleted(MILLIS);
+		assertTrue(estimator.getThroughput() > 0);
+		assertEquals(0, estimator.getEstimatedTimeRemaining(0), 0);
+		assertTrue(estimator.getEstimatedTimeRemaining(10) > 0);
+	}
+
+	/**
+	 * The reused outcomes count as completed tasks, but do not take part in the distribution of task times
+	 */
+	@Test
+	public void reusedTasksCountWithoutTimes() {
+		ProgressEstimator estimator = new ProgressEstimator();
+		estimator.taskReused();
+		assertEquals(1, estimator.getNumOfTasksCompleted());
+		assertTrue(estimator.getTaskTime(50) < 0);
+		assertTrue(estimator.getThroughput() < 0);
+		estimator.taskCompleted(20 * MILLIS);
+		estimator.taskReused();
+		assertEquals(3, estimator.getNumOfTasksCompleted());
+		assertEquals(0.020, estimator.getTaskTime(0), 0);
+	}
+
+	/**
+	 * The durations are formatted as <i>hh:mm:ss</i>, prefixed with the days if any
+	 */
+	@Test
+	public void formatsDurations() {
+		assertEquals("00:00:00", ProgressEstimator.formatDuration(0));
+		assertEquals("01:01:01", ProgressEstimator.formatDuration(3661));
+		assertEquals("2d 00:00:59", ProgressEstimator.formatDuration(2 * 86400 + 59));
+	}
+}
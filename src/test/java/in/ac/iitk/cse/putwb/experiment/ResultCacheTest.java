@@ -0,0 +1,223 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import static in.ac.iitk.cse.putwb.experiment.TestFixtures.partition;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import weka.classifiers.trees.J48;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+
+/**
+ * Tests for {@link ResultCache}
+ * @author Saurabh Srivastava
+ *
+ */
+public class ResultCacheTest {
+
+	/**
+	 * Asserts that two outcomes carry the same metrics
+	 * @param expected The expected outcome
+	 * @param actual The actual outcome
+	 */
+	private static void assertSameOutcome(Stats expected, Stats actual) {
+		assertEquals(expected.getTime(), actual.getTime());
+		assertEquals(expected.getAccuracy(), actual.getAccuracy(), 0);
+		assertArrayEquals(expected.getTp(), actual.getTp(), 0);
+		assertArrayEquals(expected.getFp(), actual.getFp(), 0);
+		assertArrayEquals(expected.getFn(), actual.getFn(), 0);
+		assertArrayEquals(expected.getPrecision(), actual.getPrecision(), 0);
+		assertArrayEquals(expected.getRecall(), actual.getRecall(), 0);
+		assertArrayEquals(expected.getRoc(), actual.getRoc(), 0);
+		assertArrayEquals(expected.getPr(), actual.getPr(), 0);
+	}
+
+	/**
+	 * Creates a small dataset with two numeric attributes and a nominal class
+	 * @param shift A value added to the first attribute of every row, to tell datasets apart
+	 * @return The dataset
+	 */
+	private static Instances createDataset(double shift) {
+		ArrayList<Attribute> attributes = new ArrayList<Attribute>();
+		attributes.add(new Attribute("a0"));
+		attributes.add(new Attribute("a1"));
+		attributes.add(new Attribute("cls", Arrays.asList("A", "B")));
+		Instances dataset = new Instances("test", attributes, 4);
+		dataset.setClassIndex(2);
+		for(int i = 0; i < 4; i++)
+			dataset.add(new DenseInstance(1, new double[] {i + shift, 2 * i, i % 2}));
+		return dataset;
+	}
+
+	/**
+	 * Creates a single row dataset with a number of numeric attributes and a nominal class, with a header as large as the number of attributes makes it
+	 * @param numOfAttributes The number of numeric attributes
+	 * @param lastName The name of the last numeric attribute, to tell datasets apart
+	 * @return The dataset
+	 */
+	private static Instances createWideDataset(int numOfAttributes, String lastName) {
+		ArrayList<Attribute> attributes = new ArrayList<Attribute>();
+		for(int i = 0; i < numOfAttributes - 1; i++)
+			attributes.add(new Attribute("numeric_attribute_with_a_long_name_" + i));
+		attributes.add(new Attribute(lastName));
+		attributes.add(new Attribute("cls", Arrays.asList("A", "B")));
+		Instances dataset = new Instances("wide", attributes, 1);
+		dataset.setClassIndex(numOfAttributes);
+		dataset.add(new DenseInstance(1, new double[numOfAttributes + 1]));
+		return dataset;
+	}
+
+	/**
+	 * Creates the outcome of a learning task, over two classes
+	 * @param seed A value the metrics are derived from, to tell outcomes apart
+	 * @return The outcome
+	 */
+	private static Stats createOutcome(int seed) {
+		Stats stat = new Stats();
+		stat.setTime(1000000L * seed);
+		stat.setAccuracy(50 + seed);
+		stat.setTp(new double[] {0.1 * seed, 0.2});
+		stat.setFp(new double[] {0.3, 0.4 * seed});
+		stat.setFn(new double[] {0.5, 0.6});
+		stat.setPrecision(new double[] {0.7, 0.8});
+		stat.setRecall(new double[] {0.9, 1.0});
+		stat.setRoc(new double[] {Double.NaN, 0.75});
+		stat.setPr(new double[] {0.25, Double.NaN});
+		return stat;
+	}
+
+	/**
+	 * The folder for the cache files, deleted after every test
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * The outcomes put in the cache are read back the same, after the cache is closed and opened again
+	 * @throws IOException If the cache file could not be used
+	 */
+	@Test
+	public void outcomesSurviveReopening() throws IOException {
+		File file = new File(folder.getRoot(), "cache.bin");
+		byte[] fingerprint = ResultCache.createFingerprint(createDataset(0), J48.class, new String[] {"-C", "0.25"}, 10, 1, 1);
+		ResultCache cache = new ResultCache(file);
+		cache.put(ResultCache.createKey(fingerprint, partition(1, 2)), createOutcome(1));
+		cache.put(ResultCache.createKey(fingerprint, partition(2, 3)), createOutcome(2));
+		cache.close();
+
+		cache = new ResultCache(file);
+		assertEquals(2, cache.size());
+		assertSameOutcome(createOutcome(1), cache.get(ResultCache.createKey(fingerprint, partition(1, 2))));
+		assertSameOutcome(createOutcome(2), cache.get(ResultCache.createKey(fingerprint, partition(2, 3))));
+		assertNull(cache.get(ResultCache.createKey(fingerprint, partition(1, 3))));
+		cache.close();
+	}
+
+	/**
+	 * An outcome already cached is not replaced, and the outcome of a timed out task is not cached
+	 * @throws IOException If the cache file could not be used
+	 */
+	@Test
+	public void keepsTheFirstOutcomeAndSkipsTimedOutTasks() throws IOException {
+		ResultCache cache = new ResultCache(new File(folder.getRoot(), "cache.bin"));
+		byte[] fingerprint = ResultCache.createFingerprint(createDataset(0), J48.class, null, 10, 1, 1);
+		byte[] key = ResultCache.createKey(fingerprint, partition(1, 2));
+		cache.put(key, createOutcome(1));
+		cache.put(key, createOutcome(2));
+		Stats timedOut = createOutcome(3);
+		timedOut.setTimedOut(true);
+		cache.put(ResultCache.createKey(fingerprint, partition(2, 3)), timedOut);
+
+		assertEquals(1, cache.size());
+		assertSameOutcome(createOutcome(1), cache.get(key));
+		assertNull(cache.get(ResultCache.createKey(fingerprint, partition(2, 3))));
+		cache.close();
+	}
+
+	/**
+	 * A partially written record at the end of the file (e.g. after a crash) is discarded when the cache is opened, and the cache stays usable
+	 * @throws IOException If the cache file could not be used
+	 */
+	@Test
+	public void discardsPartialRecordAtTheEnd() throws IOException {
+		File file = new File(folder.getRoot(), "cache.bin");
+		byte[] fingerprint = ResultCache.createFingerprint(createDataset(0), J48.class, null, 10, 1, 1);
+		ResultCache cache = new ResultCache(file);
+		cache.put(ResultCache.createKey(fingerprint, partition(1, 2)), createOutcome(1));
+		cache.put(ResultCache.createKey(fingerprint, partition(2, 3)), createOutcome(2));
+		cache.close();
+		try (RandomAccessFile store = new RandomAccessFile(file, "rw")) {
+			store.setLength(store.length() - 10);
+		}
+
+		cache = new ResultCache(file);
+		assertEquals(1, cache.size());
+		assertSameOutcome(createOutcome(1), cache.get(ResultCache.createKey(fingerprint, partition(1, 2))));
+		cache.put(ResultCache.createKey(fingerprint, partition(2, 3)), createOutcome(4));
+		cache.close();
+
+		cache = new ResultCache(file);
+		assertEquals(2, cache.size());
+		assertSameOutcome(createOutcome(4), cache.get(ResultCache.createKey(fingerprint, partition(2, 3))));
+		cache.close();
+	}
+
+	/**
+	 * A dataset whose header is longer than the 65535 bytes a modified UTF-8 string can hold is fingerprinted in full, and its outcomes are cached
+	 * @throws IOException If the cache file could not be used
+	 */
+	@Test
+	public void fingerprintsDatasetWithLargeHeader() throws IOException {
+		Instances dataset = createWideDataset(3000, "last");
+		assertTrue(dataset.stringFreeStructure().toString().getBytes(StandardCharsets.UTF_8).length > 65535);
+		byte[] fingerprint = ResultCache.createFingerprint(dataset, J48.class, null, 10, 1, 1);
+		assertArrayEquals(fingerprint, ResultCache.createFingerprint(createWideDataset(3000, "last"), J48.class, null, 10, 1, 1));
+		// The attribute that tells the datasets apart is past the first 65535 bytes of the header
+		assertFalse(Arrays.equals(fingerprint, ResultCache.createFingerprint(createWideDataset(3000, "other"), J48.class, null, 10, 1, 1)));
+
+		File file = new File(folder.getRoot(), "cache.bin");
+		ResultCache cache = new ResultCache(file);
+		cache.put(ResultCache.createKey(fingerprint, partition(1, 2999)), createOutcome(1));
+		cache.close();
+		cache = new ResultCache(file);
+		assertSameOutcome(createOutcome(1), cache.get(ResultCache.createKey(fingerprint, partition(1, 2999))));
+		cache.close();
+	}
+
+	/**
+	 * The key of a partition does not depend on the order of its attributes, but does depend on everything in the fingerprint
+	 */
+	@Test
+	public void keysFollowTheSettingsOfTheExperiment() {
+		Instances dataset = createDataset(0);
+		byte[] fingerprint = ResultCache.createFingerprint(dataset, J48.class, null, 10, 1, 1);
+		Set<Integer> ordered = partition(1, 2, 3);
+		Set<Integer> unordered = new LinkedHashSet<Integer>(Arrays.asList(3, 1, 2));
+		assertArrayEquals(ResultCache.createKey(fingerprint, ordered), ResultCache.createKey(fingerprint, unordered));
+		assertArrayEquals(fingerprint, ResultCache.createFingerprint(createDataset(0), J48.class, null, 10, 1, 1));
+
+		assertFalse(Arrays.equals(fingerprint, ResultCache.createFingerprint(createDataset(0.5), J48.class, null, 10, 1, 1)));
+		assertFalse(Arrays.equals(fingerprint, ResultCache.createFingerprint(dataset, J48.class, new String[] {"-U"}, 10, 1, 1)));
+		assertFalse(Arrays.equals(fingerprint, ResultCache.createFingerprint(dataset, J48.class, null, 5, 1, 1)));
+		assertFalse(Arrays.equals(fingerprint, ResultCache.createFingerprint(dataset, J48.class, null, 10, 0.5f, 1)));
+		assertFalse(Arrays.equals(fingerprint, ResultCache.createFingerprint(dataset, J48.class, null, 10, 1, 2)));
+		assertFalse(Arrays.equals(ResultCache.createKey(fingerprint, ordered), ResultCache.createKey(fingerprint, partition(1, 2))));
+	}
+}
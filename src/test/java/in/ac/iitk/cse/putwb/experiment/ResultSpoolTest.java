@@ -0,0 +1,140 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import static in.ac.iitk.cse.putwb.experiment.TestFixtures.createResults;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import weka.core.Attribute;
+
+/**
+ * Tests for {@link ResultSpool}
+ * @author Saurabh Srivastava
+ *
+ */
+public class ResultSpoolTest {
+
+	/**
+	 * The header of the result files, for a class with two values
+	 */
+	private static final String HEADER = PUTExperiment.getResultFileHeader(new Attribute("cls", Arrays.asList("A", "B")));
+
+	/**
+	 * Returns the lines of the results in the order of a result file - decreasing accuracies, the timed out tasks at the end, and the ties in the order of collection
+	 * @param results The results, in the order in which they were collected
+	 * @return The expected lines of the result file, header included
+	 */
+	private static List<String> expectedLines(List<Stats> results) {
+		List<Stats> sorted = new ArrayList<Stats>(results);
+		// A stable sort, like the one expected of the spool
+		Collections.sort(sorted, new Comparator<Stats>() {
+			@Override
+			public int compare(Stats o1, Stats o2) {
+				if(o1.isTimedOut() != o2.isTimedOut())
+					return o1.isTimedOut() ? 1 : -1;
+				return Double.compare(o2.getAccuracy(), o1.getAccuracy());
+			}
+		});
+		List<String> lines = new ArrayList<String>();
+		lines.add(HEADER);
+		for(Stats stat : sorted)
+			lines.add(stat.toString());
+		return lines;
+	}
+
+	/**
+	 * Spools the results, and sorts them into a result file
+	 * @param results The results
+	 * @param runSize The maximum number of lines to sort in memory at a time
+	 * @param name The name of the result file
+	 * @return The lines of the result file
+	 * @throws IOException If the files could not be used
+	 */
+	private List<String> spoolAndSort(List<Stats> results, int runSize, String name) throws IOException {
+		File resultFile = new File(folder.getRoot(), name);
+		File spoolFile = ResultSpool.getSpoolFile(resultFile);
+		ResultSpool spool = new ResultSpool(spoolFile, HEADER);
+		for(Stats stat : results)
+			spool.append(stat);
+		assertEquals(results.size(), spool.getNumOfResults());
+		assertEquals(results.size(), spool.sortInto(resultFile, runSize));
+		assertFalse(spoolFile.exists());
+		return Files.readAllLines(resultFile.toPath(), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * The folder for the spool, run and result files, deleted after every test
+	 */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Merging many small sorted runs gives the same (stable) order as sorting all the results in memory, and leaves no run files behind
+	 * @throws IOException If the files could not be used
+	 */
+	@Test
+	public void mergeOfRunsMatchesInMemorySort() throws IOException {
+		List<Stats> results = createResults(503, 11, 0.1);
+		List<String> expected = expectedLines(results);
+		assertEquals(expected, spoolAndSort(results, 7, "merged.csv"));
+		assertEquals(expected, spoolAndSort(results, 1, "single-lines.csv"));
+		assertEquals(expected, spoolAndSort(results, ResultSpool.DEFAULT_RUN_SIZE, "in-memory.csv"));
+		for(String name : folder.getRoot().list())
+			assertFalse(name, name.startsWith("putwb-run-"));
+	}
+
+	/**
+	 * An empty spool sorts into a result file with the header alone
+	 * @throws IOException If the files could not be used
+	 */
+	@Test
+	public void emptySpoolGivesHeaderOnly() throws IOException {
+		assertEquals(Collections.singletonList(HEADER), spoolAndSort(new ArrayList<Stats>(), 3, "empty.csv"));
+	}
+
+	/**
+	 * The results spooled so far can be read at any time, before the spool is sorted
+	 * @throws IOException If the files could not be used
+	 */
+	@Test
+	public void spoolIsReadableWhileCollecting() throws IOException {
+		File spoolFile = ResultSpool.getSpoolFile(new File(folder.getRoot(), "results.csv"));
+		ResultSpool spool = new ResultSpool(spoolFile, HEADER);
+		List<Stats> results = createResults(5, 3, 0.1);
+		for(Stats stat : results.subList(0, 3))
+			spool.append(stat);
+		List<Stats> read = Stats.readStatsFile(spoolFile, 2);
+		assertEquals(3, read.size());
+		for(int i = 0; i < read.size(); i++) {
+			assertEquals(results.get(i).getPartition(), read.get(i).getPartition());
+			assertEquals(results.get(i).getAccuracy(), read.get(i).getAccuracy(), 0);
+		}
+		spool.close();
+		assertTrue(spoolFile.delete());
+	}
+
+	/**
+	 * No results can be appended once the spool is closed
+	 * @throws IOException If the files could not be used
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void rejectsResultsOnceClosed() throws IOException {
+		ResultSpool spool = new ResultSpool(new File(folder.getRoot(), "results.csv.partial"), HEADER);
+		spool.close();
+		spool.append(createResults(1, 1, 0.1).get(0));
+	}
+}
@@ -0,0 +1,337 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import static in.ac.iitk.cse.putwb.experiment.TestFixtures.TIMEOUT;
+import static in.ac.iitk.cse.putwb.experiment.TestFixtures.partition;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import in.ac.iitk.cse.putwb.log.BasicLogger;
+
+/**
+ * Tests for {@link TaskCoordinator}, with the workers simulated over pairs of pipes
+ * @author Saurabh Srivastava
+ *
+ */
+public class TaskCoordinatorTest {
+
+	/**
+	 * The fingerprint of the experiment sent to the workers
+	 */
+	private static final byte[] FINGERPRINT = {1, 2, 3, 4};
+
+	/**
+	 * The options of the experiment sent to the workers
+	 */
+	private static final String[] OPTIONS = {"-f", "data.arff", "-p", "50"};
+
+	/**
+	 * The token shared with the workers
+	 */
+	private static final String TOKEN = "0123456789abcdef";
+
+	/**
+	 * A simulated worker, talking to the coordinator over a pair of pipes
+	 */
+	private static class FakeWorker implements Closeable {
+
+		/**
+		 * A flag that tells if the coordinator has closed the connection
+		 */
+		private AtomicBoolean cutOff;
+
+		/**
+		 * The stream from the coordinator
+		 */
+		private DataInputStream fromCoordinator;
+
+		/**
+		 * The stream to the coordinator
+		 */
+		private DataOutputStream toCoordinator;
+
+		/**
+		 * Connects a worker to a coordinator
+		 * @param coordinator The coordinator
+		 * @param name The name of the worker
+		 * @throws IOException If the pipes could not be connected
+		 */
+		FakeWorker(TaskCoordinator coordinator, String name) throws IOException {
+			PipedInputStream coordinatorIn = new PipedInputStream(1 << 16);
+			PipedOutputStream workerOut = new PipedOutputStream(coordinatorIn);
+			PipedInputStream workerIn = new PipedInputStream(1 << 16);
+			PipedOutputStream coordinatorOut = new PipedOutputStream(workerIn);
+			fromCoordinator = new DataInputStream(workerIn);
+			toCoordinator = new DataOutputStream(workerOut);
+			cutOff = new AtomicBoolean(false);
+			coordinator.serve(coordinatorIn, coordinatorOut, name, new Closeable() {
+				@Override
+				public void close() throws IOException {
+					cutOff.set(true);
+					coordinatorOut.close();
+					coordinatorIn.close();
+				}
+			});
+		}
+
+		/* (non-Javadoc)
+		 * @see java.io.Closeable#close()
+		 */
+		@Override
+		public void close() throws IOException {
+			toCoordinator.close();
+		}
+
+		/**
+		 * Presents a token to the coordinator, and checks the options and the fingerprint sent back
+		 * @param token The token to present
+		 * @throws IOException If the coordinator does not send the options back
+		 */
+		void join(String token) throws IOException {
+			byte[] bytes = token.getBytes(StandardCharsets.UTF_8);
+			toCoordinator.writeInt(TaskCoordinator.HELLO);
+			toCoordinator.writeInt(TaskCoordinator.PROTOCOL_VERSION);
+			toCoordinator.writeInt(bytes.length);
+			toCoordinator.write(bytes);
+			toCoordinator.flush();
+			String[] options = new String[fromCoordinator.readInt()];
+			for(int i = 0; i < options.length; i++)
+				options[i] = fromCoordinator.readUTF();
+			byte[] fingerprint = new byte[fromCoordinator.readInt()];
+			fromCoordinator.readFully(fingerprint);
+			assertArrayEquals(OPTIONS, options);
+			assertArrayEquals(FINGERPRINT, fingerprint);
+		}
+
+		/**
+		 * Requests a batch of tasks
+		 * @param numOfTasks The number of tasks wanted
+		 * @return The tasks leased, in order, each as its id followed by its partition, or <code>null</code> if the worker is told to quit
+		 * @throws IOException If the batch could not be read
+		 */
+		List<Object[]> request(int numOfTasks) throws IOException {
+			toCoordinator.writeInt(TaskCoordinator.REQUEST);
+			toCoordinator.writeInt(numOfTasks);
+			toCoordinator.flush();
+			int message = fromCoordinator.readInt();
+			if(message == TaskCoordinator.DONE)
+				return null;
+			assertEquals(TaskCoordinator.BATCH, message);
+			List<Object[]> batch = new ArrayList<Object[]>();
+			int size = fromCoordinator.readInt();
+			for(int i = 0; i < size; i++) {
+				long id = fromCoordinator.readLong();
+				Set<Integer> partition = TaskCoordinator.readPartition(fromCoordinator);
+				fromCoordinator.readFloat();
+				batch.add(new Object[] {id, partition});
+			}
+			return batch;
+		}
+
+		/**
+		 * Reports the failure of a task
+		 * @param taskId The id of the task
+		 * @param description The description of the failure
+		 * @throws IOException If the failure could not be sent
+		 */
+		void sendFailure(long taskId, String description) throws IOException {
+			toCoordinator.writeInt(TaskCoordinator.FAILURE);
+			toCoordinator.writeLong(taskId);
+			toCoordinator.writeUTF(description);
+			toCoordinator.flush();
+		}
+
+		/**
+		 * Reports the result of a task
+		 * @param taskId The id of the task
+		 * @param accuracy The accuracy to report
+		 * @throws IOException If the result could not be sent
+		 */
+		void sendResult(long taskId, double accuracy) throws IOException {
+			double[] values = {0.5, 0.5};
+			Stats stat = new Stats();
+			stat.setTime(1000);
+			stat.setAccuracy(accuracy);
+			stat.setTp(values);
+			stat.setFp(values);
+			stat.setFn(values);
+			stat.setPrecision(values);
+			stat.setRecall(values);
+			stat.setRoc(values);
+			stat.setPr(values);
+			toCoordinator.writeInt(TaskCoordinator.RESULT);
+			toCoordinator.writeLong(taskId);
+			TaskCoordinator.writeStats(toCoordinator, stat);
+			toCoordinator.flush();
+		}
+	}
+
+	/**
+	 * The coordinator under test
+	 */
+	private TaskCoordinator coordinator;
+
+	/**
+	 * Waits till the coordinator has a given number of pending and leased tasks, so that the test does not depend on the timing of the handlers
+	 * @param pending The number of pending tasks
+	 * @param leased The number of leased tasks
+	 * @throws InterruptedException If the test is interrupted
+	 */
+	private void awaitTasks(int pending, long leased) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		while(coordinator.getNumOfPendingTasks() != pending || coordinator.getNumOfLeasedTasks() != leased) {
+			assertTrue("Expected " + pending + " pending and " + leased + " leased tasks, found " + coordinator.getNumOfPendingTasks() + " and " + coordinator.getNumOfLeasedTasks(),
+					System.currentTimeMillis() < deadline);
+			Thread.sleep(5);
+		}
+	}
+
+	/**
+	 * Creates a coordinator that logs nowhere
+	 */
+	@Before
+	public void createCoordinator() {
+		PrintStream discard = new PrintStream(new ByteArrayOutputStream());
+		coordinator = new TaskCoordinator(OPTIONS, FINGERPRINT, TOKEN, BasicLogger.getLogger(discard, discard));
+	}
+
+	/**
+	 * Closes the coordinator
+	 */
+	@After
+	public void closeCoordinator() {
+		coordinator.close();
+	}
+
+	/**
+	 * The tasks leased to a lost worker go back to the head of the pending tasks, in their original order, and are leased to the next worker
+	 * @throws Exception If the test runs into a glitch
+	 */
+	@Test
+	public void releasesTasksOfLostWorker() throws Exception {
+		List<Set<Integer>> partitions = Arrays.asList(partition(1, 2), partition(3, 4), partition(5, 6));
+		List<Future<Stats>> results = coordinator.submit(partitions, 0, new ProgressEstimator());
+		FakeWorker first = new FakeWorker(coordinator, "first");
+		first.join(TOKEN);
+		List<Object[]> batch = first.request(2);
+		assertEquals(2, batch.size());
+		assertEquals(partitions.get(0), batch.get(0)[1]);
+		assertEquals(partitions.get(1), batch.get(1)[1]);
+		awaitTasks(1, 2);
+
+		// The connection breaks, with the leased tasks not reported
+		first.close();
+		awaitTasks(3, 0);
+		assertTrue(first.cutOff.get());
+		assertEquals(0, coordinator.getNumOfWorkers());
+		for(Future<Stats> result : results)
+			assertFalse(result.isDone());
+
+		FakeWorker second = new FakeWorker(coordinator, "second");
+		second.join(TOKEN);
+		batch = second.request(5);
+		assertEquals(3, batch.size());
+		for(int i = 0; i < batch.size(); i++)
+			assertEquals(partitions.get(i), batch.get(i)[1]);
+		for(int i = 0; i < batch.size(); i++)
+			second.sendResult((Long)batch.get(i)[0], 0.25 * (i + 1));
+		for(int i = 0; i < results.size(); i++) {
+			Stats stat = results.get(i).get(TIMEOUT, TimeUnit.MILLISECONDS);
+			assertEquals(partitions.get(i), stat.getPartition());
+			assertEquals(0.25 * (i + 1), stat.getAccuracy(), 0);
+		}
+		assertEquals(3, coordinator.getNumOfCompletedTasks());
+		awaitTasks(0, 0);
+
+		// A closed coordinator tells the worker to quit
+		coordinator.close();
+		assertEquals(null, second.request(1));
+	}
+
+	/**
+	 * A result for a task not leased to the worker (e.g. one re-leased after the worker was taken to be lost) is ignored
+	 * @throws Exception If the test runs into a glitch
+	 */
+	@Test
+	public void ignoresResultOfTaskNotLeased() throws Exception {
+		List<Future<Stats>> results = coordinator.submit(Arrays.asList(partition(1), partition(2)), 0, new ProgressEstimator());
+		FakeWorker worker = new FakeWorker(coordinator, "worker");
+		worker.join(TOKEN);
+		List<Object[]> batch = worker.request(1);
+		long leasedId = (Long)batch.get(0)[0];
+		worker.sendResult(leasedId + 1, 0.5);
+		worker.sendResult(leasedId, 0.75);
+		assertEquals(0.75, results.get(0).get(TIMEOUT, TimeUnit.MILLISECONDS).getAccuracy(), 0);
+		assertFalse(results.get(1).isDone());
+		assertEquals(1, coordinator.getNumOfCompletedTasks());
+		assertEquals(1, coordinator.getNumOfPendingTasks());
+		worker.close();
+	}
+
+	/**
+	 * A failure reported by a worker fails the result of the task, and the task is not leased again
+	 * @throws Exception If the test runs into a glitch
+	 */
+	@Test
+	public void failsTaskReportedAsFailed() throws Exception {
+		List<Future<Stats>> results = coordinator.submit(Arrays.asList(partition(1, 2)), 0, new ProgressEstimator());
+		FakeWorker worker = new FakeWorker(coordinator, "worker");
+		worker.join(TOKEN);
+		List<Object[]> batch = worker.request(1);
+		worker.sendFailure((Long)batch.get(0)[0], "out of memory");
+		try {
+			results.get(0).get(TIMEOUT, TimeUnit.MILLISECONDS);
+			fail("The result of a failed task must fail");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause().getMessage().contains("out of memory"));
+		}
+		awaitTasks(0, 0);
+		assertEquals(0, worker.request(1).size());
+		worker.close();
+	}
+
+	/**
+	 * A worker presenting a wrong token is cut off before it is told anything about the experiment, and leases no tasks
+	 * @throws Exception If the test runs into a glitch
+	 */
+	@Test
+	public void refusesWrongToken() throws Exception {
+		coordinator.submit(Arrays.asList(partition(1, 2)), 0, new ProgressEstimator());
+		FakeWorker intruder = new FakeWorker(coordinator, "intruder");
+		try {
+			intruder.join("not the token");
+			fail("A worker with a wrong token must not be sent the options");
+		} catch (EOFException e) {
+			// Cut off without a word
+		}
+		assertTrue(intruder.cutOff.get());
+		assertEquals(0, coordinator.getNumOfWorkers());
+		assertEquals(1, coordinator.getNumOfPendingTasks());
+		assertEquals(0, coordinator.getNumOfLeasedTasks());
+	}
+}
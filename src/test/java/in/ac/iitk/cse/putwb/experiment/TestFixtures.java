@@ -0,0 +1,93 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The fixtures shared by the tests of the experiment classes
+ * @author Saurabh Srivastava
+ *
+ */
+public class TestFixtures {
+
+	/**
+	 * The time (in milliseconds) after which a thread that should have finished, or a condition that should have come true, is taken to be stuck
+	 */
+	public static final long TIMEOUT = 10000;
+
+	/**
+	 * Waits till a thread blocks, so that the test does not depend on the timing of the thread
+	 * @param thread The thread
+	 * @throws InterruptedException If the test is interrupted
+	 */
+	public static void awaitBlocked(Thread thread) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		while(thread.getState() != Thread.State.WAITING) {
+			assertTrue("The thread did not block", thread.isAlive() && System.currentTimeMillis() < deadline);
+			Thread.sleep(5);
+		}
+	}
+
+	/**
+	 * Creates the result of a learning task over two classes
+	 * @param first The first attribute of the partition (the partition is {first, first + 1}), which also decides the time taken by the task
+	 * @param accuracy The accuracy
+	 * @param falsePositiveRate The false positive rate of the first class
+	 * @return The result
+	 */
+	public static Stats createResult(int first, double accuracy, double falsePositiveRate) {
+		Stats stat = new Stats();
+		stat.setPartition(partition(first, first + 1));
+		stat.setTime(1000000L * first);
+		stat.setAccuracy(accuracy);
+		double[] values = {0.5, 0.5};
+		stat.setTp(values);
+		stat.setFp(new double[] {falsePositiveRate, 0.5});
+		stat.setFn(values);
+		stat.setPrecision(values);
+		stat.setRecall(values);
+		stat.setRoc(values);
+		stat.setPr(values);
+		return stat;
+	}
+
+	/**
+	 * Creates the results of learning tasks over two classes, with random accuracies and false positive rates (with plenty of ties)
+	 * @param numOfResults The number of results
+	 * @param seed The seed for the metrics
+	 * @param timedOutProportion The (expected) proportion of the results that are timed out
+	 * @return The results, over the partitions {0, 1}, {1, 2} and so on
+	 */
+	public static List<Stats> createResults(int numOfResults, long seed, double timedOutProportion) {
+		Random random = new Random(seed);
+		List<Stats> results = new ArrayList<Stats>();
+		for(int i = 0; i < numOfResults; i++) {
+			Stats stat = createResult(i, random.nextInt(40) * 2.5, random.nextInt(10) / 10.0);
+			stat.setTimedOut(random.nextDouble() < timedOutProportion);
+			results.add(stat);
+		}
+		return results;
+	}
+
+	/**
+	 * Creates a partition
+	 * @param attributes The attribute indices of the partition
+	 * @return The partition
+	 */
+	public static Set<Integer> partition(Integer... attributes) {
+		return new TreeSet<Integer>(Arrays.asList(attributes));
+	}
+
+	/**
+	 * Just to make it out of bounds of other classes
+	 */
+	private TestFixtures() {
+		// Makes it out of bounds for outside classes
+	}
+}
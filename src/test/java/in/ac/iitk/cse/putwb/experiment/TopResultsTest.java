@@ -0,0 +1,151 @@
+package in.ac.iitk.cse.putwb.experiment;
+
+import static in.ac.iitk.cse.putwb.experiment.TestFixtures.createResult;
+import static in.ac.iitk.cse.putwb.experiment.TestFixtures.createResults;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link TopResults}
+ * @author Saurabh Srivastava
+ *
+ */
+public class TopResultsTest {
+
+	/**
+	 * Returns the partitions of some results, in their order
+	 * @param results The results
+	 * @return The partitions
+	 */
+	private static List<Set<Integer>> partitionsOf(List<Stats> results) {
+		List<Set<Integer>> partitions = new ArrayList<Set<Integer>>();
+		for(Stats stat : results)
+			partitions.add(stat.getPartition());
+		return partitions;
+	}
+
+	/**
+	 * Returns the best results by sorting all of them, the ties going to the partitions earlier in dictionary order
+	 * @param results The results
+	 * @param n The number of results to return
+	 * @param metric The metric
+	 * @param classIndex The class index, for a class specific metric
+	 * @return The best results, from the best to the worst
+	 */
+	private static List<Stats> sortAndTruncate(List<Stats> results, int n, short metric, Integer classIndex) {
+		List<Stats> sorted = new ArrayList<Stats>(results);
+		int sign = Stats.isLowerBetter(metric) ? 1 : -1;
+		Collections.sort(sorted, new Comparator<Stats>() {
+			@Override
+			public int compare(Stats o1, Stats o2) {
+				int result = sign * Double.compare(o1.getStatValue(metric, classIndex), o2.getStatValue(metric, classIndex));
+				return result != 0 ? result : PUTExperiment.ATTRIBUTE_SET_COMPARATOR.compare(o1.getPartition(), o2.getPartition());
+			}
+		});
+		return sorted.subList(0, Math.min(n, sorted.size()));
+	}
+
+	/**
+	 * The retained results are the best ones by the metric, the same that sorting all the results would give, whatever the order of their arrival
+	 */
+	@Test
+	public void retainsTheBestIrrespectiveOfArrivalOrder() {
+		List<Stats> results = createResults(1000, 5, 0);
+		List<Set<Integer>> expected = partitionsOf(sortAndTruncate(results, 25, Stats.ACCURACY, null));
+		Random random = new Random(9);
+		for(int attempt = 0; attempt < 5; attempt++) {
+			TopResults top = new TopResults(25, Stats.ACCURACY, null);
+			for(Stats stat : results)
+				top.add(stat);
+			assertEquals(25, top.getNumOfRetainedResults());
+			assertEquals(expected, partitionsOf(top.getBest()));
+			Collections.shuffle(results, random);
+		}
+	}
+
+	/**
+	 * For a metric where lower is better, the lowest values are retained
+	 */
+	@Test
+	public void retainsTheLowestWhenLowerIsBetter() {
+		List<Stats> results = createResults(300, 8, 0);
+		TopResults top = new TopResults(10, Stats.CS_FALSE_POSITIVE, 0);
+		for(Stats stat : results)
+			top.add(stat);
+		assertEquals(partitionsOf(sortAndTruncate(results, 10, Stats.CS_FALSE_POSITIVE, 0)), partitionsOf(top.getBest()));
+	}
+
+	/**
+	 * With fewer results than the capacity, all of them are retained
+	 */
+	@Test
+	public void retainsAllBelowCapacity() {
+		List<Stats> results = createResults(7, 2, 0);
+		TopResults top = new TopResults(10, Stats.ACCURACY, null);
+		for(Stats stat : results)
+			top.add(stat);
+		assertEquals(partitionsOf(sortAndTruncate(results, 10, Stats.ACCURACY, null)), partitionsOf(top.getBest()));
+	}
+
+	/**
+	 * The aggregates cover all the rated results, including the dropped ones, while the timed out results are only counted
+	 */
+	@Test
+	public void aggregatesCoverDroppedResults() {
+		TopResults top = new TopResults(2, Stats.ACCURACY, null);
+		double[] accuracies = {10, 20, 30, 40, 95};
+		for(int i = 0; i < accuracies.length; i++)
+			top.add(createResult(i, accuracies[i], 0));
+		Stats timedOut = createResult(10, 100, 0);
+		timedOut.setTimedOut(true);
+		top.add(timedOut);
+
+		assertEquals(5, top.getNumOfRatedResults());
+		assertEquals(1, top.getNumOfUnratedResults());
+		assertEquals(2, top.getNumOfRetainedResults());
+		assertEquals(Arrays.asList(95.0, 40.0), Arrays.asList(top.getBest().get(0).getAccuracy(), top.getBest().get(1).getAccuracy()));
+		assertEquals(10, top.getMin(), 0);
+		assertEquals(95, top.getMax(), 0);
+		assertEquals(39, top.getMean(), 1e-9);
+		assertEquals(Math.sqrt((29 * 29 + 19 * 19 + 9 * 9 + 1 + 56 * 56) / 5.0), top.getStandardDeviation(), 1e-9);
+		long[] histogram = top.getHistogram();
+		assertEquals(TopResults.NUM_OF_HISTOGRAM_BINS, histogram.length);
+		assertEquals(1, histogram[1]);
+		assertEquals(1, histogram[2]);
+		assertEquals(1, histogram[3]);
+		assertEquals(1, histogram[4]);
+		assertEquals(1, histogram[9]);
+		assertEquals(5, Arrays.stream(histogram).sum());
+	}
+
+	/**
+	 * Without any rated results, the aggregates are undefined
+	 */
+	@Test
+	public void aggregatesAreUndefinedWithoutResults() {
+		TopResults top = new TopResults(3, Stats.ACCURACY, null);
+		assertTrue(Double.isNaN(top.getMean()));
+		assertTrue(Double.isNaN(top.getMin()));
+		assertTrue(Double.isNaN(top.getMax()));
+		assertTrue(Double.isNaN(top.getStandardDeviation()));
+		assertTrue(top.getBest().isEmpty());
+	}
+
+	/**
+	 * The capacity must be positive
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonPositiveCapacity() {
+		new TopResults(0, Stats.ACCURACY, null);
+	}
+}
@@ -0,0 +1,100 @@
+package in.ac.iitk.cse.putwb.partition;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link RandomCombinationGenerator}
+ * @author Saurabh Srivastava
+ *
+ */
+public class RandomCombinationGeneratorTest {
+
+	/**
+	 * Checks that a generation has the requested number of distinct combinations of the right size, none of which violates the privacy exceptions
+	 * @param combinations The generated combinations
+	 * @param n The value of <i>n</i> in <i>C(n, k)</i>
+	 * @param k The value of <i>k</i> in <i>C(n, k)</i>
+	 * @param numberOfCombinations The requested number of combinations
+	 * @param exceptions The privacy exceptions
+	 */
+	private static void assertValid(Set<Set<Integer>> combinations, int n, int k, int numberOfCombinations, Set<Set<Integer>> exceptions) {
+		assertEquals(numberOfCombinations, combinations.size());
+		for(Set<Integer> combination : combinations) {
+			assertEquals(k, combination.size());
+			for(int attribute : combination)
+				assertTrue(attribute >= 1 && attribute <= n);
+			for(Set<Integer> exception : exceptions)
+				assertFalse(combination.containsAll(exception));
+		}
+	}
+
+	/**
+	 * Creates a set of privacy exceptions
+	 * @param exceptions The attributes of every exception
+	 * @return The set of exceptions
+	 */
+	private static Set<Set<Integer>> exceptions(Integer[]... exceptions) {
+		Set<Set<Integer>> set = new HashSet<Set<Integer>>();
+		for(Integer[] exception : exceptions)
+			set.add(new TreeSet<Integer>(Arrays.asList(exception)));
+		return set;
+	}
+
+	/**
+	 * Several generations running at the same time in the same JVM (e.g. for the experiments of a batch) keep their state apart:
+	 * every generation is complete and valid for its own parameters, and the generations with the same seed agree with each other
+	 * @throws Exception If a generation fails
+	 */
+	@Test
+	public void concurrentGenerationsKeepTheirStateApart() throws Exception {
+		int numOfGenerations = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(numOfGenerations);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<Set<Set<Integer>>>> results = new ArrayList<Future<Set<Set<Integer>>>>();
+			for(int i = 0; i < numOfGenerations; i++) {
+				// Half the generations share their parameters and seed, the others differ in all of them
+				int n = i % 2 == 0 ? 30 : 20 + i;
+				int k = i % 2 == 0 ? 3 : 4;
+				int numberOfCombinations = i % 2 == 0 ? 2000 : 500 + 100 * i;
+				long seed = i % 2 == 0 ? 42 : i;
+				Set<Set<Integer>> exceptions = i % 2 == 0 ? exceptions(new Integer[] {1, 2}) : exceptions(new Integer[] {i, i + 1}, new Integer[] {3, 4});
+				results.add(executor.submit(new Callable<Set<Set<Integer>>>() {
+					@Override
+					public Set<Set<Integer>> call() throws Exception {
+						start.await();
+						Set<Set<Integer>> combinations = RandomCombinationGenerator.generateRandomCombinations(n, k, numberOfCombinations, exceptions, null, seed);
+						assertValid(combinations, n, k, numberOfCombinations, exceptions);
+						return combinations;
+					}
+				}));
+			}
+			start.countDown();
+			List<Set<Integer>> reference = new ArrayList<Set<Integer>>(results.get(0).get(1, TimeUnit.MINUTES));
+			for(int i = 1; i < numOfGenerations; i++) {
+				Set<Set<Integer>> combinations = results.get(i).get(1, TimeUnit.MINUTES);
+				if(i % 2 == 0)
+					assertEquals(reference, new ArrayList<Set<Integer>>(combinations));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}